@@ -233,6 +233,30 @@ public interface AppManager
     Resource getAppResource( App app, String pageName )
         throws IOException;
 
+    /**
+     * Looks up the content of the file associated with the app and pageName
+     * in the in-memory app resource cache.
+     *
+     * @param app the app to look up files for
+     * @param pageName the page requested
+     * @return the cached content, or null if the file is not cached
+     */
+    AppResourceContent getCachedAppResourceContent( App app, String pageName );
+
+    /**
+     * Loads the content of a file looked up with
+     * {@link #getAppResource(App, String)} into the in-memory app resource
+     * cache.
+     *
+     * @param app the app the file belongs to
+     * @param pageName the page requested
+     * @param resource the file looked up for the page
+     * @return the cached content, or null if the file is too large to be held
+     *         in memory
+     */
+    AppResourceContent cacheAppResourceContent( App app, String pageName, Resource resource )
+        throws IOException;
+
     /**
      * Sets the app status to DELETION_IN_PROGRESS.
      *
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.appmanager;
+
+import lombok.Value;
+
+/**
+ * The content of an app resource (file) held in memory together with its
+ * compressed variants and the hash of the content used as strong ETag.
+ */
+@Value
+public class AppResourceContent
+{
+    public static final String ENCODING_GZIP = "gzip";
+
+    public static final String ENCODING_BROTLI = "br";
+
+    String filename;
+
+    long lastModified;
+
+    /**
+     * Hex encoded SHA-256 hash of the uncompressed content
+     */
+    String hash;
+
+    byte[] content;
+
+    /**
+     * The content compressed as gzip, null if compression did not pay off
+     */
+    byte[] gzipContent;
+
+    /**
+     * The precompressed brotli content shipped with the app, null if none
+     */
+    byte[] brotliContent;
+
+    /**
+     * @param encoding the content encoding, null for the uncompressed content
+     * @return the content in the given encoding or null if no such variant
+     *         exists
+     */
+    public byte[] getContent( String encoding )
+    {
+        if ( encoding == null )
+        {
+            return content;
+        }
+        switch ( encoding )
+        {
+        case ENCODING_GZIP:
+            return gzipContent;
+        case ENCODING_BROTLI:
+            return brotliContent;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * @param encoding the content encoding, null for the uncompressed content
+     * @return the strong ETag of the variant in the given encoding
+     */
+    public String getETag( String encoding )
+    {
+        return encoding == null ? "\"" + hash + "\"" : "\"" + hash + "-" + encoding + "\"";
+    }
+
+    public boolean hasCompressedVariant()
+    {
+        return gzipContent != null || brotliContent != null;
+    }
+
+    /**
+     * @return memory used by the content in all its variants in bytes
+     */
+    public long getSize()
+    {
+        return content.length
+            + (gzipContent == null ? 0 : gzipContent.length)
+            + (brotliContent == null ? 0 : brotliContent.length);
+    }
+}
@@ -699,17 +699,4 @@ public class DimensionalObjectUtils
             .map( DimensionalItemObject::getShortName )
             .collect( Collectors.joining( COL_SEP ) );
     }
-
-    /**
-     * Transforms a List of {@see DimensionItemObjectValue} into a Map of
-     * {@see DimensionalItemObject} and value
-     */
-    public static Map<DimensionalItemObject, Object> convertToDimItemValueMap(
-        List<DimensionItemObjectValue> dimensionItemObjectValues )
-    {
-        return dimensionItemObjectValues.stream()
-            .filter( item -> item.getValue() != null )
-            .collect( Collectors
-                .toMap( DimensionItemObjectValue::getDimensionalItemObject, DimensionItemObjectValue::getValue ) );
-    }
 }
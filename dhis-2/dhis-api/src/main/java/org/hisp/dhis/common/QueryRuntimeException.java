@@ -36,4 +36,9 @@ public class QueryRuntimeException
     {
         super( errorCode );
     }
+
+    public QueryRuntimeException( ErrorCode errorCode, Object... args )
+    {
+        super( errorCode, args );
+    }
 }
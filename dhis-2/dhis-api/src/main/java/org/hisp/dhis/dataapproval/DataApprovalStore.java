@@ -78,6 +78,21 @@ public interface DataApprovalStore
      */
     void deleteDataApprovals( OrganisationUnit organisationUnit );
 
+    /**
+     * Invalidates the cached approval state. Must be called when approvals
+     * are written without using this store.
+     */
+    void invalidateCaches();
+
+    /**
+     * Rebuilds the approval state of the given organisation units from their
+     * approvals. Must be called when approvals are written without using this
+     * store.
+     *
+     * @param organisationUnits the organisation units.
+     */
+    void updateDataApprovalStates( Collection<OrganisationUnit> organisationUnits );
+
     /**
      * Returns the DataApproval object (if any) matching the properties of a
      * (non-Hibernate) DataApproval object.
@@ -28,7 +28,9 @@
 package org.hisp.dhis.dataintegrity;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -47,6 +49,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * If a check does not support one or the other of the two check types the
  * {@link Function} returns {@code null}.
  *
+ * SQL based checks also have a {@link Predicate} that tests if any of the
+ * tables the check reads from changed since a given point in time. This is
+ * {@code null} for checks that are not SQL based.
+ *
  * @author Jan Bernitt
  */
 @Getter
@@ -81,4 +87,11 @@ public final class DataIntegrityCheck implements Serializable
     private final transient Function<DataIntegrityCheck, DataIntegritySummary> runSummaryCheck;
 
     private final transient Function<DataIntegrityCheck, DataIntegrityDetails> runDetailsCheck;
+
+    private final transient Predicate<Date> changedSince;
+
+    public boolean isSqlBased()
+    {
+        return changedSince != null;
+    }
 }
@@ -66,7 +66,35 @@ public interface DataIntegrityService
 
     Map<String, DataIntegrityDetails> getDetails( Set<String> checks, long timeout );
 
-    void runSummaryChecks( Set<String> checks, JobProgress progress );
+    default void runSummaryChecks( Set<String> checks, JobProgress progress )
+    {
+        runSummaryChecks( checks, false, progress );
+    }
+
+    /**
+     * Runs summary checks. Results become available one by one as each check
+     * completes.
+     *
+     * @param checks names or patterns of the checks to run, empty for all
+     * @param changesOnly when true, SQL based checks only run if the tables
+     *        they read from changed since their last stored result
+     * @param progress to track the processing
+     */
+    void runSummaryChecks( Set<String> checks, boolean changesOnly, JobProgress progress );
 
-    void runDetailsChecks( Set<String> checks, JobProgress progress );
+    default void runDetailsChecks( Set<String> checks, JobProgress progress )
+    {
+        runDetailsChecks( checks, false, progress );
+    }
+
+    /**
+     * Runs details checks. Results become available one by one as each check
+     * completes.
+     *
+     * @param checks names or patterns of the checks to run, empty for all
+     * @param changesOnly when true, SQL based checks only run if the tables
+     *        they read from changed since their last stored result
+     * @param progress to track the processing
+     */
+    void runDetailsChecks( Set<String> checks, boolean changesOnly, JobProgress progress );
 }
@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.dataintegrity;
 
+import java.util.Date;
+import java.util.Set;
+
 /**
  * Database support for running data integrity checks.
  * <p>
@@ -53,4 +56,64 @@ public interface DataIntegrityStore
      * @return the mapped details
      */
     DataIntegrityDetails queryDetails( DataIntegrityCheck check, String sql );
+
+    /**
+     * Tests if any of the given tables has rows updated after the given point
+     * in time or if any object was deleted since then. As changes to tables
+     * without a {@code lastupdated} column cannot be detected, these always
+     * count as changed. Runs on the primary database, as replication lag could
+     * hide recent changes on a read replica.
+     *
+     * @param tables names of the tables a check reads from
+     * @param since the point in time to compare with
+     * @return true, if there are changes since the given time
+     */
+    boolean isChangedSince( Set<String> tables, Date since );
+
+    /**
+     * Persists the summary so it survives cache eviction and restarts and can
+     * be polled while other checks are still running. Replaces an earlier
+     * summary of the same check. Stored in a transaction of its own.
+     *
+     * @param summary the result to store
+     * @param startedTime the point in time the check started
+     */
+    void saveSummary( DataIntegritySummary summary, Date startedTime );
+
+    /**
+     * Persists the details, replacing earlier details of the same check.
+     * Stored in a transaction of its own.
+     *
+     * @param details the result to store
+     * @param startedTime the point in time the check started
+     */
+    void saveDetails( DataIntegrityDetails details, Date startedTime );
+
+    /**
+     * @param check the check to look up
+     * @return the most recently stored summary of the check or {@code null}
+     */
+    DataIntegritySummary getSummary( DataIntegrityCheck check );
+
+    /**
+     * @param check the check to look up
+     * @return the most recently stored details of the check or {@code null}
+     */
+    DataIntegrityDetails getDetails( DataIntegrityCheck check );
+
+    /**
+     * @param check the check to look up
+     * @return the point in time the most recently stored summary of the check
+     *         started, or {@code null} if there is none, it is an error or its
+     *         start is not known
+     */
+    Date getSummaryStartedTime( DataIntegrityCheck check );
+
+    /**
+     * @param check the check to look up
+     * @return the point in time the most recently stored details of the check
+     *         started, or {@code null} if there are none, they are an error or
+     *         their start is not known
+     */
+    Date getDetailsStartedTime( DataIntegrityCheck check );
 }
@@ -69,4 +69,14 @@ public interface DataStatisticsEventStore
      * @return data statistics for the favorite with the given identifier.
      */
     FavoriteStatistics getFavoriteStatistics( String uid );
-}
\ No newline at end of file
+
+    /**
+     * Returns the usernames of the users who viewed the favorite with the
+     * given identifier the most, ordered by descending number of views.
+     *
+     * @param uid the favorite identifier.
+     * @param limit the maximum number of usernames.
+     * @return a list of usernames.
+     */
+    List<String> getFavoriteViewers( String uid, int limit );
+}
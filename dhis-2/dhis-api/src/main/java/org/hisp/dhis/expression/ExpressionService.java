@@ -142,6 +142,26 @@ public interface ExpressionService
         Map<DimensionalItemId, DimensionalItemObject> itemMap, Map<DimensionalItemObject, Object> valueMap,
         Map<String, Integer> orgUnitCountMap );
 
+    /**
+     * Generates the calculated values of the given indicator for a list of
+     * dimension item permutations in one pass. The numerator and denominator
+     * evaluation state is set up once and reused for every permutation. The
+     * given lists of periods, value maps and organisation unit count maps must
+     * be of equal size, with one element per permutation.
+     *
+     * @param indicator the indicator for which to calculate the values.
+     * @param periods the periods of each permutation.
+     * @param itemMap map of dimensional item id to object in expression.
+     * @param valueMaps the data values of each permutation.
+     * @param orgUnitCountMaps the organisation unit group member counts of
+     *        each permutation, elements may be null.
+     * @return a list of calculated values in permutation order, where an
+     *         element is null if no value could be calculated.
+     */
+    List<IndicatorValue> getIndicatorValueObjects( Indicator indicator, List<List<Period>> periods,
+        Map<DimensionalItemId, DimensionalItemObject> itemMap, List<Map<DimensionalItemObject, Object>> valueMaps,
+        List<Map<String, Integer>> orgUnitCountMaps );
+
     /**
      * Substitutes any constants and org unit group member counts in the
      * numerator and denominator on all indicators in the given collection.
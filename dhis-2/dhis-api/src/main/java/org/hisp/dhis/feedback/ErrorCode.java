@@ -360,6 +360,8 @@ public enum ErrorCode
     E7133( "Query cannot be executed, possibly because of invalid types or invalid operation" ),
     E7134( "Cannot retrieve total value for data elements with skip total category combination" ),
     E7135( "Date time is not parsable: `{0}`" ),
+    E7136( "Query was not admitted within `{0}` seconds as the analytics query capacity is exhausted" ),
+    E7137( "Query was cancelled" ),
 
     /* Event analytics */
     E7200( "At least one organisation unit must be specified" ),
@@ -394,6 +396,7 @@ public enum ErrorCode
     E7229( "Operator `{0}` does not allow missing value" ),
     E7230( "Header param `{0}` does not exist" ),
     E7231( "Legacy `{0}` can be updated only through event visualizations" ),
+    E7232( "Cluster tile is invalid: `{0}`" ),
 
     /* Org unit analytics */
     E7300( "At least one organisation unit must be specified" ),
@@ -81,5 +81,14 @@ public interface FileResourceService
 
     List<FileResource> getAllUnProcessedImagesFiles();
 
+    /**
+     * Queues creating the images in pre-defined sizes of a stored image file
+     * resource if a smaller image is requested but was not created yet.
+     *
+     * @param fileResource the requested file resource
+     * @param dimension the requested image dimension
+     */
+    void requestImageFiles( FileResource fileResource, ImageFileDimension dimension );
+
     long getFileResourceContentLength( FileResource fileResource );
 }
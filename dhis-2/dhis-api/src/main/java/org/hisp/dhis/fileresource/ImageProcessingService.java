@@ -48,4 +48,22 @@ public interface ImageProcessingService
      *         file.
      */
     Map<ImageFileDimension, File> createImages( FileResource fileResource, File file );
+
+    /**
+     * Queues creating and storing the images in pre-defined sizes of a stored
+     * image file resource. The images are created by a bounded pool of
+     * workers. Does nothing if the file resource is already queued, and drops
+     * the request if the queue is full.
+     *
+     * @param fileResource stored file resource with image content type
+     */
+    void scheduleImages( FileResource fileResource );
+
+    /**
+     * Creates and stores the images in pre-defined sizes of a stored image
+     * file resource and marks it as having multiple storage files.
+     *
+     * @param fileResource stored file resource with image content type
+     */
+    void storeImages( FileResource fileResource );
 }
@@ -204,6 +204,21 @@ public interface ProgramIndicatorService
      */
     String getAnyValueExistsClauseAnalyticsSql( String expression, AnalyticsType analyticsType );
 
+    /**
+     * Returns the number of analytics SQL cache lookups since startup.
+     *
+     * @return the number of lookups.
+     */
+    long getAnalyticsSqlCacheLookupCount();
+
+    /**
+     * Returns the number of analytics SQL cache lookups since startup which
+     * required generating the SQL.
+     *
+     * @return the number of misses.
+     */
+    long getAnalyticsSqlCacheMissCount();
+
     // -------------------------------------------------------------------------
     // ProgramIndicatorGroup
     // -------------------------------------------------------------------------
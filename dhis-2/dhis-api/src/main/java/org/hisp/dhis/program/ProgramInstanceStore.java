@@ -136,6 +136,20 @@ public interface ProgramInstanceStore
      */
     List<ProgramInstance> getWithScheduledNotifications( ProgramNotificationTemplate template, Date notificationDate );
 
+    /**
+     * Get a chunk of the ProgramInstances which have notifications with the
+     * given ProgramNotificationTemplate scheduled on the given date ordered by
+     * ID.
+     *
+     * @param template the template.
+     * @param notificationDate the Date for which the notification is scheduled.
+     * @param afterId only instances with an ID larger than this are included
+     * @param max maximum number of instances to return
+     * @return a list of ProgramInstance.
+     */
+    List<ProgramInstance> getWithScheduledNotifications( ProgramNotificationTemplate template, Date notificationDate,
+        long afterId, int max );
+
     /**
      * Return all program instance linked to programs.
      *
@@ -119,6 +119,20 @@ public interface ProgramStageInstanceStore
     List<ProgramStageInstance> getWithScheduledNotifications( ProgramNotificationTemplate template,
         Date notificationDate );
 
+    /**
+     * Get a chunk of the ProgramStageInstances which have notifications with
+     * the given ProgramNotificationTemplate scheduled on the given date ordered
+     * by ID.
+     *
+     * @param template the template.
+     * @param notificationDate the Date for which the notification is scheduled.
+     * @param afterId only instances with an ID larger than this are included
+     * @param max maximum number of instances to return
+     * @return a list of ProgramStageInstance.
+     */
+    List<ProgramStageInstance> getWithScheduledNotifications( ProgramNotificationTemplate template,
+        Date notificationDate, long afterId, int max );
+
     /**
      * Set lastSynchronized timestamp to provided timestamp for provided PSIs
      *
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.program.notification;
+
+import java.util.Date;
+
+/**
+ * Keeps track of the progress made sending scheduled program notifications of
+ * a day so that sending can resume where it stopped when interrupted.
+ */
+public interface ProgramNotificationCheckpointStore
+{
+    enum Target
+    {
+        ENROLLMENT,
+        EVENT
+    }
+
+    /**
+     * @param templateId ID of the {@link ProgramNotificationTemplate}
+     * @param day the day notifications are sent for
+     * @param target whether notifications are sent for enrollments or events
+     * @return the ID of the last enrollment or event the notifications were
+     *         sent for, or zero if none were sent yet
+     */
+    long getLastProcessedId( long templateId, Date day, Target target );
+
+    /**
+     * Records the ID of the last enrollment or event the notifications were
+     * sent for.
+     */
+    void saveLastProcessedId( long templateId, Date day, Target target, long lastProcessedId );
+
+    /**
+     * Deletes checkpoints for days before the given day.
+     */
+    void deleteBefore( Date day );
+}
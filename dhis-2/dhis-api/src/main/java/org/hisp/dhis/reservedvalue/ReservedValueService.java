@@ -53,4 +53,26 @@ public interface ReservedValueService
     void deleteReservedValueByUid( String uid );
 
     void removeUsedOrExpiredReservations();
+
+    /**
+     * Tops up the pools of pre-generated values of a generated attribute with
+     * a random segment. Pools exist per key the attribute has reservations
+     * for, plus the key of the pattern if it does not require any values.
+     *
+     * @param trackedEntityAttribute the attribute to replenish pools for
+     * @param poolSize the number of values to keep per pool
+     * @return the number of values added to the pools
+     */
+    int replenishPools( TrackedEntityAttribute trackedEntityAttribute, int poolSize );
+
+    /**
+     * @return the total number of values in all pools
+     */
+    int getPoolSize();
+
+    /**
+     * @return the number of times a pool ran dry during a reservation or could
+     *         not be topped up as the pattern ran out of values
+     */
+    long getPoolExhaustedCount();
 }
@@ -55,4 +55,35 @@ public interface ReservedValueStore
     boolean isReserved( String ownerObject, String ownerUID, String value );
 
     void removeUsedOrExpiredReservations();
+
+    /**
+     * Removes up to the given number of values from the pool of the given
+     * owner and key. Rows locked by concurrent claims are skipped.
+     *
+     * @param ownerUid the UID of the owner
+     * @param key the resolved pattern key
+     * @param numberOfValues the maximum number of values to claim
+     * @return the claimed values
+     */
+    List<String> claimPoolValues( String ownerUid, String key, int numberOfValues );
+
+    /**
+     * Adds values to the pool of the given owner and key. Values already in
+     * the pool are ignored.
+     *
+     * @param ownerUid the UID of the owner
+     * @param key the resolved pattern key
+     * @param values the values to add
+     */
+    void addPoolValues( String ownerUid, String key, List<String> values );
+
+    int getPoolSize( String ownerUid, String key );
+
+    int getPoolSize();
+
+    /**
+     * @param ownerUid the UID of the owner
+     * @return the distinct keys values are currently reserved for
+     */
+    List<String> getReservedKeys( String ownerUid );
 }
@@ -457,8 +457,10 @@ public interface JobProgress
     }
 
     /**
-     * Runs the work items of a stage with the given parallelism. At most a
-     * parallelism equal to the number of available processor cores is used.
+     * Runs the work items of a stage with the given parallelism. The items are
+     * processed on a pool created for the stage and bounded by the given
+     * parallelism, so that stages running concurrently neither compete for
+     * the common pool nor exceed their share of parallelism.
      * <p>
      * If the parallelism is smaller or equal to 1 the items are processed
      * sequentially using {@link #runStage(Collection, Function, Consumer)}.
@@ -484,8 +486,6 @@ public interface JobProgress
             runStage( items, description, work );
             return;
         }
-        int cores = Runtime.getRuntime().availableProcessors();
-        boolean useCustomPool = parallelism >= cores;
         AtomicInteger success = new AtomicInteger();
         AtomicInteger failed = new AtomicInteger();
 
@@ -510,14 +510,12 @@ public interface JobProgress
             }
         } ).reduce( Boolean::logicalAnd ).orElse( false );
 
-        ForkJoinPool pool = useCustomPool ? new ForkJoinPool( parallelism ) : null;
+        ForkJoinPool pool = new ForkJoinPool( parallelism );
         try
         {
             // this might not be obvious but running a parallel stream
             // as task in a FJP makes the stream use the pool
-            boolean allSuccessful = pool == null
-                ? task.call()
-                : pool.submit( task ).get();
+            boolean allSuccessful = pool.submit( task ).get();
             if ( allSuccessful )
             {
                 completedStage( null );
@@ -540,10 +538,7 @@ public interface JobProgress
         }
         finally
         {
-            if ( pool != null )
-            {
-                pool.shutdown();
-            }
+            pool.shutdown();
         }
     }
 
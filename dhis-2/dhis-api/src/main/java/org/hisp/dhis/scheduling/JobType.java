@@ -30,6 +30,7 @@ package org.hisp.dhis.scheduling;
 import java.util.Map;
 
 import org.hisp.dhis.scheduling.parameters.AggregateDataExchangeJobParameters;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmUpJobParameters;
 import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.ContinuousAnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.DataIntegrityJobParameters;
@@ -67,6 +68,7 @@ public enum JobType
     CONTINUOUS_ANALYTICS_TABLE( true, SchedulingType.FIXED_DELAY,
         ContinuousAnalyticsJobParameters.class, Map.of(
             "skipTableTypes", "/api/analytics/tableTypes" ) ),
+    ANALYTICS_CACHE_WARM_UP( true, SchedulingType.CRON, AnalyticsCacheWarmUpJobParameters.class, null ),
     DATA_SYNC( true, SchedulingType.CRON, DataSynchronizationJobParameters.class, null ),
     TRACKER_PROGRAMS_DATA_SYNC( true, SchedulingType.CRON,
         TrackerProgramsDataSynchronizationJobParameters.class, null ),
@@ -96,6 +98,7 @@ public enum JobType
         "predictorGroups", "/api/predictorGroups" ) ),
     DATA_SET_NOTIFICATION( false ),
     REMOVE_USED_OR_EXPIRED_RESERVED_VALUES( false ),
+    REPLENISH_RESERVED_VALUE_POOLS( false ),
     TRACKER_IMPORT_JOB( false ),
     TRACKER_IMPORT_NOTIFICATION_JOB( false ),
     TRACKER_IMPORT_RULE_ENGINE_JOB( false ),
@@ -66,6 +66,14 @@ public class DataIntegrityJobParameters implements JobParameters
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     private DataIntegrityReportType type;
 
+    /**
+     * When true, SQL based checks are only run again if the tables they read
+     * from changed since their last result.
+     */
+    @JsonProperty( required = false )
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    private boolean changesOnly;
+
     @Override
     public Optional<ErrorReport> validate()
     {
@@ -27,15 +27,30 @@
  */
 package org.hisp.dhis.sms;
 
+import java.util.List;
+
 import org.hisp.dhis.sms.incoming.IncomingSms;
 
 public interface MessageQueue
 {
-    void put( IncomingSms message );
-
     IncomingSms get();
 
-    void remove( IncomingSms message );
+    /**
+     * Takes up to the given number of messages off the queue for processing.
+     * Messages taken are not returned by subsequent calls, also not on other
+     * nodes sharing the queue.
+     *
+     * @param maxMessages the maximum number of messages to take
+     * @return the taken messages in the order they were received
+     */
+    List<IncomingSms> claim( int maxMessages );
+
+    /**
+     * Puts messages which were taken off the queue but not processed within a
+     * reasonable time back on the queue, e.g. because the node which took them
+     * stopped.
+     */
+    void releaseStaleClaims();
 
     void initialize();
 }
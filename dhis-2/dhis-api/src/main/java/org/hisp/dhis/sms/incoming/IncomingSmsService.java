@@ -63,4 +63,10 @@ public interface IncomingSmsService
         boolean hasPagination );
 
     List<IncomingSms> getAllUnparsedMessages();
+
+    List<IncomingSms> claimIncomingMessages( int maxMessages, String owner );
+
+    int releaseClaimedMessages( Date claimedBefore );
+
+    int releaseClaimedMessages( String owner );
 }
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.sms.incoming;
 
+import java.util.Date;
 import java.util.List;
 
 import org.hisp.dhis.common.IdentifiableObjectStore;
@@ -48,4 +49,36 @@ public interface IncomingSmsStore extends IdentifiableObjectStore<IncomingSms>
     List<IncomingSms> getSmsByOriginator( String originator );
 
     List<IncomingSms> getAllUnparsedMessages();
+
+    /**
+     * Claims unparsed incoming messages for processing by setting their status
+     * to {@link SmsMessageStatus#PROCESSING}. Messages are claimed per
+     * originator. Originators which already have messages in processing or
+     * which are being claimed by a concurrent transaction are skipped so that
+     * the messages of an originator are processed in order, also across nodes.
+     * Must be called within a transaction, which holds the originator locks.
+     *
+     * @param maxMessages the maximum number of messages to claim
+     * @param owner the identifier of the claiming node
+     * @return the claimed messages ordered by ID
+     */
+    List<IncomingSms> claimIncomingMessages( int maxMessages, String owner );
+
+    /**
+     * Sets unparsed messages in processing which were claimed before the given
+     * date back to {@link SmsMessageStatus#INCOMING}.
+     *
+     * @param claimedBefore the date before which messages were claimed
+     * @return the number of released messages
+     */
+    int releaseClaimedMessages( Date claimedBefore );
+
+    /**
+     * Sets unparsed messages in processing which were claimed by the given
+     * owner back to {@link SmsMessageStatus#INCOMING}.
+     *
+     * @param owner the identifier of the claiming node
+     * @return the number of released messages
+     */
+    int releaseClaimedMessages( String owner );
 }
@@ -44,4 +44,28 @@ public interface TrackedEntityAttributeTableManager
     void dropTrigramIndex( Long trackedEntityAttributeId );
 
     List<Long> getAttributeIdsWithTrigramIndex();
+
+    /**
+     * Enables the triggers maintaining the per tracked entity instance search
+     * document and rebuilds the documents of all instances.
+     */
+    void updateSearchDocuments();
+
+    /**
+     * Creates the trigram index on the per tracked entity instance search
+     * document used to narrow down free text queries.
+     */
+    void createSearchDocumentIndex();
+
+    /**
+     * Returns whether a valid trigram index on the search document exists,
+     * meaning the documents have been built and are maintained.
+     */
+    boolean hasSearchDocumentIndex();
+
+    /**
+     * Drops the search document index, disables the triggers maintaining the
+     * documents and removes all documents.
+     */
+    void dropSearchDocuments();
 }
@@ -268,19 +268,4 @@ class DimensionalObjectUtilsTest
         String name = DimensionalObjectUtils.getName( objects );
         assertEquals( "DE ShortNameA DE ShortNameB DE ShortNameC", name );
     }
-
-    @Test
-    void testConvertToDimItemValueMap()
-    {
-        DataElement deA = new DataElement( "DE NameA" );
-        DataElement deB = new DataElement( "DE NameB" );
-        DataElement deC = new DataElement( "DE NameC" );
-        List<DimensionItemObjectValue> list = Lists.newArrayList( new DimensionItemObjectValue( deA, 10D ),
-            new DimensionItemObjectValue( deB, 20D ), new DimensionItemObjectValue( deC, 30D ) );
-        final Map<DimensionalItemObject, Object> asMap = DimensionalObjectUtils.convertToDimItemValueMap( list );
-        assertEquals( asMap.size(), 3 );
-        assertEquals( ((Double) asMap.get( deA )).intValue(), 10 );
-        assertEquals( ((Double) asMap.get( deB )).intValue(), 20 );
-        assertEquals( ((Double) asMap.get( deC )).intValue(), 30 );
-    }
 }
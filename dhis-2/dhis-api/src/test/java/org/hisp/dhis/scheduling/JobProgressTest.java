@@ -200,13 +200,13 @@ class JobProgressTest
     }
 
     @Test
-    void testRunStageInParallel_CommonPoolHalfFailed()
+    void testRunStageInParallel_ParallelismOfAllCores()
     {
         runStageInParallel_Success( Runtime.getRuntime().availableProcessors() );
     }
 
     @Test
-    void testRunStageInParallel_CustomPoolHalfFailed()
+    void testRunStageInParallel_ParallelismOfHalfTheCores()
     {
         runStageInParallel_Success( max( 2, Runtime.getRuntime().availableProcessors() / 2 ) );
     }
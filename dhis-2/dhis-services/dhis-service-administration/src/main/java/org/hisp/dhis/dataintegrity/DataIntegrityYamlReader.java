@@ -28,10 +28,16 @@
 package org.hisp.dhis.dataintegrity;
 
 import java.nio.file.Path;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -50,6 +56,19 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 @Slf4j
 class DataIntegrityYamlReader
 {
+    private static final Pattern TABLE_REFERENCE = Pattern.compile( "\\b(?:from|join)\\s+([a-z_][a-z0-9_]*)",
+        Pattern.CASE_INSENSITIVE );
+
+    /**
+     * A table in a {@code FROM} list, with an optional alias, followed by a
+     * comma, which is a join that {@link #TABLE_REFERENCE} does not see.
+     */
+    private static final Pattern COMMA_JOIN = Pattern.compile(
+        "\\bfrom\\s+[a-z_][a-z0-9_.]*(?:\\s+(?:as\\s+)?[a-z_][a-z0-9_]*)?\\s*,", Pattern.CASE_INSENSITIVE );
+
+    private static final Pattern COMMON_TABLE_EXPRESSION = Pattern.compile( "\\b([a-z_][a-z0-9_]*)\\s+as\\s*\\(",
+        Pattern.CASE_INSENSITIVE );
+
     private DataIntegrityYamlReader()
     {
         throw new UnsupportedOperationException( "util" );
@@ -95,7 +114,8 @@ class DataIntegrityYamlReader
     public static void readDataIntegrityYaml( String listFile, Consumer<DataIntegrityCheck> adder,
         BinaryOperator<String> info,
         Function<String, Function<DataIntegrityCheck, DataIntegritySummary>> sqlToSummary,
-        Function<String, Function<DataIntegrityCheck, DataIntegrityDetails>> sqlToDetails )
+        Function<String, Function<DataIntegrityCheck, DataIntegrityDetails>> sqlToDetails,
+        Function<Set<String>, Predicate<Date>> tablesToChangedSince )
     {
 
         ObjectMapper yaml = new ObjectMapper( new YAMLFactory() );
@@ -119,6 +139,21 @@ class DataIntegrityYamlReader
                     CheckYamlFile.class );
 
                 String name = e.name.trim();
+                String summarySql = sanitiseSQL( e.summarySql );
+                String detailsSql = sanitiseSQL( e.detailsSql );
+                Set<String> summaryTables = getTables( summarySql );
+                Set<String> detailsTables = getTables( detailsSql );
+                Predicate<Date> changedSince;
+                if ( summaryTables == null || detailsTables == null )
+                {
+                    changedSince = since -> true;
+                }
+                else
+                {
+                    Set<String> tables = new LinkedHashSet<>( summaryTables );
+                    tables.addAll( detailsTables );
+                    changedSince = tablesToChangedSince.apply( tables );
+                }
                 adder.accept( DataIntegrityCheck.builder()
                     .name( name )
                     .displayName( info.apply( name + ".name", name.replace( '_', ' ' ) ) )
@@ -128,8 +163,9 @@ class DataIntegrityYamlReader
                     .issuesIdType( trim( e.detailsIdType ) )
                     .section( trim( e.section ) )
                     .severity( e.severity )
-                    .runSummaryCheck( sqlToSummary.apply( sanitiseSQL( e.summarySql ) ) )
-                    .runDetailsCheck( sqlToDetails.apply( sanitiseSQL( e.detailsSql ) ) )
+                    .runSummaryCheck( sqlToSummary.apply( summarySql ) )
+                    .runDetailsCheck( sqlToDetails.apply( detailsSql ) )
+                    .changedSince( changedSince )
                     .build() );
             }
             catch ( Exception ex )
@@ -139,6 +175,39 @@ class DataIntegrityYamlReader
         }
     }
 
+    /**
+     * Finds the names of the tables a check query reads from. Names of common
+     * table expressions are not included.
+     *
+     * @param sql a check query
+     * @return names of tables following a {@code FROM} or {@code JOIN} in
+     *         lower case, or null if the query joins tables in a way the
+     *         tables cannot be found reliably, like comma separated joins
+     */
+    static Set<String> getTables( String sql )
+    {
+        Set<String> tables = new LinkedHashSet<>();
+        if ( sql == null )
+        {
+            return tables;
+        }
+        if ( COMMA_JOIN.matcher( sql ).find() )
+        {
+            return null;
+        }
+        Matcher matcher = TABLE_REFERENCE.matcher( sql );
+        while ( matcher.find() )
+        {
+            tables.add( matcher.group( 1 ).toLowerCase() );
+        }
+        Matcher cte = COMMON_TABLE_EXPRESSION.matcher( sql );
+        while ( cte.find() )
+        {
+            tables.remove( cte.group( 1 ).toLowerCase() );
+        }
+        return tables;
+    }
+
     private static String trim( String str )
     {
         return str == null ? null : str.trim();
@@ -56,9 +56,12 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -75,6 +78,7 @@ import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroupSet;
 import org.hisp.dhis.dataelement.DataElementService;
@@ -126,6 +130,8 @@ public class DefaultDataIntegrityService
 {
     private static final String FORMULA_SEPARATOR = "#";
 
+    private static final long CHANGES_SINCE_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis( 10 );
+
     private final I18nManager i18nManager;
 
     private final ProgramRuleService programRuleService;
@@ -842,15 +848,17 @@ public class DefaultDataIntegrityService
     @Override
     public Map<String, DataIntegritySummary> getSummaries( Set<String> checks, long timeout )
     {
-        return getCached( checks, timeout, summaryCache );
+        return getCached( checks, timeout, summaryCache, dataIntegrityStore::getSummary );
     }
 
     // OBS! We intentionally do not open the transaction here to have each check
     // be independent
     @Override
-    public void runSummaryChecks( Set<String> checks, JobProgress progress )
+    public void runSummaryChecks( Set<String> checks, boolean changesOnly, JobProgress progress )
     {
-        runDataIntegrityChecks( "Data Integrity summary checks", expandChecks( checks ), progress, summaryCache,
+        runDataIntegrityChecks( "Data Integrity summary checks", expandChecks( checks ), changesOnly, progress,
+            summaryCache, dataIntegrityStore::getSummary, dataIntegrityStore::saveSummary,
+            dataIntegrityStore::getSummaryStartedTime,
             check -> check.getRunSummaryCheck().apply( check ),
             ( check, ex ) -> new DataIntegritySummary( check, new Date(), ex.getMessage(), -1, null ) );
     }
@@ -858,20 +866,28 @@ public class DefaultDataIntegrityService
     @Override
     public Map<String, DataIntegrityDetails> getDetails( Set<String> checks, long timeout )
     {
-        return getCached( checks, timeout, detailsCache );
+        return getCached( checks, timeout, detailsCache, dataIntegrityStore::getDetails );
     }
 
     // OBS! We intentionally do not open the transaction here to have each check
     // be independent
     @Override
-    public void runDetailsChecks( Set<String> checks, JobProgress progress )
+    public void runDetailsChecks( Set<String> checks, boolean changesOnly, JobProgress progress )
     {
-        runDataIntegrityChecks( "Data Integrity details checks", expandChecks( checks ), progress, detailsCache,
+        runDataIntegrityChecks( "Data Integrity details checks", expandChecks( checks ), changesOnly, progress,
+            detailsCache, dataIntegrityStore::getDetails, dataIntegrityStore::saveDetails,
+            dataIntegrityStore::getDetailsStartedTime,
             check -> check.getRunDetailsCheck().apply( check ),
             ( check, ex ) -> new DataIntegrityDetails( check, new Date(), ex.getMessage(), List.of() ) );
     }
 
-    private <T> Map<String, T> getCached( Set<String> checks, long timeout, Cache<T> cache )
+    /**
+     * Results are polled from the cache until all are present or the timeout
+     * is reached. Results still missing then are looked up from the stored
+     * results of earlier runs.
+     */
+    private <T> Map<String, T> getCached( Set<String> checks, long timeout, Cache<T> cache,
+        Function<DataIntegrityCheck, T> loadStored )
     {
         Set<String> names = expandChecks( checks );
         long giveUpTime = currentTimeMillis() + timeout;
@@ -901,36 +917,116 @@ public class DefaultDataIntegrityService
             retry = resByName.size() < names.size() && (timeout < 0 || currentTimeMillis() < giveUpTime);
         }
         while ( retry );
+        for ( String name : names )
+        {
+            DataIntegrityCheck check = checksByName.get( name );
+            if ( !resByName.containsKey( name ) && check != null )
+            {
+                T res = loadStored.apply( check );
+                if ( res != null )
+                {
+                    resByName.put( name, res );
+                }
+            }
+        }
         return resByName;
     }
 
-    private <T> void runDataIntegrityChecks( String stageDesc, Set<String> checks, JobProgress progress,
-        Cache<T> cache, Function<DataIntegrityCheck, T> runCheck,
+    /**
+     * Checks that are not SQL based work with the Hibernate session of the
+     * calling thread and run one after another. SQL based checks are
+     * independent of each other and run in parallel.
+     *
+     * Each result is cached and stored as soon as its check completes so that
+     * partial results can be polled while the remaining checks still run.
+     */
+    private <T> void runDataIntegrityChecks( String stageDesc, Set<String> checks, boolean changesOnly,
+        JobProgress progress, Cache<T> cache, Function<DataIntegrityCheck, T> loadStored, BiConsumer<T, Date> store,
+        Function<DataIntegrityCheck, Date> lastStarted, Function<DataIntegrityCheck, T> runCheck,
         BiFunction<DataIntegrityCheck, RuntimeException, T> createErrorReport )
     {
         progress.startingProcess( "Data Integrity check" );
-        progress.startingStage( stageDesc, checks.size(), SKIP_ITEM );
-        progress.runStage( checks.stream().map( checksByName::get ).filter( Objects::nonNull ),
-            DataIntegrityCheck::getDescription,
-            check -> {
-                T res = null;
-                try
-                {
-                    res = runCheck.apply( check );
-                }
-                catch ( RuntimeException ex )
-                {
-                    cache.put( check.getName(), createErrorReport.apply( check, ex ) );
-                    throw ex;
-                }
-                if ( res != null )
-                {
-                    cache.put( check.getName(), res );
-                }
-            } );
+        List<DataIntegrityCheck> all = checks.stream().map( checksByName::get ).filter( Objects::nonNull )
+            .collect( toList() );
+        List<DataIntegrityCheck> selected = all;
+        if ( changesOnly )
+        {
+            progress.startingStage( "Finding checks with changes since last run" );
+            selected = progress.runStage( all, () -> all.stream()
+                .filter( check -> isChangedSinceLastRun( check, cache, loadStored, lastStarted ) )
+                .collect( toList() ) );
+        }
+        Consumer<DataIntegrityCheck> runAndStore = check -> {
+            Date started = new Date();
+            T res = null;
+            try
+            {
+                res = runCheck.apply( check );
+            }
+            catch ( RuntimeException ex )
+            {
+                T error = createErrorReport.apply( check, ex );
+                cache.put( check.getName(), error );
+                store.accept( error, started );
+                throw ex;
+            }
+            if ( res != null )
+            {
+                cache.put( check.getName(), res );
+                store.accept( res, started );
+            }
+        };
+        List<DataIntegrityCheck> sqlChecks = selected.stream().filter( DataIntegrityCheck::isSqlBased )
+            .collect( toList() );
+        List<DataIntegrityCheck> otherChecks = selected.stream().filter( check -> !check.isSqlBased() )
+            .collect( toList() );
+
+        progress.startingStage( stageDesc, otherChecks.size(), SKIP_ITEM );
+        progress.runStage( otherChecks.stream(), DataIntegrityCheck::getDescription, runAndStore );
+
+        progress.startingStage( stageDesc + " (SQL)", sqlChecks.size(), SKIP_ITEM );
+        progress.runStageInParallel( getParallelism( sqlChecks.size() ), sqlChecks,
+            DataIntegrityCheck::getDescription, runAndStore );
         progress.completedProcess( null );
     }
 
+    /**
+     * A check that is not SQL based, has no successful earlier result or reads
+     * from tables that changed since that result is considered changed. For
+     * unchanged checks the earlier result is put into the cache again.
+     *
+     * Changes are looked for since the earlier check started, less
+     * {@link #CHANGES_SINCE_MARGIN_MILLIS} to also detect changes committed
+     * late by transactions which started before.
+     */
+    private <T> boolean isChangedSinceLastRun( DataIntegrityCheck check, Cache<T> cache,
+        Function<DataIntegrityCheck, T> loadStored, Function<DataIntegrityCheck, Date> lastStarted )
+    {
+        if ( !check.isSqlBased() )
+        {
+            return true;
+        }
+        Date started = lastStarted.apply( check );
+        if ( started == null
+            || check.getChangedSince().test( new Date( started.getTime() - CHANGES_SINCE_MARGIN_MILLIS ) ) )
+        {
+            return true;
+        }
+        T stored = loadStored.apply( check );
+        if ( stored == null )
+        {
+            return true;
+        }
+        cache.put( check.getName(), stored );
+        return false;
+    }
+
+    private static int getParallelism( int checks )
+    {
+        int cores = SystemUtils.getCpuCores();
+        return Math.max( 1, Math.min( checks, cores > 2 ? cores - 1 : cores ) );
+    }
+
     private Set<String> expandChecks( Set<String> names )
     {
         ensureConfigurationsAreLoaded();
@@ -974,7 +1070,8 @@ public class DefaultDataIntegrityService
                 check -> checksByName.put( check.getName(), check ),
                 ( property, defaultValue ) -> i18n.getString( format( "data_integrity.%s", property ), defaultValue ),
                 sql -> check -> dataIntegrityStore.querySummary( check, sql ),
-                sql -> check -> dataIntegrityStore.queryDetails( check, sql ) );
+                sql -> check -> dataIntegrityStore.queryDetails( check, sql ),
+                tables -> since -> dataIntegrityStore.isChangedSince( tables, since ) );
         }
     }
 
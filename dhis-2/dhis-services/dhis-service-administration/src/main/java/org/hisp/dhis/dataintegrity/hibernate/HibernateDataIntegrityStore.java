@@ -27,10 +27,23 @@
  */
 package org.hisp.dhis.dataintegrity.hibernate;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toUnmodifiableList;
+import static org.hisp.dhis.dataintegrity.DataIntegrityResult.TYPE_DETAILS;
+import static org.hisp.dhis.dataintegrity.DataIntegrityResult.TYPE_SUMMARY;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import lombok.AllArgsConstructor;
 
@@ -38,15 +51,32 @@ import org.hibernate.SessionFactory;
 import org.hisp.dhis.dataintegrity.DataIntegrityCheck;
 import org.hisp.dhis.dataintegrity.DataIntegrityDetails;
 import org.hisp.dhis.dataintegrity.DataIntegrityDetails.DataIntegrityIssue;
+import org.hisp.dhis.dataintegrity.DataIntegrityResult;
 import org.hisp.dhis.dataintegrity.DataIntegrityStore;
 import org.hisp.dhis.dataintegrity.DataIntegritySummary;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * As we want each check to be its own transaction the @{@link Transactional}
  * annotation is used on the store and not the service level in this case.
  *
+ * The SQL of the checks runs on the read replica, if one is configured, and is
+ * cancelled after {@link ConfigurationKey#DATA_INTEGRITY_CHECK_TIMEOUT}. Change
+ * detection runs on the primary database so that it sees the latest writes.
+ * Results are stored in transactions of their own, also when the checks run
+ * within a read-only transaction.
+ *
  * @author Jan Bernitt
  */
 @Repository
@@ -55,37 +85,236 @@ public class HibernateDataIntegrityStore implements DataIntegrityStore
 {
     private final SessionFactory sessionFactory;
 
+    private final JdbcTemplate jdbcTemplate;
+
+    @Qualifier( "readOnlyJdbcTemplate" )
+    private final JdbcTemplate readOnlyJdbcTemplate;
+
+    private final DhisConfigurationProvider config;
+
+    private final ObjectMapper jsonMapper;
+
     @Override
-    @Transactional( readOnly = true )
     public DataIntegritySummary querySummary( DataIntegrityCheck check, String sql )
     {
-        Object summary = sessionFactory.getCurrentSession()
-            .createNativeQuery( sql ).getSingleResult();
+        Object[] summary = readOnlyJdbcTemplate.query( withTimeout( sql ),
+            rs -> rs.next() ? toRow( rs ) : null );
         return new DataIntegritySummary( check, new Date(), null, parseCount( summary ),
             parsePercentage( summary ) );
     }
 
     @Override
-    @Transactional( readOnly = true )
     public DataIntegrityDetails queryDetails( DataIntegrityCheck check, String sql )
     {
-        @SuppressWarnings( "unchecked" )
-        List<Object[]> rows = sessionFactory.getCurrentSession().createNativeQuery( sql )
-            .getResultList();
+        List<Object[]> rows = readOnlyJdbcTemplate.query( withTimeout( sql ), ( rs, rowNum ) -> toRow( rs ) );
         return new DataIntegrityDetails( check, new Date(), null, rows.stream()
             .map( row -> new DataIntegrityIssue(
                 getIndex( row, 0 ), getIndex( row, 1 ), getIndex( row, 2 ), getRefs( row, 3 ) ) )
             .collect( toUnmodifiableList() ) );
     }
 
+    @Override
+    public boolean isChangedSince( Set<String> tables, Date since )
+    {
+        Boolean deleted = jdbcTemplate.queryForObject(
+            "select exists (select 1 from deletedobject where deleted_at > ?)", Boolean.class, since );
+        if ( Boolean.TRUE.equals( deleted ) )
+        {
+            return true;
+        }
+        if ( tables.isEmpty() )
+        {
+            return false;
+        }
+        List<String> updatable = jdbcTemplate.queryForList(
+            "select distinct lower(table_name) from information_schema.columns"
+                + " where lower(column_name) = 'lastupdated' and lower(table_name) in ("
+                + tables.stream().map( table -> "?" ).collect( joining( "," ) ) + ")",
+            String.class, tables.toArray() );
+        if ( updatable.size() < tables.size() )
+        {
+            // changes to tables without lastupdated cannot be detected
+            return true;
+        }
+        for ( String table : updatable )
+        {
+            Boolean updated = jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + table + " where lastupdated > ?)", Boolean.class, since );
+            if ( Boolean.TRUE.equals( updated ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional( propagation = Propagation.REQUIRES_NEW )
+    public void saveSummary( DataIntegritySummary summary, Date startedTime )
+    {
+        DataIntegrityResult result = getOrCreateResult( summary.getCheck().getName(), TYPE_SUMMARY );
+        result.setStartedTime( startedTime );
+        result.setFinishedTime( summary.getFinishedTime() );
+        result.setError( summary.getError() );
+        result.setIssueCount( summary.getCount() );
+        result.setPercentage( summary.getPercentage() );
+        sessionFactory.getCurrentSession().saveOrUpdate( result );
+    }
+
+    @Override
+    @Transactional( propagation = Propagation.REQUIRES_NEW )
+    public void saveDetails( DataIntegrityDetails details, Date startedTime )
+    {
+        DataIntegrityResult result = getOrCreateResult( details.getCheck().getName(), TYPE_DETAILS );
+        result.setStartedTime( startedTime );
+        result.setFinishedTime( details.getFinishedTime() );
+        result.setError( details.getError() );
+        result.setIssueCount( details.getIssues() == null ? null : details.getIssues().size() );
+        try
+        {
+            result.setIssues( jsonMapper.writeValueAsString( details.getIssues() ) );
+        }
+        catch ( JsonProcessingException ex )
+        {
+            throw new IllegalArgumentException( "Failed to serialise data integrity issues", ex );
+        }
+        sessionFactory.getCurrentSession().saveOrUpdate( result );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public DataIntegritySummary getSummary( DataIntegrityCheck check )
+    {
+        DataIntegrityResult result = getResult( check.getName(), TYPE_SUMMARY );
+        return result == null
+            ? null
+            : new DataIntegritySummary( check, result.getFinishedTime(), result.getError(),
+                result.getIssueCount() == null ? -1 : result.getIssueCount(), result.getPercentage() );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public DataIntegrityDetails getDetails( DataIntegrityCheck check )
+    {
+        DataIntegrityResult result = getResult( check.getName(), TYPE_DETAILS );
+        return result == null
+            ? null
+            : new DataIntegrityDetails( check, result.getFinishedTime(), result.getError(),
+                parseIssues( result.getIssues() ) );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public Date getSummaryStartedTime( DataIntegrityCheck check )
+    {
+        return getStartedTime( getResult( check.getName(), TYPE_SUMMARY ) );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public Date getDetailsStartedTime( DataIntegrityCheck check )
+    {
+        return getStartedTime( getResult( check.getName(), TYPE_DETAILS ) );
+    }
+
+    private static Date getStartedTime( DataIntegrityResult result )
+    {
+        return result == null || result.getError() != null ? null : result.getStartedTime();
+    }
+
+    private DataIntegrityResult getOrCreateResult( String name, String type )
+    {
+        DataIntegrityResult result = getResult( name, type );
+        return result != null ? result : new DataIntegrityResult( name, type );
+    }
+
+    private DataIntegrityResult getResult( String name, String type )
+    {
+        return sessionFactory.getCurrentSession()
+            .createQuery( "from DataIntegrityResult r where r.name = :name and r.type = :type",
+                DataIntegrityResult.class )
+            .setParameter( "name", name )
+            .setParameter( "type", type )
+            .uniqueResult();
+    }
+
+    private List<DataIntegrityIssue> parseIssues( String json )
+    {
+        if ( json == null )
+        {
+            return List.of();
+        }
+        try
+        {
+            List<DataIntegrityIssue> issues = new ArrayList<>();
+            for ( JsonNode issue : jsonMapper.readTree( json ) )
+            {
+                JsonNode refs = issue.path( "refs" );
+                issues.add( new DataIntegrityIssue( getText( issue, "id" ), getText( issue, "name" ),
+                    getText( issue, "comment" ), refs.isArray()
+                        ? Stream.of( jsonMapper.treeToValue( refs, String[].class ) ).collect( toList() )
+                        : null ) );
+            }
+            return Collections.unmodifiableList( issues );
+        }
+        catch ( JsonProcessingException ex )
+        {
+            throw new IllegalStateException( "Failed to parse stored data integrity issues", ex );
+        }
+    }
+
+    private static String getText( JsonNode node, String field )
+    {
+        JsonNode value = node.get( field );
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private PreparedStatementCreator withTimeout( String sql )
+    {
+        int timeout = Integer.parseInt( config.getProperty( ConfigurationKey.DATA_INTEGRITY_CHECK_TIMEOUT ) );
+        return con -> {
+            PreparedStatement statement = con.prepareStatement( sql );
+            statement.setQueryTimeout( timeout );
+            return statement;
+        };
+    }
+
+    private static Object[] toRow( ResultSet rs )
+        throws SQLException
+    {
+        int columns = rs.getMetaData().getColumnCount();
+        Object[] row = new Object[columns];
+        for ( int i = 0; i < columns; i++ )
+        {
+            row[i] = rs.getObject( i + 1 );
+        }
+        return row;
+    }
+
     private static String getIndex( Object[] row, int index )
     {
-        return row.length <= index ? null : (String) row[index];
+        return row.length <= index ? null : Objects.toString( row[index], null );
     }
 
     private static List<String> getRefs( Object[] row, int index )
     {
-        return row.length <= index ? null : List.of( (String[]) row[index] );
+        if ( row.length <= index || row[index] == null )
+        {
+            return null;
+        }
+        Object refs = row[index];
+        try
+        {
+            if ( refs instanceof Array )
+            {
+                refs = ((Array) refs).getArray();
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new IllegalStateException( "Failed to read issue refs", ex );
+        }
+        return Stream.of( (Object[]) refs ).map( String::valueOf ).collect( toUnmodifiableList() );
     }
 
     private static Double parsePercentage( Object value )
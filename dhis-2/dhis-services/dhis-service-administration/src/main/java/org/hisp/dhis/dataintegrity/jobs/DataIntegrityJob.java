@@ -71,17 +71,18 @@ public class DataIntegrityJob implements Job
             : parameters.getChecks();
 
         DataIntegrityReportType type = parameters == null ? null : parameters.getType();
+        boolean changesOnly = parameters != null && parameters.isChangesOnly();
         if ( type == null || type == DataIntegrityReportType.REPORT )
         {
             runReport( config, progress, checks );
         }
         else if ( type == DataIntegrityReportType.SUMMARY )
         {
-            dataIntegrityService.runSummaryChecks( checks, progress );
+            dataIntegrityService.runSummaryChecks( checks, changesOnly, progress );
         }
         else
         {
-            dataIntegrityService.runDetailsChecks( checks, progress );
+            dataIntegrityService.runDetailsChecks( checks, changesOnly, progress );
         }
     }
 
@@ -29,16 +29,21 @@ package org.hisp.dhis.merge.orgunit.handler;
 
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import lombok.AllArgsConstructor;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.dataapproval.DataApprovalAuditService;
+import org.hisp.dhis.dataapproval.DataApprovalStore;
 import org.hisp.dhis.dataset.DataSetService;
 import org.hisp.dhis.datavalue.DataValueAuditService;
 import org.hisp.dhis.merge.orgunit.DataMergeStrategy;
 import org.hisp.dhis.merge.orgunit.OrgUnitMergeRequest;
 import org.hisp.dhis.minmax.MinMaxDataElementService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.validation.ValidationResultService;
 import org.hisp.dhis.validation.ValidationResultsDeletionRequest;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -67,6 +72,8 @@ public class DataOrgUnitMergeHandler
 
     private final DataApprovalAuditService dataApprovalAuditService;
 
+    private final DataApprovalStore dataApprovalStore;
+
     private final ValidationResultService validationResultService;
 
     private final MinMaxDataElementService minMaxDataElementService;
@@ -142,6 +149,12 @@ public class DataOrgUnitMergeHandler
             .addValue( "target_id", request.getTarget().getId() );
 
         jdbcTemplate.update( sql, params );
+
+        Set<OrganisationUnit> orgUnits = new HashSet<>( request.getSources() );
+        orgUnits.add( request.getTarget() );
+
+        dataApprovalStore.updateDataApprovalStates( orgUnits );
+        dataApprovalStore.invalidateCaches();
     }
 
     private String getMergeDataApprovalsDiscardSql()
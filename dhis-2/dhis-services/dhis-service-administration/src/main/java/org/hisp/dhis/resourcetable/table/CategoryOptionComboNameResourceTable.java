@@ -29,14 +29,10 @@ package org.hisp.dhis.resourcetable.table;
 
 import static org.hisp.dhis.dataapproval.DataApprovalLevelService.APPROVAL_LEVEL_HIGHEST;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import lombok.extern.slf4j.Slf4j;
-
 import org.hisp.dhis.category.CategoryCombo;
-import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
 
@@ -45,7 +41,6 @@ import com.google.common.collect.Lists;
 /**
  * @author Lars Helge Overland
  */
-@Slf4j
 public class CategoryOptionComboNameResourceTable
     extends ResourceTable<CategoryCombo>
 {
@@ -69,40 +64,44 @@ public class CategoryOptionComboNameResourceTable
             "startdate date, enddate date)";
     }
 
+    /**
+     * Populates the table for category option combos of valid category combos,
+     * i.e. combos with at least one category where every category has at least
+     * one category option. The start date is the latest start date and the end
+     * date the earliest end date of the category options of the combo.
+     */
     @Override
     public Optional<String> getPopulateTempTableStatement()
     {
-        return Optional.empty();
+        String sql = "insert into " + getTempTableName() +
+            " (categoryoptioncomboid, categoryoptioncomboname, approvallevel, startdate, enddate) " +
+            "select coc.categoryoptioncomboid, coc.name, " +
+            "case when coc.ignoreapproval = true then " + APPROVAL_LEVEL_HIGHEST + " else null end, " +
+            "(select max(co.startdate) from categoryoptioncombos_categoryoptions cocco " +
+            "inner join dataelementcategoryoption co on cocco.categoryoptionid = co.categoryoptionid " +
+            "where cocco.categoryoptioncomboid = coc.categoryoptioncomboid), " +
+            "(select min(co.enddate) from categoryoptioncombos_categoryoptions cocco " +
+            "inner join dataelementcategoryoption co on cocco.categoryoptionid = co.categoryoptionid " +
+            "where cocco.categoryoptioncomboid = coc.categoryoptioncomboid) " +
+            "from categoryoptioncombo coc " +
+            "inner join categorycombos_optioncombos ccoc on coc.categoryoptioncomboid = ccoc.categoryoptioncomboid " +
+            "where exists (" +
+            "select 1 from categorycombos_categories ccc " +
+            "where ccc.categorycomboid = ccoc.categorycomboid) " +
+            "and not exists (" +
+            "select 1 from categorycombos_categories ccc " +
+            "where ccc.categorycomboid = ccoc.categorycomboid " +
+            "and not exists (" +
+            "select 1 from categories_categoryoptions cco " +
+            "where cco.categoryid = ccc.categoryid))";
+
+        return Optional.of( sql );
     }
 
     @Override
     public Optional<List<Object[]>> getPopulateTempTableContent()
     {
-        List<Object[]> batchArgs = new ArrayList<>();
-
-        for ( CategoryCombo combo : objects )
-        {
-            if ( !combo.isValid() )
-            {
-                log.warn( "Ignoring category combo, not valid: " + combo );
-                continue;
-            }
-
-            for ( CategoryOptionCombo coc : combo.getOptionCombos() )
-            {
-                List<Object> values = new ArrayList<>();
-
-                values.add( coc.getId() );
-                values.add( coc.getName() );
-                values.add( coc.isIgnoreApproval() ? APPROVAL_LEVEL_HIGHEST : null );
-                values.add( coc.getLatestStartDate() );
-                values.add( coc.getEarliestEndDate() );
-
-                batchArgs.add( values.toArray() );
-            }
-        }
-
-        return Optional.of( batchArgs );
+        return Optional.empty();
     }
 
     @Override
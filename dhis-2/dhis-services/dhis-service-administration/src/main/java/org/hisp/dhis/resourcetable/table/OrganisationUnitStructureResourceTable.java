@@ -29,35 +29,35 @@ package org.hisp.dhis.resourcetable.table;
 
 import static org.hisp.dhis.system.util.SqlUtils.quote;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
+import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
-import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
 
 import com.google.common.collect.Lists;
 
 /**
+ * Organisation unit structure resource table. The table is populated through
+ * a single insert into select statement where the ancestor at each level is
+ * resolved by extracting its UID from the path of the organisation unit. As
+ * the path consists of fixed length UIDs separated by slashes, the UID of the
+ * ancestor at level k is located at offset {@code (k - 1) * 12 + 2}.
+ *
  * @author Lars Helge Overland
  */
 public class OrganisationUnitStructureResourceTable
     extends ResourceTable<OrganisationUnit>
 {
-    private OrganisationUnitService organisationUnitService; // Nasty
+    private static final int PATH_SEGMENT_LENGTH = CodeGenerator.CODESIZE + 1;
 
     private int organisationUnitLevels;
 
-    public OrganisationUnitStructureResourceTable( List<OrganisationUnit> objects,
-        OrganisationUnitService organisationUnitService, int organisationUnitLevels )
+    public OrganisationUnitStructureResourceTable( List<OrganisationUnit> objects, int organisationUnitLevels )
     {
         super( objects );
-        this.organisationUnitService = organisationUnitService;
         this.organisationUnitLevels = organisationUnitLevels;
     }
 
@@ -88,53 +88,45 @@ public class OrganisationUnitStructureResourceTable
     @Override
     public Optional<String> getPopulateTempTableStatement()
     {
-        return Optional.empty();
-    }
-
-    @Override
-    public Optional<List<Object[]>> getPopulateTempTableContent()
-    {
-        List<Object[]> batchArgs = new ArrayList<>();
-
-        for ( int i = 0; i < organisationUnitLevels; i++ )
-        {
-            int level = i + 1;
+        StringBuilder insert = new StringBuilder( "insert into " ).append( getTempTableName() )
+            .append( " (organisationunitid, organisationunituid, level" );
 
-            Collection<OrganisationUnit> units = organisationUnitService.getOrganisationUnitsAtLevel( level );
+        StringBuilder select = new StringBuilder(
+            "select ou.organisationunitid, ou.uid, ou.hierarchylevel" );
 
-            for ( OrganisationUnit unit : units )
-            {
-                List<Object> values = new ArrayList<>();
+        StringBuilder from = new StringBuilder( "from organisationunit ou " );
 
-                values.add( unit.getId() );
-                values.add( unit.getUid() );
-                values.add( level );
+        for ( int k = 1; k <= organisationUnitLevels; k++ )
+        {
+            String alias = "l" + k;
 
-                Map<Integer, Long> identifiers = new HashMap<>();
-                Map<Integer, String> uids = new HashMap<>();
-                Map<Integer, String> names = new HashMap<>();
+            insert.append( ", " ).append( quote( "idlevel" + k ) )
+                .append( ", " ).append( quote( "uidlevel" + k ) )
+                .append( ", " ).append( quote( "namelevel" + k ) );
 
-                for ( int j = level; j > 0; j-- )
-                {
-                    identifiers.put( j, unit.getId() );
-                    uids.put( j, unit.getUid() );
-                    names.put( j, unit.getName() );
+            select.append( ", " ).append( alias ).append( ".organisationunitid" )
+                .append( ", " ).append( alias ).append( ".uid" )
+                .append( ", " ).append( alias ).append( ".name" );
 
-                    unit = unit.getParent();
-                }
+            from.append( "left join organisationunit " ).append( alias )
+                .append( " on " ).append( alias ).append( ".uid = substring(ou.path, " )
+                .append( (k - 1) * PATH_SEGMENT_LENGTH + 2 ).append( ", " )
+                .append( CodeGenerator.CODESIZE ).append( ") " )
+                .append( "and ou.hierarchylevel >= " ).append( k ).append( " " );
+        }
 
-                for ( int k = 1; k <= organisationUnitLevels; k++ )
-                {
-                    values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
-                    values.add( uids.get( k ) );
-                    values.add( names.get( k ) );
-                }
+        String sql = insert.append( ") " ).toString() +
+            select.append( " " ).toString() +
+            from.toString() +
+            "where ou.hierarchylevel between 1 and " + organisationUnitLevels;
 
-                batchArgs.add( values.toArray() );
-            }
-        }
+        return Optional.of( sql );
+    }
 
-        return Optional.of( batchArgs );
+    @Override
+    public Optional<List<Object[]>> getPopulateTempTableContent()
+    {
+        return Optional.empty();
     }
 
     @Override
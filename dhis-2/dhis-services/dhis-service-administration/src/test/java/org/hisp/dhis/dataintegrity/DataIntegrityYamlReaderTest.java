@@ -27,13 +27,16 @@
  */
 package org.hisp.dhis.dataintegrity;
 
+import static org.hisp.dhis.dataintegrity.DataIntegrityYamlReader.getTables;
 import static org.hisp.dhis.dataintegrity.DataIntegrityYamlReader.readDataIntegrityYaml;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import org.hisp.dhis.dataintegrity.DataIntegrityDetails.DataIntegrityIssue;
 import org.junit.jupiter.api.Test;
@@ -53,7 +56,8 @@ class DataIntegrityYamlReaderTest
             ( property, defaultValue ) -> defaultValue,
             sql -> check -> new DataIntegritySummary( check, new Date(), null, 1, 100d ),
             sql -> check -> new DataIntegrityDetails( check, new Date(), null,
-                List.of( new DataIntegrityIssue( "id", "name", sql, List.of() ) ) ) );
+                List.of( new DataIntegrityIssue( "id", "name", sql, List.of() ) ) ),
+            tables -> since -> tables.contains( "dataelementcategory" ) );
         assertEquals( 6, checks.size() );
         DataIntegrityCheck check = checks.get( 0 );
         assertEquals( "categories_no_options", check.getName() );
@@ -67,5 +71,44 @@ class DataIntegrityYamlReaderTest
             + " should be added to the category.", check.getRecommendation() );
         assertTrue( check.getRunDetailsCheck().apply( check ).getIssues().get( 0 ).getComment()
             .startsWith( "SELECT uid,name from dataelementcategory" ) );
+        assertTrue( check.isSqlBased() );
+        assertTrue( check.getChangedSince().test( new Date() ) );
+    }
+
+    @Test
+    void testGetTables()
+    {
+        assertEquals( List.of( "categoryoptioncombo" ), List.copyOf( getTables(
+            "SELECT count(*) AS count FROM categoryoptioncombo WHERE name = 'default'" ) ) );
+        assertEquals( Set.of( "dataelementcategory", "categories_categoryoptions" ), getTables(
+            "SELECT uid,name from dataelementcategory WHERE categoryid NOT IN ("
+                + "SELECT DISTINCT categoryid FROM categories_categoryoptions) "
+                + "LEFT JOIN (select 1) x on true" ) );
+        assertEquals( Set.of(), getTables( null ) );
+    }
+
+    @Test
+    void testGetTablesCommaJoin()
+    {
+        assertNull( getTables( "SELECT de.uid FROM dataelement de, datasetelement dse "
+            + "WHERE de.dataelementid = dse.dataelementid" ) );
+        assertNull( getTables( "SELECT de.uid FROM dataelement, datasetelement "
+            + "WHERE dataelement.dataelementid = datasetelement.dataelementid" ) );
+    }
+
+    @Test
+    void testGetTablesJoinTableWithoutLastUpdated()
+    {
+        assertEquals( Set.of( "dataset", "datasetelement" ), getTables(
+            "SELECT ds.uid FROM dataset ds LEFT JOIN datasetelement dse ON ds.datasetid = dse.datasetid "
+                + "WHERE dse.datasetid IS NULL" ) );
+    }
+
+    @Test
+    void testGetTablesCommonTableExpression()
+    {
+        assertEquals( Set.of( "organisationunit" ), getTables(
+            "WITH orphans AS (SELECT uid FROM organisationunit WHERE parentid IS NULL) "
+                + "SELECT count(*) FROM orphans" ) );
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataintegrity.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests the change detection of {@link HibernateDataIntegrityStore}.
+ */
+@ExtendWith( MockitoExtension.class )
+class HibernateDataIntegrityStoreTest
+{
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcTemplate readOnlyJdbcTemplate;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private HibernateDataIntegrityStore store;
+
+    private final Date since = new Date();
+
+    @BeforeEach
+    void setUp()
+    {
+        store = new HibernateDataIntegrityStore( sessionFactory, jdbcTemplate, readOnlyJdbcTemplate, config,
+            new ObjectMapper() );
+        when( jdbcTemplate.queryForObject( startsWith( "select exists (select 1 from deletedobject" ),
+            eq( Boolean.class ), any( Date.class ) ) ).thenReturn( false );
+    }
+
+    @Test
+    void testIsChangedSinceWhenTableHasNoLastUpdated()
+    {
+        when( jdbcTemplate.queryForList( startsWith( "select distinct lower(table_name)" ), eq( String.class ),
+            any() ) ).thenReturn( List.of( "dataset" ) );
+
+        assertTrue( store.isChangedSince( Set.of( "dataset", "datasetelement" ), since ) );
+        verify( jdbcTemplate, never() ).queryForObject( startsWith( "select exists (select 1 from dataset " ),
+            eq( Boolean.class ), any( Date.class ) );
+    }
+
+    @Test
+    void testIsChangedSinceWhenTablesUnchanged()
+    {
+        when( jdbcTemplate.queryForList( startsWith( "select distinct lower(table_name)" ), eq( String.class ),
+            any() ) ).thenReturn( List.of( "dataset", "dataelement" ) );
+        when( jdbcTemplate.queryForObject( startsWith( "select exists (select 1 from data" ), eq( Boolean.class ),
+            any( Date.class ) ) ).thenReturn( false );
+
+        assertFalse( store.isChangedSince( Set.of( "dataset", "dataelement" ), since ) );
+    }
+
+    @Test
+    void testIsChangedSinceWhenTableUpdated()
+    {
+        when( jdbcTemplate.queryForList( anyString(), eq( String.class ), any() ) )
+            .thenReturn( List.of( "dataset" ) );
+        when( jdbcTemplate.queryForObject( eq( "select exists (select 1 from dataset where lastupdated > ?)" ),
+            eq( Boolean.class ), any( Date.class ) ) ).thenReturn( true );
+
+        assertTrue( store.isChangedSince( Set.of( "dataset" ), since ) );
+    }
+
+    @Test
+    void testIsChangedSinceRunsOnPrimary()
+    {
+        when( jdbcTemplate.queryForList( anyString(), eq( String.class ), any() ) )
+            .thenReturn( List.of( "dataset" ) );
+        when( jdbcTemplate.queryForObject( eq( "select exists (select 1 from dataset where lastupdated > ?)" ),
+            eq( Boolean.class ), any( Date.class ) ) ).thenReturn( false );
+
+        assertFalse( store.isChangedSince( Set.of( "dataset" ), since ) );
+        verifyNoInteractions( readOnlyJdbcTemplate );
+    }
+}
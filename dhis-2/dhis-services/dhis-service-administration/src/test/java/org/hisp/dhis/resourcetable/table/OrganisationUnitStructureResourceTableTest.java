@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.resourcetable.table;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link OrganisationUnitStructureResourceTable}.
+ */
+class OrganisationUnitStructureResourceTableTest
+{
+    private final OrganisationUnitStructureResourceTable table = new OrganisationUnitStructureResourceTable( null,
+        3 );
+
+    @Test
+    void populateStatementResolvesAncestorsFromPath()
+    {
+        String sql = table.getPopulateTempTableStatement().orElseThrow();
+
+        assertTrue( sql.startsWith( "insert into _orgunitstructure_temp " ) );
+        assertTrue( sql.contains( "left join organisationunit l1 on l1.uid = substring(ou.path, 2, 11) " ) );
+        assertTrue( sql.contains( "left join organisationunit l2 on l2.uid = substring(ou.path, 14, 11) " ) );
+        assertTrue( sql.contains( "left join organisationunit l3 on l3.uid = substring(ou.path, 26, 11) " ) );
+        assertTrue( sql.endsWith( "where ou.hierarchylevel between 1 and 3" ) );
+    }
+
+    @Test
+    void populateContentIsNotUsed()
+    {
+        assertFalse( table.getPopulateTempTableContent().isPresent() );
+    }
+}
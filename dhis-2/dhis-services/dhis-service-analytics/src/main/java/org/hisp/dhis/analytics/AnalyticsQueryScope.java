@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Groups the database queries executed for one analytics request so that all
+ * of them can be cancelled together, either because one of them failed, the
+ * request was aborted or the request timeout has been reached.
+ */
+@Slf4j
+public class AnalyticsQueryScope
+{
+    /**
+     * The user the queries are executed for, null if unknown
+     */
+    @Getter
+    private final String username;
+
+    /**
+     * Deadline in {@link System#nanoTime()}, zero for none
+     */
+    private final long deadline;
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * @param username the user the queries are executed for, null if unknown
+     * @param timeoutSeconds time after which the queries are cancelled, zero
+     *        for no timeout
+     */
+    public AnalyticsQueryScope( String username, int timeoutSeconds )
+    {
+        this.username = username;
+        this.deadline = timeoutSeconds <= 0 ? 0L
+            : System.nanoTime() + TimeUnit.SECONDS.toNanos( timeoutSeconds );
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * @return nanoseconds left until the deadline, {@link Long#MAX_VALUE} if
+     *         there is no deadline
+     */
+    public long getRemainingNanos()
+    {
+        return deadline == 0L ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Adds a statement to the scope and limits its execution time to the time
+     * left until the deadline of the scope.
+     *
+     * @param statement the statement about to be executed
+     * @throws SQLException when the scope is cancelled or the timeout cannot
+     *         be set
+     */
+    public void register( Statement statement )
+        throws SQLException
+    {
+        if ( cancelled )
+        {
+            throw new SQLException( "Query was cancelled" );
+        }
+        long remaining = getRemainingNanos();
+        if ( remaining != Long.MAX_VALUE )
+        {
+            statement.setQueryTimeout( (int) Math.max( 1L, TimeUnit.NANOSECONDS.toSeconds( remaining ) ) );
+        }
+        statements.add( statement );
+        if ( cancelled )
+        {
+            statement.cancel();
+        }
+    }
+
+    public void unregister( Statement statement )
+    {
+        statements.remove( statement );
+    }
+
+    /**
+     * Cancels all statements currently running in this scope and prevents
+     * further queries of this scope from being admitted.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        for ( Statement statement : statements )
+        {
+            try
+            {
+                statement.cancel();
+            }
+            catch ( SQLException ex )
+            {
+                log.debug( "Failed to cancel analytics query", ex );
+            }
+        }
+    }
+}
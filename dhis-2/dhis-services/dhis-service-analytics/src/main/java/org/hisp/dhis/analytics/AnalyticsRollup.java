@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics;
+
+import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
+
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.period.PeriodType;
+
+/**
+ * Class representing a pre-aggregated rollup of an analytics table. A rollup
+ * holds the values of the analytics table summed up to a given organisation
+ * unit level and period type, optionally restricted to the members of a data
+ * element group. Rollup tables are rebuilt from the analytics table after
+ * every update.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class AnalyticsRollup
+{
+    private static final Set<String> FIXED_COLUMNS = Set.of( "dx", "co", "ao", "approvallevel" );
+
+    /**
+     * The analytics table type this rollup aggregates.
+     */
+    private final AnalyticsTableType tableType;
+
+    /**
+     * The lowest organisation unit level kept in this rollup.
+     */
+    private final int level;
+
+    /**
+     * The period type the values of this rollup are aggregated to.
+     */
+    private final PeriodType periodType;
+
+    /**
+     * The identifier of the data element group this rollup is restricted to,
+     * null if it contains all data elements.
+     */
+    private final String dataElementGroup;
+
+    public boolean hasDataElementGroup()
+    {
+        return dataElementGroup != null;
+    }
+
+    public String getTableName()
+    {
+        String tableName = getTableNamePrefix( tableType ) + level + "_" + getPeriodColumn();
+
+        return hasDataElementGroup() ? tableName + "_" + dataElementGroup.toLowerCase() : tableName;
+    }
+
+    public String getTempTableName()
+    {
+        return getTableName() + AnalyticsTableManager.TABLE_TEMP_SUFFIX;
+    }
+
+    /**
+     * Returns the name of the period column of this rollup.
+     */
+    public String getPeriodColumn()
+    {
+        return periodType.getName().toLowerCase();
+    }
+
+    /**
+     * Indicates whether the given analytics table column is kept in this
+     * rollup.
+     *
+     * @param column the unquoted column name.
+     */
+    public boolean hasColumn( String column )
+    {
+        if ( FIXED_COLUMNS.contains( column ) || getPeriodColumn().equals( column ) )
+        {
+            return true;
+        }
+
+        if ( column != null && column.startsWith( LEVEL_PREFIX ) )
+        {
+            int columnLevel = NumberUtils.toInt( column.substring( LEVEL_PREFIX.length() ), -1 );
+
+            return columnLevel > 0 && columnLevel <= level;
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicates whether the given table name is the name of a rollup table of
+     * the given analytics table type.
+     *
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param tableName the table name.
+     */
+    public static boolean isRollupTable( AnalyticsTableType tableType, String tableName )
+    {
+        return tableName != null && tableName.startsWith( getTableNamePrefix( tableType ) );
+    }
+
+    private static String getTableNamePrefix( AnalyticsTableType tableType )
+    {
+        return tableType.getTableName() + "_rollup_";
+    }
+
+    @Override
+    public String toString()
+    {
+        return getTableName();
+    }
+}
@@ -28,6 +28,7 @@
 package org.hisp.dhis.analytics;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -90,6 +91,42 @@ public interface AnalyticsTableManager
         // NOOP by default
     }
 
+    /**
+     * Returns the years of the data which was updated or deleted in the given
+     * time range, i.e. the years which a "latest" partition update affects.
+     *
+     * @param startDate the start date of the time range, inclusive.
+     * @param endDate the end date of the time range, exclusive.
+     * @return the years, or null if the affected years are unknown.
+     */
+    default Set<Integer> getUpdatedDataYears( Date startDate, Date endDate )
+    {
+        return null;
+    }
+
+    /**
+     * Indicates whether tables derived from the analytics tables, such as
+     * event cluster pyramids, are built for the given update.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    default boolean hasDerivedTables( AnalyticsTableUpdateParams params )
+    {
+        return false;
+    }
+
+    /**
+     * Builds the tables derived from the given analytics table. The analytics
+     * table must have been swapped in before.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param table the {@link AnalyticsTable}.
+     */
+    default void createDerivedTables( AnalyticsTableUpdateParams params, AnalyticsTable table )
+    {
+        // NOOP by default
+    }
+
     /**
      * Attempts to drop and then create analytics table.
      *
@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.analytics;
 
+import java.util.Date;
+import java.util.Set;
+
 import org.hisp.dhis.scheduling.JobProgress;
 
 /**
@@ -52,6 +55,16 @@ public interface AnalyticsTableService
      */
     void update( AnalyticsTableUpdateParams params, JobProgress progress );
 
+    /**
+     * Returns the years of the data which was updated or deleted in the given
+     * time range.
+     *
+     * @param startDate the start date of the time range, inclusive.
+     * @param endDate the end date of the time range, exclusive.
+     * @return the years, or null if the affected years are unknown.
+     */
+    Set<Integer> getUpdatedDataYears( Date startDate, Date endDate );
+
     /**
      * Drops main and temporary analytics tables.
      */
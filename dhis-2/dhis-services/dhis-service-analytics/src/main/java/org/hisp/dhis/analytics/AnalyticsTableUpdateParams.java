@@ -85,6 +85,12 @@ public class AnalyticsTableUpdateParams
      */
     private Date lastSuccessfulUpdate;
 
+    /**
+     * Number of parallel processes to use per analytics table type. If null,
+     * the number is derived from the database server CPUs.
+     */
+    private Integer processNo;
+
     /**
      * Current date, only used for testing
      */
@@ -134,6 +140,11 @@ public class AnalyticsTableUpdateParams
         return lastSuccessfulUpdate;
     }
 
+    public Integer getProcessNo()
+    {
+        return processNo;
+    }
+
     public boolean isSkipPrograms()
     {
         return !skipPrograms.isEmpty();
@@ -215,6 +226,7 @@ public class AnalyticsTableUpdateParams
         params.jobId = this.jobId;
         params.startTime = this.startTime;
         params.lastSuccessfulUpdate = this.lastSuccessfulUpdate;
+        params.processNo = this.processNo;
 
         return this;
     }
@@ -294,6 +306,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withProcessNo( Integer processNo )
+        {
+            this.params.processNo = processNo;
+            return this;
+        }
+
         /**
          * This builder property is only used for testing purposes.
          *
@@ -61,7 +61,6 @@ import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
-import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.category.Category;
@@ -72,7 +71,6 @@ import org.hisp.dhis.common.CombinationGenerator;
 import org.hisp.dhis.common.DataDimensionItemType;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.DimensionItemKeywords;
-import org.hisp.dhis.common.DimensionItemObjectValue;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -400,6 +398,11 @@ public class DataQueryParams
      */
     protected transient User currentUser;
 
+    /**
+     * Scope used to cancel the database queries of a request together.
+     */
+    protected transient AnalyticsQueryScope queryScope;
+
     /**
      * The partitions containing data relevant to this query.
      */
@@ -446,6 +449,13 @@ public class DataQueryParams
      */
     protected boolean timely;
 
+    /**
+     * Applies to reporting rates only. Indicates whether reports should be
+     * grouped by timeliness, in which case each key of the query result is
+     * suffixed with whether the reports were timely.
+     */
+    protected boolean groupByTimely;
+
     /**
      * Current organisation unit levels;
      */
@@ -587,6 +597,7 @@ public class DataQueryParams
         params.apiVersion = this.apiVersion;
 
         params.currentUser = this.currentUser;
+        params.queryScope = this.queryScope;
         params.partitions = new Partitions( this.partitions );
         params.tableName = this.tableName;
         params.dataType = this.dataType;
@@ -596,6 +607,7 @@ public class DataQueryParams
         params.dataPeriodType = this.dataPeriodType;
         params.skipPartitioning = this.skipPartitioning;
         params.timely = this.timely;
+        params.groupByTimely = this.groupByTimely;
         params.orgUnitLevels = this.orgUnitLevels;
         params.restrictByOrgUnitOpeningClosedDate = this.restrictByOrgUnitOpeningClosedDate;
         params.restrictByCategoryOptionStartEndDate = this.restrictByCategoryOptionStartEndDate;
@@ -1956,47 +1968,6 @@ public class DataQueryParams
     // Static methods
     // -------------------------------------------------------------------------
 
-    /**
-     * Creates a mapping of permutation keys and mappings of data element
-     * operands and values based on the given mapping of dimension option keys
-     * and aggregated values. The data element dimension will be at index 0.
-     *
-     * @param aggregatedDataMap the aggregated data map.
-     * @return a mapping of permutation keys and mappings of data element
-     *         operands and values.
-     */
-    public static Map<String, List<DimensionItemObjectValue>> getPermutationDimensionalItemValueMap(
-        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap )
-    {
-        Map<String, List<DimensionItemObjectValue>> permutationMap = new HashMap<>();
-
-        for ( String key : aggregatedDataMap.keySet() )
-        {
-            // Remove DimensionalItemObject uid from key
-            List<String> keys = Lists.newArrayList( key.split( DIMENSION_SEP ) );
-            keys.remove( DX_INDEX );
-
-            final Collection<DimensionItemObjectValue> dimensionItemObjectValues = aggregatedDataMap.get( key );
-
-            // Generate final permutation key
-            final String permKey = StringUtils.join( keys, DIMENSION_SEP );
-
-            for ( DimensionItemObjectValue dimWithValue : dimensionItemObjectValues )
-            {
-                if ( !permutationMap.containsKey( permKey ) )
-                {
-                    permutationMap.put( permKey, Lists.newArrayList( dimWithValue ) );
-                }
-                else
-                {
-                    permutationMap.get( permKey ).add( dimWithValue );
-                }
-            }
-        }
-
-        return permutationMap;
-    }
-
     /**
      * Returns a mapping of permutations keys (org unit id or null) and mappings
      * of org unit group and counts, based on the given mapping of dimension
@@ -2333,6 +2304,11 @@ public class DataQueryParams
         return currentUser;
     }
 
+    public AnalyticsQueryScope getQueryScope()
+    {
+        return queryScope;
+    }
+
     public Partitions getPartitions()
     {
         return partitions;
@@ -2380,6 +2356,11 @@ public class DataQueryParams
         return timely;
     }
 
+    public boolean isGroupByTimely()
+    {
+        return groupByTimely;
+    }
+
     public boolean isSkipDataDimensionValidation()
     {
         return skipDataDimensionValidation;
@@ -3219,6 +3200,12 @@ public class DataQueryParams
             return this;
         }
 
+        public Builder withGroupByTimely( boolean groupByTimely )
+        {
+            this.params.groupByTimely = groupByTimely;
+            return this;
+        }
+
         public Builder withSkipDataDimensionValidation( boolean skipDataDimensionValidation )
         {
             this.params.skipDataDimensionValidation = skipDataDimensionValidation;
@@ -3273,6 +3260,12 @@ public class DataQueryParams
             return this;
         }
 
+        public Builder withQueryScope( AnalyticsQueryScope queryScope )
+        {
+            this.params.queryScope = queryScope;
+            return this;
+        }
+
         public Builder withPartitions( Partitions partitions )
         {
             this.params.partitions = partitions;
@@ -29,12 +29,16 @@ package org.hisp.dhis.analytics.cache;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.SerializationUtils;
+import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
@@ -88,7 +92,7 @@ public class AnalyticsCache
      */
     public Grid getOrFetch( final DataQueryParams params, final Function<DataQueryParams, Grid> function )
     {
-        final Optional<Grid> cachedGrid = get( params.getKey() );
+        final Optional<Grid> cachedGrid = get( AnalyticsCacheTags.getKey( params ) );
 
         if ( cachedGrid.isPresent() )
         {
@@ -109,7 +113,8 @@ public class AnalyticsCache
      * DataQueryParams.
      * <p>
      * The TTL of the cached object will be set accordingly to the cache
-     * settings available at {@link AnalyticsCacheSettings}.
+     * settings available at {@link AnalyticsCacheSettings}. The entry is keyed
+     * by the tags computed by {@link AnalyticsCacheTags}.
      *
      * @param params the DataQueryParams.
      * @param grid the associated Grid.
@@ -119,13 +124,13 @@ public class AnalyticsCache
         if ( analyticsCacheSettings.isProgressiveCachingEnabled() )
         {
             // Uses the progressive TTL
-            put( params.getKey(), grid,
+            put( AnalyticsCacheTags.getKey( params ), grid,
                 analyticsCacheSettings.progressiveExpirationTimeOrDefault( params.getLatestEndDate() ) );
         }
         else
         {
             // Respects the fixed (predefined) caching TTL
-            put( params.getKey(), grid, analyticsCacheSettings.fixedExpirationTimeOrDefault() );
+            put( AnalyticsCacheTags.getKey( params ), grid, analyticsCacheSettings.fixedExpirationTimeOrDefault() );
         }
     }
 
@@ -152,6 +157,29 @@ public class AnalyticsCache
         log.info( "Analytics cache cleared" );
     }
 
+    /**
+     * Removes the entries holding data of the given table type and of any of
+     * the given years, leaving entries of other table types and years intact.
+     *
+     * @param tableType the updated {@link AnalyticsTableType}.
+     * @param years the predicate matching the updated years.
+     */
+    public void invalidate( final AnalyticsTableType tableType, final Predicate<Integer> years )
+    {
+        List<String> keys = new ArrayList<>();
+
+        queryCache.keys().forEach( key -> {
+            if ( AnalyticsCacheTags.isAffected( key, tableType, years ) )
+            {
+                keys.add( key );
+            }
+        } );
+
+        keys.forEach( queryCache::invalidate );
+
+        log.info( "Analytics cache entries of table type: '{}' removed: {}", tableType, keys.size() );
+    }
+
     public boolean isEnabled()
     {
         return analyticsCacheSettings.isCachingEnabled();
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.hisp.dhis.analytics.AggregationType.FIRST;
+import static org.hisp.dhis.analytics.AggregationType.FIRST_AVERAGE_ORG_UNIT;
+import static org.hisp.dhis.analytics.AggregationType.LAST;
+import static org.hisp.dhis.analytics.AggregationType.LAST_AVERAGE_ORG_UNIT;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.ReportingRate;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementOperand;
+import org.hisp.dhis.indicator.Indicator;
+import org.hisp.dhis.program.ProgramDataElementDimensionItem;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramTrackedEntityAttributeDimensionItem;
+import org.hisp.dhis.validation.ValidationRule;
+
+/**
+ * Computes the tags of analytics cache entries. A tag names an analytics table
+ * type and a year (partition) of that table type which the grid of an entry
+ * was computed from, or all years of the table type. The tags are part of the
+ * cache key, so that entries affected by an analytics table update can be
+ * found and evicted from any cache implementation, local or shared.
+ * <p>
+ * Tags are derived from the query parameters, not from the executed queries,
+ * and err on the side of tagging too much: unknown data items are tagged
+ * with all table types, queries reaching into other periods are tagged with
+ * all years or with the years they look back.
+ */
+@NoArgsConstructor( access = AccessLevel.PRIVATE )
+public final class AnalyticsCacheTags
+{
+    public static final String ALL_YEARS = "*";
+
+    private static final String TAG_SEP = ",";
+
+    private static final String TYPE_YEAR_SEP = ":";
+
+    private static final String KEY_SEP = "|";
+
+    /**
+     * Number of years looked back for first and last value aggregation, see
+     * JdbcAnalyticsManager.
+     */
+    private static final int LOOK_BACK_YEARS = 10;
+
+    private static final Set<AggregationType> LOOK_BACK_AGGREGATION_TYPES = EnumSet.of( FIRST,
+        FIRST_AVERAGE_ORG_UNIT, LAST, LAST_AVERAGE_ORG_UNIT );
+
+    private static final Set<AnalyticsTableType> ALL_TYPES = EnumSet.allOf( AnalyticsTableType.class );
+
+    /**
+     * Returns the cache key for the given query, made of its tags and its
+     * query key.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return the cache key.
+     */
+    public static String getKey( DataQueryParams params )
+    {
+        return String.join( TAG_SEP, getTags( params ) ) + KEY_SEP + params.getKey();
+    }
+
+    /**
+     * Returns the sorted tags of the given query.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return the tags of the form {@code TYPE:year} or {@code TYPE:*}.
+     */
+    public static Set<String> getTags( DataQueryParams params )
+    {
+        Set<AnalyticsTableType> tableTypes = getTableTypes( params );
+        Set<Integer> years = getYears( params );
+
+        Set<String> tags = new TreeSet<>();
+
+        for ( AnalyticsTableType tableType : tableTypes )
+        {
+            if ( years == null || !tableType.hasPeriodDimension() )
+            {
+                tags.add( tableType.name() + TYPE_YEAR_SEP + ALL_YEARS );
+            }
+            else
+            {
+                years.forEach( year -> tags.add( tableType.name() + TYPE_YEAR_SEP + year ) );
+            }
+        }
+
+        return tags;
+    }
+
+    /**
+     * Indicates whether the cache entry with the given key holds data of the
+     * given table type and of one of the given years. Keys without tags are
+     * always considered affected.
+     *
+     * @param key the cache key.
+     * @param tableType the updated {@link AnalyticsTableType}.
+     * @param years the predicate matching the updated years.
+     * @return true if the entry should be evicted.
+     */
+    public static boolean isAffected( String key, AnalyticsTableType tableType, Predicate<Integer> years )
+    {
+        int end = key.indexOf( KEY_SEP );
+
+        if ( end < 0 )
+        {
+            return true;
+        }
+
+        for ( String tag : StringUtils.split( key.substring( 0, end ), TAG_SEP ) )
+        {
+            String type = StringUtils.substringBefore( tag, TYPE_YEAR_SEP );
+            String year = StringUtils.substringAfter( tag, TYPE_YEAR_SEP );
+
+            if ( tableType.name().equals( type )
+                && (ALL_YEARS.equals( year ) || years.test( Integer.valueOf( year ) )) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static Set<AnalyticsTableType> getTableTypes( DataQueryParams params )
+    {
+        if ( params instanceof EventQueryParams )
+        {
+            return EnumSet.of( AnalyticsTableType.EVENT, AnalyticsTableType.ENROLLMENT );
+        }
+
+        Set<AnalyticsTableType> types = EnumSet.noneOf( AnalyticsTableType.class );
+
+        for ( DimensionalItemObject item : params.getAllDataDimensionItems() )
+        {
+            types.addAll( getTableTypes( item ) );
+        }
+
+        if ( types.isEmpty() && !params.getDataElementGroupSets().isEmpty() )
+        {
+            types.add( AnalyticsTableType.DATA_VALUE );
+        }
+
+        return types.isEmpty() ? ALL_TYPES : types;
+    }
+
+    private static Set<AnalyticsTableType> getTableTypes( DimensionalItemObject item )
+    {
+        if ( item instanceof DataElement || item instanceof DataElementOperand )
+        {
+            return EnumSet.of( AnalyticsTableType.DATA_VALUE );
+        }
+        else if ( item instanceof ReportingRate )
+        {
+            return EnumSet.of( AnalyticsTableType.COMPLETENESS, AnalyticsTableType.COMPLETENESS_TARGET );
+        }
+        else if ( item instanceof ProgramIndicator || item instanceof ProgramDataElementDimensionItem
+            || item instanceof ProgramTrackedEntityAttributeDimensionItem )
+        {
+            return EnumSet.of( AnalyticsTableType.EVENT, AnalyticsTableType.ENROLLMENT );
+        }
+        else if ( item instanceof ValidationRule )
+        {
+            return EnumSet.of( AnalyticsTableType.VALIDATION_RESULT );
+        }
+        else if ( item instanceof Indicator )
+        {
+            return getTableTypes( getExpressions( (Indicator) item ) );
+        }
+
+        return ALL_TYPES;
+    }
+
+    /**
+     * Returns the table types the items of the given indicator expression are
+     * read from. Nested indicators are not resolved.
+     */
+    private static Set<AnalyticsTableType> getTableTypes( String expression )
+    {
+        if ( expression.contains( "N{" ) )
+        {
+            return ALL_TYPES;
+        }
+
+        Set<AnalyticsTableType> types = EnumSet.noneOf( AnalyticsTableType.class );
+
+        if ( expression.contains( "#{" ) )
+        {
+            types.add( AnalyticsTableType.DATA_VALUE );
+        }
+
+        if ( expression.contains( "R{" ) )
+        {
+            types.add( AnalyticsTableType.COMPLETENESS );
+            types.add( AnalyticsTableType.COMPLETENESS_TARGET );
+        }
+
+        if ( expression.contains( "D{" ) || expression.contains( "A{" ) || expression.contains( "I{" ) )
+        {
+            types.add( AnalyticsTableType.EVENT );
+            types.add( AnalyticsTableType.ENROLLMENT );
+        }
+
+        if ( expression.contains( "OUG{" ) )
+        {
+            types.add( AnalyticsTableType.ORG_UNIT_TARGET );
+        }
+
+        return types;
+    }
+
+    /**
+     * Returns the years of the partitions the given query reads, null if the
+     * query may read any year.
+     */
+    private static Set<Integer> getYears( DataQueryParams params )
+    {
+        if ( !params.hasStartEndDate() && params.getAllPeriods().isEmpty() )
+        {
+            return null;
+        }
+
+        boolean lookBack = LOOK_BACK_AGGREGATION_TYPES.contains( getAggregationType( params ) );
+
+        for ( DimensionalItemObject item : params.getAllDataDimensionItems() )
+        {
+            if ( item.getQueryMods() != null && item.getQueryMods().getPeriodOffset() != 0 )
+            {
+                return null;
+            }
+
+            if ( item instanceof Indicator )
+            {
+                if ( getExpressions( (Indicator) item ).contains( "periodOffset" ) )
+                {
+                    return null;
+                }
+
+                // Data elements of indicators may aggregate first or last value
+
+                lookBack = true;
+            }
+
+            DataElement dataElement = item instanceof DataElementOperand
+                ? ((DataElementOperand) item).getDataElement()
+                : item instanceof DataElement ? (DataElement) item : null;
+
+            if ( dataElement != null && LOOK_BACK_AGGREGATION_TYPES.contains( dataElement.getAggregationType() ) )
+            {
+                lookBack = true;
+            }
+        }
+
+        Set<Integer> years = params.hasStartEndDate()
+            ? PartitionUtils.getPartitions( params.getStartDate(), params.getEndDate() ).getPartitions()
+            : PartitionUtils.getPartitions( params.getAllPeriods() ).getPartitions();
+
+        if ( years.isEmpty() )
+        {
+            return null;
+        }
+
+        if ( lookBack )
+        {
+            int max = years.stream().mapToInt( Integer::intValue ).max().getAsInt();
+            int min = years.stream().mapToInt( Integer::intValue ).min().getAsInt();
+
+            return IntStream.rangeClosed( min - LOOK_BACK_YEARS, max ).boxed()
+                .collect( Collectors.toCollection( TreeSet::new ) );
+        }
+
+        return years;
+    }
+
+    private static AggregationType getAggregationType( DataQueryParams params )
+    {
+        return params.getAggregationType() != null ? params.getAggregationType().getAggregationType() : null;
+    }
+
+    private static String getExpressions( Indicator indicator )
+    {
+        return StringUtils.defaultString( indicator.getNumerator() ) + " "
+            + StringUtils.defaultString( indicator.getDenominator() );
+    }
+}
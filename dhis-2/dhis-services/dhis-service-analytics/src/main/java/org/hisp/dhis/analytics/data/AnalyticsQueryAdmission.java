@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.commons.util.SystemUtils.getCpuCores;
+import static org.hisp.dhis.setting.SettingKey.DATABASE_SERVER_CPUS;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.analytics.AnalyticsQueryScope;
+import org.hisp.dhis.common.QueryRuntimeException;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Limits the number of analytics database queries running concurrently, both
+ * globally and per user.
+ * <p>
+ * Queries which cannot run immediately are queued. When capacity becomes
+ * available the next query is picked preferring users with fewer running
+ * queries, then queries with a lower planner cost estimate. Queries waiting
+ * longer than {@link #AGING_SECONDS} are picked in arrival order to prevent
+ * expensive queries from starving.
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryAdmission
+{
+    private static final long AGING_SECONDS = 10;
+
+    private static final Pattern TOTAL_COST = Pattern.compile( "\"Total Cost\":\\s*([0-9.]+)" );
+
+    private final DhisConfigurationProvider config;
+
+    private final SystemSettingManager systemSettingManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Timer queueTimer;
+
+    private final Counter rejectedCounter;
+
+    private final Counter cancelledCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    private final List<Waiter> queue = new ArrayList<>();
+
+    private final Map<String, Integer> runningByUser = new HashMap<>();
+
+    private int running;
+
+    private long sequence;
+
+    public AnalyticsQueryAdmission( DhisConfigurationProvider config, SystemSettingManager systemSettingManager,
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry )
+    {
+        this.config = config;
+        this.systemSettingManager = systemSettingManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queueTimer = Timer.builder( "analytics.query.queue" )
+            .description( "Time analytics queries waited to be admitted" )
+            .register( meterRegistry );
+        this.rejectedCounter = Counter.builder( "analytics.query.rejected" )
+            .description( "Number of analytics queries not admitted within the queue timeout" )
+            .register( meterRegistry );
+        this.cancelledCounter = Counter.builder( "analytics.query.cancelled" )
+            .description( "Number of analytics queries cancelled while queued" )
+            .register( meterRegistry );
+        Gauge.builder( "analytics.query.running", this, admission -> admission.running )
+            .description( "Number of analytics queries running" )
+            .register( meterRegistry );
+        Gauge.builder( "analytics.query.queued", this, admission -> admission.queue.size() )
+            .description( "Number of analytics queries waiting to be admitted" )
+            .register( meterRegistry );
+    }
+
+    /**
+     * @param username the user the request is made by, null if unknown
+     * @return a new scope for the queries of a single request
+     */
+    public AnalyticsQueryScope createScope( String username )
+    {
+        return new AnalyticsQueryScope( username, getIntProperty( ConfigurationKey.ANALYTICS_QUERY_TIMEOUT ) );
+    }
+
+    /**
+     * Waits until the given query can run.
+     *
+     * @param scope the scope of the request the query belongs to, null to use
+     *        a scope of its own
+     * @param sql the SQL of the query
+     * @return the ticket of the admitted query which must be closed once the
+     *         query completed
+     * @throws QueryRuntimeException when the query was not admitted in time or
+     *         the scope has been cancelled while waiting
+     */
+    public Ticket admit( AnalyticsQueryScope scope, String sql )
+    {
+        AnalyticsQueryScope queryScope = scope != null ? scope : createScope( null );
+        if ( queryScope.isCancelled() )
+        {
+            throw new QueryRuntimeException( ErrorCode.E7137 );
+        }
+        String user = queryScope.getUsername() == null ? "" : queryScope.getUsername();
+        int maxRunning = getMaxRunning();
+        int maxRunningPerUser = getMaxRunningPerUser( maxRunning );
+
+        lock.lock();
+        try
+        {
+            if ( queue.isEmpty() && running < maxRunning && getRunning( user ) < maxRunningPerUser )
+            {
+                start( user );
+                queueTimer.record( 0, TimeUnit.NANOSECONDS );
+                return new Ticket( queryScope, user );
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        Waiter waiter = new Waiter( user, estimateCost( sql ) );
+        long deadline = waiter.queuedAt
+            + TimeUnit.SECONDS.toNanos( getIntProperty( ConfigurationKey.ANALYTICS_QUERY_QUEUE_TIMEOUT ) );
+
+        lock.lock();
+        try
+        {
+            waiter.sequence = sequence++;
+            queue.add( waiter );
+            while ( selectNext( maxRunning, maxRunningPerUser ) != waiter )
+            {
+                long remaining = Math.min( deadline - System.nanoTime(), queryScope.getRemainingNanos() );
+                if ( queryScope.isCancelled() )
+                {
+                    dequeue( waiter );
+                    cancelledCounter.increment();
+                    throw new QueryRuntimeException( ErrorCode.E7137 );
+                }
+                if ( remaining <= 0 )
+                {
+                    dequeue( waiter );
+                    rejectedCounter.increment();
+                    throw new QueryRuntimeException( ErrorCode.E7136,
+                        TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() - waiter.queuedAt ) );
+                }
+                changed.awaitNanos( Math.min( remaining, TimeUnit.SECONDS.toNanos( 1 ) ) );
+            }
+            dequeue( waiter );
+            start( user );
+            queueTimer.record( System.nanoTime() - waiter.queuedAt, TimeUnit.NANOSECONDS );
+            return new Ticket( queryScope, user );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            dequeue( waiter );
+            cancelledCounter.increment();
+            throw new QueryRuntimeException( ErrorCode.E7137 );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private Waiter selectNext( int maxRunning, int maxRunningPerUser )
+    {
+        if ( running >= maxRunning )
+        {
+            return null;
+        }
+        long agedBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos( AGING_SECONDS );
+        Waiter next = null;
+        for ( Waiter waiter : queue )
+        {
+            if ( getRunning( waiter.user ) < maxRunningPerUser
+                && (next == null || isBefore( waiter, next, agedBefore )) )
+            {
+                next = waiter;
+            }
+        }
+        return next;
+    }
+
+    private boolean isBefore( Waiter a, Waiter b, long agedBefore )
+    {
+        boolean aAged = a.queuedAt < agedBefore;
+        boolean bAged = b.queuedAt < agedBefore;
+        if ( aAged || bAged )
+        {
+            return aAged && (!bAged || a.sequence < b.sequence);
+        }
+        int aRunning = getRunning( a.user );
+        int bRunning = getRunning( b.user );
+        if ( aRunning != bRunning )
+        {
+            return aRunning < bRunning;
+        }
+        if ( a.cost != b.cost )
+        {
+            return a.cost < b.cost;
+        }
+        return a.sequence < b.sequence;
+    }
+
+    private void dequeue( Waiter waiter )
+    {
+        queue.remove( waiter );
+        changed.signalAll();
+    }
+
+    private void start( String user )
+    {
+        running++;
+        runningByUser.merge( user, 1, Integer::sum );
+    }
+
+    private void release( String user )
+    {
+        lock.lock();
+        try
+        {
+            running--;
+            runningByUser.computeIfPresent( user, ( key, count ) -> count <= 1 ? null : count - 1 );
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private int getRunning( String user )
+    {
+        return runningByUser.getOrDefault( user, 0 );
+    }
+
+    /**
+     * @return the total cost of the query as estimated by the query planner,
+     *         zero if it could not be estimated
+     */
+    private double estimateCost( String sql )
+    {
+        try
+        {
+            String plan = jdbcTemplate.queryForObject( "explain (format json) " + sql, String.class );
+            Matcher matcher = TOTAL_COST.matcher( plan == null ? "" : plan );
+            return matcher.find() ? Double.parseDouble( matcher.group( 1 ) ) : 0d;
+        }
+        catch ( DataAccessException | NumberFormatException ex )
+        {
+            log.debug( "Failed to estimate analytics query cost", ex );
+            return 0d;
+        }
+    }
+
+    private int getMaxRunning()
+    {
+        int max = getIntProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT );
+        if ( max > 0 )
+        {
+            return max;
+        }
+        Integer cores = systemSettingManager.getIntegerSetting( DATABASE_SERVER_CPUS );
+        return 2 * ((cores == null || cores == 0) ? getCpuCores() : cores);
+    }
+
+    private int getMaxRunningPerUser( int maxRunning )
+    {
+        int max = getIntProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER );
+        return max > 0 ? max : Math.max( 1, maxRunning / 2 );
+    }
+
+    private int getIntProperty( ConfigurationKey key )
+    {
+        return Integer.parseInt( config.getProperty( key ) );
+    }
+
+    private static final class Waiter
+    {
+        final String user;
+
+        final double cost;
+
+        final long queuedAt = System.nanoTime();
+
+        long sequence;
+
+        Waiter( String user, double cost )
+        {
+            this.user = user;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * An admitted query. Closing the ticket frees its capacity.
+     */
+    public class Ticket implements AutoCloseable
+    {
+        private final AnalyticsQueryScope scope;
+
+        private final String user;
+
+        private final List<PreparedStatement> statements = new ArrayList<>( 1 );
+
+        private boolean closed;
+
+        Ticket( AnalyticsQueryScope scope, String user )
+        {
+            this.scope = scope;
+            this.user = user;
+        }
+
+        /**
+         * @param sql the SQL of the admitted query
+         * @return creator of a statement which is cancelled when the scope of
+         *         the ticket is cancelled
+         */
+        public PreparedStatementCreator prepare( String sql )
+        {
+            return new ScopedStatementCreator( sql );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !closed )
+            {
+                closed = true;
+                statements.forEach( scope::unregister );
+                release( user );
+            }
+        }
+
+        private final class ScopedStatementCreator implements PreparedStatementCreator, SqlProvider
+        {
+            private final String sql;
+
+            ScopedStatementCreator( String sql )
+            {
+                this.sql = sql;
+            }
+
+            @Override
+            public PreparedStatement createPreparedStatement( Connection con )
+                throws SQLException
+            {
+                PreparedStatement statement = con.prepareStatement( sql );
+                statements.add( statement );
+                scope.register( statement );
+                return statement;
+            }
+
+            @Override
+            public String getSql()
+            {
+                return sql;
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import static org.hisp.dhis.analytics.util.AnalyticsUtils.throwIllegalQueryEx;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.VALUE_COLUMN_NAME;
 import static org.hisp.dhis.util.DateUtils.getEarliest;
 import static org.hisp.dhis.util.DateUtils.getLatest;
 
@@ -44,6 +45,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.AnalyticsRollup;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryGroups;
 import org.hisp.dhis.analytics.DataQueryParams;
@@ -52,6 +54,7 @@ import org.hisp.dhis.analytics.Partitions;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupManager;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.PeriodOffsetUtils;
 import org.hisp.dhis.common.BaseDimensionalObject;
@@ -85,6 +88,8 @@ public class DefaultQueryPlanner
 {
     private final PartitionManager partitionManager;
 
+    private final RollupManager rollupManager;
+
     // -------------------------------------------------------------------------
     // QueryPlanner implementation
     // -------------------------------------------------------------------------
@@ -124,6 +129,17 @@ public class DefaultQueryPlanner
             currentQueries.forEach( query -> queries.addAll( grouper.apply( query ) ) );
         }
 
+        // ---------------------------------------------------------------------
+        // Route queries to pre-aggregated rollup tables where possible
+        // ---------------------------------------------------------------------
+
+        List<AnalyticsRollup> rollups = rollupManager.getAvailableRollups( plannerParams.getTableType() );
+
+        if ( !rollups.isEmpty() )
+        {
+            queries.replaceAll( query -> withRollupTable( query, rollups ) );
+        }
+
         // ---------------------------------------------------------------------
         // Split queries until optimal number
         // ---------------------------------------------------------------------
@@ -181,6 +197,122 @@ public class DefaultQueryPlanner
             .build();
     }
 
+    // -------------------------------------------------------------------------
+    // Supportive rollup methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Routes the given query to the first, meaning smallest, of the given
+     * rollups which can answer it. The rollup table is not partitioned, so
+     * partitioning is skipped for a routed query. Returns the query unchanged
+     * if no rollup can answer it.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param rollups the available rollups, smallest first.
+     * @return a {@link DataQueryParams}.
+     */
+    private DataQueryParams withRollupTable( DataQueryParams params, List<AnalyticsRollup> rollups )
+    {
+        if ( !isRollupCompatible( params ) )
+        {
+            return params;
+        }
+
+        for ( AnalyticsRollup rollup : rollups )
+        {
+            if ( canAnswer( rollup, params ) )
+            {
+                log.debug( String.format( "Routing query to rollup table: '%s'", rollup.getTableName() ) );
+
+                return DataQueryParams.newBuilder( params )
+                    .withTableName( rollup.getTableName() )
+                    .withSkipPartitioning( true )
+                    .build();
+            }
+        }
+
+        return params;
+    }
+
+    /**
+     * Indicates whether the aggregation of the given query can be computed from
+     * values pre-aggregated by sum. This excludes aggregation types which are
+     * not additive and queries referring to period start and end dates or raw
+     * values, which are not kept in rollups.
+     *
+     * @param params the {@link DataQueryParams}.
+     */
+    private boolean isRollupCompatible( DataQueryParams params )
+    {
+        AnalyticsAggregationType aggType = params.getAggregationType();
+
+        if ( aggType == null || params.getPeriodType() == null || params.isDisaggregation()
+            || params.isDataType( DataType.TEXT ) || !VALUE_COLUMN_NAME.equals( params.getValueColumn() )
+            || params.hasStartDate() || params.hasEndDate() || params.hasStartEndDateRestriction()
+            || params.hasPreAggregateMeasureCriteria() || params.isTimely() || params.isGroupByTimely() )
+        {
+            return false;
+        }
+
+        boolean sum = aggType.isAggregationType( AggregationType.SUM )
+            && (aggType.isPeriodAggregationType( AggregationType.SUM )
+                || aggType.isPeriodAggregationType( AggregationType.AVERAGE ));
+
+        boolean averageBoolean = aggType.isAggregationType( AggregationType.AVERAGE )
+            && aggType.isBooleanDataType();
+
+        return sum || averageBoolean;
+    }
+
+    /**
+     * Indicates whether the given rollup has the period type of the given
+     * query, keeps all columns the query dimensions, filters and data approval
+     * levels refer to and, if restricted to a data element group, contains all
+     * data elements of the query.
+     *
+     * @param rollup the {@link AnalyticsRollup}.
+     * @param params the {@link DataQueryParams}.
+     */
+    private boolean canAnswer( AnalyticsRollup rollup, DataQueryParams params )
+    {
+        if ( !rollup.getPeriodType().getName().equalsIgnoreCase( params.getPeriodType() ) )
+        {
+            return false;
+        }
+
+        if ( params.isDataApproval() && params.getDataApprovalLevels().keySet().stream()
+            .anyMatch( unit -> unit.getLevel() > rollup.getLevel() ) )
+        {
+            return false;
+        }
+
+        boolean hasDataElements = false;
+
+        for ( DimensionalObject dimension : params.getDimensionsAndFilters() )
+        {
+            if ( !rollup.hasColumn( dimension.getDimensionName() ) )
+            {
+                return false;
+            }
+
+            if ( rollup.hasDataElementGroup() && DATA_X_DIM_ID.equals( dimension.getDimension() ) )
+            {
+                for ( DimensionalItemObject item : dimension.getItems() )
+                {
+                    if ( !(item instanceof DataElement) || ((DataElement) item).getGroups().stream()
+                        .noneMatch( group -> rollup.getDataElementGroup().equals( group.getUid() ) ) )
+                    {
+                        return false;
+                    }
+
+                    hasDataElements = true;
+                }
+            }
+        }
+
+        return !rollup.hasDataElementGroup() || hasDataElements;
+    }
+
     // -------------------------------------------------------------------------
     // Supportive split methods
     // -------------------------------------------------------------------------
@@ -65,6 +65,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsManager;
+import org.hisp.dhis.analytics.AnalyticsRollup;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
@@ -91,6 +92,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.AsyncResult;
@@ -114,6 +116,8 @@ public class JdbcAnalyticsManager
 {
     private static final String COL_APPROVALLEVEL = "approvallevel";
 
+    private static final String COL_TIMELY = "timely";
+
     private static final int LAST_VALUE_YEARS_OFFSET = -10;
 
     private static final Map<MeasureFilter, String> OPERATOR_SQL_MAP = ImmutableMap.<MeasureFilter, String> builder()
@@ -130,16 +134,21 @@ public class JdbcAnalyticsManager
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsQueryAdmission queryAdmission;
+
     public JdbcAnalyticsManager( QueryPlanner queryPlanner,
-        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore )
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore,
+        AnalyticsQueryAdmission queryAdmission )
     {
         checkNotNull( queryPlanner );
         checkNotNull( jdbcTemplate );
         checkNotNull( executionPlanStore );
+        checkNotNull( queryAdmission );
 
         this.queryPlanner = queryPlanner;
         this.jdbcTemplate = jdbcTemplate;
         this.executionPlanStore = executionPlanStore;
+        this.queryAdmission = queryAdmission;
     }
 
     // -------------------------------------------------------------------------
@@ -196,6 +205,14 @@ public class JdbcAnalyticsManager
             }
             catch ( BadSqlGrammarException ex )
             {
+                if ( AnalyticsRollup.isRollupTable( tableType, params.getTableName() ) )
+                {
+                    log.warn( String.format( "Rollup table: '%s' not available, querying analytics table instead",
+                        params.getTableName() ), ex );
+
+                    return getAggregatedDataValues( withoutRollupTable( params, tableType ), tableType, maxLimit );
+                }
+
                 log.info( AnalyticsUtils.ERR_MSG_TABLE_NOT_EXISTING, ex );
                 return new AsyncResult<>( Maps.newHashMap() );
             }
@@ -279,6 +296,22 @@ public class JdbcAnalyticsManager
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Routes a query back from a rollup table to the partitions of the
+     * analytics table it was planned for.
+     *
+     * @param params the {@link DataQueryParams} routed to a rollup table.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @return a {@link DataQueryParams}.
+     */
+    private DataQueryParams withoutRollupTable( DataQueryParams params, AnalyticsTableType tableType )
+    {
+        return DataQueryParams.newBuilder( params )
+            .withTableName( tableType.getTableName() )
+            .withSkipPartitioning( false )
+            .build();
+    }
+
     /**
      * Generates the select clause of the query SQL.
      *
@@ -289,6 +322,11 @@ public class JdbcAnalyticsManager
     {
         String sql = "select " + getCommaDelimitedQuotedColumns( params.getDimensions() ) + ", ";
 
+        if ( params.isGroupByTimely() )
+        {
+            sql += quoteAlias( COL_TIMELY ) + ", ";
+        }
+
         if ( params.isDataType( TEXT ) )
         {
             sql += params.getValueColumn();
@@ -538,7 +576,7 @@ public class JdbcAnalyticsManager
 
         if ( params.isTimely() )
         {
-            sql += sqlHelper.whereAnd() + " " + quoteAlias( "timely" ) + " is true ";
+            sql += sqlHelper.whereAnd() + " " + quoteAlias( COL_TIMELY ) + " is true ";
         }
 
         // ---------------------------------------------------------------------
@@ -576,6 +614,11 @@ public class JdbcAnalyticsManager
         if ( params.isAggregation() )
         {
             sql = "group by " + getCommaDelimitedQuotedColumns( params.getDimensions() );
+
+            if ( params.isGroupByTimely() )
+            {
+                sql += "," + quoteAlias( COL_TIMELY );
+            }
         }
 
         return sql;
@@ -718,7 +761,8 @@ public class JdbcAnalyticsManager
 
     /**
      * Retrieves data from the database based on the given query and SQL and
-     * puts into a value key and value mapping.
+     * puts into a value key and value mapping. The query is executed once
+     * admitted by the {@link AnalyticsQueryAdmission}.
      *
      * @param params the {@link DataQueryParams}.
      * @param sql the SQL query.
@@ -731,7 +775,12 @@ public class JdbcAnalyticsManager
 
         log.debug( String.format( "Analytics SQL: %s", sql ) );
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+        SqlRowSet rowSet;
+
+        try ( AnalyticsQueryAdmission.Ticket ticket = queryAdmission.admit( params.getQueryScope(), sql ) )
+        {
+            rowSet = jdbcTemplate.query( ticket.prepare( sql ), new SqlRowSetResultSetExtractor() );
+        }
 
         int counter = 0;
 
@@ -755,6 +804,11 @@ public class JdbcAnalyticsManager
                 key.append( value ).append( queryModsId ).append( DIMENSION_SEP );
             }
 
+            if ( params.isGroupByTimely() )
+            {
+                key.append( rowSet.getBoolean( COL_TIMELY ) ).append( DIMENSION_SEP );
+            }
+
             key.deleteCharAt( key.length() - 1 );
 
             if ( params.isDataType( TEXT ) )
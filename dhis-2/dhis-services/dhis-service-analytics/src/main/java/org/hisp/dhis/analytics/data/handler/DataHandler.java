@@ -32,8 +32,11 @@ import static java.lang.Math.min;
 import static java.util.Collections.singletonList;
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.ArrayUtils.insert;
 import static org.apache.commons.lang3.ArrayUtils.remove;
 import static org.apache.commons.lang3.StringUtils.join;
+import static org.apache.commons.lang3.StringUtils.substringAfterLast;
+import static org.apache.commons.lang3.StringUtils.substringBeforeLast;
 import static org.hisp.dhis.analytics.AnalyticsAggregationType.COUNT;
 import static org.hisp.dhis.analytics.AnalyticsAggregationType.SUM;
 import static org.hisp.dhis.analytics.AnalyticsTableType.COMPLETENESS;
@@ -45,10 +48,8 @@ import static org.hisp.dhis.analytics.DataQueryParams.COMPLETENESS_DIMENSION_TYP
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_DATA_X;
 import static org.hisp.dhis.analytics.DataQueryParams.DX_INDEX;
 import static org.hisp.dhis.analytics.DataQueryParams.NUMERATOR_DENOMINATOR_PROPERTIES_COUNT;
-import static org.hisp.dhis.analytics.DataQueryParams.getPermutationDimensionalItemValueMap;
 import static org.hisp.dhis.analytics.DataQueryParams.getPermutationOrgUnitGroupCountMap;
 import static org.hisp.dhis.analytics.DataQueryParams.newBuilder;
-import static org.hisp.dhis.analytics.DimensionItem.asItemKey;
 import static org.hisp.dhis.analytics.DimensionItem.getItemIdentifiers;
 import static org.hisp.dhis.analytics.DimensionItem.getOrganisationUnitItem;
 import static org.hisp.dhis.analytics.DimensionItem.getPeriodItem;
@@ -82,7 +83,6 @@ import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_GROUP_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.asTypedList;
-import static org.hisp.dhis.common.DimensionalObjectUtils.convertToDimItemValueMap;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getAttributeOptionCombos;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getCategoryOptionCombos;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getDataElements;
@@ -104,9 +104,11 @@ import static org.hisp.dhis.util.ObjectUtils.firstNonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -117,6 +119,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.hisp.dhis.analytics.AnalyticsManager;
+import org.hisp.dhis.analytics.AnalyticsQueryScope;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryGroups;
 import org.hisp.dhis.analytics.DataQueryParams;
@@ -126,19 +129,21 @@ import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.data.AnalyticsQueryAdmission;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
 import org.hisp.dhis.analytics.resolver.ExpressionResolvers;
 import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DataDimensionItemType;
 import org.hisp.dhis.common.DimensionItemObjectValue;
 import org.hisp.dhis.common.DimensionalItemId;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.ExecutionPlan;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.ReportingRate;
 import org.hisp.dhis.common.ReportingRateMetric;
-import org.hisp.dhis.constant.ConstantService;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dataelement.DataElementOperand.TotalType;
 import org.hisp.dhis.expression.ExpressionService;
@@ -150,6 +155,8 @@ import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.user.CurrentUserUtil;
+import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Component;
 
@@ -189,6 +196,8 @@ public class DataHandler
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsQueryAdmission queryAdmission;
+
     /**
      * Adds performance metrics.
      *
@@ -245,67 +254,81 @@ public class DataHandler
             Map<DimensionalItemId, DimensionalItemObject> itemMap = expressionService
                 .getIndicatorDimensionalItemMap( indicators );
 
-            Map<String, List<DimensionItemObjectValue>> permutationDimensionItemValueMap = getPermutationDimensionItemValueMap(
-                params, new ArrayList<>( itemMap.values() ) );
-
             handleEmptyDimensionItemPermutations( dimensionItemPermutations );
 
+            PermutationValueTable valueTable = getPermutationValueTable( params,
+                new ArrayList<>( itemMap.values() ), dimensionItemPermutations );
+
+            // Build the input of each permutation once, shared by all
+            // indicators
+
+            int size = dimensionItemPermutations.size();
+
+            List<List<Period>> periods = new ArrayList<>( size );
+            List<Map<String, Integer>> orgUnitCountMaps = new ArrayList<>( size );
+            List<Map<DimensionalItemObject, Object>> valueMaps = new ArrayList<>( size );
+            List<String[]> itemIdentifiers = new ArrayList<>( size );
+
+            for ( int i = 0; i < size; i++ )
+            {
+                List<DimensionItem> dimensionItems = dimensionItemPermutations.get( i );
+
+                periods.add( getIndicatorPeriods( filterPeriods, dimensionItems ) );
+                orgUnitCountMaps.add( getOrgUnitCountMap( permutationOrgUnitTargetMap, dimensionItems ) );
+                valueMaps.add( valueTable.getValueMap( i ) );
+                itemIdentifiers.add( getItemIdentifiers( dimensionItems ) );
+            }
+
             for ( Indicator indicator : indicators )
             {
-                for ( List<DimensionItem> dimensionItems : dimensionItemPermutations )
-                {
-                    IndicatorValue value = getIndicatorValue( filterPeriods, itemMap,
-                        permutationOrgUnitTargetMap, permutationDimensionItemValueMap, indicator, dimensionItems );
+                List<IndicatorValue> values = expressionService.getIndicatorValueObjects( indicator, periods,
+                    itemMap, valueMaps, orgUnitCountMaps );
 
-                    addIndicatorValuesToGrid( params, grid, dataSourceParams, indicator, dimensionItems, value );
+                for ( int i = 0; i < size; i++ )
+                {
+                    addIndicatorValuesToGrid( params, grid, dataSourceParams, indicator, itemIdentifiers.get( i ),
+                        values.get( i ) );
                 }
             }
         }
     }
 
     /**
-     * Based on the given indicator plus additional parameters, this method will
-     * find the respective IndicatorValue.
+     * Returns the periods to evaluate indicators for in the given dimension
+     * item permutation, which are the filter periods if present, or else the
+     * period of the permutation.
      *
-     * @param filterPeriods the filter periods. See
-     *        {@link ConstantService#getConstantMap()}.
-     * @param permutationOrgUnitTargetMap the org unit permutation map. See
-     *        {@link #getOrgUnitTargetMap(DataQueryParams, Collection)}.
-     * @param itemMap Every dimensional item to process.
-     * @param permutationDimensionItemValueMap the dimension item permutation
-     *        map. See
-     *        {@link #getPermutationDimensionItemValueMap(DataQueryParams,
-     *        List<DimensionalItemObject>)}.
-     * @param indicator the input Indicator where the IndicatorValue will be
-     *        based.
-     * @param dimensionItems the dimensional items permutation map. See
+     * @param filterPeriods the filter periods.
+     * @param dimensionItems the dimension item permutation. See
      *        {@link DataQueryParams#getDimensionItemPermutations()}.
-     * @return the IndicatorValue
+     * @return a list of {@link Period}.
      */
-    private IndicatorValue getIndicatorValue( List<Period> filterPeriods,
-        Map<DimensionalItemId, DimensionalItemObject> itemMap,
-        Map<String, Map<String, Integer>> permutationOrgUnitTargetMap,
-        Map<String, List<DimensionItemObjectValue>> permutationDimensionItemValueMap,
-        Indicator indicator, List<DimensionItem> dimensionItems )
+    private List<Period> getIndicatorPeriods( List<Period> filterPeriods, List<DimensionItem> dimensionItems )
     {
-        String permKey = asItemKey( dimensionItems );
-
-        final List<DimensionItemObjectValue> values = permutationDimensionItemValueMap
-            .getOrDefault( permKey, new ArrayList<>() );
-
-        List<Period> periods = !filterPeriods.isEmpty() ? filterPeriods
+        return !filterPeriods.isEmpty() ? filterPeriods
             : singletonList( (Period) getPeriodItem( dimensionItems ) );
+    }
 
+    /**
+     * Returns the organisation unit group member counts for the organisation
+     * unit of the given dimension item permutation.
+     *
+     * @param permutationOrgUnitTargetMap the org unit permutation map. See
+     *        {@link #getOrgUnitTargetMap(DataQueryParams, Collection)}.
+     * @param dimensionItems the dimension item permutation. See
+     *        {@link DataQueryParams#getDimensionItemPermutations()}.
+     * @return a map of organisation unit group and counts, or null.
+     */
+    private Map<String, Integer> getOrgUnitCountMap( Map<String, Map<String, Integer>> permutationOrgUnitTargetMap,
+        List<DimensionItem> dimensionItems )
+    {
         OrganisationUnit unit = (OrganisationUnit) getOrganisationUnitItem( dimensionItems );
 
         String ou = unit != null ? unit.getUid() : null;
 
-        Map<String, Integer> orgUnitCountMap = permutationOrgUnitTargetMap != null
+        return permutationOrgUnitTargetMap != null
             ? permutationOrgUnitTargetMap.get( ou )
             : null;
-
-        return expressionService.getIndicatorValueObject( indicator, periods, itemMap,
-            convertToDimItemValueMap( values ), orgUnitCountMap );
     }
 
     /**
@@ -398,16 +421,13 @@ public class DataHandler
     {
         if ( !params.getReportingRates().isEmpty() && !params.isSkipData() )
         {
-            for ( ReportingRateMetric metric : ReportingRateMetric.values() )
-            {
-                DataQueryParams dataSourceParams = newBuilder( params )
-                    .retainDataDimensionReportingRates( metric )
-                    .ignoreDataApproval() // No approval for reporting rates
-                    .withAggregationType( COUNT )
-                    .withTimely( (REPORTING_RATE_ON_TIME == metric || ACTUAL_REPORTS_ON_TIME == metric) ).build();
+            DataQueryParams dataSourceParams = newBuilder( params )
+                .retainDataDimension( DataDimensionItemType.REPORTING_RATE )
+                .ignoreDataApproval() // No approval for reporting rates
+                .withAggregationType( COUNT )
+                .withGroupByTimely( true ).build();
 
-                addReportingRates( dataSourceParams, grid, metric );
-            }
+            addReportingRates( dataSourceParams, grid, getDataSetMetricsMap( dataSourceParams ) );
         }
     }
 
@@ -551,13 +571,17 @@ public class DataHandler
 
     /**
      * Adds reporting rates to the given grid based on the given data query
-     * parameters and reporting rate metric.
+     * parameters. The expected reports are retrieved in one query and the
+     * actual reports, grouped by timeliness, in another query, from which all
+     * requested reporting rate metrics are computed.
      *
      * @param params the {@link DataQueryParams}.
      * @param grid the {@link Grid}.
-     * @param metric the reporting rate metric.
+     * @param dataSetMetrics mapping of data set identifiers and the requested
+     *        reporting rate metrics of the data set.
      */
-    private void addReportingRates( DataQueryParams params, Grid grid, ReportingRateMetric metric )
+    private void addReportingRates( DataQueryParams params, Grid grid,
+        Map<String, Set<ReportingRateMetric>> dataSetMetrics )
     {
         if ( !params.getReportingRates().isEmpty() && !params.isSkipData() )
         {
@@ -569,15 +593,24 @@ public class DataHandler
             DataQueryParams targetParams = newBuilder( params )
                 .withSkipPartitioning( true )
                 .withTimely( false )
+                .withGroupByTimely( false )
                 .withRestrictByOrgUnitOpeningClosedDate( true )
                 .withRestrictByCategoryOptionStartEndDate( true )
                 .withAggregationType( SUM ).build();
 
             Map<String, Double> targetMap = getAggregatedCompletenessTargetMap( targetParams );
 
-            Map<String, Double> dataMap = metric != EXPECTED_REPORTS
-                ? getAggregatedCompletenessValueMap( params )
-                : new HashMap<>();
+            Map<String, Double> actualMap = new HashMap<>();
+            Map<String, Double> timelyMap = new HashMap<>();
+
+            boolean hasActualMetrics = dataSetMetrics.values().stream()
+                .flatMap( Set::stream )
+                .anyMatch( metric -> metric != EXPECTED_REPORTS );
+
+            if ( hasActualMetrics )
+            {
+                addAggregatedCompletenessValues( params, actualMap, timelyMap );
+            }
 
             Integer periodIndex = params.getPeriodDimensionIndex();
             Integer dataSetIndex = DX_INDEX;
@@ -591,7 +624,6 @@ public class DataHandler
                 List<String> dataRow = newArrayList( entry.getKey().split( DIMENSION_SEP ) );
 
                 Double target = entry.getValue();
-                Double actual = firstNonNull( dataMap.get( entry.getKey() ), 0d );
 
                 if ( target != null )
                 {
@@ -606,12 +638,54 @@ public class DataHandler
                     target = getCalculatedTarget( periodIndex, timeUnits, dataRow, target, queryPt, dataSetPt,
                         params.getFilterPeriods() );
 
-                    addReportRateToGrid( params, grid, metric, dataRow, target, actual );
+                    for ( ReportingRateMetric metric : dataSetMetrics.getOrDefault( dataRow.get( dataSetIndex ),
+                        Set.of() ) )
+                    {
+                        Map<String, Double> dataMap = isTimely( metric ) ? timelyMap : actualMap;
+
+                        Double actual = firstNonNull( dataMap.get( entry.getKey() ), 0d );
+
+                        addReportRateToGrid( params, grid, metric, newArrayList( dataRow ), target, actual );
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Returns a mapping of data set identifiers and the reporting rate metrics
+     * requested for the data set.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return a mapping of data set identifiers and reporting rate metrics.
+     */
+    private Map<String, Set<ReportingRateMetric>> getDataSetMetricsMap( DataQueryParams params )
+    {
+        Map<String, Set<ReportingRateMetric>> map = new HashMap<>();
+
+        for ( DimensionalItemObject item : params.getReportingRates() )
+        {
+            ReportingRate reportingRate = (ReportingRate) item;
+
+            map.computeIfAbsent( reportingRate.getDataSet().getUid(),
+                k -> EnumSet.noneOf( ReportingRateMetric.class ) ).add( reportingRate.getMetric() );
+        }
+
+        return map;
+    }
+
+    /**
+     * Indicates whether the given reporting rate metric is based on timely
+     * reports only.
+     *
+     * @param metric the {@link ReportingRateMetric}.
+     * @return true if the metric is based on timely reports.
+     */
+    private boolean isTimely( ReportingRateMetric metric )
+    {
+        return REPORTING_RATE_ON_TIME == metric || ACTUAL_REPORTS_ON_TIME == metric;
+    }
+
     /**
      * Returns the number of filter periods, or 1 if no filter periods exist.
      *
@@ -700,6 +774,37 @@ public class DataHandler
         return getDoubleMap( getAggregatedValueMap( params, COMPLETENESS, newArrayList() ) );
     }
 
+    /**
+     * Retrieves the actual reports for the given query grouped by timeliness,
+     * and adds the count of all reports to the given actual map and the count
+     * of timely reports to the given timely map. The timeliness is removed
+     * from the dimension keys.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param actualMap the mapping of dimension keys and actual reports.
+     * @param timelyMap the mapping of dimension keys and timely reports.
+     */
+    private void addAggregatedCompletenessValues( DataQueryParams params, Map<String, Double> actualMap,
+        Map<String, Double> timelyMap )
+    {
+        for ( Map.Entry<String, Double> entry : getAggregatedCompletenessValueMap( params ).entrySet() )
+        {
+            if ( entry.getValue() == null )
+            {
+                continue;
+            }
+
+            String key = substringBeforeLast( entry.getKey(), DIMENSION_SEP );
+
+            actualMap.merge( key, entry.getValue(), Double::sum );
+
+            if ( Boolean.parseBoolean( substringAfterLast( entry.getKey(), DIMENSION_SEP ) ) )
+            {
+                timelyMap.merge( key, entry.getValue(), Double::sum );
+            }
+        }
+    }
+
     /**
      * Generates a mapping between the data set dimension key and the count of
      * expected data sets to report.
@@ -790,17 +895,26 @@ public class DataHandler
     }
 
     /**
-     * Returns a mapping of permutation keys and mappings of data element
-     * operands and values based on the given query.
+     * Returns a {@link PermutationValueTable} holding the values of the given
+     * items for each of the given dimension item permutations based on the
+     * given query.
      *
      * @param params the {@link DataQueryParams}.
+     * @param items the list of {@link DimensionalItemObject}.
+     * @param dimensionItemPermutations the dimension item permutations.
      */
-    private Map<String, List<DimensionItemObjectValue>> getPermutationDimensionItemValueMap(
-        DataQueryParams params, List<DimensionalItemObject> items )
+    private PermutationValueTable getPermutationValueTable( DataQueryParams params,
+        List<DimensionalItemObject> items, List<List<DimensionItem>> dimensionItemPermutations )
     {
-        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = getAggregatedDataValueMap( params, items );
+        List<String> permutationKeys = dimensionItemPermutations.stream()
+            .map( DimensionItem::asItemKey )
+            .collect( Collectors.toList() );
 
-        return getPermutationDimensionalItemValueMap( aggregatedDataMap );
+        PermutationValueTable valueTable = new PermutationValueTable( items, permutationKeys );
+
+        valueTable.putAll( getAggregatedDataValueMap( params, items ) );
+
+        return valueTable;
     }
 
     /**
@@ -995,21 +1109,18 @@ public class DataHandler
      * @param dataSourceParams the DataQueryParams built for Indicators.
      * @param indicator the Indicator which the values will be extracted from,
      *        and added to be added to the Grid.
-     * @param dimensionItems the dimensional items permutation. See
+     * @param itemIdentifiers the identifiers of the dimensional items
+     *        permutation. See
      *        {@link DataQueryParams#getDimensionItemPermutations()}.
      * @param value the IndicatorValue which the values will be extracted from.
      */
     private void addIndicatorValuesToGrid( DataQueryParams params, Grid grid, DataQueryParams dataSourceParams,
-        Indicator indicator, List<DimensionItem> dimensionItems, IndicatorValue value )
+        Indicator indicator, String[] itemIdentifiers, IndicatorValue value )
     {
         if ( value != null && satisfiesMeasureCriteria( params, value, indicator ) )
         {
-            List<DimensionItem> row = new ArrayList<>( dimensionItems );
-
-            row.add( DX_INDEX, new DimensionItem( DATA_X_DIM_ID, indicator ) );
-
             grid.addRow()
-                .addValues( getItemIdentifiers( row ) )
+                .addValues( insert( DX_INDEX, itemIdentifiers, indicator.getDimensionItem() ) )
                 .addValue( getRoundedValue( dataSourceParams, indicator.getDecimals(),
                     value.getValue() ) );
 
@@ -1114,7 +1225,9 @@ public class DataHandler
     }
 
     /**
-     * Executes the given list of queries in parallel.
+     * Executes the given list of queries in parallel. All queries share an
+     * {@link AnalyticsQueryScope} so that the remaining queries are cancelled
+     * when one fails or the waiting thread is interrupted.
      *
      * @param tableType the {@link AnalyticsTableType}.
      * @param maxLimit the max limit of records to retrieve.
@@ -1126,9 +1239,13 @@ public class DataHandler
     {
         List<Future<Map<String, Object>>> futures = new ArrayList<>();
 
+        AnalyticsQueryScope scope = queryAdmission.createScope( getUsername( queries ) );
+
         for ( DataQueryParams query : queries )
         {
-            futures.add( analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) );
+            DataQueryParams scopedQuery = newBuilder( query ).withQueryScope( scope ).build();
+
+            futures.add( analyticsManager.getAggregatedDataValues( scopedQuery, tableType, maxLimit ) );
         }
 
         for ( Future<Map<String, Object>> future : futures )
@@ -1144,6 +1261,13 @@ public class DataHandler
             }
             catch ( Exception ex )
             {
+                cancel( scope, futures );
+
+                if ( ex instanceof InterruptedException )
+                {
+                    Thread.currentThread().interrupt();
+                }
+
                 log.error( getStackTrace( ex ) );
                 log.error( getStackTrace( ex.getCause() ) );
 
@@ -1160,6 +1284,23 @@ public class DataHandler
         }
     }
 
+    /**
+     * Cancels the running statements of the scope and the pending queries.
+     */
+    private void cancel( AnalyticsQueryScope scope, List<Future<Map<String, Object>>> futures )
+    {
+        scope.cancel();
+
+        futures.forEach( future -> future.cancel( true ) );
+    }
+
+    private String getUsername( List<DataQueryParams> queries )
+    {
+        User user = queries.isEmpty() ? null : queries.get( 0 ).getCurrentUser();
+
+        return user != null ? user.getUsername() : CurrentUserUtil.getCurrentUsername();
+    }
+
     /**
      * Gets the number of available cores. Uses explicit number from system
      * setting if available. Detects number of cores from current server runtime
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data.handler;
+
+import static org.hisp.dhis.analytics.DataQueryParams.DX_INDEX;
+import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
+
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.DimensionItemObjectValue;
+import org.hisp.dhis.common.DimensionalItemObject;
+
+/**
+ * Column-oriented store of the aggregated values which are input to indicator
+ * expressions. Each dimension item permutation holds a primitive array with
+ * one slot per dimensional item object, where a missing value is represented
+ * by {@link Double#NaN}. The arrays are built once per query and shared by all
+ * indicators which are evaluated against the permutations.
+ */
+class PermutationValueTable
+{
+    private final Map<DimensionalItemObject, Integer> itemIndexMap;
+
+    private final Map<String, Integer> permutationIndexMap;
+
+    private final double[][] values;
+
+    /**
+     * @param items the dimensional item objects which may have values.
+     * @param permutationKeys the keys of the dimension item permutations, see
+     *        {@link org.hisp.dhis.analytics.DimensionItem#asItemKey(List)}.
+     */
+    PermutationValueTable( List<DimensionalItemObject> items, List<String> permutationKeys )
+    {
+        this.itemIndexMap = getIndexMap( items );
+        this.permutationIndexMap = getIndexMap( permutationKeys );
+        this.values = new double[permutationKeys.size()][];
+    }
+
+    /**
+     * Sets the value of the given item in the permutation with the given key.
+     * Values of unknown permutations or items are ignored, as they will never
+     * be looked up.
+     *
+     * @param permutationKey the permutation key.
+     * @param item the {@link DimensionalItemObject}.
+     * @param value the value.
+     */
+    void put( String permutationKey, DimensionalItemObject item, double value )
+    {
+        Integer permutation = permutationIndexMap.get( permutationKey );
+        Integer index = itemIndexMap.get( item );
+
+        if ( permutation == null || index == null )
+        {
+            return;
+        }
+
+        if ( values[permutation] == null )
+        {
+            values[permutation] = new double[itemIndexMap.size()];
+
+            Arrays.fill( values[permutation], Double.NaN );
+        }
+
+        values[permutation][index] = value;
+    }
+
+    /**
+     * Sets the values of the given aggregated data map. The keys of the map
+     * hold the dimensional item at {@link org.hisp.dhis.analytics.DataQueryParams#DX_INDEX}, which is
+     * removed to obtain the permutation key. Null values are ignored.
+     *
+     * @param aggregatedDataMap the mapping of dimension option keys and
+     *        values.
+     */
+    void putAll( MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap )
+    {
+        for ( String key : aggregatedDataMap.keySet() )
+        {
+            // Remove DimensionalItemObject uid from key
+
+            List<String> keys = new ArrayList<>( Arrays.asList( key.split( DIMENSION_SEP ) ) );
+            keys.remove( DX_INDEX );
+
+            String permutationKey = StringUtils.join( keys, DIMENSION_SEP );
+
+            for ( DimensionItemObjectValue value : aggregatedDataMap.get( key ) )
+            {
+                if ( value.getValue() != null )
+                {
+                    put( permutationKey, value.getDimensionalItemObject(), value.getValue() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of permutations.
+     */
+    int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * Returns a read-only map view of the values of the permutation at the
+     * given position, in the form expected by expression evaluation. Items
+     * without a value are not present in the map.
+     *
+     * @param permutation the position of the permutation.
+     * @return a map of {@link DimensionalItemObject} and values.
+     */
+    Map<DimensionalItemObject, Object> getValueMap( int permutation )
+    {
+        double[] row = values[permutation];
+
+        return row != null ? new RowMap( row ) : Collections.emptyMap();
+    }
+
+    private static <T> Map<T, Integer> getIndexMap( List<T> keys )
+    {
+        Map<T, Integer> indexMap = new HashMap<>( (int) (keys.size() / 0.75f) + 1 );
+
+        for ( T key : keys )
+        {
+            indexMap.putIfAbsent( key, indexMap.size() );
+        }
+
+        return indexMap;
+    }
+
+    /**
+     * Map view of the values of a single permutation.
+     */
+    private class RowMap
+        extends AbstractMap<DimensionalItemObject, Object>
+    {
+        private final double[] row;
+
+        RowMap( double[] row )
+        {
+            this.row = row;
+        }
+
+        @Override
+        public Object get( Object key )
+        {
+            Integer index = itemIndexMap.get( key );
+
+            if ( index == null || Double.isNaN( row[index] ) )
+            {
+                return null;
+            }
+
+            return row[index];
+        }
+
+        @Override
+        public boolean containsKey( Object key )
+        {
+            return get( key ) != null;
+        }
+
+        @Override
+        public Set<Entry<DimensionalItemObject, Object>> entrySet()
+        {
+            Set<Entry<DimensionalItemObject, Object>> entries = new LinkedHashSet<>();
+
+            for ( Entry<DimensionalItemObject, Integer> item : itemIndexMap.entrySet() )
+            {
+                if ( !Double.isNaN( row[item.getValue()] ) )
+                {
+                    entries.add( new SimpleImmutableEntry<>( item.getKey(), row[item.getValue()] ) );
+                }
+            }
+
+            return Collections.unmodifiableSet( entries );
+        }
+    }
+}
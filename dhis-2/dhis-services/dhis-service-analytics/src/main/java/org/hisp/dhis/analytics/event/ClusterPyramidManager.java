@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event;
+
+import org.hisp.dhis.analytics.AnalyticsTable;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.common.Grid;
+
+/**
+ * Manages the event cluster pyramids configured with
+ * {@link org.hisp.dhis.external.conf.ConfigurationKey#ANALYTICS_CLUSTER_PYRAMID_MAX_ZOOM}.
+ * A cluster pyramid holds the event clusters of a program for each zoom level
+ * up to the configured zoom level, with count, extent and center per cluster
+ * cell and year. Cluster queries for whole years without further filters are
+ * served from the pyramid by {@link ClusterTile} instead of clustering the
+ * events of the analytics table.
+ */
+public interface ClusterPyramidManager
+{
+    /**
+     * Indicates whether cluster pyramids are built for the given analytics
+     * table update. Updates of the latest partition do not rebuild cluster
+     * pyramids.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    boolean isEnabled( AnalyticsTableUpdateParams params );
+
+    /**
+     * Builds the cluster pyramid of the given event analytics table and
+     * replaces the existing pyramid, if any. The analytics table must have
+     * been swapped in before. Partial updates only rebuild the cells of the
+     * years of the updated partitions. If the pyramid cannot be built, the
+     * existing pyramid is dropped to not serve outdated data.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param table the event {@link AnalyticsTable}.
+     */
+    void createPyramid( AnalyticsTableUpdateParams params, AnalyticsTable table );
+
+    /**
+     * Indicates whether the clusters of the given query and tile can be served
+     * from a cluster pyramid. This is the case if the query is for the event
+     * coordinates of a program with a pyramid, for yearly periods and root
+     * organisation units only, without any further dimensions or filters.
+     *
+     * @param params the {@link EventQueryParams} before converting periods to
+     *        start and end dates.
+     * @param tile the {@link ClusterTile}.
+     */
+    boolean isPyramidQuery( EventQueryParams params, ClusterTile tile );
+
+    /**
+     * Adds the clusters of the given tile from the cluster pyramid to the
+     * given grid, with the columns count, center, extent and points.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param tile the {@link ClusterTile}.
+     * @param grid the {@link Grid}.
+     * @return the grid.
+     */
+    Grid getEventClusters( EventQueryParams params, ClusterTile tile, Grid grid );
+
+    /**
+     * Returns the name of the cluster pyramid table of the given program.
+     *
+     * @param programUid the program identifier.
+     */
+    static String getTableName( String programUid )
+    {
+        return "analytics_event_cluster_" + programUid.toLowerCase();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.feedback.ErrorCode;
+
+/**
+ * Tile of the web mercator tiling scheme used by web maps, identified by zoom
+ * level and x and y coordinates, where x grows eastwards and y grows
+ * southwards. A tile is divided into {@link #CELLS_PER_TILE} by
+ * {@link #CELLS_PER_TILE} cluster cells.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ClusterTile
+{
+    /**
+     * Number of cluster cells along each side of a tile.
+     */
+    public static final int CELLS_PER_TILE = 8;
+
+    /**
+     * Highest supported zoom level.
+     */
+    public static final int MAX_ZOOM = 16;
+
+    /**
+     * Half the circumference of the earth in web mercator meters.
+     */
+    public static final double MERCATOR_ORIGIN_SHIFT = 20037508.342789244;
+
+    private final int zoom;
+
+    private final int x;
+
+    private final int y;
+
+    public ClusterTile( int zoom, int x, int y )
+    {
+        int tiles = 1 << Math.max( 0, Math.min( zoom, MAX_ZOOM ) );
+
+        if ( zoom < 0 || zoom > MAX_ZOOM || x < 0 || x >= tiles || y < 0 || y >= tiles )
+        {
+            throw new IllegalQueryException( ErrorCode.E7232, zoom + "/" + x + "/" + y );
+        }
+
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the side length of a cluster cell at the given zoom level in web
+     * mercator meters.
+     *
+     * @param zoom the zoom level.
+     */
+    public static double getCellSize( int zoom )
+    {
+        return 2 * MERCATOR_ORIGIN_SHIFT / ((1 << zoom) * CELLS_PER_TILE);
+    }
+
+    /**
+     * Returns the side length of a cluster cell of this tile in web mercator
+     * meters.
+     */
+    public double getCellSize()
+    {
+        return getCellSize( zoom );
+    }
+
+    /**
+     * Returns the bounding box of this tile as
+     * {@code minLongitude,minLatitude,maxLongitude,maxLatitude}.
+     */
+    public String getBbox()
+    {
+        return getLongitude( x ) + "," + getLatitude( y + 1 ) + "," + getLongitude( x + 1 ) + "," + getLatitude( y );
+    }
+
+    private double getLongitude( int tileX )
+    {
+        return tileX * 360.0 / (1 << zoom) - 180.0;
+    }
+
+    private double getLatitude( int tileY )
+    {
+        return Math.toDegrees( Math.atan( Math.sinh( Math.PI * (1 - 2.0 * tileY / (1 << zoom)) ) ) );
+    }
+}
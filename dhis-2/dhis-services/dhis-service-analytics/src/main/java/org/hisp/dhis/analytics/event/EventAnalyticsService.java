@@ -137,6 +137,17 @@ public interface EventAnalyticsService
      */
     Grid getEventClusters( EventQueryParams params );
 
+    /**
+     * Returns the event clusters of the given map tile matching the given
+     * query. Clusters are served from the cluster pyramid of the program if
+     * the query allows, and computed from the events otherwise.
+     *
+     * @param params the event query parameters.
+     * @param tile the {@link ClusterTile}.
+     * @return event clusters as a Grid object.
+     */
+    Grid getEventClusters( EventQueryParams params, ClusterTile tile );
+
     /**
      * Returns a Rectangle with information about event count and extent of the
      * spatial rectangle for the given query.
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event;
+
+import java.util.List;
+
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.program.AnalyticsType;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+
+/**
+ * Manages the program indicators which are precomputed as columns of the event
+ * and enrollment analytics tables, as configured with
+ * {@link org.hisp.dhis.external.conf.ConfigurationKey#ANALYTICS_PROGRAM_INDICATOR_COLUMNS}.
+ * A program indicator is precomputed in the analytics tables of its program
+ * and analytics type. Queries read the column instead of evaluating the
+ * program indicator as a subquery per row.
+ */
+public interface ProgramIndicatorColumnManager
+{
+    String COLUMN_PREFIX = "pi_";
+
+    /**
+     * Returns the configured program indicators of the given program and
+     * analytics type which can be precomputed, i.e. which have a value per row
+     * which does not depend on the reporting period.
+     *
+     * @param program the {@link Program}.
+     * @param analyticsType the {@link AnalyticsType} of the analytics table.
+     */
+    List<ProgramIndicator> getProgramIndicators( Program program, AnalyticsType analyticsType );
+
+    /**
+     * Returns the SQL expression computing the value of the given program
+     * indicator from a row of the analytics table, null where the program
+     * indicator filter does not match.
+     *
+     * @param programIndicator the {@link ProgramIndicator}.
+     */
+    String getColumnSql( ProgramIndicator programIndicator );
+
+    /**
+     * Indicates whether the given analytics table holds a precomputed column
+     * for the given program indicator.
+     *
+     * @param programIndicator the {@link ProgramIndicator}.
+     * @param analyticsType the {@link AnalyticsType} of the analytics table.
+     * @param tableName the name of the analytics table.
+     */
+    boolean hasColumn( ProgramIndicator programIndicator, AnalyticsType analyticsType, String tableName );
+
+    /**
+     * Returns the name of the column of the given program indicator.
+     *
+     * @param programIndicator the {@link ProgramIndicator}.
+     */
+    default String getColumnName( ProgramIndicator programIndicator )
+    {
+        return COLUMN_PREFIX + programIndicator.getUid();
+    }
+
+    /**
+     * Event handler for {@link ApplicationCacheClearedEvent}.
+     *
+     * @param event the {@link ApplicationCacheClearedEvent}.
+     */
+    void handleApplicationCachesCleared( ApplicationCacheClearedEvent event );
+}
@@ -79,6 +79,7 @@ import org.hisp.dhis.analytics.EventOutputType;
 import org.hisp.dhis.analytics.SortOrder;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.event.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.BaseIdentifiableObject;
@@ -150,21 +151,26 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected final ExecutionPlanStore executionPlanStore;
 
+    protected final ProgramIndicatorColumnManager programIndicatorColumnManager;
+
     public AbstractJdbcEventAnalyticsManager( @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate,
         StatementBuilder statementBuilder, ProgramIndicatorService programIndicatorService,
-        ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder, ExecutionPlanStore executionPlanStore )
+        ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder, ExecutionPlanStore executionPlanStore,
+        ProgramIndicatorColumnManager programIndicatorColumnManager )
     {
         checkNotNull( jdbcTemplate );
         checkNotNull( statementBuilder );
         checkNotNull( programIndicatorService );
         checkNotNull( programIndicatorSubqueryBuilder );
         checkNotNull( executionPlanStore );
+        checkNotNull( programIndicatorColumnManager );
 
         this.jdbcTemplate = jdbcTemplate;
         this.statementBuilder = statementBuilder;
         this.programIndicatorService = programIndicatorService;
         this.programIndicatorSubqueryBuilder = programIndicatorSubqueryBuilder;
         this.executionPlanStore = executionPlanStore;
+        this.programIndicatorColumnManager = programIndicatorColumnManager;
     }
 
     /**
@@ -380,6 +386,21 @@ public abstract class AbstractJdbcEventAnalyticsManager
         return columns;
     }
 
+    /**
+     * Indicates whether the value of the given program indicator is
+     * precomputed in the analytics table of the given query.
+     *
+     * @param programIndicator the {@link ProgramIndicator}.
+     * @param params the {@link EventQueryParams}.
+     */
+    private boolean hasProgramIndicatorColumn( ProgramIndicator programIndicator, EventQueryParams params )
+    {
+        return programIndicator.getProgram() != null && params.getTableName() != null
+            && programIndicator.getProgram().equals( params.getProgram() )
+            && programIndicatorColumnManager.hasColumn( programIndicator, programIndicator.getAnalyticsType(),
+                params.getTableName() );
+    }
+
     private ColumnAndAlias getColumnAndAlias( QueryItem queryItem, EventQueryParams params, boolean isGroupByClause,
         boolean isAggregated )
     {
@@ -390,7 +411,15 @@ public abstract class AbstractJdbcEventAnalyticsManager
             String asClause = in.getUid();
             String programIndicatorSubquery;
 
-            if ( queryItem.hasRelationshipType() )
+            if ( !queryItem.hasRelationshipType() && in.getAnalyticsType() == getAnalyticsType()
+                && hasProgramIndicatorColumn( in, params ) )
+            {
+                // Subquery over the same event or enrollment reads the
+                // precomputed value of the row
+
+                programIndicatorSubquery = quoteAlias( programIndicatorColumnManager.getColumnName( in ) );
+            }
+            else if ( queryItem.hasRelationshipType() )
             {
                 programIndicatorSubquery = programIndicatorSubqueryBuilder.getAggregateClauseForProgramIndicator( in,
                     queryItem.getRelationshipType(), getAnalyticsType(), params.getEarliestStartDate(),
@@ -672,8 +701,10 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
             function = TextUtils.emptyIfEqual( function, AggregationType.CUSTOM.getValue() );
 
-            String expression = programIndicatorService.getAnalyticsSql( params.getProgramIndicator().getExpression(),
-                NUMERIC, params.getProgramIndicator(), params.getEarliestStartDate(), params.getLatestEndDate() );
+            String expression = hasProgramIndicatorColumn( params.getProgramIndicator(), params )
+                ? quoteAlias( programIndicatorColumnManager.getColumnName( params.getProgramIndicator() ) )
+                : programIndicatorService.getAnalyticsSql( params.getProgramIndicator().getExpression(),
+                    NUMERIC, params.getProgramIndicator(), params.getEarliestStartDate(), params.getLatestEndDate() );
 
             return function + "(" + expression + ")";
         }
@@ -58,6 +58,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import lombok.extern.slf4j.Slf4j;
+
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.DataQueryParams;
@@ -65,6 +67,8 @@ import org.hisp.dhis.analytics.EventAnalyticsDimensionalItem;
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
+import org.hisp.dhis.analytics.event.ClusterPyramidManager;
+import org.hisp.dhis.analytics.event.ClusterTile;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
@@ -95,6 +99,7 @@ import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.hisp.dhis.util.Timer;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Preconditions;
@@ -102,6 +107,7 @@ import com.google.common.base.Preconditions;
 /**
  * @author Lars Helge Overland
  */
+@Slf4j
 @Service( "org.hisp.dhis.analytics.event.EventAnalyticsService" )
 public class DefaultEventAnalyticsService
     extends AbstractAnalyticsService
@@ -185,12 +191,14 @@ public class DefaultEventAnalyticsService
 
     private final AnalyticsCache analyticsCache;
 
+    private final ClusterPyramidManager clusterPyramidManager;
+
     public DefaultEventAnalyticsService( DataElementService dataElementService,
         TrackedEntityAttributeService trackedEntityAttributeService, EventAnalyticsManager eventAnalyticsManager,
         EventDataQueryService eventDataQueryService, AnalyticsSecurityManager securityManager,
         EventQueryPlanner queryPlanner, EventQueryValidator queryValidator, DatabaseInfo databaseInfo,
         AnalyticsCache analyticsCache, EnrollmentAnalyticsManager enrollmentAnalyticsManager,
-        SchemaIdResponseMapper schemaIdResponseMapper )
+        SchemaIdResponseMapper schemaIdResponseMapper, ClusterPyramidManager clusterPyramidManager )
     {
         super( securityManager, queryValidator, schemaIdResponseMapper );
 
@@ -202,6 +210,7 @@ public class DefaultEventAnalyticsService
         checkNotNull( databaseInfo );
         checkNotNull( analyticsCache );
         checkNotNull( schemaIdResponseMapper );
+        checkNotNull( clusterPyramidManager );
 
         this.dataElementService = dataElementService;
         this.trackedEntityAttributeService = trackedEntityAttributeService;
@@ -211,6 +220,7 @@ public class DefaultEventAnalyticsService
         this.databaseInfo = databaseInfo;
         this.analyticsCache = analyticsCache;
         this.enrollmentAnalyticsManager = enrollmentAnalyticsManager;
+        this.clusterPyramidManager = clusterPyramidManager;
     }
 
     // -------------------------------------------------------------------------
@@ -659,17 +669,7 @@ public class DefaultEventAnalyticsService
 
         queryValidator.validate( params );
 
-        Grid grid = new ListGrid();
-
-        // ---------------------------------------------------------------------
-        // Headers
-        // ---------------------------------------------------------------------
-
-        grid
-            .addHeader( new GridHeader( ITEM_COUNT, NAME_COUNT, NUMBER, false, false ) )
-            .addHeader( new GridHeader( ITEM_CENTER, NAME_CENTER, TEXT, false, false ) )
-            .addHeader( new GridHeader( ITEM_EXTENT, NAME_EXTENT, TEXT, false, false ) )
-            .addHeader( new GridHeader( ITEM_POINTS, NAME_POINTS, TEXT, false, false ) );
+        Grid grid = createClusterGridWithHeaders();
 
         // ---------------------------------------------------------------------
         // Data
@@ -682,6 +682,55 @@ public class DefaultEventAnalyticsService
         return grid;
     }
 
+    @Override
+    public Grid getEventClusters( EventQueryParams params, ClusterTile tile )
+    {
+        if ( !databaseInfo.isSpatialSupport() )
+        {
+            throwIllegalQueryEx( ErrorCode.E7218 );
+        }
+
+        if ( !clusterPyramidManager.isPyramidQuery( params, tile ) )
+        {
+            return getLiveEventClusters( params, tile );
+        }
+
+        EventQueryParams pyramidParams = new EventQueryParams.Builder( params )
+            .withGeometryOnly( true )
+            .build();
+
+        securityManager.decideAccessEventQuery( pyramidParams );
+
+        queryValidator.validate( pyramidParams );
+
+        try
+        {
+            return clusterPyramidManager.getEventClusters( pyramidParams, tile, createClusterGridWithHeaders() );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Cluster pyramid query failed, clustering events instead", ex );
+
+            return getLiveEventClusters( params, tile );
+        }
+    }
+
+    /**
+     * Clusters the events of the given tile from the analytics table, with the
+     * cell size and bounding box of the tile.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param tile the {@link ClusterTile}.
+     * @return a {@link Grid}.
+     */
+    private Grid getLiveEventClusters( EventQueryParams params, ClusterTile tile )
+    {
+        return getEventClusters( new EventQueryParams.Builder( params )
+            .withClusterSize( Math.round( tile.getCellSize() ) )
+            .withBbox( tile.getBbox() )
+            .build() );
+    }
+
     @Override
     public Rectangle getRectangle( EventQueryParams params )
     {
@@ -704,6 +753,22 @@ public class DefaultEventAnalyticsService
         return eventAnalyticsManager.getRectangle( params );
     }
 
+    /**
+     * Creates a grid with the headers of event clusters.
+     */
+    private Grid createClusterGridWithHeaders()
+    {
+        Grid grid = new ListGrid();
+
+        grid
+            .addHeader( new GridHeader( ITEM_COUNT, NAME_COUNT, NUMBER, false, false ) )
+            .addHeader( new GridHeader( ITEM_CENTER, NAME_CENTER, TEXT, false, false ) )
+            .addHeader( new GridHeader( ITEM_EXTENT, NAME_EXTENT, TEXT, false, false ) )
+            .addHeader( new GridHeader( ITEM_POINTS, NAME_POINTS, TEXT, false, false ) );
+
+        return grid;
+    }
+
     /**
      * Creates a grid with headers.
      *
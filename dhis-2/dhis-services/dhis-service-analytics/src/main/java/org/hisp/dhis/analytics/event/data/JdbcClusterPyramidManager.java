@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.analytics.AnalyticsTable;
+import org.hisp.dhis.analytics.AnalyticsTablePartition;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.event.ClusterPyramidManager;
+import org.hisp.dhis.analytics.event.ClusterTile;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.table.PartitionUtils;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.commons.timer.SystemTimer;
+import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.event.EventStatus;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.YearlyPeriodType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds and queries the event cluster pyramids. A pyramid table holds one row
+ * per zoom level, cluster cell, year, root organisation unit and event status,
+ * with the count, extent and coordinate sums of the events in the cell. Cells
+ * are indexed by tile to serve the clusters of a {@link ClusterTile} with a
+ * single index lookup.
+ */
+@Slf4j
+@Component( "org.hisp.dhis.analytics.event.ClusterPyramidManager" )
+public class JdbcClusterPyramidManager
+    implements ClusterPyramidManager
+{
+    private static final String EVENT_GEOMETRY_COLUMN = "psigeometry";
+
+    /**
+     * Latitude bounds of the web mercator projection.
+     */
+    private static final double MAX_LATITUDE = 85.0511;
+
+    private static final Set<DimensionType> DYNAMIC_DIMENSION_TYPES = Set.of(
+        DimensionType.ORGANISATION_UNIT_GROUP_SET, DimensionType.CATEGORY,
+        DimensionType.CATEGORY_OPTION_GROUP_SET );
+
+    private final PartitionManager partitionManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate readOnlyJdbcTemplate;
+
+    private final int maxZoom;
+
+    public JdbcClusterPyramidManager( DhisConfigurationProvider config, PartitionManager partitionManager,
+        JdbcTemplate jdbcTemplate, @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate readOnlyJdbcTemplate )
+    {
+        this.partitionManager = partitionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyJdbcTemplate = readOnlyJdbcTemplate;
+        this.maxZoom = parseMaxZoom( config.getProperty( ConfigurationKey.ANALYTICS_CLUSTER_PYRAMID_MAX_ZOOM ) );
+    }
+
+    @Override
+    public boolean isEnabled( AnalyticsTableUpdateParams params )
+    {
+        return maxZoom >= 0 && !params.isLatestUpdate();
+    }
+
+    @Override
+    public void createPyramid( AnalyticsTableUpdateParams params, AnalyticsTable table )
+    {
+        String tableName = ClusterPyramidManager.getTableName( table.getProgram().getUid() );
+        String tempTableName = tableName.replace( "analytics_event_cluster_", "analytics_event_cluster_temp_" );
+
+        Set<Integer> years = table.getTablePartitions().stream()
+            .map( AnalyticsTablePartition::getYear )
+            .filter( Objects::nonNull )
+            .collect( Collectors.toSet() );
+
+        // Partial updates copy the cells of the years not updated
+
+        boolean partialUpdate = params.isPartialUpdate() && !years.isEmpty()
+            && partitionManager.tableExists( tableName );
+
+        String yearClause = partialUpdate
+            ? "and yearly in (" + getQuotedCommaDelimitedString( years ) + ") "
+            : StringUtils.EMPTY;
+
+        String indexName = "in_" + tableName + "_" + CodeGenerator.generateCode( 5 ).toLowerCase();
+
+        try
+        {
+            jdbcTemplate.execute( "drop table if exists " + tempTableName );
+
+            Timer timer = new SystemTimer().start();
+
+            jdbcTemplate.execute( "create table " + tempTableName + " (" +
+                "zoom integer not null, tilex integer not null, tiley integer not null, " +
+                "cellx integer not null, celly integer not null, year integer not null, " +
+                "uidlevel1 character(11), psistatus varchar(50), count bigint not null, extent geometry, " +
+                "sumlongitude double precision, sumlatitude double precision, psi character(11))" );
+
+            if ( partialUpdate )
+            {
+                jdbcTemplate.execute( "insert into " + tempTableName + " select * from " + tableName + " " +
+                    "where year not in (" + StringUtils.join( years, "," ) + ")" );
+            }
+
+            String sql = getInsertSql( tempTableName, table.getTableName(), yearClause );
+
+            log.debug( "Populate cluster pyramid: '{}' with SQL: '{}'", tableName, sql );
+
+            jdbcTemplate.execute( sql );
+            jdbcTemplate.execute( "create index " + indexName + " on " + tempTableName + " (zoom, tilex, tiley)" );
+            jdbcTemplate.execute( "analyze " + tempTableName );
+            jdbcTemplate.execute( "drop table if exists " + tableName + " cascade;" +
+                "alter table " + tempTableName + " rename to " + tableName + ";" );
+
+            log.info( "Created cluster pyramid: '{}' in: {}", tableName, timer.stop().toString() );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Failed to create cluster pyramid: '{}', dropping cluster pyramid", tableName );
+
+            dropTableSilently( tempTableName );
+            dropTableSilently( tableName );
+
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean isPyramidQuery( EventQueryParams params, ClusterTile tile )
+    {
+        if ( maxZoom < 0 || tile.getZoom() > maxZoom || !params.hasProgram()
+            || !EVENT_GEOMETRY_COLUMN.equals( params.getCoordinateField() ) || params.isCoordinateOuFallback()
+            || params.isIncludeClusterPoints() || params.hasItemsOrItemFilters() || params.hasProgramStage()
+            || params.hasProgramIndicatorDimension() || params.hasValueDimension() || params.hasProgramStatus()
+            || params.isCompletedOnly() || params.hasTimeField() || params.hasStartEndDate()
+            || params.isOrganisationUnitMode( OrganisationUnitSelectionMode.SELECTED )
+            || params.isOrganisationUnitMode( OrganisationUnitSelectionMode.CHILDREN )
+            || !params.getDimensionsAndFilters( DYNAMIC_DIMENSION_TYPES ).isEmpty() )
+        {
+            return false;
+        }
+
+        List<DimensionalItemObject> orgUnits = params.getDimensionOrFilterItems( ORGUNIT_DIM_ID );
+        List<DimensionalItemObject> periods = params.getDimensionOrFilterItems( PERIOD_DIM_ID );
+
+        return !orgUnits.isEmpty() && !periods.isEmpty()
+            && orgUnits.stream().allMatch( ou -> ((OrganisationUnit) ou).getLevel() == 1 )
+            && periods.stream().allMatch( pe -> ((Period) pe).getPeriodType() instanceof YearlyPeriodType )
+            && hasPyramid( ClusterPyramidManager.getTableName( params.getProgram().getUid() ) );
+    }
+
+    @Override
+    public Grid getEventClusters( EventQueryParams params, ClusterTile tile, Grid grid )
+    {
+        Set<Integer> years = PartitionUtils.getPartitions(
+            params.getDimensionOrFilterItems( PERIOD_DIM_ID ) ).getPartitions();
+
+        Set<String> orgUnits = params.getDimensionOrFilterItems( ORGUNIT_DIM_ID ).stream()
+            .map( DimensionalItemObject::getUid )
+            .collect( Collectors.toSet() );
+
+        Set<String> eventStatuses = params.getEventStatus().stream()
+            .map( EventStatus::name )
+            .collect( Collectors.toSet() );
+
+        String sql = "select sum(count) as count, " +
+            "ST_AsGeoJSON(ST_SetSRID(ST_MakePoint(sum(sumlongitude) / sum(count), " +
+            "sum(sumlatitude) / sum(count)), 4326), 6) as center, " +
+            "ST_Extent(extent) as extent, " +
+            "case when sum(count) = 1 then max(psi) end as points " +
+            "from " + ClusterPyramidManager.getTableName( params.getProgram().getUid() ) + " " +
+            "where zoom = " + tile.getZoom() + " " +
+            "and tilex = " + tile.getX() + " " +
+            "and tiley = " + tile.getY() + " " +
+            "and year in (" + StringUtils.join( years, "," ) + ") " +
+            "and uidlevel1 in (" + getQuotedCommaDelimitedString( orgUnits ) + ") " +
+            "and psistatus in (" + getQuotedCommaDelimitedString( eventStatuses ) + ") " +
+            "group by cellx, celly";
+
+        log.debug( "Analytics event cluster pyramid SQL: {}", sql );
+
+        SqlRowSet rowSet = readOnlyJdbcTemplate.queryForRowSet( sql );
+
+        while ( rowSet.next() )
+        {
+            grid.addRow()
+                .addValue( rowSet.getLong( "count" ) )
+                .addValue( rowSet.getString( "center" ) )
+                .addValue( rowSet.getString( "extent" ) )
+                .addValue( rowSet.getString( "points" ) );
+        }
+
+        return grid;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the SQL populating the given pyramid table from the given event
+     * analytics table. Event points are projected to web mercator once and
+     * assigned to a cluster cell for each zoom level, where the cell size of a
+     * zoom level is half the cell size of the level above.
+     */
+    String getInsertSql( String pyramidTableName, String eventTableName, String yearClause )
+    {
+        String cellSize = "(" + ClusterTile.getCellSize( 0 ) + " / power(2, z.zoom))";
+        String shift = String.valueOf( ClusterTile.MERCATOR_ORIGIN_SHIFT );
+
+        return "insert into " + pyramidTableName + " (zoom, tilex, tiley, cellx, celly, year, uidlevel1, " +
+            "psistatus, count, extent, sumlongitude, sumlatitude, psi) " +
+            "select zoom, cellx / " + ClusterTile.CELLS_PER_TILE + ", celly / " + ClusterTile.CELLS_PER_TILE + ", " +
+            "cellx, celly, year, uidlevel1, psistatus, count(psi), " +
+            "ST_SetSRID(ST_Extent(geom)::geometry, 4326), sum(ST_X(geom)), sum(ST_Y(geom)), " +
+            "case when count(psi) = 1 then max(psi) end " +
+            "from (" +
+            "select z.zoom, " +
+            "cast(floor((ST_X(ax.merc) + " + shift + ") / " + cellSize + ") as integer) as cellx, " +
+            "cast(floor((" + shift + " - ST_Y(ax.merc)) / " + cellSize + ") as integer) as celly, " +
+            "ax.year, ax.uidlevel1, ax.psistatus, ax.psi, ax.geom " +
+            "from (" +
+            "select cast(yearly as integer) as year, uidlevel1, psistatus, psi, " +
+            "ST_Centroid(" + EVENT_GEOMETRY_COLUMN + ") as geom, " +
+            "ST_Transform(ST_SetSRID(ST_Centroid(" + EVENT_GEOMETRY_COLUMN + "), 4326), 3785) as merc " +
+            "from " + eventTableName + " " +
+            "where " + EVENT_GEOMETRY_COLUMN + " is not null " +
+            "and ST_Y(ST_Centroid(" + EVENT_GEOMETRY_COLUMN + ")) between -" + MAX_LATITUDE + " and " +
+            MAX_LATITUDE + " " +
+            yearClause +
+            ") as ax " +
+            "cross join generate_series(0, " + maxZoom + ") as z(zoom)" +
+            ") as c " +
+            "group by zoom, cellx, celly, year, uidlevel1, psistatus";
+    }
+
+    /**
+     * Indicates whether the given pyramid table exists. Looked up for every
+     * query, as pyramid tables are created and dropped by analytics table
+     * updates on any node. Returns false if the lookup fails, in which case
+     * the events are clustered from the analytics table.
+     */
+    private boolean hasPyramid( String tableName )
+    {
+        try
+        {
+            Integer count = readOnlyJdbcTemplate.queryForObject( "select count(table_name) " +
+                "from information_schema.tables where table_name = ? and table_type = 'BASE TABLE'",
+                Integer.class, tableName );
+
+            return count != null && count > 0;
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( String.format( "Failed to look up cluster pyramid: '%s', clustering events instead",
+                tableName ), ex );
+
+            return false;
+        }
+    }
+
+    private void dropTableSilently( String tableName )
+    {
+        try
+        {
+            jdbcTemplate.execute( "drop table if exists " + tableName + " cascade" );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.error( ex.getMessage() );
+        }
+    }
+
+    /**
+     * Parses the highest zoom level of the cluster pyramids. Returns -1 if not
+     * set or invalid, which disables cluster pyramids.
+     *
+     * @param maxZoom the configured highest zoom level.
+     */
+    static int parseMaxZoom( String maxZoom )
+    {
+        int zoom = NumberUtils.toInt( StringUtils.trimToEmpty( maxZoom ), -1 );
+
+        if ( zoom > ClusterTile.MAX_ZOOM )
+        {
+            log.warn( "Ignoring invalid cluster pyramid zoom level: '{}'", maxZoom );
+            return -1;
+        }
+
+        return zoom;
+    }
+}
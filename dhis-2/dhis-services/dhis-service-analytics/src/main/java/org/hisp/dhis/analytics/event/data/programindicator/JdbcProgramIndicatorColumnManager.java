@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data.programindicator;
+
+import static org.hisp.dhis.analytics.DataType.BOOLEAN;
+import static org.hisp.dhis.analytics.DataType.NUMERIC;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.program.AnalyticsType;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramIndicatorService;
+import org.hisp.dhis.util.DateUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+@Slf4j
+@Component( "org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager" )
+public class JdbcProgramIndicatorColumnManager
+    implements ProgramIndicatorColumnManager
+{
+    /**
+     * Aggregation types for which the program indicator subquery over the
+     * single row of an event or enrollment returns the value of the row.
+     */
+    private static final Set<AggregationType> SINGLE_ROW_AGGREGATION_TYPES = EnumSet.of( AggregationType.SUM,
+        AggregationType.AVERAGE, AggregationType.MIN, AggregationType.MAX, AggregationType.CUSTOM );
+
+    private static final Date PROBE_START_A = DateUtils.parseDate( "2000-01-01" );
+
+    private static final Date PROBE_END_A = DateUtils.parseDate( "2000-12-31" );
+
+    private static final Date PROBE_START_B = DateUtils.parseDate( "2010-01-01" );
+
+    private static final Date PROBE_END_B = DateUtils.parseDate( "2010-12-31" );
+
+    private final ProgramIndicatorService programIndicatorService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<String> programIndicators;
+
+    /**
+     * Keys of the form {@code table.column} of the program indicator columns
+     * known to exist. Only existing columns are cached, as columns are added
+     * by analytics table updates at any time.
+     */
+    private final Set<String> availableColumns = ConcurrentHashMap.newKeySet();
+
+    public JdbcProgramIndicatorColumnManager( DhisConfigurationProvider config,
+        ProgramIndicatorService programIndicatorService,
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate )
+    {
+        this.programIndicatorService = programIndicatorService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.programIndicators = ImmutableSet.copyOf( StringUtils.split( StringUtils.deleteWhitespace(
+            StringUtils.defaultString( config.getProperty( ConfigurationKey.ANALYTICS_PROGRAM_INDICATOR_COLUMNS ) ) ),
+            ',' ) );
+    }
+
+    @Override
+    public List<ProgramIndicator> getProgramIndicators( Program program, AnalyticsType analyticsType )
+    {
+        if ( programIndicators.isEmpty() )
+        {
+            return List.of();
+        }
+
+        return program.getProgramIndicators().stream()
+            .filter( pi -> isPrecomputed( pi, analyticsType ) )
+            .sorted( ( a, b ) -> a.getUid().compareTo( b.getUid() ) )
+            .collect( Collectors.toList() );
+    }
+
+    @Override
+    public String getColumnSql( ProgramIndicator programIndicator )
+    {
+        String expression = getSql( programIndicator.getExpression(), NUMERIC, programIndicator, PROBE_START_A,
+            PROBE_END_A );
+
+        if ( StringUtils.isBlank( programIndicator.getFilter() ) )
+        {
+            return expression;
+        }
+
+        String filter = getSql( programIndicator.getFilter(), BOOLEAN, programIndicator, PROBE_START_A,
+            PROBE_END_A );
+
+        return "case when " + filter + " then " + expression + " end";
+    }
+
+    @Override
+    public boolean hasColumn( ProgramIndicator programIndicator, AnalyticsType analyticsType, String tableName )
+    {
+        if ( programIndicators.isEmpty() || !isPrecomputed( programIndicator, analyticsType ) )
+        {
+            return false;
+        }
+
+        String column = getColumnName( programIndicator );
+        String key = tableName + "." + column;
+
+        if ( availableColumns.contains( key ) )
+        {
+            return true;
+        }
+
+        String sql = "select count(column_name) from information_schema.columns " +
+            "where table_name = ? and column_name = ?";
+
+        Integer count = jdbcTemplate.queryForObject( sql, Integer.class, tableName, column );
+
+        if ( count != null && count > 0 )
+        {
+            availableColumns.add( key );
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    @EventListener
+    public void handleApplicationCachesCleared( ApplicationCacheClearedEvent event )
+    {
+        availableColumns.clear();
+        log.info( "Program indicator column cache cleared" );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the given program indicator is configured to be
+     * precomputed in tables of the given analytics type and whether its value
+     * can be precomputed. The value of a row can be precomputed if the SQL of
+     * the expression and the filter does not depend on the reporting period,
+     * which is checked by generating the SQL for two different periods.
+     */
+    private boolean isPrecomputed( ProgramIndicator programIndicator, AnalyticsType analyticsType )
+    {
+        if ( !programIndicators.contains( programIndicator.getUid() )
+            || programIndicator.getAnalyticsType() != analyticsType
+            || !SINGLE_ROW_AGGREGATION_TYPES.contains( programIndicator.getAggregationTypeFallback() ) )
+        {
+            return false;
+        }
+
+        return isPeriodIndependent( programIndicator.getExpression(), NUMERIC, programIndicator )
+            && isPeriodIndependent( programIndicator.getFilter(), BOOLEAN, programIndicator );
+    }
+
+    private boolean isPeriodIndependent( String expression, DataType dataType, ProgramIndicator programIndicator )
+    {
+        if ( StringUtils.isBlank( expression ) )
+        {
+            return true;
+        }
+
+        return Objects.equals(
+            getSql( expression, dataType, programIndicator, PROBE_START_A, PROBE_END_A ),
+            getSql( expression, dataType, programIndicator, PROBE_START_B, PROBE_END_B ) );
+    }
+
+    private String getSql( String expression, DataType dataType, ProgramIndicator programIndicator,
+        Date startDate, Date endDate )
+    {
+        return programIndicatorService.getAnalyticsSql( expression, dataType, programIndicator, startDate,
+            endDate );
+    }
+}
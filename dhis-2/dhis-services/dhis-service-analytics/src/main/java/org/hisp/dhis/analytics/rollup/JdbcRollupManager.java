@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
+import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.analytics.AnalyticsRollup;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.util.AnalyticsSqlUtils;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.commons.timer.SystemTimer;
+import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.PeriodType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manages the rollup tables configured with
+ * {@link ConfigurationKey#ANALYTICS_ROLLUPS}. Rollups are only supported for
+ * the aggregate data value analytics table.
+ */
+@Slf4j
+@Component( "org.hisp.dhis.analytics.rollup.RollupManager" )
+public class JdbcRollupManager
+    implements RollupManager
+{
+    /**
+     * Rollups with fewer organisation unit levels have fewer rows, rollups
+     * restricted to a data element group have fewer rows than rollups of the
+     * same level and period type holding all data elements.
+     */
+    private static final Comparator<AnalyticsRollup> SMALLEST_FIRST = Comparator
+        .comparingInt( AnalyticsRollup::getLevel )
+        .thenComparing( rollup -> !rollup.hasDataElementGroup() );
+
+    private final OrganisationUnitService organisationUnitService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate readOnlyJdbcTemplate;
+
+    private final List<AnalyticsRollup> rollups;
+
+    public JdbcRollupManager( DhisConfigurationProvider config, OrganisationUnitService organisationUnitService,
+        JdbcTemplate jdbcTemplate, @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate readOnlyJdbcTemplate )
+    {
+        this.organisationUnitService = organisationUnitService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyJdbcTemplate = readOnlyJdbcTemplate;
+        this.rollups = parseRollups( config.getProperty( ConfigurationKey.ANALYTICS_ROLLUPS ) );
+    }
+
+    @Override
+    public List<AnalyticsRollup> getRollups( AnalyticsTableType tableType )
+    {
+        return rollups.stream()
+            .filter( rollup -> rollup.getTableType() == tableType )
+            .collect( Collectors.toList() );
+    }
+
+    @Override
+    public List<AnalyticsRollup> getAvailableRollups( AnalyticsTableType tableType )
+    {
+        List<AnalyticsRollup> tableRollups = getRollups( tableType );
+
+        if ( tableRollups.isEmpty() )
+        {
+            return tableRollups;
+        }
+
+        Set<String> tableNames = tableRollups.stream()
+            .map( AnalyticsRollup::getTableName )
+            .collect( Collectors.toSet() );
+
+        String sql = "select table_name from information_schema.tables " +
+            "where table_name in (" + getQuotedCommaDelimitedString( tableNames ) + ") " +
+            "and table_type = 'BASE TABLE'";
+
+        try
+        {
+            Set<String> existingTableNames = new HashSet<>( readOnlyJdbcTemplate.queryForList( sql, String.class ) );
+
+            return tableRollups.stream()
+                .filter( rollup -> existingTableNames.contains( rollup.getTableName() ) )
+                .collect( Collectors.toList() );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Failed to look up rollup tables, querying analytics table instead", ex );
+
+            return List.of();
+        }
+    }
+
+    @Override
+    public void createRollupTable( AnalyticsRollup rollup )
+    {
+        String columns = getColumns( rollup ).stream()
+            .map( AnalyticsSqlUtils::quote )
+            .collect( Collectors.joining( "," ) );
+
+        String sql = "create table " + rollup.getTempTableName() + " as select " + columns + "," +
+            "sum(daysxvalue) as daysxvalue, " +
+            "sum(daysno) as daysno, " +
+            "sum(value) as value " +
+            "from " + rollup.getTableType().getTableName() + " " +
+            "where " + quote( rollup.getPeriodColumn() ) + " is not null " +
+            "and value is not null " +
+            getDataElementGroupClause( rollup ) +
+            "group by " + columns;
+
+        String indexName = "in_" + rollup.getTableName() + "_" + CodeGenerator.generateCode( 5 ).toLowerCase();
+
+        try
+        {
+            jdbcTemplate.execute( "drop table if exists " + rollup.getTempTableName() );
+
+            log.debug( "Create rollup table: '{}' with SQL: '{}'", rollup.getTableName(), sql );
+
+            Timer timer = new SystemTimer().start();
+
+            jdbcTemplate.execute( sql );
+            jdbcTemplate.execute( "create index " + indexName + " on " + rollup.getTempTableName() +
+                " (" + quote( "dx" ) + "," + quote( rollup.getPeriodColumn() ) + ")" );
+            jdbcTemplate.execute( "analyze " + rollup.getTempTableName() );
+            jdbcTemplate.execute( "drop table if exists " + rollup.getTableName() + " cascade;" +
+                "alter table " + rollup.getTempTableName() + " rename to " + rollup.getTableName() + ";" );
+
+            log.info( "Created rollup table: '{}' in: {}", rollup.getTableName(), timer.stop().toString() );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Failed to create rollup table: '{}', dropping rollup table", rollup.getTableName() );
+
+            dropTableSilently( rollup.getTempTableName() );
+            dropTableSilently( rollup.getTableName() );
+
+            throw ex;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the unquoted dimension columns of the given rollup table, which
+     * is the subset of the analytics table columns the rollup is grouped by.
+     *
+     * @param rollup the {@link AnalyticsRollup}.
+     */
+    private List<String> getColumns( AnalyticsRollup rollup )
+    {
+        List<String> columns = new ArrayList<>( List.of( "dx", "co", "ao", "approvallevel" ) );
+
+        for ( OrganisationUnitLevel level : organisationUnitService.getFilledOrganisationUnitLevels() )
+        {
+            if ( level.getLevel() <= rollup.getLevel() )
+            {
+                columns.add( LEVEL_PREFIX + level.getLevel() );
+            }
+        }
+
+        columns.add( rollup.getPeriodColumn() );
+
+        return columns;
+    }
+
+    private String getDataElementGroupClause( AnalyticsRollup rollup )
+    {
+        if ( !rollup.hasDataElementGroup() )
+        {
+            return StringUtils.EMPTY;
+        }
+
+        return "and dx in (" +
+            "select de.uid from dataelement de " +
+            "inner join dataelementgroupmembers degm on degm.dataelementid = de.dataelementid " +
+            "inner join dataelementgroup deg on deg.dataelementgroupid = degm.dataelementgroupid " +
+            "where deg.uid = '" + rollup.getDataElementGroup() + "') ";
+    }
+
+    private void dropTableSilently( String tableName )
+    {
+        try
+        {
+            jdbcTemplate.execute( "drop table if exists " + tableName + " cascade" );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.error( ex.getMessage() );
+        }
+    }
+
+    /**
+     * Parses the rollup definitions of the form
+     * {@code level:periodType[:dataElementGroupUid]}. Invalid definitions are
+     * logged and ignored.
+     *
+     * @param definitions the comma separated rollup definitions.
+     * @return the list of {@link AnalyticsRollup}, smallest first.
+     */
+    static List<AnalyticsRollup> parseRollups( String definitions )
+    {
+        List<AnalyticsRollup> rollups = new ArrayList<>();
+
+        for ( String definition : StringUtils.split( StringUtils.trimToEmpty( definitions ), ',' ) )
+        {
+            String[] parts = StringUtils.split( definition.trim(), ':' );
+
+            int level = parts.length > 1 ? NumberUtils.toInt( parts[0].trim(), 0 ) : 0;
+            PeriodType periodType = parts.length > 1 ? PeriodType.getByNameIgnoreCase( parts[1].trim() ) : null;
+            String group = parts.length > 2 ? parts[2].trim() : null;
+
+            if ( level < 1 || periodType == null || parts.length > 3
+                || (group != null && !CodeGenerator.isValidUid( group )) )
+            {
+                log.warn( "Ignoring invalid analytics rollup definition: '{}'", definition );
+                continue;
+            }
+
+            AnalyticsRollup rollup = new AnalyticsRollup( AnalyticsTableType.DATA_VALUE, level, periodType, group );
+
+            if ( !rollups.contains( rollup ) )
+            {
+                rollups.add( rollup );
+            }
+        }
+
+        rollups.sort( SMALLEST_FIRST );
+
+        return List.copyOf( rollups );
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import java.util.List;
+
+import org.hisp.dhis.analytics.AnalyticsRollup;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+
+public interface RollupManager
+{
+    /**
+     * Returns the rollups configured for the given analytics table type,
+     * smallest first.
+     *
+     * @param tableType the {@link AnalyticsTableType}.
+     */
+    List<AnalyticsRollup> getRollups( AnalyticsTableType tableType );
+
+    /**
+     * Returns the rollups configured for the given analytics table type for
+     * which a rollup table exists, smallest first. Existence is looked up on
+     * every call as rollup tables are replaced by analytics table updates on
+     * any node. Returns an empty list if the lookup fails.
+     *
+     * @param tableType the {@link AnalyticsTableType}.
+     */
+    List<AnalyticsRollup> getAvailableRollups( AnalyticsTableType tableType );
+
+    /**
+     * Builds the table of the given rollup from the analytics table and
+     * replaces the existing rollup table, if any. The analytics table must
+     * have been swapped in before. If the rollup table cannot be built, the
+     * existing rollup table is dropped to not serve outdated data.
+     *
+     * @param rollup the {@link AnalyticsRollup}.
+     */
+    void createRollupTable( AnalyticsRollup rollup );
+}
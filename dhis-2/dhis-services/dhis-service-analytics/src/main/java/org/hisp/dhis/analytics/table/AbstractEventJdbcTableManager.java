@@ -35,11 +35,13 @@ import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.analytics.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.ColumnDataType;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -48,6 +50,7 @@ import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
@@ -61,16 +64,20 @@ import org.springframework.jdbc.core.JdbcTemplate;
 public abstract class AbstractEventJdbcTableManager
     extends AbstractJdbcTableManager
 {
+    protected final ProgramIndicatorColumnManager programIndicatorColumnManager;
+
     public AbstractEventJdbcTableManager( IdentifiableObjectManager idObjectManager,
         OrganisationUnitService organisationUnitService, CategoryService categoryService,
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorColumnManager programIndicatorColumnManager )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
             databaseInfo, jdbcTemplate );
+
+        this.programIndicatorColumnManager = programIndicatorColumnManager;
     }
 
     protected final String getNumericClause()
@@ -190,6 +197,50 @@ public abstract class AbstractEventJdbcTableManager
         invokeTimeAndLog( sql, String.format( "Populate %s", tableName ) );
     }
 
+    /**
+     * Returns the columns of the program indicators of the given program and
+     * analytics type which are precomputed in the analytics table. These are
+     * the only value columns of event and enrollment analytics tables. The
+     * column alias holds the SQL expression computing the value from the other
+     * columns of the analytics table row.
+     *
+     * @param program the {@link Program}.
+     * @param analyticsType the {@link AnalyticsType} of the analytics table.
+     * @return a list of {@link AnalyticsTableColumn}.
+     */
+    protected List<AnalyticsTableColumn> getProgramIndicatorColumns( Program program, AnalyticsType analyticsType )
+    {
+        return programIndicatorColumnManager.getProgramIndicators( program, analyticsType ).stream()
+            .map( pi -> new AnalyticsTableColumn( quote( programIndicatorColumnManager.getColumnName( pi ) ),
+                ColumnDataType.DOUBLE, programIndicatorColumnManager.getColumnSql( pi ) ) )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Populates the precomputed program indicator columns of the given
+     * analytics table partition, after the partition was populated with the
+     * dimension columns.
+     *
+     * @param partition the {@link AnalyticsTablePartition}.
+     */
+    protected void populateProgramIndicatorColumns( AnalyticsTablePartition partition )
+    {
+        List<AnalyticsTableColumn> columns = partition.getMasterTable().getValueColumns();
+
+        if ( columns.isEmpty() )
+        {
+            return;
+        }
+
+        final String tableName = partition.getTempTableName();
+
+        String sql = "update " + tableName + " as ax set " + columns.stream()
+            .map( col -> col.getName() + " = " + col.getAlias() )
+            .collect( Collectors.joining( ", " ) );
+
+        invokeTimeAndLog( sql, String.format( "Populate program indicator columns %s", tableName ) );
+    }
+
     protected List<AnalyticsTableColumn> addTrackedEntityAttributes( Program program )
     {
         List<AnalyticsTableColumn> columns = new ArrayList<>();
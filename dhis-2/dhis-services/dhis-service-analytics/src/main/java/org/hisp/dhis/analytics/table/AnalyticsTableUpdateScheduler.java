@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static org.hisp.dhis.analytics.AnalyticsTableType.ENROLLMENT;
+import static org.hisp.dhis.analytics.AnalyticsTableType.EVENT;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.analytics.AnalyticsTableService;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.util.DateUtils;
+
+/**
+ * Updates the analytics tables of independent table types concurrently. Table
+ * types form a dependency graph, a table type is updated once the table types
+ * it depends on are updated. The available database processes are divided
+ * evenly between the table types updated concurrently.
+ *
+ * Each table type is tracked as a work item of a single stage of the given
+ * {@link JobProgress}. The stages of the table types themselves are logged,
+ * while failures and cancellation are propagated from and to the given
+ * {@link JobProgress}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class AnalyticsTableUpdateScheduler
+{
+    /**
+     * Minimum number of database processes to use for a single table type.
+     */
+    static final int MIN_PROCESSES_PER_TABLE_TYPE = 4;
+
+    /**
+     * Table types and the table types they depend on. Program indicator
+     * columns of enrollment tables may read from the event tables.
+     */
+    private static final Map<AnalyticsTableType, Set<AnalyticsTableType>> DEPENDENCIES = Map.of(
+        ENROLLMENT, Set.of( EVENT ) );
+
+    private final List<AnalyticsTableService> services;
+
+    private final int typeParallelism;
+
+    private final Map<AnalyticsTableType, Date> startTimes = new ConcurrentHashMap<>();
+
+    private final Map<AnalyticsTableType, Date> endTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the number of table types to update concurrently, so that each
+     * table type can use at least {@link #MIN_PROCESSES_PER_TABLE_TYPE}
+     * processes.
+     *
+     * @param processNo the number of available database processes.
+     * @param tableTypes the number of table types to update.
+     * @return the number of table types to update concurrently, at least 1.
+     */
+    static int getTypeParallelism( int processNo, int tableTypes )
+    {
+        return Math.max( 1, Math.min( tableTypes, processNo / MIN_PROCESSES_PER_TABLE_TYPE ) );
+    }
+
+    /**
+     * Returns the table types the given table type depends on, restricted to
+     * the given table types to update.
+     */
+    static Set<AnalyticsTableType> getDependencies( AnalyticsTableType tableType, Set<AnalyticsTableType> tableTypes )
+    {
+        return DEPENDENCIES.getOrDefault( tableType, Set.of() ).stream()
+            .filter( tableTypes::contains )
+            .collect( Collectors.toSet() );
+    }
+
+    /**
+     * Updates the analytics tables of all services. Rethrows the failure of a
+     * failed table type once the table types which were running concurrently
+     * have completed.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param progress the {@link JobProgress}.
+     */
+    public void update( AnalyticsTableUpdateParams params, JobProgress progress )
+    {
+        Map<AnalyticsTableType, AnalyticsTableService> pending = new LinkedHashMap<>();
+        services.forEach( service -> pending.put( service.getAnalyticsTableType(), service ) );
+
+        Set<AnalyticsTableType> tableTypes = Set.copyOf( pending.keySet() );
+        Map<AnalyticsTableType, RuntimeException> failures = new ConcurrentHashMap<>();
+        List<AnalyticsTableType> completed = new ArrayList<>();
+
+        progress.startingStage( "Updating analytics tables " + tableTypes + " with " + typeParallelism
+            + " concurrent table types", pending.size() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( typeParallelism );
+        CompletionService<AnalyticsTableType> completionService = new ExecutorCompletionService<>( executor );
+
+        try
+        {
+            int running = 0;
+
+            while ( !pending.isEmpty() || running > 0 )
+            {
+                Iterator<AnalyticsTableService> it = pending.values().iterator();
+
+                while ( it.hasNext() && failures.isEmpty() && !progress.isCancellationRequested() )
+                {
+                    AnalyticsTableService service = it.next();
+
+                    if ( completed.containsAll( getDependencies( service.getAnalyticsTableType(), tableTypes ) ) )
+                    {
+                        it.remove();
+                        completionService.submit( () -> updateTableType( service, params, progress, failures ) );
+                        running++;
+                    }
+                }
+
+                if ( running == 0 )
+                {
+                    break;
+                }
+
+                AnalyticsTableType tableType = completionService.take().get();
+                running--;
+
+                if ( !failures.containsKey( tableType ) )
+                {
+                    completed.add( tableType );
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new CancellationException( "Analytics table update interrupted" );
+        }
+        catch ( ExecutionException ex )
+        {
+            throw new IllegalStateException( ex.getCause() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        if ( !failures.isEmpty() )
+        {
+            progress.failedStage( "Analytics table update failed for table types: " + failures.keySet() );
+            throw failures.values().iterator().next();
+        }
+
+        if ( !pending.isEmpty() )
+        {
+            throw new CancellationException( "Analytics table update cancelled before updating table types: "
+                + pending.keySet() );
+        }
+
+        progress.completedStage( "Critical path: " + getCriticalPath( completed ) );
+    }
+
+    /**
+     * Updates the analytics tables of a single table type, tracked as a work
+     * item of the given {@link JobProgress}.
+     *
+     * @return the updated table type.
+     */
+    private AnalyticsTableType updateTableType( AnalyticsTableService service, AnalyticsTableUpdateParams params,
+        JobProgress progress, Map<AnalyticsTableType, RuntimeException> failures )
+    {
+        AnalyticsTableType tableType = service.getAnalyticsTableType();
+        TableTypeProgress typeProgress = new TableTypeProgress( tableType, progress );
+
+        progress.startingWorkItem( "Updating analytics tables " + tableType );
+        startTimes.put( tableType, new Date() );
+
+        try
+        {
+            service.update( params, typeProgress );
+
+            if ( typeProgress.isAborted() )
+            {
+                throw new IllegalStateException( "Update of analytics tables " + tableType + " failed: "
+                    + typeProgress.getError() );
+            }
+
+            endTimes.put( tableType, new Date() );
+            progress.completedWorkItem( tableType + " updated in "
+                + DateUtils.getPrettyInterval( startTimes.get( tableType ), endTimes.get( tableType ) ) );
+        }
+        catch ( RuntimeException ex )
+        {
+            endTimes.put( tableType, new Date() );
+            failures.put( tableType, ex );
+            progress.failedWorkItem( ex );
+        }
+
+        return tableType;
+    }
+
+    /**
+     * Returns a description of the critical path of the update, which is the
+     * chain of dependent table types with the longest total update time.
+     *
+     * @param tableTypes the updated table types.
+     * @return a description of the critical path.
+     */
+    String getCriticalPath( List<AnalyticsTableType> tableTypes )
+    {
+        Set<AnalyticsTableType> updated = Set.copyOf( tableTypes );
+        Map<AnalyticsTableType, Long> pathTimes = new LinkedHashMap<>();
+        Map<AnalyticsTableType, AnalyticsTableType> predecessors = new LinkedHashMap<>();
+
+        // Table types are completed after the table types they depend on
+
+        for ( AnalyticsTableType tableType : tableTypes )
+        {
+            long pathTime = getDuration( tableType );
+
+            for ( AnalyticsTableType dependency : getDependencies( tableType, updated ) )
+            {
+                long dependencyTime = pathTimes.get( dependency );
+
+                if ( !predecessors.containsKey( tableType ) || dependencyTime > pathTimes.get( tableType ) )
+                {
+                    predecessors.put( tableType, dependency );
+                    pathTimes.put( tableType, dependencyTime );
+                }
+            }
+
+            pathTimes.merge( tableType, pathTime, Long::sum );
+        }
+
+        AnalyticsTableType last = pathTimes.entrySet().stream()
+            .max( Map.Entry.comparingByValue() )
+            .map( Map.Entry::getKey )
+            .orElse( null );
+
+        LinkedList<String> path = new LinkedList<>();
+
+        for ( AnalyticsTableType tableType = last; tableType != null; tableType = predecessors.get( tableType ) )
+        {
+            path.addFirst( tableType + " (" + DateUtils.getPrettyInterval(
+                startTimes.get( tableType ), endTimes.get( tableType ) ) + ")" );
+        }
+
+        return String.join( " -> ", path );
+    }
+
+    private long getDuration( AnalyticsTableType tableType )
+    {
+        return endTimes.get( tableType ).getTime() - startTimes.get( tableType ).getTime();
+    }
+
+    /**
+     * {@link JobProgress} of a single table type. Stages are logged rather
+     * than tracked, as the tracking of the parent {@link JobProgress} supports
+     * a single current stage only. Failures abort the table type unless the
+     * failure policy of the stage allows to skip.
+     */
+    @RequiredArgsConstructor
+    private static final class TableTypeProgress
+        implements JobProgress
+    {
+        private final AnalyticsTableType tableType;
+
+        private final JobProgress parent;
+
+        private final AtomicBoolean aborted = new AtomicBoolean();
+
+        private final AtomicBoolean skipCurrentStage = new AtomicBoolean();
+
+        private volatile FailurePolicy stageFailurePolicy = FailurePolicy.FAIL;
+
+        private volatile String error;
+
+        boolean isAborted()
+        {
+            return aborted.get();
+        }
+
+        String getError()
+        {
+            return error;
+        }
+
+        @Override
+        public boolean isCancellationRequested()
+        {
+            return aborted.get() || parent.isCancellationRequested();
+        }
+
+        @Override
+        public boolean isSkipCurrentStage()
+        {
+            return skipCurrentStage.get() || isCancellationRequested();
+        }
+
+        @Override
+        public void startingProcess( String description )
+        {
+            log.info( "[{}] {}", tableType, description );
+        }
+
+        @Override
+        public void completedProcess( String summary )
+        {
+            log.info( "[{}] {}", tableType, summary );
+        }
+
+        @Override
+        public void failedProcess( String error )
+        {
+            abort( error );
+        }
+
+        @Override
+        public void startingStage( String description, int workItems, FailurePolicy onFailure )
+        {
+            if ( isCancellationRequested() )
+            {
+                throw new CancellationException();
+            }
+
+            skipCurrentStage.set( false );
+            stageFailurePolicy = onFailure;
+            log.info( "[{}] {}", tableType, description );
+        }
+
+        @Override
+        public void completedStage( String summary )
+        {
+            if ( summary != null )
+            {
+                log.info( "[{}] {}", tableType, summary );
+            }
+        }
+
+        @Override
+        public void failedStage( String error )
+        {
+            log.error( "[{}] {}", tableType, error );
+
+            if ( stageFailurePolicy != FailurePolicy.SKIP_STAGE )
+            {
+                abort( error );
+            }
+        }
+
+        @Override
+        public void startingWorkItem( String description, FailurePolicy onFailure )
+        {
+            log.debug( "[{}] {}", tableType, description );
+        }
+
+        @Override
+        public void completedWorkItem( String summary )
+        {
+            if ( summary != null )
+            {
+                log.debug( "[{}] {}", tableType, summary );
+            }
+        }
+
+        @Override
+        public void failedWorkItem( String error )
+        {
+            log.error( "[{}] {}", tableType, error );
+
+            switch ( stageFailurePolicy )
+            {
+            case SKIP_STAGE:
+                skipCurrentStage.set( true );
+                break;
+            case SKIP_ITEM:
+            case SKIP_ITEM_OUTLIER:
+                break;
+            default:
+                abort( error );
+            }
+        }
+
+        private void abort( String error )
+        {
+            if ( aborted.compareAndSet( false, true ) )
+            {
+                this.error = error;
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import static org.hisp.dhis.commons.collection.CollectionUtils.emptyIfNull;
 import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_STAGE;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -46,11 +47,13 @@ import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.util.DateUtils;
 import org.springframework.stereotype.Service;
 
 /**
@@ -78,6 +81,8 @@ public class DefaultAnalyticsTableGenerator
         Clock clock = new Clock( log ).startClock();
         Date lastSuccessfulUpdate = systemSettingManager
             .getDateSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE );
+        Date lastAnyTableUpdate = DateUtils.getLatest( lastSuccessfulUpdate, systemSettingManager
+            .getDateSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE ) );
 
         Set<AnalyticsTableType> availableTypes = analyticsTableServices.stream()
             .map( AnalyticsTableService::getAnalyticsTableType )
@@ -102,11 +107,24 @@ public class DefaultAnalyticsTableGenerator
 
         Set<AnalyticsTableType> skipTypes = emptyIfNull( params.getSkipTableTypes() );
 
-        for ( AnalyticsTableService service : analyticsTableServices )
+        List<AnalyticsTableService> services = analyticsTableServices.stream()
+            .filter( service -> !skipTypes.contains( service.getAnalyticsTableType() ) )
+            .collect( Collectors.toList() );
+
+        int processNo = getProcessNo();
+        int typeParallelism = AnalyticsTableUpdateScheduler.getTypeParallelism( processNo, services.size() );
+
+        if ( typeParallelism > 1 )
         {
-            AnalyticsTableType tableType = service.getAnalyticsTableType();
+            AnalyticsTableUpdateParams typeParams = AnalyticsTableUpdateParams.newBuilder( params )
+                .withProcessNo( processNo / typeParallelism )
+                .build();
 
-            if ( !skipTypes.contains( tableType ) )
+            new AnalyticsTableUpdateScheduler( services, typeParallelism ).update( typeParams, progress );
+        }
+        else
+        {
+            for ( AnalyticsTableService service : services )
             {
                 service.update( params, progress );
             }
@@ -116,7 +134,7 @@ public class DefaultAnalyticsTableGenerator
         progress.runStage( () -> updateLastSuccessfulSystemSettings( params, clock ) );
 
         progress.startingStage( "Invalidate analytics caches", SKIP_STAGE );
-        progress.runStage( analyticsCache::invalidateAll );
+        progress.runStage( () -> invalidateCaches( params, skipTypes, lastAnyTableUpdate ) );
         progress.completedProcess( "Analytics tables updated" );
     }
 
@@ -138,6 +156,53 @@ public class DefaultAnalyticsTableGenerator
         }
     }
 
+    /**
+     * Invalidates the analytics cache entries affected by the table update.
+     * Partial updates which did not regenerate the resource tables only evict
+     * the entries of the updated table types and years, any other update
+     * invalidates the entire cache.
+     */
+    private void invalidateCaches( AnalyticsTableUpdateParams params, Set<AnalyticsTableType> skipTypes,
+        Date lastAnyTableUpdate )
+    {
+        boolean resourceTablesUpdated = !params.isSkipResourceTables() && !params.isLatestUpdate();
+
+        if ( !params.isPartialUpdate() || resourceTablesUpdated )
+        {
+            analyticsCache.invalidateAll();
+            return;
+        }
+
+        for ( AnalyticsTableService service : analyticsTableServices )
+        {
+            AnalyticsTableType tableType = service.getAnalyticsTableType();
+
+            if ( skipTypes.contains( tableType ) )
+            {
+                continue;
+            }
+
+            if ( params.isLatestUpdate() )
+            {
+                if ( tableType.hasLatestPartition() )
+                {
+                    Set<Integer> years = lastAnyTableUpdate != null
+                        ? service.getUpdatedDataYears( lastAnyTableUpdate, params.getStartTime() )
+                        : null;
+
+                    analyticsCache.invalidate( tableType, years != null ? years::contains : year -> true );
+                }
+            }
+            else
+            {
+                int fromYear = Collections.min(
+                    PartitionUtils.getPartitions( params.getFromDate(), params.getStartTime() ).getPartitions() );
+
+                analyticsCache.invalidate( tableType, year -> year >= fromYear );
+            }
+        }
+    }
+
     @Override
     public void generateResourceTables( JobProgress progress )
     {
@@ -165,6 +230,11 @@ public class DefaultAnalyticsTableGenerator
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Generates the resource tables. Tables which do not depend on other
+     * resource tables are generated in parallel, then tables depending on the
+     * organisation unit structure table are generated.
+     */
     private void generateResourceTablesInternal( JobProgress progress )
     {
         resourceTableService.dropAllSqlViews( progress );
@@ -179,17 +249,40 @@ public class DefaultAnalyticsTableGenerator
         generators.put( "generating DataElementGroupSet table",
             resourceTableService::generateDataElementGroupSetTable );
         generators.put( "generating IndicatorGroupSet table", resourceTableService::generateIndicatorGroupSetTable );
-        generators.put( "generating OrganisationUnitGroupSet table",
-            resourceTableService::generateOrganisationUnitGroupSetTable );
         generators.put( "generating Category table", resourceTableService::generateCategoryTable );
         generators.put( "generating DataElement table", resourceTableService::generateDataElementTable );
         generators.put( "generating Period table", resourceTableService::generatePeriodTable );
         generators.put( "generating DatePeriod table", resourceTableService::generateDatePeriodTable );
         generators.put( "generating CategoryOptionCombo table",
             resourceTableService::generateCategoryOptionComboTable );
+
+        int parallelism = Math.min( getProcessNo(), generators.size() );
+
         progress.startingStage( "Generating resource tables", generators.size() );
-        progress.runStage( generators );
+        progress.runStageInParallel( parallelism, generators.entrySet(), Map.Entry::getKey,
+            entry -> entry.getValue().run() );
+
+        Map<String, Runnable> dependentGenerators = new LinkedHashMap<>();
+        dependentGenerators.put( "generating OrganisationUnitGroupSet table",
+            resourceTableService::generateOrganisationUnitGroupSetTable );
+
+        progress.startingStage( "Generating dependent resource tables", dependentGenerators.size() );
+        progress.runStage( dependentGenerators );
 
         resourceTableService.createAllSqlViews( progress );
     }
+
+    /**
+     * Returns the number of resource tables to generate in parallel, or the
+     * number of processes to divide between analytics table types, based on
+     * the number of database server CPUs.
+     */
+    private int getProcessNo()
+    {
+        Integer cores = systemSettingManager.getIntegerSetting( SettingKey.DATABASE_SERVER_CPUS );
+
+        cores = (cores == null || cores == 0) ? SystemUtils.getCpuCores() : cores;
+
+        return cores > 2 ? (cores - 1) : cores;
+    }
 }
@@ -29,10 +29,12 @@ package org.hisp.dhis.analytics.table;
 
 import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexName;
 import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexes;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM;
 import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM_OUTLIER;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -40,12 +42,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.analytics.AnalyticsIndex;
+import org.hisp.dhis.analytics.AnalyticsRollup;
 import org.hisp.dhis.analytics.AnalyticsTable;
 import org.hisp.dhis.analytics.AnalyticsTableManager;
 import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.rollup.RollupManager;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElementService;
@@ -64,6 +68,12 @@ import org.hisp.dhis.system.util.Clock;
 public class DefaultAnalyticsTableService
     implements AnalyticsTableService
 {
+    /**
+     * Guards the swap of analytics tables, as SQL views are dropped and
+     * recreated around the swap and table types may be updated concurrently.
+     */
+    private static final Object SWAP_LOCK = new Object();
+
     private final AnalyticsTableManager tableManager;
 
     private final OrganisationUnitService organisationUnitService;
@@ -74,6 +84,8 @@ public class DefaultAnalyticsTableService
 
     private final SystemSettingManager systemSettingManager;
 
+    private final RollupManager rollupManager;
+
     @Override
     public AnalyticsTableType getAnalyticsTableType()
     {
@@ -83,7 +95,7 @@ public class DefaultAnalyticsTableService
     @Override
     public void update( AnalyticsTableUpdateParams params, JobProgress progress )
     {
-        int processNo = getProcessNo();
+        int processNo = getProcessNo( params );
 
         int tableUpdates = 0;
 
@@ -133,26 +145,26 @@ public class DefaultAnalyticsTableService
         List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
 
         progress.startingStage( "Populating analytics tables " + tableType, partitions.size() );
-        populateTables( params, partitions, progress );
+        populateTables( params, partitions, processNo, progress );
         clock.logTime( "Populated analytics tables" );
 
         progress.startingStage( "Invoking analytics table hooks " + tableType );
         tableUpdates += progress.runStage( 0, tableManager::invokeAnalyticsTableSqlHooks );
         clock.logTime( "Invoked analytics table hooks" );
 
-        tableUpdates += applyAggregationLevels( tableType, partitions, progress );
+        tableUpdates += applyAggregationLevels( tableType, partitions, processNo, progress );
         clock.logTime( "Applied aggregation levels" );
 
         if ( tableUpdates > 0 )
         {
             progress.startingStage( "Vacuuming tables " + tableType, partitions.size() );
-            vacuumTables( partitions, progress );
+            vacuumTables( partitions, processNo, progress );
             clock.logTime( "Tables vacuumed" );
         }
 
         List<AnalyticsIndex> indexes = getIndexes( partitions );
         progress.startingStage( "Creating indexes " + tableType, indexes.size(), SKIP_ITEM_OUTLIER );
-        createIndexes( indexes, progress );
+        createIndexes( indexes, processNo, progress );
         clock.logTime( "Created indexes" );
 
         progress.startingStage( "Analyzing analytics tables " + tableType, partitions.size() );
@@ -168,9 +180,32 @@ public class DefaultAnalyticsTableService
 
         swapTables( params, tables, progress );
 
+        List<AnalyticsRollup> rollups = rollupManager.getRollups( tableType );
+
+        if ( !rollups.isEmpty() )
+        {
+            progress.startingStage( "Creating rollup tables " + tableType, rollups.size(), SKIP_ITEM );
+            createRollupTables( rollups, progress );
+            clock.logTime( "Created rollup tables" );
+        }
+
+        if ( tableManager.hasDerivedTables( params ) )
+        {
+            progress.startingStage( "Creating derived tables " + tableType, tables.size(), SKIP_ITEM );
+            progress.runStage( tables, AnalyticsTable::getTableName,
+                table -> tableManager.createDerivedTables( params, table ) );
+            clock.logTime( "Created derived tables" );
+        }
+
         clock.logTime( "Table update done: " + tableType.getTableName() );
     }
 
+    @Override
+    public Set<Integer> getUpdatedDataYears( Date startDate, Date endDate )
+    {
+        return tableManager.getUpdatedDataYears( startDate, endDate );
+    }
+
     @Override
     public void dropTables()
     {
@@ -217,9 +252,9 @@ public class DefaultAnalyticsTableService
      * Populates the given analytics tables.
      */
     private void populateTables( AnalyticsTableUpdateParams params, List<AnalyticsTablePartition> partitions,
-        JobProgress progress )
+        int processNo, JobProgress progress )
     {
-        int parallelism = Math.min( getProcessNo(), partitions.size() );
+        int parallelism = Math.min( processNo, partitions.size() );
         log.info( "Populate table task number: " + parallelism );
 
         progress.runStageInParallel( parallelism, partitions, AnalyticsTablePartition::getTableName,
@@ -232,7 +267,7 @@ public class DefaultAnalyticsTableService
      * @return the number of aggregation levels applied for data elements.
      */
     private int applyAggregationLevels( AnalyticsTableType tableType, List<AnalyticsTablePartition> partitions,
-        JobProgress progress )
+        int processNo, JobProgress progress )
     {
         int maxLevels = organisationUnitService.getNumberOfOrganisationalLevels();
 
@@ -248,7 +283,7 @@ public class DefaultAnalyticsTableService
             if ( !dataElements.isEmpty() )
             {
                 progress.startingStage( "Applying aggregation level " + level + " " + tableType, partitions.size() );
-                progress.runStageInParallel( getProcessNo(), partitions, AnalyticsTablePartition::getTableName,
+                progress.runStageInParallel( processNo, partitions, AnalyticsTablePartition::getTableName,
                     partition -> tableManager.applyAggregationLevels( partition, dataElements, level ) );
 
                 aggLevels += dataElements.size();
@@ -261,20 +296,20 @@ public class DefaultAnalyticsTableService
     /**
      * Vacuums the given analytics tables.
      */
-    private void vacuumTables( List<AnalyticsTablePartition> partitions, JobProgress progress )
+    private void vacuumTables( List<AnalyticsTablePartition> partitions, int processNo, JobProgress progress )
     {
-        progress.runStageInParallel( getProcessNo(), partitions, AnalyticsTablePartition::getTableName,
+        progress.runStageInParallel( processNo, partitions, AnalyticsTablePartition::getTableName,
             tableManager::vacuumTables );
     }
 
     /**
      * Creates indexes on the given analytics tables.
      */
-    private void createIndexes( List<AnalyticsIndex> indexes, JobProgress progress )
+    private void createIndexes( List<AnalyticsIndex> indexes, int processNo, JobProgress progress )
     {
         AnalyticsTableType type = getAnalyticsTableType();
 
-        progress.runStageInParallel( getProcessNo(), indexes,
+        progress.runStageInParallel( processNo, indexes,
             index -> getIndexName( index, type ).replace( "\"", "" ),
             tableManager::createIndex );
     }
@@ -296,12 +331,34 @@ public class DefaultAnalyticsTableService
      */
     private void swapTables( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables, JobProgress progress )
     {
-        resourceTableService.dropAllSqlViews( progress );
+        synchronized ( SWAP_LOCK )
+        {
+            resourceTableService.dropAllSqlViews( progress );
 
-        progress.startingStage( "Swapping analytics tables " + getAnalyticsTableType(), tables.size() );
-        progress.runStage( tables, AnalyticsTable::getTableName, table -> tableManager.swapTable( params, table ) );
+            progress.startingStage( "Swapping analytics tables " + getAnalyticsTableType(), tables.size() );
+            progress.runStage( tables, AnalyticsTable::getTableName, table -> tableManager.swapTable( params, table ) );
 
-        resourceTableService.createAllSqlViews( progress );
+            resourceTableService.createAllSqlViews( progress );
+        }
+    }
+
+    /**
+     * Creates the given rollup tables from the swapped analytics tables. Runs
+     * after the swap as partial updates only populate some of the partitions.
+     */
+    private void createRollupTables( List<AnalyticsRollup> rollups, JobProgress progress )
+    {
+        progress.runStage( rollups, AnalyticsRollup::getTableName, rollupManager::createRollupTable );
+    }
+
+    /**
+     * Gets the number of parallel processes given by the parameters, which is
+     * set when table types are updated concurrently, or the number of
+     * available cores otherwise.
+     */
+    private int getProcessNo( AnalyticsTableUpdateParams params )
+    {
+        return params.getProcessNo() != null ? params.getProcessNo() : getProcessNo();
     }
 
     /**
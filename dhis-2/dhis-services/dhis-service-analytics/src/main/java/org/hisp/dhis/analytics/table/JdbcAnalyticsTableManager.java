@@ -43,6 +43,7 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -189,6 +190,18 @@ public class JdbcAnalyticsTableManager
         return !jdbcTemplate.queryForList( sql ).isEmpty();
     }
 
+    @Override
+    public Set<Integer> getUpdatedDataYears( Date startDate, Date endDate )
+    {
+        String sql = "select distinct ps.year " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            "where dv.lastupdated >= '" + getLongDateString( startDate ) + "' " +
+            "and dv.lastupdated < '" + getLongDateString( endDate ) + "'";
+
+        return new HashSet<>( jdbcTemplate.queryForList( sql, Integer.class ) );
+    }
+
     @Override
     public void preCreateTables( AnalyticsTableUpdateParams params )
     {
@@ -39,6 +39,7 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -145,6 +146,18 @@ public class JdbcCompletenessTableManager
         return !jdbcTemplate.queryForList( sql ).isEmpty();
     }
 
+    @Override
+    public Set<Integer> getUpdatedDataYears( Date startDate, Date endDate )
+    {
+        String sql = "select distinct ps.year " +
+            "from completedatasetregistration cdr " +
+            "inner join _periodstructure ps on cdr.periodid=ps.periodid " +
+            "where cdr.lastupdated >= '" + getLongDateString( startDate ) + "' " +
+            "and cdr.lastupdated < '" + getLongDateString( endDate ) + "'";
+
+        return new HashSet<>( jdbcTemplate.queryForList( sql, Integer.class ) );
+    }
+
     @Override
     public void removeUpdatedData( List<AnalyticsTable> tables )
     {
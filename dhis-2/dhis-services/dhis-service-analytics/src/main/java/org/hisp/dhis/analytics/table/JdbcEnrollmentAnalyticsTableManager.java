@@ -51,6 +51,7 @@ import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.IndexType;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -58,6 +59,7 @@ import org.hisp.dhis.commons.collection.UniqueArrayList;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
@@ -67,7 +69,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 /**
  * @author Markus Bekken
@@ -81,11 +82,11 @@ public class JdbcEnrollmentAnalyticsTableManager
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorColumnManager programIndicatorColumnManager )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
-            databaseInfo, jdbcTemplate );
+            databaseInfo, jdbcTemplate, programIndicatorColumnManager );
     }
 
     private static final List<AnalyticsTableColumn> FIXED_COLS = ImmutableList.of(
@@ -152,7 +153,7 @@ public class JdbcEnrollmentAnalyticsTableManager
         for ( Program program : programs )
         {
             AnalyticsTable table = new AnalyticsTable( getAnalyticsTableType(), getDimensionColumns( program ),
-                Lists.newArrayList(), program );
+                getProgramIndicatorColumns( program, AnalyticsType.ENROLLMENT ), program );
 
             tables.add( table );
         }
@@ -187,6 +188,7 @@ public class JdbcEnrollmentAnalyticsTableManager
             "and pi.deleted is false ";
 
         populateTableInternal( partition, getDimensionColumns( program ), fromClause );
+        populateProgramIndicatorColumns( partition );
     }
 
     private List<AnalyticsTableColumn> getDimensionColumns( Program program )
@@ -64,6 +64,8 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.ColumnDataType;
 import org.hisp.dhis.analytics.IndexType;
+import org.hisp.dhis.analytics.event.ClusterPyramidManager;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.category.Category;
@@ -75,6 +77,7 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SettingKey;
@@ -88,7 +91,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 /**
  * @author Lars Helge Overland
@@ -104,16 +106,20 @@ public class JdbcEventAnalyticsTableManager
 
     private static final String[] EXPORTABLE_EVENT_STATUSES = { "'COMPLETED'", "'ACTIVE'", "'SCHEDULE'" };
 
+    private final ClusterPyramidManager clusterPyramidManager;
+
     public JdbcEventAnalyticsTableManager( IdentifiableObjectManager idObjectManager,
         OrganisationUnitService organisationUnitService, CategoryService categoryService,
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorColumnManager programIndicatorColumnManager,
+        ClusterPyramidManager clusterPyramidManager )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
-            databaseInfo, jdbcTemplate );
+            databaseInfo, jdbcTemplate, programIndicatorColumnManager );
+        this.clusterPyramidManager = clusterPyramidManager;
     }
 
     private static final List<AnalyticsTableColumn> FIXED_COLS = ImmutableList.of(
@@ -219,7 +225,7 @@ public class JdbcEventAnalyticsTableManager
             Collections.sort( dataYears );
 
             AnalyticsTable table = new AnalyticsTable( getAnalyticsTableType(), getDimensionColumns( program ),
-                Lists.newArrayList(), program );
+                getProgramIndicatorColumns( program, AnalyticsType.EVENT ), program );
 
             for ( Integer year : dataYears )
             {
@@ -273,7 +279,7 @@ public class JdbcEventAnalyticsTableManager
             if ( hasUpdatedData )
             {
                 AnalyticsTable table = new AnalyticsTable( getAnalyticsTableType(), getDimensionColumns( program ),
-                    Lists.newArrayList(), program );
+                    getProgramIndicatorColumns( program, AnalyticsType.EVENT ), program );
                 table.addPartitionTable( AnalyticsTablePartition.LATEST_PARTITION, startDate, endDate );
                 tables.add( table );
 
@@ -334,6 +340,18 @@ public class JdbcEventAnalyticsTableManager
         }
     }
 
+    @Override
+    public boolean hasDerivedTables( AnalyticsTableUpdateParams params )
+    {
+        return databaseInfo.isSpatialSupport() && clusterPyramidManager.isEnabled( params );
+    }
+
+    @Override
+    public void createDerivedTables( AnalyticsTableUpdateParams params, AnalyticsTable table )
+    {
+        clusterPyramidManager.createPyramid( params, table );
+    }
+
     @Override
     public List<AnalyticsTableColumn> getFixedColumns()
     {
@@ -380,6 +398,7 @@ public class JdbcEventAnalyticsTableManager
             "and psi.deleted is false ";
 
         populateTableInternal( partition, getDimensionColumns( program ), fromClause );
+        populateProgramIndicatorColumns( partition );
     }
 
     /**
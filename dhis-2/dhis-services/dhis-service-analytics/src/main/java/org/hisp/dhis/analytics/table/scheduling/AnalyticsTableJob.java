@@ -35,8 +35,10 @@ import org.hisp.dhis.analytics.AnalyticsTableGenerator;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.scheduling.Job;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobConfigurationService;
 import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.SchedulingManager;
 import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
 import org.springframework.stereotype.Component;
 
@@ -49,6 +51,10 @@ public class AnalyticsTableJob implements Job
 {
     private final AnalyticsTableGenerator analyticsTableGenerator;
 
+    private final JobConfigurationService jobConfigurationService;
+
+    private final SchedulingManager schedulingManager;
+
     @Override
     public JobType getJobType()
     {
@@ -70,5 +76,19 @@ public class AnalyticsTableJob implements Job
             .build();
 
         analyticsTableGenerator.generateTables( params, progress );
+
+        startCacheWarmUp();
+    }
+
+    /**
+     * Starts the enabled analytics cache warm-up job, if any, right away so
+     * that the cache is populated as soon as the new tables are in place.
+     */
+    private void startCacheWarmUp()
+    {
+        jobConfigurationService.getAllJobConfigurations().stream()
+            .filter( config -> config.getJobType() == JobType.ANALYTICS_CACHE_WARM_UP && config.isEnabled() )
+            .findFirst()
+            .ifPresent( schedulingManager::executeNow );
     }
 }
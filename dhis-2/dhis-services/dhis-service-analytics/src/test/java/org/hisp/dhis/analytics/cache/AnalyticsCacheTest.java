@@ -28,11 +28,15 @@
 package org.hisp.dhis.analytics.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheBuilder;
@@ -41,7 +45,11 @@ import org.hisp.dhis.cache.LocalCache;
 import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.ReportingRate;
 import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.indicator.Indicator;
+import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.junit.jupiter.api.Test;
@@ -122,4 +130,68 @@ class AnalyticsCacheTest
 
         assertEquals( 2, optCachedGrid.get().getRows().size() );
     }
+
+    @Test
+    void invalidateOnlyEntriesOfUpdatedTableTypeAndYears()
+    {
+        final CacheBuilder<Grid> cacheBuilder = new SimpleCacheBuilder<>();
+
+        cacheBuilder.expireAfterWrite( 1L, TimeUnit.MINUTES );
+
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsCache() )
+            .thenReturn( new LocalCache<>( cacheBuilder ) );
+
+        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider,
+            new AnalyticsCacheSettings( systemSettingManager ) );
+
+        DataQueryParams paramsA = DataQueryParams.newBuilder()
+            .withDataElements( List.of( new DataElement( "dataElementA" ) ) )
+            .withPeriods( List.of( PeriodType.getPeriodFromIsoString( "202201" ) ) )
+            .build();
+
+        DataQueryParams paramsB = DataQueryParams.newBuilder()
+            .withDataElements( List.of( new DataElement( "dataElementA" ) ) )
+            .withPeriods( List.of( PeriodType.getPeriodFromIsoString( "202301" ) ) )
+            .build();
+
+        Indicator indicator = new Indicator();
+        indicator.setNumerator( "#{dataElementA}" );
+        indicator.setDenominator( "1" );
+
+        DataQueryParams paramsC = DataQueryParams.newBuilder()
+            .withIndicators( List.of( indicator ) )
+            .withPeriods( List.of( PeriodType.getPeriodFromIsoString( "2021" ) ) )
+            .build();
+
+        analyticsCache.put( AnalyticsCacheTags.getKey( paramsA ), new ListGrid(), 60 );
+        analyticsCache.put( AnalyticsCacheTags.getKey( paramsB ), new ListGrid(), 60 );
+        analyticsCache.put( AnalyticsCacheTags.getKey( paramsC ), new ListGrid(), 60 );
+        analyticsCache.put( paramsA.getKey(), new ListGrid(), 60 );
+
+        analyticsCache.invalidate( AnalyticsTableType.DATA_VALUE, year -> year == 2023 );
+
+        assertTrue( analyticsCache.get( AnalyticsCacheTags.getKey( paramsA ) ).isPresent() );
+        assertFalse( analyticsCache.get( AnalyticsCacheTags.getKey( paramsB ) ).isPresent() );
+        assertTrue( analyticsCache.get( AnalyticsCacheTags.getKey( paramsC ) ).isPresent() );
+        assertFalse( analyticsCache.get( paramsA.getKey() ).isPresent() );
+
+        analyticsCache.invalidate( AnalyticsTableType.EVENT, year -> true );
+
+        assertTrue( analyticsCache.get( AnalyticsCacheTags.getKey( paramsA ) ).isPresent() );
+        assertTrue( analyticsCache.get( AnalyticsCacheTags.getKey( paramsC ) ).isPresent() );
+    }
+
+    @Test
+    void getTags()
+    {
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withDataElements( List.of( new DataElement( "dataElementA" ) ) )
+            .withReportingRates( List.of( new ReportingRate( new DataSet( "dataSetA" ) ) ) )
+            .withPeriods( List.of( PeriodType.getPeriodFromIsoString( "2022" ),
+                PeriodType.getPeriodFromIsoString( "2023" ) ) )
+            .build();
+
+        assertEquals( Set.of( "DATA_VALUE:2022", "DATA_VALUE:2023", "COMPLETENESS:2022", "COMPLETENESS:2023",
+            "COMPLETENESS_TARGET:*" ), AnalyticsCacheTags.getTags( params ) );
+    }
 }
@@ -74,6 +74,9 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private AnalyticsQueryAdmission queryAdmission;
+
     private AnalyticsManager analyticsManager;
 
     private static Stream<Arguments> data()
@@ -87,7 +90,8 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @MethodSource( "data" )
     public void testWeightedAverage( String financialYear, Double weightedAverage )
     {
-        analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore,
+            queryAdmission );
         AnalyticsAggregationType aggregationType = new AnalyticsAggregationType(
             AggregationType.SUM, AggregationType.AVERAGE, DataType.NUMERIC, true );
 
@@ -120,7 +124,8 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @Test
     void testReplaceDataPeriodsWithAggregationPeriods()
     {
-        AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore,
+            queryAdmission );
         Period y2012 = createPeriod( "2012" );
 
         AnalyticsAggregationType aggregationType = new AnalyticsAggregationType(
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.analytics.AnalyticsQueryScope;
+import org.hisp.dhis.common.QueryRuntimeException;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests the {@link AnalyticsQueryAdmission}.
+ */
+@MockitoSettings( strictness = Strictness.LENIENT )
+@ExtendWith( MockitoExtension.class )
+class AnalyticsQueryAdmissionTest
+{
+    private static final String SQL = "select 1";
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<ConfigurationKey, String> properties = new EnumMap<>( ConfigurationKey.class );
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AnalyticsQueryAdmission admission;
+
+    @BeforeEach
+    void setUp()
+    {
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT, "1" );
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER, "0" );
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_QUEUE_TIMEOUT, "1" );
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_TIMEOUT, "0" );
+        when( config.getProperty( any( ConfigurationKey.class ) ) )
+            .thenAnswer( invocation -> properties.get( invocation.getArgument( 0 ) ) );
+        when( jdbcTemplate.queryForObject( any( String.class ), any( Class.class ) ) )
+            .thenReturn( "[{\"Plan\": {\"Total Cost\": 42.5}}]" );
+        meterRegistry = new SimpleMeterRegistry();
+        admission = new AnalyticsQueryAdmission( config, systemSettingManager, jdbcTemplate, meterRegistry );
+    }
+
+    @Test
+    void testAdmit_QueuedUntilReleased()
+        throws Exception
+    {
+        AnalyticsQueryAdmission.Ticket first = admission.admit( admission.createScope( "a" ), SQL );
+        CompletableFuture<AnalyticsQueryAdmission.Ticket> second = CompletableFuture
+            .supplyAsync( () -> admission.admit( admission.createScope( "b" ), SQL ) );
+
+        Thread.sleep( 200 );
+        assertFalse( second.isDone() );
+        assertEquals( 1d, meterRegistry.get( "analytics.query.queued" ).gauge().value() );
+
+        first.close();
+        second.get( 2, TimeUnit.SECONDS ).close();
+        assertEquals( 0d, meterRegistry.get( "analytics.query.running" ).gauge().value() );
+        assertEquals( 2, meterRegistry.get( "analytics.query.queue" ).timer().count() );
+    }
+
+    @Test
+    void testAdmit_PerUserLimit()
+    {
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT, "2" );
+        properties.put( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER, "1" );
+
+        try ( AnalyticsQueryAdmission.Ticket a = admission.admit( admission.createScope( "a" ), SQL );
+            AnalyticsQueryAdmission.Ticket b = admission.admit( admission.createScope( "b" ), SQL ) )
+        {
+            QueryRuntimeException ex = assertThrows( QueryRuntimeException.class,
+                () -> admission.admit( admission.createScope( "a" ), SQL ) );
+            assertEquals( ErrorCode.E7136, ex.getErrorCode() );
+            assertEquals( 1d, meterRegistry.get( "analytics.query.rejected" ).counter().count() );
+        }
+    }
+
+    @Test
+    void testAdmit_CancelledWhileQueued()
+    {
+        try ( AnalyticsQueryAdmission.Ticket ticket = admission.admit( admission.createScope( "a" ), SQL ) )
+        {
+            AnalyticsQueryScope scope = admission.createScope( "b" );
+            scope.cancel();
+
+            QueryRuntimeException ex = assertThrows( QueryRuntimeException.class,
+                () -> admission.admit( scope, SQL ) );
+            assertEquals( ErrorCode.E7137, ex.getErrorCode() );
+            assertEquals( 0d, meterRegistry.get( "analytics.query.queued" ).gauge().value() );
+        }
+    }
+}
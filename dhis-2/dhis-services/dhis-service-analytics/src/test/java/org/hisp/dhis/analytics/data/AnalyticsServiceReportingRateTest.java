@@ -36,7 +36,10 @@ import static org.hisp.dhis.DhisConvenienceTest.createDataSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -49,6 +52,7 @@ import java.util.stream.Stream;
 
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
@@ -101,7 +105,7 @@ class AnalyticsServiceReportingRateTest extends AnalyticsServiceBaseTest
         initMock( params );
 
         Map<String, Object> actualReports = new HashMap<>();
-        actualReports.put( dataSetA.getUid() + "-" + ou.getUid(), 500D );
+        actualReports.put( dataSetA.getUid() + "-" + ou.getUid() + "-false", 500D );
 
         when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
             eq( AnalyticsTableType.COMPLETENESS ), eq( 0 ) ) )
@@ -189,7 +193,7 @@ class AnalyticsServiceReportingRateTest extends AnalyticsServiceBaseTest
 
         initMock( params );
         Map<String, Object> actualReports = new HashMap<>();
-        actualReports.put( dataSetA.getUid() + "-" + ou.getUid(), 500D );
+        actualReports.put( dataSetA.getUid() + "-" + ou.getUid() + "-false", 500D );
 
         when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
             eq( AnalyticsTableType.COMPLETENESS ), eq( 0 ) ) )
@@ -240,7 +244,7 @@ class AnalyticsServiceReportingRateTest extends AnalyticsServiceBaseTest
         // Response for COMPLETENESS - set the completeness value to the same
         // number of days of the selected month
         Map<String, Object> actuals = new HashMap<>();
-        actuals.put( dataSetA.getUid() + "-" + "201902", 28D );
+        actuals.put( dataSetA.getUid() + "-" + "201902" + "-false", 28D );
 
         when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
             eq( AnalyticsTableType.COMPLETENESS_TARGET ), eq( 0 ) ) )
@@ -288,7 +292,7 @@ class AnalyticsServiceReportingRateTest extends AnalyticsServiceBaseTest
         // number of
         // days of the selected month
         Map<String, Object> actuals = new HashMap<>();
-        actuals.put( dataSetA.getUid() + "-" + "201901", 31D );
+        actuals.put( dataSetA.getUid() + "-" + "201901" + "-false", 31D );
 
         when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
             eq( AnalyticsTableType.COMPLETENESS_TARGET ), eq( 0 ) ) )
@@ -302,6 +306,71 @@ class AnalyticsServiceReportingRateTest extends AnalyticsServiceBaseTest
         assertReportingRatesGrid( grid, dataSetA, "201901" );
     }
 
+    @Test
+    void verifyAllReportingRateMetricsAreComputedFromSingleCompletenessQuery()
+    {
+        DataSet dataSetA = createDataSet( 'A' );
+
+        List<DimensionalItemObject> reportingRates = new ArrayList<>();
+
+        for ( ReportingRateMetric metric : ReportingRateMetric.values() )
+        {
+            ReportingRate reportingRate = new ReportingRate( dataSetA );
+            reportingRate.setMetric( metric );
+            reportingRates.add( reportingRate );
+        }
+
+        List<DimensionalItemObject> periods = new ArrayList<>();
+        periods.add( new MonthlyPeriodType().createPeriod( new DateTime( 2014, 1, 1, 0, 0 ).toDate() ) );
+
+        OrganisationUnit ou = new OrganisationUnit( "aaaa" );
+
+        DataQueryParams params = DataQueryParams.newBuilder().withOrganisationUnit( ou )
+            .withDataElements( reportingRates ).withIgnoreLimit( true )
+            .withFilters(
+                singletonList( new BaseDimensionalObject( "pe", DimensionType.PERIOD, periods ) ) )
+            .build();
+
+        initMock( params );
+
+        Map<String, Object> actualReports = new HashMap<>();
+        actualReports.put( dataSetA.getUid() + "-" + ou.getUid() + "-true", 30D );
+        actualReports.put( dataSetA.getUid() + "-" + ou.getUid() + "-false", 10D );
+
+        when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
+            eq( AnalyticsTableType.COMPLETENESS ), eq( 0 ) ) )
+                .thenReturn( CompletableFuture.completedFuture( actualReports ) );
+
+        Map<String, Object> expectedReports = new HashMap<>();
+        expectedReports.put( dataSetA.getUid() + "-" + ou.getUid(), 50D );
+
+        when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ),
+            eq( AnalyticsTableType.COMPLETENESS_TARGET ), eq( 0 ) ) )
+                .thenReturn( CompletableFuture.completedFuture( expectedReports ) );
+
+        Grid grid = target.getAggregatedDataValueGrid( params );
+
+        assertEquals( 80L,
+            getValueFromGrid( grid.getRows(), makeKey( dataSetA, ReportingRateMetric.REPORTING_RATE ) ).get() );
+        assertEquals( 60L,
+            getValueFromGrid( grid.getRows(), makeKey( dataSetA, ReportingRateMetric.REPORTING_RATE_ON_TIME ) )
+                .get() );
+        assertEquals( 40L,
+            getValueFromGrid( grid.getRows(), makeKey( dataSetA, ReportingRateMetric.ACTUAL_REPORTS ) ).get() );
+        assertEquals( 30L,
+            getValueFromGrid( grid.getRows(), makeKey( dataSetA, ReportingRateMetric.ACTUAL_REPORTS_ON_TIME ) )
+                .get() );
+        assertEquals( 50L,
+            getValueFromGrid( grid.getRows(), makeKey( dataSetA, ReportingRateMetric.EXPECTED_REPORTS ) ).get() );
+
+        verify( queryPlanner, times( 1 ) ).planQuery( argThat( DataQueryParams::isGroupByTimely ),
+            any( QueryPlannerParams.class ) );
+        verify( analyticsManager, times( 1 ) ).getAggregatedDataValues( any( DataQueryParams.class ),
+            eq( AnalyticsTableType.COMPLETENESS ), eq( 0 ) );
+        verify( analyticsManager, times( 1 ) ).getAggregatedDataValues( any( DataQueryParams.class ),
+            eq( AnalyticsTableType.COMPLETENESS_TARGET ), eq( 0 ) );
+    }
+
     private void assertReportingRatesGrid( Grid grid, DataSet dataset, String period )
     {
         assertThat( grid.getRows(), hasSize( 1 ) );
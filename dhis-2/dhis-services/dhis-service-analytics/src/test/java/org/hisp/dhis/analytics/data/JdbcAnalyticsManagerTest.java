@@ -35,8 +35,16 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
+import java.util.List;
+
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -45,6 +53,7 @@ import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupManager;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.ValueType;
@@ -60,7 +69,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
 /**
@@ -76,6 +88,9 @@ class JdbcAnalyticsManagerTest
     @Mock
     private PartitionManager partitionManager;
 
+    @Mock
+    private RollupManager rollupManager;
+
     @Mock
     private JdbcTemplate jdbcTemplate;
 
@@ -93,16 +108,28 @@ class JdbcAnalyticsManagerTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private AnalyticsQueryAdmission queryAdmission;
+
+    @Mock
+    private AnalyticsQueryAdmission.Ticket ticket;
+
+    @Mock
+    private PreparedStatementCreator statementCreator;
+
     @BeforeEach
     public void setUp()
     {
-        QueryPlanner queryPlanner = new DefaultQueryPlanner( partitionManager );
+        QueryPlanner queryPlanner = new DefaultQueryPlanner( partitionManager, rollupManager );
 
         mockRowSet();
 
-        when( jdbcTemplate.queryForRowSet( sql.capture() ) ).thenReturn( rowSet );
+        when( queryAdmission.admit( isNull(), anyString() ) ).thenReturn( ticket );
+        when( ticket.prepare( sql.capture() ) ).thenReturn( statementCreator );
+        when( jdbcTemplate.query( eq( statementCreator ), any( SqlRowSetResultSetExtractor.class ) ) )
+            .thenReturn( rowSet );
 
-        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore, queryAdmission );
     }
 
     @Test
@@ -145,6 +172,27 @@ class JdbcAnalyticsManagerTest
         assertExpectedLastSql( "desc" );
     }
 
+    @Test
+    void verifyRollupQueryFallsBackToAnalyticsTable()
+    {
+        when( jdbcTemplate.query( eq( statementCreator ), any( SqlRowSetResultSetExtractor.class ) ) )
+            .thenThrow( new BadSqlGrammarException( "query", "sql", new SQLException() ) )
+            .thenReturn( rowSet );
+
+        DataQueryParams params = DataQueryParams.newBuilder( createParams( AggregationType.SUM ) )
+            .withTableName( "analytics_rollup_2_monthly" )
+            .withSkipPartitioning( true )
+            .build();
+
+        subject.getAggregatedDataValues( params, AnalyticsTableType.DATA_VALUE, 20000 );
+
+        List<String> statements = sql.getAllValues();
+
+        assertEquals( 2, statements.size() );
+        assertThat( statements.get( 0 ), containsString( "from analytics_rollup_2_monthly as ax" ) );
+        assertThat( statements.get( 1 ), containsString( "from analytics as ax" ) );
+    }
+
     private void mockRowSet()
     {
         // Simulate no rows
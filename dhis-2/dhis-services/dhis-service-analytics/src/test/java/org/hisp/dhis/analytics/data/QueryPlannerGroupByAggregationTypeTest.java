@@ -53,6 +53,7 @@ import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupManager;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -82,10 +83,13 @@ class QueryPlannerGroupByAggregationTypeTest
     @Mock
     private PartitionManager partitionManager;
 
+    @Mock
+    private RollupManager rollupManager;
+
     @BeforeEach
     public void setUp()
     {
-        subject = new DefaultQueryPlanner( partitionManager );
+        subject = new DefaultQueryPlanner( partitionManager, rollupManager );
     }
 
     @Test
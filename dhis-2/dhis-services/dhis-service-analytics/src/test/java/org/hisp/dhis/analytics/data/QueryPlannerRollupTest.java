@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createDataElementGroup;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.AnalyticsRollup;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.QueryPlanner;
+import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupManager;
+import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.period.YearlyPeriodType;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Tests routing of queries to rollup tables by the {@link DefaultQueryPlanner}.
+ */
+@ExtendWith( MockitoExtension.class )
+class QueryPlannerRollupTest
+{
+    @Mock
+    private PartitionManager partitionManager;
+
+    @Mock
+    private RollupManager rollupManager;
+
+    private QueryPlanner subject;
+
+    private DataElement deA;
+
+    private DataElement deB;
+
+    private DataElementGroup degA;
+
+    private OrganisationUnit ouA;
+
+    private OrganisationUnit ouB;
+
+    private OrganisationUnit ouC;
+
+    @BeforeEach
+    void setUp()
+    {
+        subject = new DefaultQueryPlanner( partitionManager, rollupManager );
+
+        deA = createDataElement( 'A' );
+        deB = createDataElement( 'B' );
+        degA = createDataElementGroup( 'A' );
+        degA.addDataElement( deA );
+
+        ouA = createOrganisationUnit( 'A' );
+        ouB = createOrganisationUnit( 'B', ouA );
+        ouC = createOrganisationUnit( 'C', ouB );
+        ouA.setPath( "/" + ouA.getUid() );
+        ouB.setPath( ouA.getPath() + "/" + ouB.getUid() );
+        ouC.setPath( ouB.getPath() + "/" + ouC.getUid() );
+    }
+
+    @Test
+    void testRouteToRollup()
+    {
+        givenRollups( rollup( 2, new YearlyPeriodType(), null ) );
+
+        DataQueryParams query = planSingleQuery( getParams( new YearlyPeriodType(), ouB, deA, deB ) );
+
+        assertEquals( "analytics_rollup_2_yearly", query.getTableName() );
+        assertTrue( query.isSkipPartitioning() );
+    }
+
+    @Test
+    void testRouteToSmallestRollup()
+    {
+        givenRollups( rollup( 1, new MonthlyPeriodType(), null ), rollup( 2, new YearlyPeriodType(), degA.getUid() ),
+            rollup( 2, new YearlyPeriodType(), null ) );
+
+        DataQueryParams query = planSingleQuery( getParams( new YearlyPeriodType(), ouB, deA ) );
+
+        assertEquals( "analytics_rollup_2_yearly_" + degA.getUid().toLowerCase(), query.getTableName() );
+    }
+
+    @Test
+    void testSkipRollupOfOtherDataElementGroup()
+    {
+        givenRollups( rollup( 2, new YearlyPeriodType(), degA.getUid() ) );
+
+        DataQueryParams query = planSingleQuery( getParams( new YearlyPeriodType(), ouB, deA, deB ) );
+
+        assertEquals( "analytics", query.getTableName() );
+        assertFalse( query.isSkipPartitioning() );
+    }
+
+    @Test
+    void testSkipRollupOfOtherPeriodType()
+    {
+        givenRollups( rollup( 2, new YearlyPeriodType(), null ) );
+
+        DataQueryParams query = planSingleQuery( getParams( new MonthlyPeriodType(), ouB, deA ) );
+
+        assertEquals( "analytics", query.getTableName() );
+    }
+
+    @Test
+    void testSkipRollupOfHigherLevel()
+    {
+        givenRollups( rollup( 2, new YearlyPeriodType(), null ) );
+
+        DataQueryParams query = planSingleQuery( getParams( new YearlyPeriodType(), ouC, deA ) );
+
+        assertEquals( "analytics", query.getTableName() );
+    }
+
+    @Test
+    void testSkipRollupForNonAdditiveAggregationType()
+    {
+        givenRollups( rollup( 2, new YearlyPeriodType(), null ) );
+
+        DataQueryParams query = planSingleQuery( DataQueryParams.newBuilder(
+            getParams( new YearlyPeriodType(), ouB, deA ) )
+            .withAggregationType( AnalyticsAggregationType.AVERAGE ).build() );
+
+        assertEquals( "analytics", query.getTableName() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void givenRollups( AnalyticsRollup... rollups )
+    {
+        when( rollupManager.getAvailableRollups( AnalyticsTableType.DATA_VALUE ) ).thenReturn( List.of( rollups ) );
+    }
+
+    private AnalyticsRollup rollup( int level, PeriodType periodType, String dataElementGroup )
+    {
+        return new AnalyticsRollup( AnalyticsTableType.DATA_VALUE, level, periodType, dataElementGroup );
+    }
+
+    private DataQueryParams getParams( PeriodType periodType, OrganisationUnit orgUnit, DataElement... dataElements )
+    {
+        return DataQueryParams.newBuilder()
+            .withDimensions( List.of(
+                new BaseDimensionalObject( "dx", DimensionType.DATA_X, List.of( dataElements ) ),
+                new BaseDimensionalObject( "pe", DimensionType.PERIOD,
+                    List.of( periodType.createPeriod( new DateTime( 2021, 3, 1, 0, 0 ).toDate() ) ) ),
+                new BaseDimensionalObject( "ou", DimensionType.ORGANISATION_UNIT, List.of( orgUnit ) ) ) )
+            .build();
+    }
+
+    private DataQueryParams planSingleQuery( DataQueryParams params )
+    {
+        List<DataQueryParams> queries = subject.planQuery( params, QueryPlannerParams.newBuilder()
+            .withTableType( AnalyticsTableType.DATA_VALUE )
+            .withOptimalQueries( 1 ).build() ).getAllQueries();
+
+        assertEquals( 1, queries.size() );
+
+        return queries.get( 0 );
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data.handler;
+
+import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
+import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.common.DimensionItemObjectValue;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PermutationValueTable}.
+ */
+class PermutationValueTableTest extends DhisConvenienceTest
+{
+    private DataElement deA;
+
+    private DataElement deB;
+
+    private DataElement deC;
+
+    private PermutationValueTable valueTable;
+
+    @BeforeEach
+    void setUp()
+    {
+        deA = createDataElement( 'A' );
+        deB = createDataElement( 'B' );
+        deC = createDataElement( 'C' );
+
+        valueTable = new PermutationValueTable( List.of( deA, deB ), List.of( "ouA-202201", "ouA-202202" ) );
+    }
+
+    @Test
+    void testGetValueMap()
+    {
+        valueTable.put( "ouA-202201", deA, 12d );
+        valueTable.put( "ouA-202201", deB, 0d );
+        valueTable.put( "ouA-202202", deB, 5d );
+
+        Map<DimensionalItemObject, Object> valueMapA = valueTable.getValueMap( 0 );
+        Map<DimensionalItemObject, Object> valueMapB = valueTable.getValueMap( 1 );
+
+        assertEquals( 2, valueTable.size() );
+        assertEquals( Map.of( deA, 12d, deB, 0d ), valueMapA );
+        assertEquals( 12d, valueMapA.get( deA ) );
+        assertEquals( 0d, valueMapA.get( deB ) );
+        assertNull( valueMapB.get( deA ) );
+        assertFalse( valueMapB.containsKey( deA ) );
+        assertTrue( valueMapB.containsKey( deB ) );
+        assertEquals( 1, valueMapB.size() );
+    }
+
+    @Test
+    void testPutIgnoresUnknownPermutationsAndItems()
+    {
+        valueTable.put( "ouB-202201", deA, 12d );
+        valueTable.put( "ouA-202201", deC, 7d );
+
+        assertTrue( valueTable.getValueMap( 0 ).isEmpty() );
+        assertTrue( valueTable.getValueMap( 1 ).isEmpty() );
+        assertNull( valueTable.getValueMap( 0 ).get( deC ) );
+    }
+
+    @Test
+    void testPutAllWithCategoryOptionCombos()
+    {
+        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
+        aggregatedDataMap.put( getOperandKey( deA, "202201" ), new DimensionItemObjectValue( deA, 1d ) );
+        aggregatedDataMap.put( getOperandKey( deA, "202202" ), new DimensionItemObjectValue( deA, 2d ) );
+        aggregatedDataMap.put( getOperandKey( deB, "202201" ), new DimensionItemObjectValue( deB, 3d ) );
+        aggregatedDataMap.put( getOperandKey( deB, "202202" ), new DimensionItemObjectValue( deB, 4d ) );
+
+        valueTable.putAll( aggregatedDataMap );
+
+        assertEquals( Map.of( deA, 1d, deB, 3d ), valueTable.getValueMap( 0 ) );
+        assertEquals( Map.of( deA, 2d, deB, 4d ), valueTable.getValueMap( 1 ) );
+    }
+
+    @Test
+    void testPutAllWithoutCategoryOptionCombos()
+    {
+        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
+        aggregatedDataMap.put( getKey( deA, "202201" ), new DimensionItemObjectValue( deA, 1d ) );
+        aggregatedDataMap.put( getKey( deA, "202202" ), new DimensionItemObjectValue( deA, 2d ) );
+        aggregatedDataMap.put( getKey( deB, "202201" ), new DimensionItemObjectValue( deB, 3d ) );
+        aggregatedDataMap.put( getKey( deB, "202202" ), new DimensionItemObjectValue( deB, 4d ) );
+
+        valueTable.putAll( aggregatedDataMap );
+
+        assertEquals( Map.of( deA, 1d, deB, 3d ), valueTable.getValueMap( 0 ) );
+        assertEquals( Map.of( deA, 2d, deB, 4d ), valueTable.getValueMap( 1 ) );
+    }
+
+    @Test
+    void testPutAllWithMixedKeysAndMissingValues()
+    {
+        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
+        aggregatedDataMap.put( getKey( deA, "202201" ), new DimensionItemObjectValue( deA, 1d ) );
+        aggregatedDataMap.put( getKey( deA, "202202" ), new DimensionItemObjectValue( deA, null ) );
+        aggregatedDataMap.put( getOperandKey( deB, "202201" ), new DimensionItemObjectValue( deB, 3d ) );
+        aggregatedDataMap.put( getOperandKey( deB, "202202" ), new DimensionItemObjectValue( deB, 4d ) );
+
+        valueTable.putAll( aggregatedDataMap );
+
+        assertEquals( Map.of( deA, 1d, deB, 3d ), valueTable.getValueMap( 0 ) );
+        assertEquals( Map.of( deB, 4d ), valueTable.getValueMap( 1 ) );
+    }
+
+    private String getKey( DataElement dataElement, String period )
+    {
+        return dataElement.getUid() + DIMENSION_SEP + "ouA" + DIMENSION_SEP + period;
+    }
+
+    private String getOperandKey( DataElement dataElement, String period )
+    {
+        return dataElement.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + "cocA" + DIMENSION_SEP + "ouA"
+            + DIMENSION_SEP + period;
+    }
+}
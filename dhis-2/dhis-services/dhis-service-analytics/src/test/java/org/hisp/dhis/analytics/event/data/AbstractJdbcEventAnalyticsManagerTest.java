@@ -58,6 +58,7 @@ import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.common.BaseDimensionalItemObject;
 import org.hisp.dhis.common.BaseDimensionalObject;
@@ -101,6 +102,9 @@ class AbstractJdbcEventAnalyticsManagerTest extends
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private ProgramIndicatorColumnManager programIndicatorColumnManager;
+
     private JdbcEventAnalyticsManager subject;
 
     private Program programA;
@@ -118,7 +122,8 @@ class AbstractJdbcEventAnalyticsManagerTest extends
         DefaultProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder = new DefaultProgramIndicatorSubqueryBuilder(
             programIndicatorService );
         subject = new JdbcEventAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
-            programIndicatorSubqueryBuilder, new EventTimeFieldSqlRenderer( statementBuilder ), executionPlanStore );
+            programIndicatorSubqueryBuilder, new EventTimeFieldSqlRenderer( statementBuilder ), executionPlanStore,
+            programIndicatorColumnManager );
 
         // data init
 
@@ -32,6 +32,8 @@ import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
 import static org.hisp.dhis.DhisConvenienceTest.createProgram;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -42,12 +44,15 @@ import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.Partitions;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
+import org.hisp.dhis.analytics.event.ClusterPyramidManager;
+import org.hisp.dhis.analytics.event.ClusterTile;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventDataQueryService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.EventQueryPlanner;
 import org.hisp.dhis.analytics.event.EventQueryValidator;
+import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -59,6 +64,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
 
 import com.google.common.collect.Sets;
 
@@ -106,12 +112,16 @@ class DefaultEventAnalyticsServiceTest
     @Mock
     private SchemaIdResponseMapper schemaIdResponseMapper;
 
+    @Mock
+    private ClusterPyramidManager clusterPyramidManager;
+
     @BeforeEach
     public void setUp()
     {
         defaultEventAnalyticsService = new DefaultEventAnalyticsService( dataElementService,
             trackedEntityAttributeService, eventAnalyticsManager, eventDataQueryService, securityManager, queryPlanner,
-            eventQueryValidator, databaseInfo, analyticsCache, enrollmentAnalyticsManager, schemaIdResponseMapper );
+            eventQueryValidator, databaseInfo, analyticsCache, enrollmentAnalyticsManager, schemaIdResponseMapper,
+            clusterPyramidManager );
     }
 
     @Test
@@ -158,6 +168,30 @@ class DefaultEventAnalyticsServiceTest
         verify( schemaIdResponseMapper, never() ).getSchemeIdResponseMap( mockParams );
     }
 
+    @Test
+    void testEventClustersFallBackToLiveClusteringWhenPyramidQueryFails()
+    {
+        final OrganisationUnit mockOrgUnit = createOrganisationUnit( 'A' );
+        final Program mockProgram = createProgram( 'A', null, null, Sets.newHashSet( mockOrgUnit ), null );
+        final EventQueryParams mockParams = mockEventQueryParams( mockOrgUnit, mockProgram, null );
+        final ClusterTile tile = new ClusterTile( 4, 8, 7 );
+
+        when( databaseInfo.isSpatialSupport() ).thenReturn( true );
+        when( clusterPyramidManager.isPyramidQuery( mockParams, tile ) ).thenReturn( true );
+        when( clusterPyramidManager.getEventClusters( any( EventQueryParams.class ), any( ClusterTile.class ),
+            any( Grid.class ) ) ).thenThrow( new BadSqlGrammarException( "cluster pyramid",
+                "select * from analytics_event_cluster_prabcdefgha", null ) );
+        when( queryPlanner.planEventQuery( any( EventQueryParams.class ) ) )
+            .thenAnswer( invocation -> invocation.getArgument( 0 ) );
+
+        defaultEventAnalyticsService.getEventClusters( mockParams, tile );
+
+        verify( eventAnalyticsManager ).getEventClusters(
+            argThat( params -> tile.getBbox().equals( params.getBbox() )
+                && Long.valueOf( Math.round( tile.getCellSize() ) ).equals( params.getClusterSize() ) ),
+            any( Grid.class ), anyInt() );
+    }
+
     private EventQueryParams mockEventQueryParams( final OrganisationUnit mockOrgUnit, final Program mockProgram,
         final IdScheme scheme )
     {
@@ -55,6 +55,7 @@ import java.util.function.Consumer;
 import org.hisp.dhis.analytics.TimeField;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.common.BaseDimensionalItemObject;
 import org.hisp.dhis.common.DimensionalItemObject;
@@ -103,6 +104,9 @@ class EnrollmentAnalyticsManagerTest extends
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private ProgramIndicatorColumnManager programIndicatorColumnManager;
+
     @Mock
     private SqlRowSet rowSet;
 
@@ -129,7 +133,7 @@ class EnrollmentAnalyticsManagerTest extends
 
         subject = new JdbcEnrollmentAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
             programIndicatorSubqueryBuilder, new EnrollmentTimeFieldSqlRenderer( statementBuilder ),
-            executionPlanStore );
+            executionPlanStore, programIndicatorColumnManager );
     }
 
     @Test
@@ -60,6 +60,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.event.ProgramIndicatorColumnManager;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -107,6 +108,9 @@ class EventsAnalyticsManagerTest extends EventAnalyticsTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private ProgramIndicatorColumnManager programIndicatorColumnManager;
+
     private JdbcEventAnalyticsManager subject;
 
     @Captor
@@ -129,7 +133,8 @@ class EventsAnalyticsManagerTest extends EventAnalyticsTest
             programIndicatorService );
 
         subject = new JdbcEventAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
-            programIndicatorSubqueryBuilder, timeCoordinateSelector, executionPlanStore );
+            programIndicatorSubqueryBuilder, timeCoordinateSelector, executionPlanStore,
+            programIndicatorColumnManager );
 
         when( jdbcTemplate.queryForRowSet( anyString() ) ).thenReturn( this.rowSet );
     }
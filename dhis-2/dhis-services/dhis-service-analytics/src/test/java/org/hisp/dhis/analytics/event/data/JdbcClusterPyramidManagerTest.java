@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
+import static org.hisp.dhis.DhisConvenienceTest.createProgram;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.analytics.event.ClusterTile;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.program.Program;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class JdbcClusterPyramidManagerTest
+{
+    private JdbcTemplate readOnlyJdbcTemplate;
+
+    private JdbcClusterPyramidManager subject;
+
+    private Program program;
+
+    private OrganisationUnit root;
+
+    private Period year;
+
+    @BeforeEach
+    void setUp()
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.getProperty( ConfigurationKey.ANALYTICS_CLUSTER_PYRAMID_MAX_ZOOM ) ).thenReturn( "10" );
+
+        readOnlyJdbcTemplate = mock( JdbcTemplate.class );
+        when( readOnlyJdbcTemplate.queryForObject( anyString(), eq( Integer.class ),
+            eq( "analytics_event_cluster_prabcdefgha" ) ) ).thenReturn( 1 );
+
+        subject = new JdbcClusterPyramidManager( config, mock( PartitionManager.class ), mock( JdbcTemplate.class ),
+            readOnlyJdbcTemplate );
+
+        program = createProgram( 'A' );
+        root = createOrganisationUnit( 'A' );
+        root.setPath( "/" + root.getUid() );
+        year = createPeriod( "2021" );
+    }
+
+    @Test
+    void testParseMaxZoom()
+    {
+        assertEquals( 12, JdbcClusterPyramidManager.parseMaxZoom( " 12 " ) );
+        assertEquals( -1, JdbcClusterPyramidManager.parseMaxZoom( "" ) );
+        assertEquals( -1, JdbcClusterPyramidManager.parseMaxZoom( null ) );
+        assertEquals( -1, JdbcClusterPyramidManager.parseMaxZoom( "17" ) );
+    }
+
+    @Test
+    void testIsPyramidQuery()
+    {
+        assertTrue( subject.isPyramidQuery( getParams().build(), new ClusterTile( 10, 500, 400 ) ) );
+    }
+
+    @Test
+    void testIsNotPyramidQuery()
+    {
+        assertFalse( subject.isPyramidQuery( getParams().build(), new ClusterTile( 11, 500, 400 ) ) );
+        assertFalse( subject.isPyramidQuery( getParams().withCoordinateField( "ougeometry" ).build(),
+            new ClusterTile( 4, 8, 7 ) ) );
+        assertFalse( subject.isPyramidQuery( getParams().withIncludeClusterPoints( true ).build(),
+            new ClusterTile( 4, 8, 7 ) ) );
+        assertFalse( subject.isPyramidQuery( getParams()
+            .withOrganisationUnitMode( OrganisationUnitSelectionMode.SELECTED ).build(), new ClusterTile( 4, 8, 7 ) ) );
+        assertFalse( subject.isPyramidQuery( getParams()
+            .withPeriods( List.of( createPeriod( "202103" ) ), "monthly" )
+            .build(), new ClusterTile( 4, 8, 7 ) ) );
+        assertFalse( subject.isPyramidQuery( getParams().withProgram( createProgram( 'B' ) ).build(),
+            new ClusterTile( 4, 8, 7 ) ) );
+    }
+
+    @Test
+    void testIsNotPyramidQueryAfterPyramidDropped()
+    {
+        assertTrue( subject.isPyramidQuery( getParams().build(), new ClusterTile( 4, 8, 7 ) ) );
+
+        when( readOnlyJdbcTemplate.queryForObject( anyString(), eq( Integer.class ),
+            eq( "analytics_event_cluster_prabcdefgha" ) ) ).thenReturn( 0 );
+
+        assertFalse( subject.isPyramidQuery( getParams().build(), new ClusterTile( 4, 8, 7 ) ) );
+    }
+
+    @Test
+    void testIsNotPyramidQueryWhenLookupFails()
+    {
+        when( readOnlyJdbcTemplate.queryForObject( anyString(), eq( Integer.class ),
+            eq( "analytics_event_cluster_prabcdefgha" ) ) )
+                .thenThrow( new DataAccessResourceFailureException( "Connection refused" ) );
+
+        assertFalse( subject.isPyramidQuery( getParams().build(), new ClusterTile( 4, 8, 7 ) ) );
+    }
+
+    @Test
+    void testGetInsertSql()
+    {
+        String sql = subject.getInsertSql( "analytics_event_cluster_temp_programuida",
+            "analytics_event_programuida", "and yearly in ('2021') " );
+
+        assertTrue( sql.startsWith( "insert into analytics_event_cluster_temp_programuida " ) );
+        assertTrue( sql.contains( "from analytics_event_programuida where psigeometry is not null " ) );
+        assertTrue( sql.contains( "and yearly in ('2021') " ) );
+        assertTrue( sql.contains( "cross join generate_series(0, 10) as z(zoom)" ) );
+        assertTrue( sql.endsWith( "group by zoom, cellx, celly, year, uidlevel1, psistatus" ) );
+    }
+
+    @Test
+    void testClusterTile()
+    {
+        ClusterTile tile = new ClusterTile( 1, 1, 0 );
+
+        assertTrue( tile.getBbox().startsWith( "0.0,0.0,180.0,85.0511" ), tile.getBbox() );
+        assertEquals( ClusterTile.getCellSize( 0 ) / 2, tile.getCellSize() );
+        assertThrows( IllegalQueryException.class, () -> new ClusterTile( 1, 2, 0 ) );
+        assertThrows( IllegalQueryException.class, () -> new ClusterTile( 17, 0, 0 ) );
+    }
+
+    private EventQueryParams.Builder getParams()
+    {
+        return new EventQueryParams.Builder()
+            .withProgram( program )
+            .withCoordinateField( "psigeometry" )
+            .withOrganisationUnits( List.of( root ) )
+            .withPeriods( List.of( year ), "yearly" );
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data.programindicator;
+
+import static org.hisp.dhis.analytics.DataType.BOOLEAN;
+import static org.hisp.dhis.analytics.DataType.NUMERIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.program.AnalyticsType;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramIndicatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@MockitoSettings( strictness = Strictness.LENIENT )
+@ExtendWith( MockitoExtension.class )
+class JdbcProgramIndicatorColumnManagerTest
+{
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private ProgramIndicatorService programIndicatorService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private Program program;
+
+    private ProgramIndicator piA;
+
+    private ProgramIndicator piB;
+
+    private ProgramIndicator piC;
+
+    private JdbcProgramIndicatorColumnManager subject;
+
+    @BeforeEach
+    void setUp()
+    {
+        program = new Program( "programA" );
+        program.setUid( "programUidA" );
+
+        piA = createProgramIndicator( "programIndA", AnalyticsType.EVENT, "#{stageA.deA}", "#{stageA.deB} > 1" );
+        piB = createProgramIndicator( "programIndB", AnalyticsType.EVENT, "V{analytics_period_end}", null );
+        piC = createProgramIndicator( "programIndC", AnalyticsType.ENROLLMENT, "A{attrA}", null );
+
+        program.setProgramIndicators( Set.of( piA, piB, piC ) );
+
+        when( config.getProperty( ConfigurationKey.ANALYTICS_PROGRAM_INDICATOR_COLUMNS ) )
+            .thenReturn( "programIndA, programIndB,programIndC" );
+        when( programIndicatorService.getAnalyticsSql( eq( "#{stageA.deA}" ), eq( NUMERIC ), eq( piA ), any(),
+            any() ) ).thenReturn( "\"deA\"" );
+        when( programIndicatorService.getAnalyticsSql( eq( "#{stageA.deB} > 1" ), eq( BOOLEAN ), eq( piA ), any(),
+            any() ) ).thenReturn( "\"deB\" > 1" );
+        when( programIndicatorService.getAnalyticsSql( eq( "V{analytics_period_end}" ), eq( NUMERIC ), eq( piB ),
+            any(), any() ) ).thenAnswer( invocation -> "'" + invocation.<Date> getArgument( 4 ).getTime() + "'" );
+        when( programIndicatorService.getAnalyticsSql( eq( "A{attrA}" ), eq( NUMERIC ), eq( piC ), any(),
+            any() ) ).thenReturn( "\"attrA\"" );
+
+        subject = new JdbcProgramIndicatorColumnManager( config, programIndicatorService, jdbcTemplate );
+    }
+
+    @Test
+    void testGetProgramIndicatorsSkipsPeriodDependent()
+    {
+        assertEquals( List.of( piA ), subject.getProgramIndicators( program, AnalyticsType.EVENT ) );
+        assertEquals( List.of( piC ), subject.getProgramIndicators( program, AnalyticsType.ENROLLMENT ) );
+    }
+
+    @Test
+    void testGetProgramIndicatorsSkipsNonSingleRowAggregationType()
+    {
+        piA.setAggregationType( AggregationType.COUNT );
+
+        assertTrue( subject.getProgramIndicators( program, AnalyticsType.EVENT ).isEmpty() );
+    }
+
+    @Test
+    void testGetProgramIndicatorsNotConfigured()
+    {
+        when( config.getProperty( ConfigurationKey.ANALYTICS_PROGRAM_INDICATOR_COLUMNS ) ).thenReturn( "" );
+
+        subject = new JdbcProgramIndicatorColumnManager( config, programIndicatorService, jdbcTemplate );
+
+        assertTrue( subject.getProgramIndicators( program, AnalyticsType.EVENT ).isEmpty() );
+    }
+
+    @Test
+    void testGetColumnSql()
+    {
+        assertEquals( "case when \"deB\" > 1 then \"deA\" end", subject.getColumnSql( piA ) );
+        assertEquals( "\"attrA\"", subject.getColumnSql( piC ) );
+        assertEquals( "pi_programIndA", subject.getColumnName( piA ) );
+    }
+
+    @Test
+    void testHasColumn()
+    {
+        when( jdbcTemplate.queryForObject( any( String.class ), eq( Integer.class ), eq( "analytics_event_a" ),
+            eq( "pi_programIndA" ) ) ).thenReturn( 1 );
+
+        assertTrue( subject.hasColumn( piA, AnalyticsType.EVENT, "analytics_event_a" ) );
+        assertTrue( subject.hasColumn( piA, AnalyticsType.EVENT, "analytics_event_a" ) );
+        assertFalse( subject.hasColumn( piA, AnalyticsType.EVENT, "analytics_event_b" ) );
+        assertFalse( subject.hasColumn( piB, AnalyticsType.EVENT, "analytics_event_a" ) );
+        assertFalse( subject.hasColumn( piA, AnalyticsType.ENROLLMENT, "analytics_event_a" ) );
+
+        verify( jdbcTemplate, times( 1 ) ).queryForObject( any( String.class ), eq( Integer.class ),
+            eq( "analytics_event_a" ), eq( "pi_programIndA" ) );
+    }
+
+    private ProgramIndicator createProgramIndicator( String uid, AnalyticsType analyticsType, String expression,
+        String filter )
+    {
+        ProgramIndicator programIndicator = new ProgramIndicator();
+        programIndicator.setUid( uid );
+        programIndicator.setProgram( program );
+        programIndicator.setAnalyticsType( analyticsType );
+        programIndicator.setExpression( expression );
+        programIndicator.setFilter( filter );
+        programIndicator.setAggregationType( AggregationType.SUM );
+        return programIndicator;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.analytics.AnalyticsRollup;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class JdbcRollupManagerTest
+{
+    @Test
+    void testParseRollups()
+    {
+        List<AnalyticsRollup> rollups = JdbcRollupManager
+            .parseRollups( "3:Monthly, 2:Yearly, 2:Yearly:qfxEYY9xAl6, 2:Yearly" );
+
+        assertEquals( List.of( "analytics_rollup_2_yearly_qfxeyy9xal6", "analytics_rollup_2_yearly",
+            "analytics_rollup_3_monthly" ), rollups.stream().map( AnalyticsRollup::getTableName ).toList() );
+        assertEquals( "qfxEYY9xAl6", rollups.get( 0 ).getDataElementGroup() );
+    }
+
+    @Test
+    void testParseRollupsIgnoresInvalidDefinitions()
+    {
+        List<AnalyticsRollup> rollups = JdbcRollupManager
+            .parseRollups( "0:Yearly,2:Decade,2,2:Yearly:notAUid,x:Monthly,4:Quarterly" );
+
+        assertEquals( 1, rollups.size() );
+        assertEquals( "analytics_rollup_4_quarterly", rollups.get( 0 ).getTableName() );
+    }
+
+    @Test
+    void testParseRollupsEmpty()
+    {
+        assertTrue( JdbcRollupManager.parseRollups( "" ).isEmpty() );
+        assertTrue( JdbcRollupManager.parseRollups( null ).isEmpty() );
+    }
+
+    @Test
+    void testHasColumn()
+    {
+        AnalyticsRollup rollup = JdbcRollupManager.parseRollups( "2:Quarterly" ).get( 0 );
+
+        assertTrue( rollup.hasColumn( "dx" ) );
+        assertTrue( rollup.hasColumn( "quarterly" ) );
+        assertTrue( rollup.hasColumn( "uidlevel1" ) );
+        assertTrue( rollup.hasColumn( "uidlevel2" ) );
+        assertFalse( rollup.hasColumn( "uidlevel3" ) );
+        assertFalse( rollup.hasColumn( "yearly" ) );
+        assertFalse( rollup.hasColumn( "pestartdate" ) );
+    }
+
+    @Test
+    void testGetAvailableRollups()
+    {
+        JdbcTemplate readOnlyJdbcTemplate = mock( JdbcTemplate.class );
+        when( readOnlyJdbcTemplate.queryForList( anyString(), eq( String.class ) ) )
+            .thenReturn( List.of( "analytics_rollup_3_monthly" ) );
+
+        List<AnalyticsRollup> rollups = createRollupManager( readOnlyJdbcTemplate )
+            .getAvailableRollups( AnalyticsTableType.DATA_VALUE );
+
+        assertEquals( List.of( "analytics_rollup_3_monthly" ),
+            rollups.stream().map( AnalyticsRollup::getTableName ).toList() );
+    }
+
+    @Test
+    void testGetAvailableRollupsWhenLookupFails()
+    {
+        JdbcTemplate readOnlyJdbcTemplate = mock( JdbcTemplate.class );
+        when( readOnlyJdbcTemplate.queryForList( anyString(), eq( String.class ) ) )
+            .thenThrow( new QueryTimeoutException( "Timeout" ) );
+
+        assertTrue( createRollupManager( readOnlyJdbcTemplate ).getAvailableRollups( AnalyticsTableType.DATA_VALUE )
+            .isEmpty() );
+    }
+
+    private JdbcRollupManager createRollupManager( JdbcTemplate readOnlyJdbcTemplate )
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.getProperty( ConfigurationKey.ANALYTICS_ROLLUPS ) ).thenReturn( "2:Yearly,3:Monthly" );
+
+        return new JdbcRollupManager( config, mock( OrganisationUnitService.class ), mock( JdbcTemplate.class ),
+            readOnlyJdbcTemplate );
+    }
+}
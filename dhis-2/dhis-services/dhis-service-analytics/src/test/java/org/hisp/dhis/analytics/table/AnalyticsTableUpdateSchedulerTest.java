@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static org.hisp.dhis.analytics.AnalyticsTableType.DATA_VALUE;
+import static org.hisp.dhis.analytics.AnalyticsTableType.ENROLLMENT;
+import static org.hisp.dhis.analytics.AnalyticsTableType.EVENT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.analytics.AnalyticsTableService;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.NoopJobProgress;
+import org.junit.jupiter.api.Test;
+
+class AnalyticsTableUpdateSchedulerTest
+{
+    private final List<String> events = Collections.synchronizedList( new ArrayList<>() );
+
+    @Test
+    void testGetTypeParallelism()
+    {
+        assertEquals( 1, AnalyticsTableUpdateScheduler.getTypeParallelism( 3, 7 ) );
+        assertEquals( 2, AnalyticsTableUpdateScheduler.getTypeParallelism( 8, 7 ) );
+        assertEquals( 3, AnalyticsTableUpdateScheduler.getTypeParallelism( 63, 3 ) );
+        assertEquals( 1, AnalyticsTableUpdateScheduler.getTypeParallelism( 16, 0 ) );
+    }
+
+    @Test
+    void testGetDependencies()
+    {
+        assertEquals( Set.of( EVENT ),
+            AnalyticsTableUpdateScheduler.getDependencies( ENROLLMENT, Set.of( EVENT, ENROLLMENT ) ) );
+        assertEquals( Set.of(), AnalyticsTableUpdateScheduler.getDependencies( ENROLLMENT, Set.of( ENROLLMENT ) ) );
+        assertEquals( Set.of(), AnalyticsTableUpdateScheduler.getDependencies( EVENT, Set.of( EVENT, ENROLLMENT ) ) );
+    }
+
+    @Test
+    void testUpdateDependentTableTypeAfterDependency()
+    {
+        AnalyticsTableService enrollment = mockService( ENROLLMENT, null );
+        AnalyticsTableService event = mockService( EVENT, null );
+        AnalyticsTableService dataValue = mockService( DATA_VALUE, null );
+
+        AnalyticsTableUpdateScheduler scheduler = new AnalyticsTableUpdateScheduler(
+            List.of( enrollment, event, dataValue ), 3 );
+
+        scheduler.update( AnalyticsTableUpdateParams.newBuilder().build(), NoopJobProgress.INSTANCE );
+
+        assertEquals( 6, events.size() );
+        assertTrue( events.indexOf( "start " + ENROLLMENT ) > events.indexOf( "end " + EVENT ) );
+        assertTrue( events.contains( "end " + DATA_VALUE ) );
+
+        String criticalPath = scheduler.getCriticalPath( List.of( EVENT, DATA_VALUE, ENROLLMENT ) );
+        assertTrue( criticalPath.startsWith( "EVENT (" ), criticalPath );
+        assertTrue( criticalPath.contains( ") -> ENROLLMENT (" ), criticalPath );
+    }
+
+    @Test
+    void testUpdateFailure()
+    {
+        AnalyticsTableService event = mockService( EVENT, new IllegalStateException( "Event update failed" ) );
+        AnalyticsTableService enrollment = mockService( ENROLLMENT, null );
+
+        AnalyticsTableUpdateScheduler scheduler = new AnalyticsTableUpdateScheduler(
+            List.of( event, enrollment ), 2 );
+
+        IllegalStateException ex = assertThrows( IllegalStateException.class,
+            () -> scheduler.update( AnalyticsTableUpdateParams.newBuilder().build(), NoopJobProgress.INSTANCE ) );
+        assertEquals( "Event update failed", ex.getMessage() );
+        verify( enrollment, never() ).update( any(), any() );
+    }
+
+    @Test
+    void testUpdateFailedStage()
+    {
+        AnalyticsTableService event = mock( AnalyticsTableService.class );
+        when( event.getAnalyticsTableType() ).thenReturn( EVENT );
+        doAnswer( invocation -> {
+            JobProgress progress = invocation.getArgument( 1 );
+            progress.startingStage( "Populating analytics tables" );
+            progress.failedStage( "Populating failed" );
+            return null;
+        } ).when( event ).update( any(), any() );
+
+        AnalyticsTableUpdateScheduler scheduler = new AnalyticsTableUpdateScheduler( List.of( event ), 2 );
+
+        assertThrows( IllegalStateException.class,
+            () -> scheduler.update( AnalyticsTableUpdateParams.newBuilder().build(), NoopJobProgress.INSTANCE ) );
+    }
+
+    private AnalyticsTableService mockService( AnalyticsTableType tableType, RuntimeException failure )
+    {
+        AnalyticsTableService service = mock( AnalyticsTableService.class );
+        when( service.getAnalyticsTableType() ).thenReturn( tableType );
+        doAnswer( invocation -> {
+            events.add( "start " + tableType );
+            Thread.sleep( 20 );
+
+            if ( failure != null )
+            {
+                throw failure;
+            }
+
+            events.add( "end " + tableType );
+            return null;
+        } ).when( service ).update( any(), any() );
+        return service;
+    }
+}
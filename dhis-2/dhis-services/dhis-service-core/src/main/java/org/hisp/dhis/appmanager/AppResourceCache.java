@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.appmanager;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FilenameUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * A size bounded in-memory cache of app resource contents. The cache is
+ * bounded by the total number of bytes held (including compressed variants),
+ * not by number of entries. Entries are dropped when the app they belong to is
+ * installed, updated or deleted and expire after an hour so that changes made
+ * by other instances in a cluster get picked up.
+ */
+@Slf4j
+@Component
+public class AppResourceCache
+{
+    private static final long MB = 1024L * 1024L;
+
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(
+        "html", "htm", "js", "mjs", "css", "json", "map", "svg", "xml", "txt", "webapp", "webmanifest" );
+
+    @FunctionalInterface
+    public interface ResourceResolver
+    {
+        Resource resolve( String pageName )
+            throws IOException;
+    }
+
+    @Value
+    private static class Key
+    {
+        String appKey;
+
+        String pageName;
+    }
+
+    private final Cache<Key, AppResourceContent> cache;
+
+    private final long maxFileSize;
+
+    public AppResourceCache( DhisConfigurationProvider config )
+    {
+        long capacity = Long.parseLong( config.getProperty( ConfigurationKey.APP_RESOURCE_CACHE_CAPACITY ) ) * MB;
+        this.maxFileSize = capacity / 16;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight( capacity )
+            .weigher( ( Key key, AppResourceContent value ) -> (int) Math.min( value.getSize(), Integer.MAX_VALUE ) )
+            .expireAfterWrite( 1, HOURS )
+            .build();
+    }
+
+    /**
+     * @param app the app the resource belongs to
+     * @param pageName the page requested
+     * @param resolver used to resolve the resource in storage in case it is not
+     *        cached yet
+     * @return the content of the resource, or null if no such resource exists
+     *         or the resource is too large to be cached
+     */
+    public AppResourceContent get( App app, String pageName, ResourceResolver resolver )
+        throws IOException
+    {
+        if ( maxFileSize <= 0 )
+        {
+            return null;
+        }
+        AppResourceContent content = getIfPresent( app, pageName );
+        if ( content != null )
+        {
+            return content;
+        }
+        Resource resource = resolver.resolve( pageName );
+        return resource == null ? null : put( app, pageName, resource, resolver );
+    }
+
+    /**
+     * @param app the app the resource belongs to
+     * @param pageName the page requested
+     * @return the cached content of the resource, or null if it is not cached
+     */
+    public AppResourceContent getIfPresent( App app, String pageName )
+    {
+        return maxFileSize <= 0 ? null : cache.getIfPresent( new Key( app.getKey(), pageName ) );
+    }
+
+    /**
+     * Loads the content of a resource already resolved in storage into the
+     * cache.
+     *
+     * @param app the app the resource belongs to
+     * @param pageName the page requested
+     * @param resource the resource resolved for the page
+     * @param resolver used to resolve precompressed variants of the resource
+     * @return the content of the resource, or null if the resource is too
+     *         large to be cached
+     */
+    public AppResourceContent put( App app, String pageName, Resource resource, ResourceResolver resolver )
+        throws IOException
+    {
+        if ( maxFileSize <= 0 || resource.contentLength() > maxFileSize )
+        {
+            return null;
+        }
+        AppResourceContent content = load( pageName, resource, resolver );
+        cache.put( new Key( app.getKey(), pageName ), content );
+        return content;
+    }
+
+    /**
+     * Drops all cached resources of the app with the given key.
+     */
+    public void invalidate( String appKey )
+    {
+        cache.asMap().keySet().removeIf( key -> key.getAppKey().equals( appKey ) );
+    }
+
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    private AppResourceContent load( String pageName, Resource resource, ResourceResolver resolver )
+        throws IOException
+    {
+        byte[] content = readAllBytes( resource );
+        String filename = resource.getFilename();
+        byte[] gzipContent = null;
+        byte[] brotliContent = null;
+        if ( isCompressible( filename ) )
+        {
+            gzipContent = gzip( content );
+            brotliContent = loadPrecompressed( pageName + ".br", resolver );
+        }
+        return new AppResourceContent( filename, resource.lastModified(),
+            Hashing.sha256().hashBytes( content ).toString(),
+            content, gzipContent, brotliContent );
+    }
+
+    /**
+     * Brotli variants are not generated but served when the app bundle ships
+     * them next to the original file, as done by most build tools.
+     */
+    private byte[] loadPrecompressed( String pageName, ResourceResolver resolver )
+    {
+        try
+        {
+            Resource resource = resolver.resolve( pageName );
+            return resource != null && resource.exists() && resource.contentLength() <= maxFileSize
+                ? readAllBytes( resource )
+                : null;
+        }
+        catch ( IOException ex )
+        {
+            log.debug( "Failed to load precompressed app resource " + pageName, ex );
+            return null;
+        }
+    }
+
+    private static boolean isCompressible( String filename )
+    {
+        return filename != null
+            && COMPRESSIBLE_EXTENSIONS.contains( FilenameUtils.getExtension( filename ).toLowerCase() );
+    }
+
+    /**
+     * @return the gzip compressed content or null if it is not smaller than the
+     *         uncompressed content
+     */
+    private static byte[] gzip( byte[] content )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( content.length / 2 + 32 );
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( out ) )
+        {
+            gzip.write( content );
+        }
+        return out.size() < content.length ? out.toByteArray() : null;
+    }
+
+    private static byte[] readAllBytes( Resource resource )
+        throws IOException
+    {
+        try ( InputStream in = resource.getInputStream() )
+        {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -86,11 +86,14 @@ public class DefaultAppManager
      */
     private final Cache<App> appCache;
 
+    private final AppResourceCache appResourceCache;
+
     public DefaultAppManager( DhisConfigurationProvider dhisConfigurationProvider,
         CurrentUserService currentUserService,
         @Qualifier( "org.hisp.dhis.appmanager.LocalAppStorageService" ) AppStorageService localAppStorageService,
         @Qualifier( "org.hisp.dhis.appmanager.JCloudsAppStorageService" ) AppStorageService jCloudsAppStorageService,
-        DatastoreService datastoreService, CacheBuilderProvider cacheBuilderProvider )
+        DatastoreService datastoreService, CacheBuilderProvider cacheBuilderProvider,
+        AppResourceCache appResourceCache )
     {
         checkNotNull( dhisConfigurationProvider );
         checkNotNull( currentUserService );
@@ -98,6 +101,7 @@ public class DefaultAppManager
         checkNotNull( jCloudsAppStorageService );
         checkNotNull( datastoreService );
         checkNotNull( cacheBuilderProvider );
+        checkNotNull( appResourceCache );
 
         this.dhisConfigurationProvider = dhisConfigurationProvider;
         this.currentUserService = currentUserService;
@@ -107,6 +111,7 @@ public class DefaultAppManager
         this.appCache = cacheBuilderProvider.<App> newCacheBuilder()
             .forRegion( "appCache" )
             .build();
+        this.appResourceCache = appResourceCache;
     }
 
     // -------------------------------------------------------------------------
@@ -273,6 +278,7 @@ public class DefaultAppManager
         if ( app.getAppState().ok() )
         {
             appCache.put( app.getKey(), app );
+            appResourceCache.invalidate( app.getKey() );
             registerKeyJsonValueProtection( app );
         }
 
@@ -298,6 +304,7 @@ public class DefaultAppManager
             }
 
             appCache.invalidate( app.getKey() );
+            appResourceCache.invalidate( app.getKey() );
         }
     }
 
@@ -342,6 +349,8 @@ public class DefaultAppManager
     @PostConstruct
     public void reloadApps()
     {
+        appResourceCache.invalidateAll();
+
         localAppStorageService.discoverInstalledApps().values().stream()
             .filter( app -> !exists( app.getKey() ) )
             .forEach( this::installApp );
@@ -392,6 +401,19 @@ public class DefaultAppManager
         return getAppStorageServiceByApp( app ).getAppResource( app, pageName );
     }
 
+    @Override
+    public AppResourceContent getCachedAppResourceContent( App app, String pageName )
+    {
+        return appResourceCache.getIfPresent( app, pageName );
+    }
+
+    @Override
+    public AppResourceContent cacheAppResourceContent( App app, String pageName, Resource resource )
+        throws IOException
+    {
+        return appResourceCache.put( app, pageName, resource, page -> getAppResource( app, page ) );
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
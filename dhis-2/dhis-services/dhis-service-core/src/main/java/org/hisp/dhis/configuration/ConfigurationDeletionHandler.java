@@ -29,6 +29,8 @@ package org.hisp.dhis.configuration;
 
 import static org.hisp.dhis.system.deletion.DeletionVeto.ACCEPT;
 
+import java.util.Collection;
+
 import lombok.AllArgsConstructor;
 
 import org.hisp.dhis.dataelement.DataElementGroup;
@@ -61,7 +63,7 @@ public class ConfigurationDeletionHandler extends DeletionHandler
         whenVetoing( IndicatorGroup.class, this::allowDeleteIndicatorGroup );
         whenVetoing( OrganisationUnitLevel.class, this::allowDeleteOrganisationUnitLevel );
         whenVetoing( OrganisationUnitGroupSet.class, this::allowDeleteOrganisationUnitGroupSet );
-        whenVetoing( OrganisationUnit.class, this::allowDeleteOrganisationUnit );
+        whenVetoingAll( OrganisationUnit.class, this::allowDeleteOrganisationUnits );
         whenVetoing( UserRole.class, this::allowDeleteUserRole );
     }
 
@@ -102,11 +104,11 @@ public class ConfigurationDeletionHandler extends DeletionHandler
         return defaultGroupSet != null && defaultGroupSet.equals( groupSet ) ? VETO : ACCEPT;
     }
 
-    private DeletionVeto allowDeleteOrganisationUnit( OrganisationUnit organisationUnit )
+    private DeletionVeto allowDeleteOrganisationUnits( Collection<OrganisationUnit> organisationUnits )
     {
         OrganisationUnit selfRegOrgUnit = configService.getConfiguration().getSelfRegistrationOrgUnit();
 
-        return selfRegOrgUnit != null && selfRegOrgUnit.equals( organisationUnit ) ? VETO : ACCEPT;
+        return selfRegOrgUnit != null && organisationUnits.contains( selfRegOrgUnit ) ? VETO : ACCEPT;
     }
 
     private DeletionVeto allowDeleteUserRole( UserRole userRole )
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval.hibernate;
+
+import java.util.function.Function;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches of whether data is approved. All approval writes must call
+ * {@link #invalidate()}. The caches are invalidated right away and again
+ * once the writing transaction completes, and the writing transaction itself
+ * bypasses the caches so that neither its uncommitted state nor state read by
+ * other transactions before it commits remain cached.
+ */
+class DataApprovalCaches
+{
+    private final Cache<Boolean> isApprovedCache;
+
+    /**
+     * Whether the transaction of the current thread wrote approvals.
+     */
+    private final ThreadLocal<Boolean> writing = ThreadLocal.withInitial( () -> false );
+
+    DataApprovalCaches( CacheProvider cacheProvider )
+    {
+        this.isApprovedCache = cacheProvider.createIsDataApprovedCache();
+    }
+
+    boolean isApproved( String key, Function<String, Boolean> loader )
+    {
+        return writing.get() ? loader.apply( key ) : isApprovedCache.get( key, loader );
+    }
+
+    void invalidate()
+    {
+        invalidateAll();
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() && !writing.get() )
+        {
+            writing.set( true );
+
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion( int status )
+                {
+                    writing.remove();
+                    invalidateAll();
+                }
+            } );
+        }
+    }
+
+    private void invalidateAll()
+    {
+        isApprovedCache.invalidateAll();
+    }
+}
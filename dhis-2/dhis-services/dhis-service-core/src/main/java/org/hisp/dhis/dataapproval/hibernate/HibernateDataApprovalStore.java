@@ -50,7 +50,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.SessionFactory;
-import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
@@ -96,7 +95,32 @@ public class HibernateDataApprovalStore
 
     private static final String SQL_CAT = StatementBuilder.QUOTE + SQL_CONCAT + StatementBuilder.QUOTE;
 
-    private final Cache<Boolean> isApprovedCache;
+    private static final String STATE_DELETE_SQL = "delete from dataapprovalstate "
+        + "where workflowid = ? and periodid = ? and organisationunitid = ? and attributeoptioncomboid = ?";
+
+    private static final String STATE_KEY_CONDITION = "da.workflowid = ? and da.periodid = ? "
+        + "and da.organisationunitid = ? and da.attributeoptioncomboid = ?";
+
+    /**
+     * Inserts the highest approval of each workflow, period, org unit and
+     * attribute option combo of the approvals matching the condition.
+     */
+    private static final String STATE_INSERT_SQL = "insert into dataapprovalstate "
+        + "(workflowid, periodid, organisationunitid, attributeoptioncomboid, dataapprovallevelid, accepted) "
+        + "select da.workflowid, da.periodid, da.organisationunitid, da.attributeoptioncomboid, "
+        + "da.dataapprovallevelid, da.accepted "
+        + "from dataapproval da "
+        + "join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid "
+        + "where %s "
+        + "and not exists ( "
+        + "select 1 from dataapproval da2 "
+        + "join dataapprovallevel dal2 on dal2.dataapprovallevelid = da2.dataapprovallevelid "
+        + "where da2.workflowid = da.workflowid and da2.periodid = da.periodid "
+        + "and da2.organisationunitid = da.organisationunitid "
+        + "and da2.attributeoptioncomboid = da.attributeoptioncomboid "
+        + "and dal2.level < dal.level )";
+
+    private final DataApprovalCaches caches;
 
     // -------------------------------------------------------------------------
     // Dependencies
@@ -139,7 +163,7 @@ public class HibernateDataApprovalStore
         this.categoryService = categoryService;
         this.systemSettingManager = systemSettingManager;
         this.statementBuilder = statementBuilder;
-        this.isApprovedCache = cacheProvider.createIsDataApprovedCache();
+        this.caches = new DataApprovalCaches( cacheProvider );
         this.organisationUnitService = organisationUnitService;
     }
 
@@ -150,41 +174,87 @@ public class HibernateDataApprovalStore
     @Override
     public void addDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        caches.invalidate();
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         save( dataApproval );
+
+        updateDataApprovalState( dataApproval );
     }
 
     @Override
     public void updateDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        caches.invalidate();
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         update( dataApproval );
+
+        updateDataApprovalState( dataApproval );
     }
 
     @Override
     public void deleteDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        caches.invalidate();
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         delete( dataApproval );
+
+        updateDataApprovalState( dataApproval );
     }
 
     @Override
     public void deleteDataApprovals( OrganisationUnit organisationUnit )
     {
-        isApprovedCache.invalidateAll();
+        caches.invalidate();
 
         String hql = "delete from DataApproval d where d.organisationUnit = :unit";
 
         getSession().createQuery( hql ).setParameter( "unit", organisationUnit ).executeUpdate();
+
+        jdbcTemplate.update( "delete from dataapprovalstate where organisationunitid = ?", organisationUnit.getId() );
+    }
+
+    @Override
+    public void invalidateCaches()
+    {
+        caches.invalidate();
+    }
+
+    @Override
+    public void updateDataApprovalStates( Collection<OrganisationUnit> organisationUnits )
+    {
+        if ( organisationUnits.isEmpty() )
+        {
+            return;
+        }
+
+        getSession().flush();
+
+        String orgUnitIds = StringUtils.join( IdentifiableObjectUtils.getIdentifiers( organisationUnits ), "," );
+
+        jdbcTemplate.update( "delete from dataapprovalstate where organisationunitid in (" + orgUnitIds + ")" );
+        jdbcTemplate.update( String.format( STATE_INSERT_SQL, "da.organisationunitid in (" + orgUnitIds + ")" ) );
+    }
+
+    /**
+     * Rebuilds the approval state of the workflow, period, org unit and
+     * attribute option combo of the given approval from the stored approvals,
+     * flushing the session first so that the approval write is included.
+     */
+    private void updateDataApprovalState( DataApproval dataApproval )
+    {
+        getSession().flush();
+
+        Object[] key = { dataApproval.getWorkflow().getId(), dataApproval.getPeriod().getId(),
+            dataApproval.getOrganisationUnit().getId(), dataApproval.getAttributeOptionCombo().getId() };
+
+        jdbcTemplate.update( STATE_DELETE_SQL, key );
+        jdbcTemplate.update( String.format( STATE_INSERT_SQL, STATE_KEY_CONDITION ), key );
     }
 
     @Override
@@ -233,7 +303,7 @@ public class HibernateDataApprovalStore
     @Override
     public boolean dataApprovalExists( DataApproval dataApproval )
     {
-        return isApprovedCache.get( dataApproval.getCacheKey(), key -> dataApprovalExistsInternal( dataApproval ) );
+        return caches.isApproved( dataApproval.getCacheKey(), key -> dataApprovalExistsInternal( dataApproval ) );
     }
 
     private boolean dataApprovalExistsInternal( DataApproval dataApproval )
@@ -444,6 +514,12 @@ public class HibernateDataApprovalStore
             userApprovalLevelRestrictions += ") ";
         }
 
+        // The approval state holds the highest approval of each org unit, which
+        // is only the highest approval the user may see if the user may see all
+        // levels. Otherwise the approvals of the user levels are searched.
+
+        String highestApprovedTable = userApprovalLevelRestrictions.isEmpty() ? "dataapprovalstate" : "dataapproval";
+
         String coEndDateExtension = workflow.getSqlCoEndDateExtension();
 
         String approvedAboveSubquery = "false"; // Not approved above if this is
@@ -536,7 +612,7 @@ public class HibernateDataApprovalStore
             + statementBuilder.concatenate( MAX_APPROVAL_LEVEL + " + dal.level", SQL_CAT, "da.accepted", SQL_CAT,
                 "da.organisationunitid" )
             + ") " +
-            "from dataapproval da " +
+            "from " + highestApprovedTable + " da " +
             "join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid " +
             highestApprovedOrgUnitJoin +
             "where da.workflowid = " + workflow.getId() + " " +
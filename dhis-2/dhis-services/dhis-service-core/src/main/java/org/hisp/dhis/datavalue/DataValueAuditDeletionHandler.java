@@ -27,7 +27,7 @@
  */
 package org.hisp.dhis.datavalue;
 
-import java.util.Map;
+import java.util.Collection;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.dataelement.DataElement;
@@ -45,33 +45,34 @@ public class DataValueAuditDeletionHandler extends JdbcDeletionHandler
     @Override
     protected void register()
     {
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
-        whenVetoing( Period.class, this::allowDeletePeriod );
-        whenVetoing( OrganisationUnit.class, this::allowDeleteOrganisationUnit );
-        whenVetoing( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombo );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
+        whenVetoingAll( Period.class, this::allowDeletePeriods );
+        whenVetoingAll( OrganisationUnit.class, this::allowDeleteOrganisationUnits );
+        whenVetoingAll( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombos );
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        String sql = "select 1 from datavalueaudit where dataelementid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", dataElement.getId() ) );
+        String sql = "select 1 from datavalueaudit where dataelementid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, dataElements );
     }
 
-    private DeletionVeto allowDeletePeriod( Period period )
+    private DeletionVeto allowDeletePeriods( Collection<Period> periods )
     {
-        String sql = "select 1 from datavalueaudit where periodid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", period.getId() ) );
+        String sql = "select 1 from datavalueaudit where periodid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, periods );
     }
 
-    private DeletionVeto allowDeleteOrganisationUnit( OrganisationUnit unit )
+    private DeletionVeto allowDeleteOrganisationUnits( Collection<OrganisationUnit> units )
     {
-        String sql = "select 1 from datavalueaudit where organisationunitid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", unit.getId() ) );
+        String sql = "select 1 from datavalueaudit where organisationunitid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, units );
     }
 
-    private DeletionVeto allowDeleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
+    private DeletionVeto allowDeleteCategoryOptionCombos( Collection<CategoryOptionCombo> optionCombos )
     {
-        String sql = "select 1 from datavalueaudit where categoryoptioncomboid=:id or attributeoptioncomboid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", optionCombo.getId() ) );
+        String sql = "select 1 from datavalueaudit where categoryoptioncomboid in (:ids)"
+            + " or attributeoptioncomboid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, optionCombos );
     }
 }
@@ -27,7 +27,7 @@
  */
 package org.hisp.dhis.datavalue;
 
-import java.util.Map;
+import java.util.Collection;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.dataelement.DataElement;
@@ -48,34 +48,31 @@ public class DataValueDeletionHandler extends JdbcDeletionHandler
     @Override
     protected void register()
     {
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
-        whenVetoing( Period.class, this::allowDeletePeriod );
-        whenVetoing( OrganisationUnit.class, this::allowDeleteOrganisationUnit );
-        whenVetoing( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombo );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
+        whenVetoingAll( Period.class, this::allowDeletePeriods );
+        whenVetoingAll( OrganisationUnit.class, this::allowDeleteOrganisationUnits );
+        whenVetoingAll( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombos );
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        return vetoIfExists( VETO, "select 1 from datavalue where dataelementid=:id limit 1",
-            Map.of( "id", dataElement.getId() ) );
+        return vetoIfAnyExists( VETO, "select 1 from datavalue where dataelementid in (:ids) limit 1", dataElements );
     }
 
-    private DeletionVeto allowDeletePeriod( Period period )
+    private DeletionVeto allowDeletePeriods( Collection<Period> periods )
     {
-        return vetoIfExists( VETO, "select 1 from datavalue where periodid=:id limit 1",
-            Map.of( "id", period.getId() ) );
+        return vetoIfAnyExists( VETO, "select 1 from datavalue where periodid in (:ids) limit 1", periods );
     }
 
-    private DeletionVeto allowDeleteOrganisationUnit( OrganisationUnit unit )
+    private DeletionVeto allowDeleteOrganisationUnits( Collection<OrganisationUnit> units )
     {
-        return vetoIfExists( VETO, "select 1 from datavalue where sourceid=:id limit 1",
-            Map.of( "id", unit.getId() ) );
+        return vetoIfAnyExists( VETO, "select 1 from datavalue where sourceid in (:ids) limit 1", units );
     }
 
-    private DeletionVeto allowDeleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
+    private DeletionVeto allowDeleteCategoryOptionCombos( Collection<CategoryOptionCombo> optionCombos )
     {
-        return vetoIfExists( VETO,
-            "select 1 from datavalue where categoryoptioncomboid=:id or attributeoptioncomboid=:id limit 1",
-            Map.of( "id", optionCombo.getId() ) );
+        return vetoIfAnyExists( VETO,
+            "select 1 from datavalue where categoryoptioncomboid in (:ids) or attributeoptioncomboid in (:ids) limit 1",
+            optionCombos );
     }
 }
@@ -74,6 +74,7 @@ import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.STDDEV_SAMP
 import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.SUM;
 import static org.springframework.util.ObjectUtils.isEmpty;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -383,51 +384,52 @@ public class DefaultExpressionService
         Map<DimensionalItemId, DimensionalItemObject> itemMap, Map<DimensionalItemObject, Object> valueMap,
         Map<String, Integer> orgUnitCountMap )
     {
-        if ( indicator == null || indicator.getNumerator() == null || indicator.getDenominator() == null )
+        if ( !isIndicatorExpressionPresent( indicator ) )
         {
             return null;
         }
 
-        Integer days = periods != null ? getDaysFromPeriods( periods ) : null;
-
-        ExpressionParams params = ExpressionParams.builder()
-            .parseType( INDICATOR_EXPRESSION )
-            .itemMap( itemMap )
+        ExpressionParams params = getIndicatorExpressionParams( itemMap ).toBuilder()
             .valueMap( valueMap )
             .orgUnitCountMap( orgUnitCountMap )
-            .days( days )
-            .missingValueStrategy( SKIP_IF_ALL_VALUES_MISSING )
+            .days( periods != null ? getDaysFromPeriods( periods ) : null )
             .build();
 
-        Double denominatorValue = castDouble( getExpressionValue( params.toBuilder()
-            .expression( indicator.getDenominator() ).build() ) );
+        return getIndicatorValueObject( indicator, periods, params, newVisitor( ITEM_EVALUATE, params ) );
+    }
 
-        Double numeratorValue = castDouble( getExpressionValue( params.toBuilder()
-            .expression( indicator.getNumerator() ).build() ) );
+    @Override
+    public List<IndicatorValue> getIndicatorValueObjects( Indicator indicator, List<List<Period>> periods,
+        Map<DimensionalItemId, DimensionalItemObject> itemMap, List<Map<DimensionalItemObject, Object>> valueMaps,
+        List<Map<String, Integer>> orgUnitCountMaps )
+    {
+        int size = valueMaps.size();
 
-        if ( denominatorValue != null && denominatorValue != 0d && numeratorValue != null )
+        if ( !isIndicatorExpressionPresent( indicator ) )
         {
-            int multiplier = indicator.getIndicatorType().getFactor();
+            return new ArrayList<>( Collections.nCopies( size, null ) );
+        }
 
-            int divisor = 1;
+        ExpressionParams baseParams = getIndicatorExpressionParams( itemMap );
 
-            if ( indicator.isAnnualized() && periods != null )
-            {
-                final int daysInPeriod = getDaysFromPeriods( periods );
+        CommonExpressionVisitor visitor = newVisitor( ITEM_EVALUATE, baseParams );
 
-                multiplier *= DateUtils.DAYS_IN_YEAR;
+        List<IndicatorValue> values = new ArrayList<>( size );
 
-                divisor = daysInPeriod;
-            }
+        for ( int i = 0; i < size; i++ )
+        {
+            List<Period> permutationPeriods = periods.get( i );
 
-            return new IndicatorValue()
-                .setNumeratorValue( numeratorValue )
-                .setDenominatorValue( denominatorValue )
-                .setMultiplier( multiplier )
-                .setDivisor( divisor );
+            ExpressionParams params = baseParams.toBuilder()
+                .valueMap( valueMaps.get( i ) )
+                .orgUnitCountMap( orgUnitCountMaps.get( i ) )
+                .days( permutationPeriods != null ? getDaysFromPeriods( permutationPeriods ) : null )
+                .build();
+
+            values.add( getIndicatorValueObject( indicator, permutationPeriods, params, visitor ) );
         }
 
-        return null;
+        return values;
     }
 
     @Override
@@ -614,7 +616,23 @@ public class DefaultExpressionService
             return null;
         }
 
-        CommonExpressionVisitor visitor = newVisitor( ITEM_EVALUATE, params );
+        return getExpressionValue( params, newVisitor( ITEM_EVALUATE, params ) );
+    }
+
+    /**
+     * Computes the value of the expression with the given visitor. The visitor
+     * is given the parameters and a fresh state, so that one visitor can be
+     * reused for evaluating many expressions.
+     */
+    private Object getExpressionValue( ExpressionParams params, CommonExpressionVisitor visitor )
+    {
+        if ( isEmpty( params.getExpression() ) )
+        {
+            return null;
+        }
+
+        visitor.setParams( params );
+        visitor.setState( new ExpressionState() );
 
         Object value = visit( params.getExpression(), params.getDataType(), visitor, true );
 
@@ -728,6 +746,65 @@ public class DefaultExpressionService
         sampleItemIds.addAll( info.getSampleItemIds() );
     }
 
+    /**
+     * Indicates whether the given indicator has both a numerator and a
+     * denominator expression.
+     */
+    private boolean isIndicatorExpressionPresent( Indicator indicator )
+    {
+        return indicator != null && indicator.getNumerator() != null && indicator.getDenominator() != null;
+    }
+
+    /**
+     * Returns the parameters shared by all indicator value evaluations.
+     */
+    private ExpressionParams getIndicatorExpressionParams( Map<DimensionalItemId, DimensionalItemObject> itemMap )
+    {
+        return ExpressionParams.builder()
+            .parseType( INDICATOR_EXPRESSION )
+            .itemMap( itemMap )
+            .missingValueStrategy( SKIP_IF_ALL_VALUES_MISSING )
+            .build();
+    }
+
+    /**
+     * Calculates the value of the given indicator, evaluating the numerator and
+     * denominator with the given visitor.
+     */
+    private IndicatorValue getIndicatorValueObject( Indicator indicator, List<Period> periods,
+        ExpressionParams params, CommonExpressionVisitor visitor )
+    {
+        Double denominatorValue = castDouble( getExpressionValue( params.toBuilder()
+            .expression( indicator.getDenominator() ).build(), visitor ) );
+
+        Double numeratorValue = castDouble( getExpressionValue( params.toBuilder()
+            .expression( indicator.getNumerator() ).build(), visitor ) );
+
+        if ( denominatorValue != null && denominatorValue != 0d && numeratorValue != null )
+        {
+            int multiplier = indicator.getIndicatorType().getFactor();
+
+            int divisor = 1;
+
+            if ( indicator.isAnnualized() && periods != null )
+            {
+                final int daysInPeriod = getDaysFromPeriods( periods );
+
+                multiplier *= DateUtils.DAYS_IN_YEAR;
+
+                divisor = daysInPeriod;
+            }
+
+            return new IndicatorValue()
+                .setNumeratorValue( numeratorValue )
+                .setDenominatorValue( denominatorValue )
+                .setMultiplier( multiplier )
+                .setDivisor( divisor );
+        }
+
+        return null;
+    }
+
     private <T extends IdentifiableObject> Map<String, T> getUidMap( Class<T> type, Collection<String> uids )
     {
         List<T> objects = idObjectManager.getNoAcl( type, uids );
@@ -35,7 +35,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -46,7 +45,6 @@ import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.fileresource.events.BinaryFileSavedEvent;
 import org.hisp.dhis.fileresource.events.FileDeletedEvent;
 import org.hisp.dhis.fileresource.events.FileSavedEvent;
-import org.hisp.dhis.fileresource.events.ImageFileSavedEvent;
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
 import org.joda.time.Hours;
@@ -135,16 +133,19 @@ public class DefaultFileResourceService
         fileResourceStore.save( fileResource );
         sessionFactory.getCurrentSession().flush();
 
-        if ( FileResource.IMAGE_CONTENT_TYPES.contains( fileResource.getContentType() )
+        fileEventPublisher.publishEvent( new FileSavedEvent( fileResource.getUid(), file ) );
+    }
+
+    @Override
+    public void requestImageFiles( FileResource fileResource, ImageFileDimension dimension )
+    {
+        if ( dimension != ImageFileDimension.ORIGINAL && !fileResource.isHasMultipleStorageFiles()
+            && fileResource.getStorageStatus() == FileResourceStorageStatus.STORED
+            && FileResource.IMAGE_CONTENT_TYPES.contains( fileResource.getContentType() )
             && FileResourceDomain.getDomainForMultipleImages().contains( fileResource.getDomain() ) )
         {
-            Map<ImageFileDimension, File> imageFiles = imageProcessingService.createImages( fileResource, file );
-
-            fileEventPublisher.publishEvent( new ImageFileSavedEvent( fileResource.getUid(), imageFiles ) );
-            return;
+            imageProcessingService.scheduleImages( fileResource );
         }
-
-        fileEventPublisher.publishEvent( new FileSavedEvent( fileResource.getUid(), file ) );
     }
 
     @Override
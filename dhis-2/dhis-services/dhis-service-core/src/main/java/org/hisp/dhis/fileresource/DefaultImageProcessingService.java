@@ -27,21 +27,43 @@
  */
 package org.hisp.dhis.fileresource;
 
+import static java.lang.String.format;
+
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.URLConnection;
+import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PreDestroy;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.imgscalr.Scalr;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * @Author Zubair Asghar.
@@ -55,6 +77,46 @@ public class DefaultImageProcessingService implements ImageProcessingService
         ImageFileDimension.MEDIUM, new ImageSize( 512, 512 ),
         ImageFileDimension.LARGE, new ImageSize( 1024, 1024 ) );
 
+    private static final int MAX_WORKERS = 2;
+
+    private static final int MAX_QUEUED_IMAGES = 100;
+
+    private final FileResourceContentStore fileResourceContentStore;
+
+    private final FileResourceService fileResourceService;
+
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * UIDs of the file resources queued or in processing.
+     */
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    private final Timer processingTimer;
+
+    private final Counter rejectedCounter;
+
+    public DefaultImageProcessingService( FileResourceContentStore fileResourceContentStore,
+        @Lazy FileResourceService fileResourceService, MeterRegistry meterRegistry )
+    {
+        this.fileResourceContentStore = fileResourceContentStore;
+        this.fileResourceService = fileResourceService;
+        int poolSize = Math.max( 1, Math.min( MAX_WORKERS, Runtime.getRuntime().availableProcessors() / 2 ) );
+        this.workers = new ThreadPoolExecutor( poolSize, poolSize, 1, TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>( MAX_QUEUED_IMAGES ),
+            new ThreadFactoryBuilder().setNameFormat( "IMAGE-PROCESSING-%d" ).setDaemon( true ).build() );
+        this.workers.allowCoreThreadTimeOut( true );
+        this.processingTimer = Timer.builder( "file_resource.images.processing" )
+            .description( "Time spent creating and storing the image files of a file resource" )
+            .register( meterRegistry );
+        this.rejectedCounter = Counter.builder( "file_resource.images.rejected" )
+            .description( "Number of file resources not processed as the queue was full" )
+            .register( meterRegistry );
+        Gauge.builder( "file_resource.images.queued", workers, pool -> pool.getQueue().size() )
+            .description( "Number of file resources waiting to have their image files created" )
+            .register( meterRegistry );
+    }
+
     @Override
     public Map<ImageFileDimension, File> createImages( FileResource fileResource, File file )
     {
@@ -67,7 +129,13 @@ public class DefaultImageProcessingService implements ImageProcessingService
 
         try
         {
-            BufferedImage image = ImageIO.read( file );
+            BufferedImage image = read( file, IMAGE_FILE_SIZES.get( ImageFileDimension.LARGE ) );
+
+            if ( image == null )
+            {
+                log.error( "Image file resource cannot be decoded" );
+                return new HashMap<>();
+            }
 
             for ( ImageFileDimension dimension : ImageFileDimension.values() )
             {
@@ -98,6 +166,132 @@ public class DefaultImageProcessingService implements ImageProcessingService
         return images;
     }
 
+    @Override
+    public void scheduleImages( FileResource fileResource )
+    {
+        String uid = fileResource.getUid();
+
+        if ( !scheduled.add( uid ) )
+        {
+            return;
+        }
+
+        try
+        {
+            workers.execute( () -> {
+                try
+                {
+                    FileResource image = fileResourceService.getFileResource( uid );
+
+                    if ( image != null && !image.isHasMultipleStorageFiles() )
+                    {
+                        storeImages( image );
+                    }
+                }
+                catch ( RuntimeException ex )
+                {
+                    log.warn( format( "Image files of file resource %s could not be created", uid ), ex );
+                }
+                finally
+                {
+                    scheduled.remove( uid );
+                }
+            } );
+        }
+        catch ( RejectedExecutionException ex )
+        {
+            // image files are created on a later request or by the job
+            scheduled.remove( uid );
+            rejectedCounter.increment();
+        }
+    }
+
+    @Override
+    public void storeImages( FileResource fileResource )
+    {
+        processingTimer.record( () -> storeImageFiles( fileResource ) );
+    }
+
+    private void storeImageFiles( FileResource image )
+    {
+        String key = image.getStorageKey();
+
+        if ( !fileResourceContentStore.fileResourceContentExists( key ) )
+        {
+            throw new IllegalStateException(
+                "The referenced file could not be found for FileResource: " + image.getUid() );
+        }
+
+        File tmpFile = new File( UUID.randomUUID().toString() );
+
+        try ( FileOutputStream fileOutputStream = new FileOutputStream( tmpFile ) )
+        {
+            fileResourceContentStore.copyContent( key, fileOutputStream );
+
+            String storageKey = fileResourceContentStore.saveFileResourceContent( image,
+                createImages( image, tmpFile ) );
+
+            if ( storageKey == null )
+            {
+                throw new IllegalStateException( "File upload failed" );
+            }
+
+            image.setHasMultipleStorageFiles( true );
+            fileResourceService.updateFileResource( image );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            try
+            {
+                Files.deleteIfExists( tmpFile.toPath() );
+            }
+            catch ( IOException ioe )
+            {
+                log.warn( format( "Temporary file '%s' could not be deleted.", tmpFile.toPath() ), ioe );
+            }
+        }
+    }
+
+    /**
+     * Decodes the image skipping rows and columns of large images so that the
+     * decoded image is still at least as wide as the given size.
+     */
+    private BufferedImage read( File file, ImageSize minSize )
+        throws IOException
+    {
+        try ( ImageInputStream input = ImageIO.createImageInputStream( file ) )
+        {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders( input );
+
+            if ( readers == null || !readers.hasNext() )
+            {
+                return ImageIO.read( file );
+            }
+
+            ImageReader reader = readers.next();
+
+            try
+            {
+                reader.setInput( input, true, true );
+
+                int subsampling = Math.max( 1, reader.getWidth( 0 ) / minSize.width );
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling( subsampling, subsampling, 0, 0 );
+
+                return reader.read( 0, param );
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+    }
+
     private BufferedImage resize( BufferedImage image, ImageSize dimensions )
     {
         return Scalr.resize( image, Scalr.Method.BALANCED, Scalr.Mode.FIT_TO_WIDTH, dimensions.width,
@@ -132,6 +326,12 @@ public class DefaultImageProcessingService implements ImageProcessingService
         }
     }
 
+    @PreDestroy
+    public void preDestroy()
+    {
+        workers.shutdownNow();
+    }
+
     private static class ImageSize
     {
         int width;
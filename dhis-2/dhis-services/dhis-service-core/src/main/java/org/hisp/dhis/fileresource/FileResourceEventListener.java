@@ -28,7 +28,6 @@
 package org.hisp.dhis.fileresource;
 
 import java.io.File;
-import java.util.Map;
 import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +36,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.fileresource.events.BinaryFileSavedEvent;
 import org.hisp.dhis.fileresource.events.FileDeletedEvent;
 import org.hisp.dhis.fileresource.events.FileSavedEvent;
-import org.hisp.dhis.fileresource.events.ImageFileSavedEvent;
 import org.joda.time.DateTime;
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormat;
@@ -56,10 +54,14 @@ public class FileResourceEventListener
 
     private final FileResourceContentStore fileResourceContentStore;
 
-    public FileResourceEventListener( FileResourceService fileResourceService, FileResourceContentStore contentStore )
+    private final ImageProcessingService imageProcessingService;
+
+    public FileResourceEventListener( FileResourceService fileResourceService, FileResourceContentStore contentStore,
+        ImageProcessingService imageProcessingService )
     {
         this.fileResourceService = fileResourceService;
         this.fileResourceContentStore = contentStore;
+        this.imageProcessingService = imageProcessingService;
     }
 
     @TransactionalEventListener
@@ -77,30 +79,12 @@ public class FileResourceEventListener
         Period timeDiff = new Period( startTime, DateTime.now() );
 
         logMessage( storageId, fileResource, timeDiff );
-    }
-
-    @TransactionalEventListener
-    @Async
-    public void saveImageFile( ImageFileSavedEvent imageFileSavedEvent )
-    {
-        DateTime startTime = DateTime.now();
-
-        Map<ImageFileDimension, File> imageFiles = imageFileSavedEvent.getImageFiles();
 
-        FileResource fileResource = fileResourceService.getFileResource( imageFileSavedEvent.getFileResource() );
-
-        String storageId = fileResourceContentStore.saveFileResourceContent( fileResource, imageFiles );
-
-        if ( storageId != null )
+        if ( storageId != null && FileResource.IMAGE_CONTENT_TYPES.contains( fileResource.getContentType() )
+            && FileResourceDomain.getDomainForMultipleImages().contains( fileResource.getDomain() ) )
         {
-            fileResource.setHasMultipleStorageFiles( true );
-
-            fileResourceService.updateFileResource( fileResource );
+            imageProcessingService.scheduleImages( fileResource );
         }
-
-        Period timeDiff = new Period( startTime, DateTime.now() );
-
-        logMessage( storageId, fileResource, timeDiff );
     }
 
     @TransactionalEventListener
@@ -30,15 +30,9 @@ package org.hisp.dhis.fileresource;
 import static java.lang.String.format;
 import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM_OUTLIER;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.util.List;
-import java.util.UUID;
 
 import lombok.AllArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.scheduling.Job;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -54,13 +48,10 @@ import org.springframework.stereotype.Component;
  *
  * @author Zubair Asghar.
  */
-@Slf4j
 @Component
 @AllArgsConstructor
 public class ImageResizingJob implements Job
 {
-    private final FileResourceContentStore fileResourceContentStore;
-
     private final FileResourceService fileResourceService;
 
     private final ImageProcessingService imageProcessingService;
@@ -78,54 +69,8 @@ public class ImageResizingJob implements Job
 
         List<FileResource> images = fileResourceService.getAllUnProcessedImagesFiles();
         progress.startingStage( "Creating and storing images", images.size(), SKIP_ITEM_OUTLIER );
-        progress.runStage( images, FileResource::getStorageKey, this::storeImageFiles );
+        progress.runStage( images, FileResource::getStorageKey, imageProcessingService::storeImages );
 
         progress.completedProcess( format( "Number of FileResources processed: %d", images.size() ) );
     }
-
-    private void storeImageFiles( FileResource image )
-    {
-        String key = image.getStorageKey();
-
-        if ( !fileResourceContentStore.fileResourceContentExists( image.getStorageKey() ) )
-        {
-            throw new IllegalStateException(
-                "The referenced file could not be found for FileResource: " + image.getUid() );
-        }
-
-        File tmpFile = new File( UUID.randomUUID().toString() );
-
-        try ( FileOutputStream fileOutputStream = new FileOutputStream( tmpFile ) )
-        {
-            fileResourceContentStore.copyContent( key, fileOutputStream );
-
-            String storageKey = fileResourceContentStore.saveFileResourceContent( image,
-                imageProcessingService.createImages( image, tmpFile ) );
-
-            if ( storageKey != null )
-            {
-                image.setHasMultipleStorageFiles( true );
-                fileResourceService.updateFileResource( image );
-            }
-            else
-            {
-                throw new RuntimeException( "File upload failed" );
-            }
-        }
-        catch ( Exception e )
-        {
-            throw new RuntimeException( e );
-        }
-        finally
-        {
-            try
-            {
-                Files.deleteIfExists( tmpFile.toPath() );
-            }
-            catch ( IOException ioe )
-            {
-                log.warn( format( "Temporary file '%s' could not be deleted.", tmpFile.toPath() ), ioe );
-            }
-        }
-    }
 }
@@ -31,6 +31,7 @@ import static org.apache.commons.collections4.CollectionUtils.containsAny;
 import static org.hisp.dhis.expression.ParseType.INDICATOR_EXPRESSION;
 import static org.hisp.dhis.system.deletion.DeletionVeto.ACCEPT;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -39,6 +40,7 @@ import lombok.AllArgsConstructor;
 
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.expression.ExpressionService;
@@ -65,7 +67,7 @@ public class IndicatorDeletionHandler extends DeletionHandler
         whenDeleting( IndicatorGroup.class, this::deleteIndicatorGroup );
         whenDeleting( DataSet.class, this::deleteDataSet );
         whenDeleting( LegendSet.class, this::deleteLegendSet );
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
         whenVetoing( CategoryCombo.class, this::allowDeleteCategoryCombo );
     }
 
@@ -115,12 +117,14 @@ public class IndicatorDeletionHandler extends DeletionHandler
         }
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
+        Set<String> dataElementIds = Set.copyOf( IdentifiableObjectUtils.getUids( dataElements ) );
+
         for ( Indicator indicator : indicatorService.getAllIndicators() )
         {
-            if ( getElementIds( indicator.getNumerator() ).contains( dataElement.getUid() ) ||
-                getElementIds( indicator.getDenominator() ).contains( dataElement.getUid() ) )
+            if ( containsAny( getElementIds( indicator.getNumerator() ), dataElementIds ) ||
+                containsAny( getElementIds( indicator.getDenominator() ), dataElementIds ) )
             {
                 return new DeletionVeto( Indicator.class, indicator.getName() );
             }
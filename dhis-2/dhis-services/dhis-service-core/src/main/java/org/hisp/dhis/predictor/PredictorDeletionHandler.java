@@ -29,6 +29,7 @@ package org.hisp.dhis.predictor;
 
 import static org.hisp.dhis.system.deletion.DeletionVeto.ACCEPT;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -58,7 +59,7 @@ public class PredictorDeletionHandler extends JdbcDeletionHandler
     {
         whenDeletingEmbedded( Expression.class, this::deleteExpression );
         whenDeleting( PredictorGroup.class, this::deletePredictorGroup );
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
         whenVetoing( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombo );
         whenVetoing( CategoryCombo.class, this::allowDeleteCategoryCombo );
     }
@@ -92,10 +93,10 @@ public class PredictorDeletionHandler extends JdbcDeletionHandler
         }
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        String predictorName = firstMatch( "select p.name from predictor p where p.generatoroutput = :dataElementId",
-            Map.of( "dataElementId", dataElement.getId() ) );
+        String predictorName = firstMatchOfAny( "select p.name from predictor p where p.generatoroutput in (:ids)",
+            dataElements );
         return predictorName == null ? ACCEPT : new DeletionVeto( Predictor.class, predictorName );
     }
 
@@ -36,6 +36,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -68,7 +69,6 @@ import org.hisp.dhis.query.Restrictions;
 import org.hisp.dhis.schema.MergeParams;
 import org.hisp.dhis.schema.MergeService;
 import org.hisp.dhis.schema.Property;
-import org.hisp.dhis.schema.PropertyType;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.system.util.ReflectionUtils;
@@ -158,6 +158,7 @@ public class DefaultPreheatService implements PreheatService
         preheat.put( PreheatIdentifier.CODE, preheat.getUser() );
 
         Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> uniqueCollectionMap = new HashMap<>();
+        Map<Class<? extends IdentifiableObject>, Long> classDurations = new HashMap<>();
         Set<Class<? extends IdentifiableObject>> klasses = new HashSet<>( params.getObjects().keySet() );
 
         Map<PreheatIdentifier, Map<Class<? extends IdentifiableObject>, Set<String>>> references = collectReferences(
@@ -172,6 +173,7 @@ public class DefaultPreheatService implements PreheatService
         {
             for ( Class<? extends IdentifiableObject> klass : uidMap.keySet() )
             {
+                Timer classTimer = new SystemTimer().start();
                 List<List<String>> identifiers = Lists.partition( Lists.newArrayList( uidMap.get( klass ) ),
                     20000 );
 
@@ -186,6 +188,8 @@ public class DefaultPreheatService implements PreheatService
                         preheat.put( PreheatIdentifier.UID, objects );
                     }
                 }
+
+                classDurations.merge( klass, classTimer.duration(), Long::sum );
             }
         }
 
@@ -193,6 +197,7 @@ public class DefaultPreheatService implements PreheatService
         {
             for ( Class<? extends IdentifiableObject> klass : codeMap.keySet() )
             {
+                Timer classTimer = new SystemTimer().start();
                 List<List<String>> identifiers = Lists.partition( Lists.newArrayList( codeMap.get( klass ) ),
                     20000 );
 
@@ -207,6 +212,8 @@ public class DefaultPreheatService implements PreheatService
                         preheat.put( PreheatIdentifier.CODE, objects );
                     }
                 }
+
+                classDurations.merge( klass, classTimer.duration(), Long::sum );
             }
 
             if ( uidMap.containsKey( User.class ) && !uidMap.get( User.class ).isEmpty() )
@@ -243,12 +250,14 @@ public class DefaultPreheatService implements PreheatService
 
         for ( Class<? extends IdentifiableObject> klass : klasses )
         {
+            Timer classTimer = new SystemTimer().start();
             List<? extends IdentifiableObject> objects = schemaToDataFetcher
                 .fetch( schemaService.getDynamicSchema( klass ) );
             if ( !objects.isEmpty() )
             {
                 uniqueCollectionMap.put( klass, new ArrayList<>( objects ) );
             }
+            classDurations.merge( klass, classTimer.duration(), Long::sum );
         }
 
         // assign an uid to objects without an UID, if they don't have UID but
@@ -290,6 +299,13 @@ public class DefaultPreheatService implements PreheatService
         log.info( "(" + preheat.getUsername() + ") Import:Preheat[" + params.getPreheatMode() + "] took "
             + timer.toString() );
 
+        if ( log.isDebugEnabled() )
+        {
+            classDurations.forEach( ( klass, duration ) -> log.debug( String.format(
+                "(%s) Import:Preheat[%s] %s took %f sec.", preheat.getUsername(), params.getPreheatMode(),
+                klass.getSimpleName(), duration / (double) TimeUnit.SECONDS.toNanos( 1 ) ) ) );
+        }
+
         return preheat;
     }
 
@@ -497,11 +513,7 @@ public class DefaultPreheatService implements PreheatService
         {
             Schema schema = schemaService.getDynamicSchema( klass );
 
-            List<Property> referenceProperties = schema.getProperties().stream()
-                .filter( p -> p.isPersisted() && p.isOwner()
-                    && (PropertyType.REFERENCE == p.getPropertyType()
-                        || PropertyType.REFERENCE == p.getItemPropertyType()) )
-                .collect( Collectors.toList() );
+            List<PreheatReferencePlan.Accessor> references = PreheatReferencePlan.of( schema ).getReferences();
 
             for ( Object object : targets.get( klass ) )
             {
@@ -522,7 +534,9 @@ public class DefaultPreheatService implements PreheatService
                     addIdentifiers( map, identifiableObject );
                 }
 
-                referenceProperties.forEach( p -> {
+                references.forEach( accessor -> {
+                    Property p = accessor.getProperty();
+
                     if ( !p.isCollection() )
                     {
                         Class<? extends IdentifiableObject> itemKlass = (Class<? extends IdentifiableObject>) p
@@ -533,7 +547,7 @@ public class DefaultPreheatService implements PreheatService
                         if ( !codeMap.containsKey( itemKlass ) )
                             codeMap.put( itemKlass, new HashSet<>() );
 
-                        Object reference = ReflectionUtils.invokeMethod( object, p.getGetterMethod() );
+                        Object reference = accessor.get( object );
 
                         if ( reference != null )
                         {
@@ -543,8 +557,7 @@ public class DefaultPreheatService implements PreheatService
                     }
                     else
                     {
-                        Collection<IdentifiableObject> reference = ReflectionUtils.invokeMethod( object,
-                            p.getGetterMethod() );
+                        Collection<IdentifiableObject> reference = accessor.get( object );
 
                         if ( reference != null )
                         {
@@ -703,11 +716,7 @@ public class DefaultPreheatService implements PreheatService
                 continue;
             }
 
-            List<Property> properties = schema.getProperties().stream()
-                .filter( p -> p.isPersisted() && p.isOwner()
-                    && (PropertyType.REFERENCE == p.getPropertyType()
-                        || PropertyType.REFERENCE == p.getItemPropertyType()) )
-                .collect( Collectors.toList() );
+            List<PreheatReferencePlan.Accessor> references = PreheatReferencePlan.of( schema ).getReferences();
 
             List<IdentifiableObject> identifiableObjects = (List<IdentifiableObject>) targets.get( objectClass );
             Map<String, Map<String, Object>> refMap = new HashMap<>();
@@ -717,10 +726,12 @@ public class DefaultPreheatService implements PreheatService
             {
                 refMap.put( object.getUid(), new HashMap<>() );
 
-                properties.forEach( p -> {
+                references.forEach( accessor -> {
+                    Property p = accessor.getProperty();
+
                     if ( !p.isCollection() )
                     {
-                        IdentifiableObject reference = ReflectionUtils.invokeMethod( object, p.getGetterMethod() );
+                        IdentifiableObject reference = accessor.get( object );
 
                         if ( reference != null )
                         {
@@ -739,12 +750,11 @@ public class DefaultPreheatService implements PreheatService
                     {
                         Collection<IdentifiableObject> refObjects = ReflectionUtils
                             .newCollectionInstance( p.getKlass() );
-                        Collection<IdentifiableObject> references = ReflectionUtils.invokeMethod( object,
-                            p.getGetterMethod() );
+                        Collection<IdentifiableObject> refs = accessor.get( object );
 
-                        if ( references != null )
+                        if ( refs != null )
                         {
-                            for ( IdentifiableObject reference : references )
+                            for ( IdentifiableObject reference : refs )
                             {
                                 if ( reference == null )
                                 {
@@ -782,15 +792,18 @@ public class DefaultPreheatService implements PreheatService
             List<?> objects = entry.getValue();
 
             Schema schema = schemaService.getDynamicSchema( klass );
-            Map<String, Property> properties = schema.getEmbeddedObjectProperties();
+            List<PreheatReferencePlan.Accessor> embeddedObjects = PreheatReferencePlan.of( schema )
+                .getEmbeddedObjects();
 
-            if ( properties.isEmpty() )
+            if ( embeddedObjects.isEmpty() )
             {
                 return;
             }
 
-            for ( Property property : properties.values() )
+            for ( PreheatReferencePlan.Accessor accessor : embeddedObjects )
             {
+                Property property = accessor.getProperty();
+
                 if ( property.isCollection() )
                 {
                     List<Object> list = new ArrayList<>();
@@ -800,8 +813,7 @@ public class DefaultPreheatService implements PreheatService
                         list.addAll( targets.get( property.getItemKlass() ) );
                     }
 
-                    objects
-                        .forEach( o -> list.addAll( ReflectionUtils.invokeMethod( o, property.getGetterMethod() ) ) );
+                    objects.forEach( o -> list.addAll( accessor.get( o ) ) );
                     targets.put( property.getItemKlass(), list );
                 }
                 else
@@ -813,7 +825,7 @@ public class DefaultPreheatService implements PreheatService
                         list.addAll( targets.get( property.getKlass() ) );
                     }
 
-                    objects.forEach( o -> list.add( ReflectionUtils.invokeMethod( o, property.getGetterMethod() ) ) );
+                    objects.forEach( o -> list.add( accessor.get( o ) ) );
                     targets.put( property.getKlass(), list );
                 }
             }
@@ -852,14 +864,10 @@ public class DefaultPreheatService implements PreheatService
 
         Schema schema = schemaService.getDynamicSchema( HibernateProxyUtils.getRealClass( object ) );
 
-        List<Property> properties = schema.getProperties().stream()
-            .filter( p -> p.isPersisted() && p.isOwner()
-                && (PropertyType.REFERENCE == p.getPropertyType()
-                    || PropertyType.REFERENCE == p.getItemPropertyType()) )
-            .collect( Collectors.toList() );
-
-        for ( Property property : properties )
+        for ( PreheatReferencePlan.Accessor accessor : PreheatReferencePlan.of( schema ).getReferences() )
         {
+            Property property = accessor.getProperty();
+
             if ( skipConnect( property.getKlass() ) || skipConnect( property.getItemKlass() ) )
             {
                 continue;
@@ -867,25 +875,24 @@ public class DefaultPreheatService implements PreheatService
 
             if ( !property.isCollection() )
             {
-                IdentifiableObject refObject = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+                IdentifiableObject refObject = accessor.get( object );
                 IdentifiableObject ref = getPersistedObject( preheat, identifier, refObject );
 
                 ref = connectDefaults( preheat, property, object, refObject, ref );
 
                 if ( ref != null && ref.getId() == 0 )
                 {
-                    ReflectionUtils.invokeMethod( object, property.getSetterMethod(), (Object) null );
+                    accessor.set( object, null );
                 }
                 else
                 {
-                    ReflectionUtils.invokeMethod( object, property.getSetterMethod(), ref );
+                    accessor.set( object, ref );
                 }
             }
             else
             {
                 Collection<IdentifiableObject> objects = ReflectionUtils.newCollectionInstance( property.getKlass() );
-                Collection<IdentifiableObject> refObjects = ReflectionUtils.invokeMethod( object,
-                    property.getGetterMethod() );
+                Collection<IdentifiableObject> refObjects = accessor.get( object );
 
                 for ( IdentifiableObject refObject : refObjects )
                 {
@@ -894,7 +901,7 @@ public class DefaultPreheatService implements PreheatService
                         objects.add( ref );
                 }
 
-                ReflectionUtils.invokeMethod( object, property.getSetterMethod(), objects );
+                accessor.set( object, objects );
             }
         }
     }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.preheat;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyType;
+import org.hisp.dhis.schema.Schema;
+
+/**
+ * Reference extraction plan of a class, computed once per class from its
+ * {@link Schema}. It holds the persisted, owned reference properties and the
+ * embedded object properties together with {@link MethodHandle} accessors, so
+ * that preheat neither walks the schema nor reflects on each imported object.
+ */
+@Getter
+final class PreheatReferencePlan
+{
+    private static final Map<Class<?>, PreheatReferencePlan> PLANS = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType( Object.class, Object.class );
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType( void.class, Object.class, Object.class );
+
+    private final List<Accessor> references;
+
+    private final List<Accessor> embeddedObjects;
+
+    private PreheatReferencePlan( Schema schema )
+    {
+        this.references = schema.getProperties().stream()
+            .filter( p -> p.isPersisted() && p.isOwner()
+                && (PropertyType.REFERENCE == p.getPropertyType()
+                    || PropertyType.REFERENCE == p.getItemPropertyType()) )
+            .map( Accessor::new )
+            .collect( Collectors.toUnmodifiableList() );
+        this.embeddedObjects = schema.getEmbeddedObjectProperties().values().stream()
+            .map( Accessor::new )
+            .collect( Collectors.toUnmodifiableList() );
+    }
+
+    /**
+     * Returns the plan for the class of the given schema, computing it on
+     * first use.
+     *
+     * @param schema the schema.
+     * @return the {@link PreheatReferencePlan}.
+     */
+    static PreheatReferencePlan of( Schema schema )
+    {
+        return PLANS.computeIfAbsent( schema.getKlass(), klass -> new PreheatReferencePlan( schema ) );
+    }
+
+    /**
+     * A property with its getter and setter resolved to method handles.
+     * Private and protected accessors are treated as absent, which mirrors
+     * {@link org.hisp.dhis.system.util.ReflectionUtils#invokeMethod}.
+     */
+    @Getter
+    static final class Accessor
+    {
+        private final Property property;
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        Accessor( Property property )
+        {
+            this.property = property;
+            this.getter = toHandle( property.getGetterMethod(), GETTER_TYPE );
+            this.setter = toHandle( property.getSetterMethod(), SETTER_TYPE );
+        }
+
+        @SuppressWarnings( "unchecked" )
+        <T> T get( Object target )
+        {
+            if ( target == null || getter == null )
+            {
+                return null;
+            }
+
+            try
+            {
+                return (T) getter.invokeExact( target );
+            }
+            catch ( RuntimeException | Error e )
+            {
+                throw e;
+            }
+            catch ( Throwable e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
+        void set( Object target, Object value )
+        {
+            if ( target == null || setter == null )
+            {
+                return;
+            }
+
+            try
+            {
+                setter.invokeExact( target, value );
+            }
+            catch ( RuntimeException | Error e )
+            {
+                throw e;
+            }
+            catch ( Throwable e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
+        private static MethodHandle toHandle( Method method, MethodType type )
+        {
+            if ( method == null || Modifier.isProtected( method.getModifiers() )
+                || Modifier.isPrivate( method.getModifiers() ) )
+            {
+                return null;
+            }
+
+            try
+            {
+                return MethodHandles.publicLookup().unreflect( method ).asType( type );
+            }
+            catch ( IllegalAccessException e )
+            {
+                method.setAccessible( true );
+
+                try
+                {
+                    return MethodHandles.lookup().unreflect( method ).asType( type );
+                }
+                catch ( IllegalAccessException ex )
+                {
+                    throw new IllegalStateException( "Cannot access " + method, ex );
+                }
+            }
+        }
+    }
+}
@@ -62,13 +62,17 @@ import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.STDDEV;
 import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.SUM;
 import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.VARIANCE;
 import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.V_BRACE;
+import static org.hisp.dhis.util.DateUtils.getSqlDateString;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.DataType;
@@ -117,6 +121,7 @@ import org.hisp.dhis.program.function.D2YearsBetween;
 import org.hisp.dhis.program.function.D2Zing;
 import org.hisp.dhis.program.function.D2Zpvc;
 import org.hisp.dhis.program.variable.ProgramVariableItem;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -150,8 +155,32 @@ public class DefaultProgramIndicatorService
 
     private final I18nManager i18nManager;
 
+    private static final String START_DATE_PLACEHOLDER = "${reportingStartDate}";
+
+    private static final String END_DATE_PLACEHOLDER = "${reportingEndDate}";
+
+    private static final String END_DATE_NEXT_DAY_PLACEHOLDER = "${reportingEndDateNextDay}";
+
+    private static final Date TEMPLATE_START_DATE = new DateTime( 2999, 1, 1, 0, 0 ).toDate();
+
+    private static final Date TEMPLATE_END_DATE = new DateTime( 2999, 6, 30, 0, 0 ).toDate();
+
+    private static final Date VERIFICATION_START_DATE = new DateTime( 2998, 2, 3, 0, 0 ).toDate();
+
+    private static final Date VERIFICATION_END_DATE = new DateTime( 2998, 11, 19, 0, 0 ).toDate();
+
+    /**
+     * Cached in place of a SQL template when the SQL cannot be derived from a
+     * template, in which case the SQL is cached per reporting date range.
+     */
+    static final String DATE_DEPENDENT_SQL = "\u0000";
+
     private final Cache<String> analyticsSqlCache;
 
+    private final LongAdder analyticsSqlCacheLookups = new LongAdder();
+
+    private final LongAdder analyticsSqlCacheMisses = new LongAdder();
+
     public DefaultProgramIndicatorService( ProgramIndicatorStore programIndicatorStore,
         @Qualifier( "org.hisp.dhis.program.ProgramIndicatorGroupStore" ) IdentifiableObjectStore<ProgramIndicatorGroup> programIndicatorGroupStore,
         ProgramStageService programStageService, IdentifiableObjectManager idObjectManager,
@@ -366,26 +395,112 @@ public class DefaultProgramIndicatorService
             return null;
         }
 
-        String cacheKey = getAnalyticsSqlCacheKey( expression, dataType, programIndicator, startDate, endDate,
-            tableAlias );
+        String templateKey = getAnalyticsSqlTemplateKey( expression, dataType, programIndicator, tableAlias );
+
+        String template = getCachedAnalyticsSql( templateKey,
+            () -> getAnalyticsSqlTemplate( expression, dataType, programIndicator, tableAlias ) );
 
-        return analyticsSqlCache
-            .get( cacheKey, k -> _getAnalyticsSql( expression, dataType, programIndicator, startDate, endDate,
-                tableAlias ) );
+        if ( !DATE_DEPENDENT_SQL.equals( template ) )
+        {
+            return bindReportingDates( template, startDate, endDate );
+        }
+
+        String dateKey = templateKey + "|" + startDate.getTime() + "|" + endDate.getTime();
+
+        return getCachedAnalyticsSql( dateKey,
+            () -> _getAnalyticsSql( expression, dataType, programIndicator, startDate, endDate, tableAlias ) );
     }
 
-    private String getAnalyticsSqlCacheKey( String expression, DataType dataType, ProgramIndicator programIndicator,
-        Date startDate, Date endDate, String tableAlias )
+    private String getCachedAnalyticsSql( String key, Supplier<String> generator )
     {
-        return expression
+        analyticsSqlCacheLookups.increment();
+
+        return analyticsSqlCache.get( key, k -> {
+            analyticsSqlCacheMisses.increment();
+            return generator.get();
+        } );
+    }
+
+    /**
+     * Returns the cache key of the SQL template, which is made up of the
+     * program indicator identity and version, the hash of its boundaries and
+     * the parameters of the expression, but not the reporting dates.
+     */
+    private String getAnalyticsSqlTemplateKey( String expression, DataType dataType,
+        ProgramIndicator programIndicator, String tableAlias )
+    {
+        Date lastUpdated = programIndicator.getLastUpdated();
+
+        int boundaryHash = 0;
+
+        for ( AnalyticsPeriodBoundary boundary : programIndicator.getAnalyticsPeriodBoundaries() )
+        {
+            boundaryHash += Objects.hash( boundary.getBoundaryTarget(), boundary.getAnalyticsPeriodBoundaryType(),
+                boundary.getOffsetPeriods(),
+                boundary.getOffsetPeriodType() != null ? boundary.getOffsetPeriodType().getName() : null );
+        }
+
+        return programIndicator.getUid()
+            + "|" + (lastUpdated != null ? lastUpdated.getTime() : 0)
+            + "|" + boundaryHash
             + "|" + dataType.name()
-            + "|" + programIndicator.getUid()
-            + "|" + startDate.getTime()
-            + "|" + endDate.getTime()
-            + "|" + (tableAlias == null ? "" : tableAlias);
+            + "|" + (tableAlias == null ? "" : tableAlias)
+            + "|" + expression;
+    }
+
+    /**
+     * Generates the SQL of the expression as a template with placeholders for
+     * the reporting dates. The template is generated for sentinel dates and
+     * verified against the SQL generated for a second pair of sentinel dates.
+     * If the SQL depends on the reporting dates in other ways, for instance
+     * through boundary offset periods, {@link #DATE_DEPENDENT_SQL} is
+     * returned.
+     */
+    String getAnalyticsSqlTemplate( String expression, DataType dataType,
+        ProgramIndicator programIndicator, String tableAlias )
+    {
+        String sql = _getAnalyticsSql( expression, dataType, programIndicator, TEMPLATE_START_DATE,
+            TEMPLATE_END_DATE, tableAlias );
+
+        String template = sql
+            .replace( getSqlDateString( TEMPLATE_START_DATE ), START_DATE_PLACEHOLDER )
+            .replace( getSqlDateString( TEMPLATE_END_DATE ), END_DATE_PLACEHOLDER )
+            .replace( getSqlDateString( getNextDay( TEMPLATE_END_DATE ) ), END_DATE_NEXT_DAY_PLACEHOLDER );
+
+        String verification = _getAnalyticsSql( expression, dataType, programIndicator, VERIFICATION_START_DATE,
+            VERIFICATION_END_DATE, tableAlias );
+
+        return bindReportingDates( template, VERIFICATION_START_DATE, VERIFICATION_END_DATE ).equals( verification )
+            ? template
+            : DATE_DEPENDENT_SQL;
+    }
+
+    String bindReportingDates( String template, Date startDate, Date endDate )
+    {
+        return template
+            .replace( START_DATE_PLACEHOLDER, getSqlDateString( startDate ) )
+            .replace( END_DATE_PLACEHOLDER, getSqlDateString( endDate ) )
+            .replace( END_DATE_NEXT_DAY_PLACEHOLDER, getSqlDateString( getNextDay( endDate ) ) );
+    }
+
+    private static Date getNextDay( Date date )
+    {
+        return new DateTime( date ).plusDays( 1 ).toDate();
+    }
+
+    @Override
+    public long getAnalyticsSqlCacheLookupCount()
+    {
+        return analyticsSqlCacheLookups.sum();
+    }
+
+    @Override
+    public long getAnalyticsSqlCacheMissCount()
+    {
+        return analyticsSqlCacheMisses.sum();
     }
 
-    private String _getAnalyticsSql( String expression, DataType dataType, ProgramIndicator programIndicator,
+    String _getAnalyticsSql( String expression, DataType dataType, ProgramIndicator programIndicator,
         Date startDate, Date endDate, String tableAlias )
     {
         // Get the uids from the expression even if this is the filter
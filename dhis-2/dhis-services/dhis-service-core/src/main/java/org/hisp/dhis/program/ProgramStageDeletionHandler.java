@@ -27,9 +27,9 @@
  */
 package org.hisp.dhis.program;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import lombok.AllArgsConstructor;
 
@@ -55,7 +55,7 @@ public class ProgramStageDeletionHandler extends JdbcDeletionHandler
     {
         whenDeleting( Program.class, this::deleteProgram );
         whenDeleting( DataEntryForm.class, this::deleteDataEntryForm );
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
     }
 
     private void deleteProgram( Program program )
@@ -82,9 +82,9 @@ public class ProgramStageDeletionHandler extends JdbcDeletionHandler
         }
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        String sql = "select 1 from programstagedataelement where dataelementid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", dataElement.getId() ) );
+        String sql = "select 1 from programstagedataelement where dataelementid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, dataElements );
     }
 }
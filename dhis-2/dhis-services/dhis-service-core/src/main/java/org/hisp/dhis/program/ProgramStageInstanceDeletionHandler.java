@@ -27,10 +27,12 @@
  */
 package org.hisp.dhis.program;
 
+import java.util.Collection;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
 
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.system.deletion.DeletionVeto;
 import org.hisp.dhis.system.deletion.JdbcDeletionHandler;
@@ -53,7 +55,7 @@ public class ProgramStageInstanceDeletionHandler extends JdbcDeletionHandler
         whenVetoing( ProgramStage.class, this::allowDeleteProgramStage );
         whenDeleting( ProgramInstance.class, this::deleteProgramInstance );
         whenVetoing( Program.class, this::allowDeleteProgram );
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
     }
 
     private DeletionVeto allowDeleteProgramStage( ProgramStage programStage )
@@ -78,9 +80,10 @@ public class ProgramStageInstanceDeletionHandler extends JdbcDeletionHandler
             Map.of( "id", program.getId() ) );
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        return vetoIfExists( VETO, "select 1 from programstageinstance where eventdatavalues ?? :uid limit 1",
-            Map.of( "uid", dataElement.getUid() ) );
+        return vetoIfAnyExists( VETO,
+            "select 1 from programstageinstance where eventdatavalues ??| cast(array[:uids] as text[]) limit 1",
+            "uids", IdentifiableObjectUtils.getUids( dataElements ) );
     }
 }
@@ -358,6 +358,13 @@ public class HibernateProgramInstanceStore
     @Override
     public List<ProgramInstance> getWithScheduledNotifications( ProgramNotificationTemplate template,
         Date notificationDate )
+    {
+        return getWithScheduledNotifications( template, notificationDate, 0L, Integer.MAX_VALUE );
+    }
+
+    @Override
+    public List<ProgramInstance> getWithScheduledNotifications( ProgramNotificationTemplate template,
+        Date notificationDate, long afterId, int max )
     {
         if ( notificationDate == null
             || !SCHEDULED_PROGRAM_INSTANCE_TRIGGERS.contains( template.getNotificationTrigger() ) )
@@ -379,12 +386,16 @@ public class HibernateProgramInstanceStore
             "where :notificationTemplate in elements(p.notificationTemplates) " +
             "and pi." + dateProperty + " is not null " +
             "and pi.status = :activeEnrollmentStatus " +
-            "and cast(:targetDate as date) = pi." + dateProperty;
+            "and cast(:targetDate as date) = pi." + dateProperty + " " +
+            "and pi.id > :afterId " +
+            "order by pi.id";
 
         return getQuery( hql )
             .setParameter( "notificationTemplate", template )
             .setParameter( "activeEnrollmentStatus", ProgramStatus.ACTIVE )
-            .setParameter( "targetDate", targetDate ).list();
+            .setParameter( "targetDate", targetDate )
+            .setParameter( "afterId", afterId )
+            .setMaxResults( max ).list();
     }
 
     @Override
@@ -34,7 +34,9 @@ import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM_OUTLI
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -43,7 +45,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.annotation.Nullable;
+import javax.annotation.Nonnull;
 
 import lombok.Builder;
 import lombok.Data;
@@ -79,6 +81,7 @@ import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -92,6 +95,12 @@ import com.google.common.collect.Sets;
 public class DefaultProgramNotificationService
     implements ProgramNotificationService
 {
+    /**
+     * Number of enrollments or events processed and sent in one transaction
+     * when sending scheduled notifications
+     */
+    private static final int SCHEDULED_CHUNK_SIZE = 500;
+
     private static final Predicate<NotificationInstanceWithTemplate> IS_SCHEDULED_BY_PROGRAM_RULE = (
         iwt ) -> Objects.nonNull( iwt.getProgramNotificationInstance() ) &&
             PROGRAM_RULE.equals( iwt.getProgramNotificationTemplate().getNotificationTrigger() ) &&
@@ -129,17 +138,27 @@ public class DefaultProgramNotificationService
     @NonNull
     private final NotificationTemplateMapper notificationTemplateMapper;
 
+    @NonNull
+    private final ProgramNotificationCheckpointStore checkpointStore;
+
+    @NonNull
+    private final TransactionOperations transactionTemplate;
+
     // -------------------------------------------------------------------------
     // ProgramStageNotificationService implementation
     // -------------------------------------------------------------------------
 
+    /**
+     * Instances are processed in chunks, each in its own transaction. The
+     * progress of each template is checkpointed with every chunk sent so that
+     * a restarted job does not resend notifications already sent that day.
+     */
     @Override
-    @Transactional
     public void sendScheduledNotificationsForDay( Date notificationDate, JobProgress progress )
     {
         progress.startingStage( "Fetching and filtering scheduled templates " );
         List<ProgramNotificationTemplate> scheduledTemplates = progress.runStage( List.of(),
-            this::getScheduledTemplates );
+            () -> transactionTemplate.execute( status -> getScheduledTemplates() ) );
 
         progress.startingStage( "Processing ProgramStageNotification messages", scheduledTemplates.size(),
             SKIP_ITEM_OUTLIER );
@@ -147,11 +166,14 @@ public class DefaultProgramNotificationService
         progress.runStage( scheduledTemplates.stream(),
             template -> "Processing template " + template.getName(),
             template -> {
-                MessageBatch batch = createScheduledMessageBatchForDay( template, notificationDate );
-                sendAll( batch );
-                totalMessageCount.addAndGet( batch.messageCount() );
+                totalMessageCount.addAndGet( sendScheduledMessagesForDay( template.getId(), notificationDate,
+                    ProgramNotificationCheckpointStore.Target.EVENT ) );
+                totalMessageCount.addAndGet( sendScheduledMessagesForDay( template.getId(), notificationDate,
+                    ProgramNotificationCheckpointStore.Target.ENROLLMENT ) );
             },
             ( success, failed ) -> format( "Created and sent %d messages", totalMessageCount.get() ) );
+
+        checkpointStore.deleteBefore( notificationDate );
     }
 
     @Override
@@ -323,17 +345,54 @@ public class DefaultProgramNotificationService
     // Supportive methods
     // -------------------------------------------------------------------------
 
-    private MessageBatch createScheduledMessageBatchForDay( ProgramNotificationTemplate template, Date day )
+    /**
+     * @return number of messages sent
+     */
+    private int sendScheduledMessagesForDay( long templateId, Date day, ProgramNotificationCheckpointStore.Target target )
     {
-        List<ProgramStageInstance> programStageInstances = programStageInstanceStore
-            .getWithScheduledNotifications( template, day );
-
-        List<ProgramInstance> programInstances = programInstanceStore.getWithScheduledNotifications( template, day );
-
-        MessageBatch psiBatch = createProgramStageInstanceMessageBatch( template, programStageInstances );
-        MessageBatch psBatch = createProgramInstanceMessageBatch( template, programInstances );
+        long lastId = checkpointStore.getLastProcessedId( templateId, day, target );
+        int messageCount = 0;
+        ScheduledChunk chunk;
+        do
+        {
+            long afterId = lastId;
+            chunk = transactionTemplate.execute( status -> sendScheduledChunk( templateId, day, target, afterId ) );
+            messageCount += chunk.messageCount;
+            lastId = chunk.lastId;
+        }
+        while ( chunk.size == SCHEDULED_CHUNK_SIZE );
+        return messageCount;
+    }
 
-        return new MessageBatch( psiBatch, psBatch );
+    private ScheduledChunk sendScheduledChunk( long templateId, Date day,
+        ProgramNotificationCheckpointStore.Target target, long afterId )
+    {
+        ProgramNotificationTemplate template = notificationTemplateService.get( templateId );
+        MessageBatch batch;
+        int size;
+        long lastId;
+        if ( target == ProgramNotificationCheckpointStore.Target.EVENT )
+        {
+            List<ProgramStageInstance> programStageInstances = programStageInstanceStore
+                .getWithScheduledNotifications( template, day, afterId, SCHEDULED_CHUNK_SIZE );
+            size = programStageInstances.size();
+            lastId = size == 0 ? afterId : programStageInstances.get( size - 1 ).getId();
+            batch = createProgramStageInstanceMessageBatch( template, programStageInstances );
+        }
+        else
+        {
+            List<ProgramInstance> programInstances = programInstanceStore
+                .getWithScheduledNotifications( template, day, afterId, SCHEDULED_CHUNK_SIZE );
+            size = programInstances.size();
+            lastId = size == 0 ? afterId : programInstances.get( size - 1 ).getId();
+            batch = createProgramInstanceMessageBatch( template, programInstances );
+        }
+        if ( size > 0 )
+        {
+            sendAll( batch );
+            checkpointStore.saveLastProcessedId( templateId, day, target, lastId );
+        }
+        return new ScheduledChunk( size, lastId, batch.messageCount() );
     }
 
     private List<ProgramNotificationTemplate> getScheduledTemplates()
@@ -396,9 +455,10 @@ public class DefaultProgramNotificationService
         }
         else
         {
+            Map<OrganisationUnit, Set<User>> recipientsByOrgUnit = new HashMap<>();
             batch.dhisMessages.addAll(
                 programStageInstances.stream()
-                    .map( psi -> createDhisMessage( psi, template ) )
+                    .map( psi -> createDhisMessage( psi, template, recipientsByOrgUnit ) )
                     .collect( Collectors.toSet() ) );
         }
 
@@ -419,9 +479,10 @@ public class DefaultProgramNotificationService
         }
         else
         {
+            Map<OrganisationUnit, Set<User>> recipientsByOrgUnit = new HashMap<>();
             batch.dhisMessages.addAll(
                 programInstances.stream()
-                    .map( ps -> createDhisMessage( ps, template ) )
+                    .map( ps -> createDhisMessage( ps, template, recipientsByOrgUnit ) )
                     .collect( Collectors.toSet() ) );
         }
 
@@ -455,21 +516,15 @@ public class DefaultProgramNotificationService
             .build();
     }
 
-    private Set<User> resolveDhisMessageRecipients(
-        ProgramNotificationTemplate template, @Nullable ProgramInstance programInstance,
-        @Nullable ProgramStageInstance programStageInstance )
+    /**
+     * The recipients only depend on the template and the organisation unit, so
+     * they are resolved once per organisation unit and template.
+     */
+    private Set<User> resolveDhisMessageRecipients( ProgramNotificationTemplate template,
+        @Nonnull OrganisationUnit eventOrgUnit )
     {
-        if ( programInstance == null && programStageInstance == null )
-        {
-            throw new IllegalArgumentException(
-                "Either of the arguments [programInstance, programStageInstance] must be non-null" );
-        }
-
         Set<User> recipients = Sets.newHashSet();
 
-        OrganisationUnit eventOrgUnit = programInstance != null ? programInstance.getOrganisationUnit()
-            : programStageInstance.getOrganisationUnit();
-
         Set<OrganisationUnit> orgUnitInHierarchy = Sets.newHashSet();
 
         ProgramNotificationRecipient recipientType = template.getNotificationRecipient();
@@ -604,23 +659,27 @@ public class DefaultProgramNotificationService
             .collect( Collectors.toSet() );
     }
 
-    private DhisMessage createDhisMessage( ProgramStageInstance psi, ProgramNotificationTemplate template )
+    private DhisMessage createDhisMessage( ProgramStageInstance psi, ProgramNotificationTemplate template,
+        Map<OrganisationUnit, Set<User>> recipientsByOrgUnit )
     {
         DhisMessage dhisMessage = new DhisMessage();
 
         dhisMessage.message = programStageNotificationRenderer.render( psi, template );
-        dhisMessage.recipients = resolveDhisMessageRecipients( template, null, psi );
+        dhisMessage.recipients = recipientsByOrgUnit.computeIfAbsent( psi.getOrganisationUnit(),
+            ou -> resolveDhisMessageRecipients( template, ou ) );
 
         return dhisMessage;
     }
 
-    private DhisMessage createDhisMessage( ProgramInstance pi, ProgramNotificationTemplate template )
+    private DhisMessage createDhisMessage( ProgramInstance pi, ProgramNotificationTemplate template,
+        Map<OrganisationUnit, Set<User>> recipientsByOrgUnit )
     {
         DhisMessage dhisMessage = new DhisMessage();
 
         dhisMessage.message = programNotificationRenderer.render( pi, template );
 
-        dhisMessage.recipients = resolveDhisMessageRecipients( template, pi, null );
+        dhisMessage.recipients = recipientsByOrgUnit.computeIfAbsent( pi.getOrganisationUnit(),
+            ou -> resolveDhisMessageRecipients( template, ou ) );
 
         return dhisMessage;
     }
@@ -665,6 +724,16 @@ public class DefaultProgramNotificationService
         Set<User> recipients;
     }
 
+    @RequiredArgsConstructor
+    private static class ScheduledChunk
+    {
+        final int size;
+
+        final long lastId;
+
+        final int messageCount;
+    }
+
     private static class MessageBatch
     {
         Set<DhisMessage> dhisMessages = Sets.newHashSet();
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.program.notification;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@RequiredArgsConstructor
+@Repository( "org.hisp.dhis.program.notification.ProgramNotificationCheckpointStore" )
+public class JdbcProgramNotificationCheckpointStore implements ProgramNotificationCheckpointStore
+{
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long getLastProcessedId( long templateId, Date day, Target target )
+    {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "select lastprocessedid from programnotificationcheckpoint " +
+                "where programnotificationtemplateid = ? and notificationdate = cast(? as date) and target = ?",
+            Long.class, templateId, new Timestamp( day.getTime() ), target.name() );
+
+        return ids.isEmpty() ? 0L : ids.get( 0 );
+    }
+
+    @Override
+    public void saveLastProcessedId( long templateId, Date day, Target target, long lastProcessedId )
+    {
+        jdbcTemplate.update(
+            "insert into programnotificationcheckpoint " +
+                "(programnotificationtemplateid, notificationdate, target, lastprocessedid) " +
+                "values (?, cast(? as date), ?, ?) " +
+                "on conflict (programnotificationtemplateid, notificationdate, target) " +
+                "do update set lastprocessedid = excluded.lastprocessedid",
+            templateId, new Timestamp( day.getTime() ), target.name(), lastProcessedId );
+    }
+
+    @Override
+    public void deleteBefore( Date day )
+    {
+        jdbcTemplate.update( "delete from programnotificationcheckpoint where notificationdate < cast(? as date)",
+            new Timestamp( day.getTime() ) );
+    }
+}
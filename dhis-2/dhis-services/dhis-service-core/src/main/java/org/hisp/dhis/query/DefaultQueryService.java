@@ -28,6 +28,7 @@
 package org.hisp.dhis.query;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,6 +40,8 @@ import org.hisp.dhis.query.planner.QueryPlan;
 import org.hisp.dhis.query.planner.QueryPlanner;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+
 /**
  * Default implementation of QueryService which works with IdObjects.
  *
@@ -93,6 +96,40 @@ public class DefaultQueryService
         return countObjects( cloned );
     }
 
+    @Override
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public void scroll( Query query, int batchSize, Consumer<List<? extends IdentifiableObject>> consumer )
+    {
+        Class<?> klass = query.getSchema().getKlass();
+
+        if ( query.getObjects() == null )
+        {
+            QueryPlan queryPlan = queryPlanner.planQuery( query );
+
+            Query pQuery = queryPlan.getPersistedQuery();
+            Query npQuery = queryPlan.getNonPersistedQuery();
+
+            if ( npQuery.isEmpty() )
+            {
+                ((JpaCriteriaQueryEngine) criteriaQueryEngine).scroll( pQuery, batchSize, batch -> {
+                    clearDefaults( klass, (List<? extends IdentifiableObject>) batch, query.getDefaults() );
+                    consumer.accept( (List<? extends IdentifiableObject>) batch );
+                } );
+
+                return;
+            }
+
+            log.info( "Query for " + klass.getSimpleName() + " has " + npQuery.getCriterions().size()
+                + " non-persisted criterions and " + npQuery.getOrders().size()
+                + " non-persisted orders, reading all objects before batching" );
+        }
+
+        for ( List<? extends IdentifiableObject> batch : Lists.partition( queryObjects( query ), batchSize ) )
+        {
+            consumer.accept( batch );
+        }
+    }
+
     @Override
     public Query getQueryFromUrl( Class<?> klass, List<String> filters, List<Order> orders, Pagination pagination )
         throws QueryParserException
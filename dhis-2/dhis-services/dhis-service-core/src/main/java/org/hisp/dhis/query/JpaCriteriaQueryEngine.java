@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.persistence.TypedQuery;
@@ -41,6 +42,8 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.common.IdentifiableObject;
@@ -102,69 +105,87 @@ public class JpaCriteriaQueryEngine<T extends IdentifiableObject>
             return new ArrayList<>();
         }
 
-        if ( query.getUser() == null )
-        {
-            query.setUser( currentUserService.getCurrentUser() );
-        }
+        query = getPersistedQuery( query );
 
-        if ( !query.isPlannedQuery() )
-        {
-            QueryPlan queryPlan = queryPlanner.planQuery( query, true );
-            query = queryPlan.getPersistedQuery();
-        }
-
-        CriteriaBuilder builder = sessionFactory.getCriteriaBuilder();
+        TypedQuery<T> typedQuery = createTypedQuery( query, klass, store, query.getOrders() );
 
-        CriteriaQuery<T> criteriaQuery = builder.createQuery( klass );
-        Root<T> root = criteriaQuery.from( klass );
+        typedQuery.setFirstResult( query.getFirstResult() );
+        typedQuery.setMaxResults( query.getMaxResults() );
 
-        if ( query.isEmpty() )
+        if ( !query.isEmpty() && query.isCacheable() )
         {
-            Predicate predicate = builder.conjunction();
+            typedQuery.setHint( "org.hibernate.cacheable", true );
+            typedQuery.setHint( "org.hibernate.cacheRegion",
+                queryCacheManager.getQueryCacheRegionName( klass, typedQuery ) );
+        }
 
-            predicate.getExpressions().addAll( store
-                .getSharingPredicates( builder, query.getUser() ).stream().map( t -> t.apply( root ) )
-                .collect( Collectors.toList() ) );
+        return typedQuery.getResultList();
+    }
 
-            criteriaQuery.where( predicate );
+    /**
+     * Reads all objects matching the given query with a single forward only
+     * scrollable query and passes them to the consumer in batches of the given
+     * size. Unlike paging with first result and max results every matching
+     * object is read exactly once, and the consumer is allowed to clear the
+     * session between batches. The query orders are completed with the id as
+     * tiebreaker so that the order of the objects is deterministic.
+     *
+     * @param query Query instance to use, must not contain non-persisted
+     *        criteria or orders
+     * @param batchSize the number of objects per batch
+     * @param consumer the consumer of the batches
+     */
+    public void scroll( Query query, int batchSize, Consumer<List<T>> consumer )
+    {
+        Schema schema = query.getSchema();
 
-            TypedQuery<T> typedQuery = sessionFactory.getCurrentSession().createQuery( criteriaQuery );
+        Class<T> klass = (Class<T>) schema.getKlass();
 
-            typedQuery.setFirstResult( query.getFirstResult() );
-            typedQuery.setMaxResults( query.getMaxResults() );
+        InternalHibernateGenericStore<T> store = (InternalHibernateGenericStore<T>) getStore( klass );
 
-            return typedQuery.getResultList();
+        if ( store == null )
+        {
+            return;
         }
 
-        Predicate predicate = buildPredicates( builder, root, query );
+        query = getPersistedQuery( query );
 
-        predicate.getExpressions().addAll( store
-            .getSharingPredicates( builder, query.getUser() ).stream().map( t -> t.apply( root ) )
-            .collect( Collectors.toList() ) );
+        List<Order> orders = new ArrayList<>( query.getOrders() );
 
-        criteriaQuery.where( predicate );
-
-        if ( !query.getOrders().isEmpty() )
+        if ( orders.stream().noneMatch( o -> "id".equals( o.getProperty().getName() ) )
+            && schema.havePersistedProperty( "id" ) )
         {
-            criteriaQuery.orderBy( query.getOrders().stream()
-                .map( o -> o.isAscending() ? builder.asc( root.get( o.getProperty().getFieldName() ) )
-                    : builder.desc( root.get( o.getProperty().getFieldName() ) ) )
-                .collect( Collectors.toList() ) );
+            orders.add( Order.asc( schema.getPersistedProperty( "id" ) ) );
         }
 
-        TypedQuery<T> typedQuery = sessionFactory.getCurrentSession().createQuery( criteriaQuery );
+        TypedQuery<T> typedQuery = createTypedQuery( query, klass, store, orders );
 
         typedQuery.setFirstResult( query.getFirstResult() );
         typedQuery.setMaxResults( query.getMaxResults() );
 
-        if ( query.isCacheable() )
+        List<T> batch = new ArrayList<>( batchSize );
+
+        try ( ScrollableResults results = typedQuery.unwrap( org.hibernate.query.Query.class )
+            .setFetchSize( batchSize )
+            .setReadOnly( true )
+            .scroll( ScrollMode.FORWARD_ONLY ) )
         {
-            typedQuery.setHint( "org.hibernate.cacheable", true );
-            typedQuery.setHint( "org.hibernate.cacheRegion",
-                queryCacheManager.getQueryCacheRegionName( klass, typedQuery ) );
+            while ( results.next() )
+            {
+                batch.add( (T) results.get( 0 ) );
+
+                if ( batch.size() == batchSize )
+                {
+                    consumer.accept( batch );
+                    batch = new ArrayList<>( batchSize );
+                }
+            }
         }
 
-        return typedQuery.getResultList();
+        if ( !batch.isEmpty() )
+        {
+            consumer.accept( batch );
+        }
     }
 
     @Override
@@ -220,6 +241,49 @@ public class JpaCriteriaQueryEngine<T extends IdentifiableObject>
         return typedQuery.getSingleResult();
     }
 
+    private Query getPersistedQuery( Query query )
+    {
+        if ( query.getUser() == null )
+        {
+            query.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( !query.isPlannedQuery() )
+        {
+            QueryPlan queryPlan = queryPlanner.planQuery( query, true );
+            query = queryPlan.getPersistedQuery();
+        }
+
+        return query;
+    }
+
+    private TypedQuery<T> createTypedQuery( Query query, Class<T> klass, InternalHibernateGenericStore<T> store,
+        List<Order> orders )
+    {
+        CriteriaBuilder builder = sessionFactory.getCriteriaBuilder();
+
+        CriteriaQuery<T> criteriaQuery = builder.createQuery( klass );
+        Root<T> root = criteriaQuery.from( klass );
+
+        Predicate predicate = buildPredicates( builder, root, query );
+
+        predicate.getExpressions().addAll( store
+            .getSharingPredicates( builder, query.getUser() ).stream().map( t -> t.apply( root ) )
+            .collect( Collectors.toList() ) );
+
+        criteriaQuery.where( predicate );
+
+        if ( !orders.isEmpty() )
+        {
+            criteriaQuery.orderBy( orders.stream()
+                .map( o -> o.isAscending() ? builder.asc( root.get( o.getProperty().getFieldName() ) )
+                    : builder.desc( root.get( o.getProperty().getFieldName() ) ) )
+                .collect( Collectors.toList() ) );
+        }
+
+        return sessionFactory.getCurrentSession().createQuery( criteriaQuery );
+    }
+
     private void initStoreMap()
     {
         if ( !stores.isEmpty() )
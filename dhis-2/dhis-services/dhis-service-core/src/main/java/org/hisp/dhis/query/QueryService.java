@@ -28,6 +28,7 @@
 package org.hisp.dhis.query;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.hisp.dhis.common.IdentifiableObject;
 
@@ -64,6 +65,19 @@ public interface QueryService
      */
     long count( Query query );
 
+    /**
+     * Passes all objects matching the given query to the consumer in batches
+     * of the given size. Queries with only persisted criteria and orders are
+     * read with a single scrollable query so that the consumer can clear the
+     * session between batches. Other queries are filtered and ordered in
+     * memory and then partitioned into batches.
+     *
+     * @param query Query instance to use
+     * @param batchSize the number of objects per batch
+     * @param consumer the consumer of the batches
+     */
+    void scroll( Query query, int batchSize, Consumer<List<? extends IdentifiableObject>> consumer );
+
     /**
      * Create a query instance from a given set of filters
      * (property:operator:value), and a list of orders.
@@ -33,17 +33,22 @@ import static org.hisp.dhis.util.Constants.RESERVED_VALUE_GENERATION_TIMEOUT;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.textpattern.TextPattern;
 import org.hisp.dhis.textpattern.TextPatternGenerationException;
 import org.hisp.dhis.textpattern.TextPatternMethod;
@@ -71,6 +76,10 @@ public class DefaultReservedValueService
 
     private final ValueGeneratorService valueGeneratorService;
 
+    private final SystemSettingManager systemSettingManager;
+
+    private final AtomicLong poolExhaustedCount = new AtomicLong();
+
     @Override
     @Transactional
     public List<ReservedValue> reserve( TrackedEntityAttribute trackedEntityAttribute, int numberOfReservations,
@@ -119,12 +128,18 @@ public class DefaultReservedValueService
         }
         else
         {
-            int numberOfValuesLeftToGenerate = numberOfReservations;
-
             boolean isPersistable = generatedSegment.getMethod().isPersistable();
 
             reservedValue.setTrackedEntityAttributeId( trackedEntityAttribute.getId() );
 
+            if ( TextPatternMethod.RANDOM == generatedSegment.getMethod()
+                && systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE ) > 0 )
+            {
+                claimPoolValues( numberOfReservations, resultList, textPattern, reservedValue );
+            }
+
+            int numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
+
             try
             {
                 List<String> generatedValues = new ArrayList<>();
@@ -140,8 +155,8 @@ public class DefaultReservedValueService
                     List<String> resolvedPatterns = getResolvedPatterns( values, textPattern,
                         generatedSegment, generatedValues );
 
-                    saveGeneratedValues( numberOfReservations, resultList, textPattern, reservedValue, isPersistable,
-                        resolvedPatterns );
+                    saveGeneratedValues( numberOfReservations - resultList.size(), resultList, textPattern,
+                        reservedValue, isPersistable, resolvedPatterns );
 
                     numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
 
@@ -173,6 +188,32 @@ public class DefaultReservedValueService
         return resultList;
     }
 
+    /**
+     * Claims values from the pool of the key and reserves those that are still
+     * available. Values used since they were pooled are dropped.
+     */
+    private void claimPoolValues( int numberOfReservations, List<ReservedValue> resultList, TextPattern textPattern,
+        ReservedValue reservedValue )
+    {
+        List<String> claimedValues = reservedValueStore.claimPoolValues( textPattern.getOwnerUid(),
+            reservedValue.getKey(), numberOfReservations );
+
+        if ( claimedValues.size() < numberOfReservations )
+        {
+            poolExhaustedCount.incrementAndGet();
+
+            log.warn( String.format( "Reserved value pool of %s with uid %s and key %s ran dry",
+                textPattern.getOwnerObject().name(), textPattern.getOwnerUid(), reservedValue.getKey() ) );
+        }
+
+        if ( claimedValues.isEmpty() )
+        {
+            return;
+        }
+
+        saveGeneratedValues( numberOfReservations, resultList, textPattern, reservedValue, true, claimedValues );
+    }
+
     private void checkTimeout( long startTime )
         throws TimeoutException
     {
@@ -272,4 +313,125 @@ public class DefaultReservedValueService
     {
         reservedValueStore.removeUsedOrExpiredReservations();
     }
+
+    @Override
+    @Transactional
+    public int replenishPools( TrackedEntityAttribute trackedEntityAttribute, int poolSize )
+    {
+        TextPattern textPattern = trackedEntityAttribute.getTextPattern();
+
+        TextPatternSegment randomSegment = textPattern.getSegments().stream()
+            .filter( segment -> TextPatternMethod.RANDOM == segment.getMethod() )
+            .findFirst()
+            .orElse( null );
+
+        if ( randomSegment == null || !Boolean.TRUE.equals( trackedEntityAttribute.isGenerated() ) )
+        {
+            return 0;
+        }
+
+        Set<String> keys = new HashSet<>( reservedValueStore.getReservedKeys( textPattern.getOwnerUid() ) );
+
+        try
+        {
+            keys.add( textPatternService.resolvePattern( textPattern, Map.of() ) );
+        }
+        catch ( TextPatternGenerationException ex )
+        {
+            // pattern requires values, its keys are only known once reserved
+        }
+
+        int added = 0;
+
+        for ( String key : keys )
+        {
+            added += replenishPool( trackedEntityAttribute, randomSegment, key, poolSize );
+        }
+
+        return added;
+    }
+
+    private int replenishPool( TrackedEntityAttribute trackedEntityAttribute, TextPatternSegment randomSegment,
+        String key, int poolSize )
+    {
+        TextPattern textPattern = trackedEntityAttribute.getTextPattern();
+
+        int depth = reservedValueStore.getPoolSize( textPattern.getOwnerUid(), key );
+
+        if ( depth >= poolSize )
+        {
+            return 0;
+        }
+
+        ReservedValue reservedValue = ReservedValue.builder().created( new Date() )
+            .ownerObject( textPattern.getOwnerObject().name() )
+            .ownerUid( textPattern.getOwnerUid() ).key( key )
+            .value( key.replace( randomSegment.getRawSegment(), "%" ) ).build();
+
+        reservedValue.setTrackedEntityAttributeId( trackedEntityAttribute.getId() );
+
+        long valuesLeft = TextPatternValidationUtils.getTotalValuesPotential( randomSegment )
+            - reservedValueStore.getNumberOfUsedValues( reservedValue ) - depth;
+
+        if ( valuesLeft <= 0 )
+        {
+            poolExhaustedCount.incrementAndGet();
+
+            log.warn( String.format( "No values left to pool for %s with uid %s and key %s",
+                textPattern.getOwnerObject().name(), textPattern.getOwnerUid(), key ) );
+
+            return 0;
+        }
+
+        int missing = (int) Math.min( poolSize - depth, valuesLeft );
+        int added = 0;
+        int attemptsLeft = RESERVED_VALUE_GENERATION_ATTEMPT;
+
+        try
+        {
+            while ( attemptsLeft-- > 0 && added < missing )
+            {
+                List<String> candidates = valueGeneratorService
+                    .generateValues( randomSegment, textPattern, key, missing - added ).stream()
+                    .map( value -> key.replace( randomSegment.getRawSegment(), value ) )
+                    .distinct()
+                    .collect( Collectors.toList() );
+
+                List<String> availableValues = reservedValueStore
+                    .getAvailableValues( reservedValue, candidates, reservedValue.getOwnerObject() ).stream()
+                    .map( ReservedValue::getValue )
+                    .limit( (long) missing - added )
+                    .collect( Collectors.toList() );
+
+                reservedValueStore.addPoolValues( textPattern.getOwnerUid(), key, availableValues );
+
+                added += availableValues.size();
+            }
+        }
+        catch ( ReserveValueException | ExecutionException e )
+        {
+            log.error( String.format( "Replenishing reserved value pool error %s : ", e.getMessage() ) );
+        }
+        catch ( InterruptedException e )
+        {
+            log.error( String.format( "Replenishing reserved value pool error %s : ", e.getMessage() ) );
+
+            Thread.currentThread().interrupt();
+        }
+
+        return added;
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public int getPoolSize()
+    {
+        return reservedValueStore.getPoolSize();
+    }
+
+    @Override
+    public long getPoolExhaustedCount()
+    {
+        return poolExhaustedCount.get();
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.reservedvalue;
+
+import static java.lang.String.format;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hisp.dhis.scheduling.Job;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.JobProgress.FailurePolicy;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tops up the pools of pre-generated values of generated attributes so that
+ * reservations can claim values without generating them on demand.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplenishReservedValuePoolsJob implements Job
+{
+    private final ReservedValueService reservedValueService;
+
+    private final TrackedEntityAttributeService trackedEntityAttributeService;
+
+    private final SystemSettingManager systemSettingManager;
+
+    @Override
+    public JobType getJobType()
+    {
+        return JobType.REPLENISH_RESERVED_VALUE_POOLS;
+    }
+
+    @Override
+    public void execute( JobConfiguration jobConfiguration, JobProgress progress )
+    {
+        progress.startingProcess( "Replenish reserved value pools" );
+
+        int poolSize = systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE );
+
+        if ( poolSize <= 0 )
+        {
+            progress.completedProcess( "Reserved value pools are disabled" );
+            return;
+        }
+
+        List<TrackedEntityAttribute> attributes = trackedEntityAttributeService.getAllTrackedEntityAttributes()
+            .stream()
+            .filter( attribute -> Boolean.TRUE.equals( attribute.isGenerated() )
+                && attribute.getTextPattern() != null )
+            .collect( Collectors.toList() );
+
+        progress.startingStage( "Replenishing pools of generated attributes", attributes.size(),
+            FailurePolicy.SKIP_ITEM );
+        progress.runStage( attributes, TrackedEntityAttribute::getName,
+            attribute -> reservedValueService.replenishPools( attribute, poolSize ) );
+
+        progress.completedProcess( format( "Pools hold %d values", reservedValueService.getPoolSize() ) );
+    }
+}
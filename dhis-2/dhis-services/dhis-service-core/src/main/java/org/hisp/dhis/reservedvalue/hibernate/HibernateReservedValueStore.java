@@ -169,6 +169,8 @@ public class HibernateReservedValueStore
         getQuery( "DELETE FROM ReservedValue WHERE owneruid = :uid" )
             .setParameter( "uid", uid )
             .executeUpdate();
+
+        jdbcTemplate.update( "delete from reservedvaluepool where owneruid = ?", uid );
     }
 
     @Override
@@ -200,4 +202,48 @@ public class HibernateReservedValueStore
 
         log.info( "... Completed deleting expired or used reserved values" );
     }
+
+    @Override
+    public List<String> claimPoolValues( String ownerUid, String key, int numberOfValues )
+    {
+        String sql = "delete from reservedvaluepool where reservedvaluepoolid in (" +
+            "select reservedvaluepoolid from reservedvaluepool where owneruid = ? and key = ? " +
+            "limit ? for update skip locked) returning value";
+
+        return jdbcTemplate.queryForList( sql, String.class, ownerUid, key, numberOfValues );
+    }
+
+    @Override
+    public void addPoolValues( String ownerUid, String key, List<String> values )
+    {
+        String sql = "insert into reservedvaluepool (owneruid, key, value, created) " +
+            "values (?, ?, ?, now()) on conflict do nothing";
+
+        jdbcTemplate.batchUpdate( sql, values.stream()
+            .map( value -> new Object[] { ownerUid, key, value } ).collect( Collectors.toList() ) );
+    }
+
+    @Override
+    public int getPoolSize( String ownerUid, String key )
+    {
+        Integer count = jdbcTemplate.queryForObject(
+            "select count(*) from reservedvaluepool where owneruid = ? and key = ?", Integer.class, ownerUid, key );
+
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public int getPoolSize()
+    {
+        Integer count = jdbcTemplate.queryForObject( "select count(*) from reservedvaluepool", Integer.class );
+
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public List<String> getReservedKeys( String ownerUid )
+    {
+        return jdbcTemplate.queryForList( "select distinct key from reservedvalue where owneruid = ?", String.class,
+            ownerUid );
+    }
 }
@@ -29,19 +29,34 @@ package org.hisp.dhis.sms;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.sms.incoming.IncomingSms;
 import org.hisp.dhis.sms.incoming.IncomingSmsService;
 import org.springframework.stereotype.Component;
 
+/**
+ * Queue of incoming messages backed by the incoming SMS table. Messages are
+ * taken off the queue by claiming them in the database, which allows several
+ * nodes to share the queue.
+ */
+@Slf4j
 @Component( "org.hisp.dhis.sms.MessageQueue" )
 public class DatabaseSupportedInternalMemoryMessageQueue
     implements MessageQueue
 {
-    private List<IncomingSms> queue = new ArrayList<>();
+    /**
+     * Messages still in processing this long after they were claimed are
+     * assumed to be left over from a node which stopped while processing them.
+     */
+    private static final long STALE_CLAIM_MILLIS = 60 * 60 * 1000L;
 
     // -------------------------------------------------------------------------
     // Dependencies
@@ -49,10 +64,21 @@ public class DatabaseSupportedInternalMemoryMessageQueue
 
     private final IncomingSmsService incomingSmsService;
 
-    public DatabaseSupportedInternalMemoryMessageQueue( IncomingSmsService incomingSmsService )
+    /**
+     * Identifies the claims of this node. The configured node ID is stable
+     * across restarts, which allows a restarted node to release its claims
+     * right away.
+     */
+    private final String owner;
+
+    public DatabaseSupportedInternalMemoryMessageQueue( IncomingSmsService incomingSmsService,
+        DhisConfigurationProvider config )
     {
         checkNotNull( incomingSmsService );
+        checkNotNull( config );
         this.incomingSmsService = incomingSmsService;
+        this.owner = StringUtils.defaultIfBlank( config.getProperty( ConfigurationKey.NODE_ID ),
+            UUID.randomUUID().toString() );
     }
 
     // -------------------------------------------------------------------------
@@ -60,36 +86,41 @@ public class DatabaseSupportedInternalMemoryMessageQueue
     // -------------------------------------------------------------------------
 
     @Override
-    public void put( IncomingSms message )
+    public IncomingSms get()
     {
-        queue.add( message );
+        List<IncomingSms> messages = claim( 1 );
+
+        return messages.isEmpty() ? null : messages.get( 0 );
     }
 
     @Override
-    public IncomingSms get()
+    public List<IncomingSms> claim( int maxMessages )
     {
-        if ( queue != null && queue.size() > 0 )
-        {
-            return queue.get( 0 );
-        }
-
-        return null;
+        return incomingSmsService.claimIncomingMessages( maxMessages, owner );
     }
 
     @Override
-    public void remove( IncomingSms message )
+    public void releaseStaleClaims()
     {
-        queue.remove( message );
+        int released = incomingSmsService
+            .releaseClaimedMessages( new Date( System.currentTimeMillis() - STALE_CLAIM_MILLIS ) );
+
+        if ( released > 0 )
+        {
+            log.info( "Released {} incoming SMS left in processing", released );
+        }
     }
 
     @Override
     public void initialize()
     {
-        Collection<IncomingSms> messages = incomingSmsService.getAllUnparsedMessages();
+        int released = incomingSmsService.releaseClaimedMessages( owner );
 
-        if ( messages != null )
+        if ( released > 0 )
         {
-            queue.addAll( messages );
+            log.info( "Released {} incoming SMS left in processing by this node", released );
         }
+
+        releaseStaleClaims();
     }
 }
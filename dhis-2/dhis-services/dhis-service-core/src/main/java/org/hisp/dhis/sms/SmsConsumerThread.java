@@ -28,11 +28,25 @@
 package org.hisp.dhis.sms;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.hisp.dhis.external.conf.ConfigurationKey.SMS_INBOUND_BATCH_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.SMS_INBOUND_WORKERS;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.message.MessageSender;
 import org.hisp.dhis.sms.incoming.IncomingSms;
 import org.hisp.dhis.sms.incoming.IncomingSmsListener;
@@ -42,6 +56,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Processes incoming messages in batches claimed from the {@link MessageQueue}.
+ * The messages of a batch are partitioned by originator. Partitions are
+ * processed in parallel while the messages of each originator are processed in
+ * order.
+ */
 @Slf4j
 @Component( "org.hisp.dhis.sms.SmsConsumerThread" )
 public class SmsConsumerThread
@@ -54,59 +79,131 @@ public class SmsConsumerThread
 
     private final IncomingSmsService incomingSmsService;
 
+    private final MeterRegistry meterRegistry;
+
+    private final Timer processingTimer;
+
+    private final ExecutorService workers;
+
+    private final int batchSize;
+
     public SmsConsumerThread( MessageQueue messageQueue, @Qualifier( "smsMessageSender" ) MessageSender smsSender,
-        IncomingSmsService incomingSmsService )
+        IncomingSmsService incomingSmsService, DhisConfigurationProvider config, MeterRegistry meterRegistry )
     {
         checkNotNull( messageQueue );
         checkNotNull( smsSender );
         checkNotNull( incomingSmsService );
+        checkNotNull( config );
+        checkNotNull( meterRegistry );
 
         this.messageQueue = messageQueue;
         this.smsSender = smsSender;
         this.incomingSmsService = incomingSmsService;
+        this.meterRegistry = meterRegistry;
+        this.processingTimer = Timer.builder( "sms.inbound.processing" )
+            .description( "Time spent processing an incoming SMS" )
+            .register( meterRegistry );
+        this.batchSize = Math.max( 1, Integer.parseInt( config.getProperty( SMS_INBOUND_BATCH_SIZE ) ) );
+        this.workers = Executors.newFixedThreadPool(
+            Math.max( 1, Integer.parseInt( config.getProperty( SMS_INBOUND_WORKERS ) ) ),
+            new ThreadFactoryBuilder().setNameFormat( "SMS-INBOUND-%d" ).setDaemon( true ).build() );
     }
 
     public void spawnSmsConsumer()
     {
-        IncomingSms message = messageQueue.get();
+        List<IncomingSms> messages = messageQueue.claim( batchSize );
 
-        while ( message != null )
+        while ( !messages.isEmpty() )
         {
-            log.info( "Received SMS: " + message.getText() );
+            Map<String, List<IncomingSms>> messagesByOriginator = messages.stream()
+                .collect( groupingBy( IncomingSms::getOriginator, LinkedHashMap::new, toList() ) );
 
-            try
+            List<Future<?>> partitions = new ArrayList<>();
+
+            for ( List<IncomingSms> partition : messagesByOriginator.values() )
             {
-                for ( IncomingSmsListener listener : listeners )
-                {
-                    if ( listener.accept( message ) )
-                    {
-                        listener.receive( message );
-                        messageQueue.remove( message );
-                        return;
-                    }
-                }
+                partitions.add( workers.submit( () -> partition.forEach( this::process ) ) );
+            }
 
-                log.warn( "No SMS command found in received data" );
+            if ( !awaitAll( partitions ) )
+            {
+                return;
+            }
 
-                message.setStatus( SmsMessageStatus.UNHANDLED );
+            messages = messageQueue.claim( batchSize );
+        }
+    }
 
-                smsSender.sendMessage( null, "No command found", message.getOriginator() );
+    /**
+     * @return false if interrupted while waiting, otherwise true
+     */
+    private boolean awaitAll( List<Future<?>> partitions )
+    {
+        for ( Future<?> partition : partitions )
+        {
+            try
+            {
+                partition.get();
             }
-            catch ( Exception e )
+            catch ( InterruptedException e )
             {
-                e.printStackTrace();
+                Thread.currentThread().interrupt();
 
-                message.setStatus( SmsMessageStatus.FAILED );
-                message.setParsed( false );
+                return false;
             }
-            finally
+            catch ( ExecutionException e )
+            {
+                log.error( "Processing of incoming SMS failed", e.getCause() );
+            }
+        }
+
+        return true;
+    }
+
+    private void process( IncomingSms message )
+    {
+        processingTimer.record( () -> receive( message ) );
+
+        meterRegistry.counter( "sms.inbound.messages", "status", String.valueOf( message.getStatus() ) ).increment();
+    }
+
+    private void receive( IncomingSms message )
+    {
+        log.info( "Received SMS: " + message.getText() );
+
+        try
+        {
+            for ( IncomingSmsListener listener : listeners )
             {
-                messageQueue.remove( message );
+                if ( listener.accept( message ) )
+                {
+                    listener.receive( message );
+                    return;
+                }
+            }
+
+            log.warn( "No SMS command found in received data" );
+
+            message.setStatus( SmsMessageStatus.UNHANDLED );
 
-                incomingSmsService.update( message );
+            smsSender.sendMessage( null, "No command found", message.getOriginator() );
+        }
+        catch ( Exception e )
+        {
+            log.error( "Processing of incoming SMS failed", e );
 
-                message = messageQueue.get();
+            message.setStatus( SmsMessageStatus.FAILED );
+            message.setParsed( false );
+        }
+        finally
+        {
+            if ( message.getStatus() == SmsMessageStatus.PROCESSING )
+            {
+                // a listener handled the message without setting an outcome
+                message.setStatus( SmsMessageStatus.PROCESSED );
             }
+
+            incomingSmsService.update( message );
         }
     }
 
@@ -117,4 +214,10 @@ public class SmsConsumerThread
 
         log.info( "Following listeners are registered: " + listeners );
     }
+
+    @PreDestroy
+    public void preDestroy()
+    {
+        workers.shutdownNow();
+    }
 }
@@ -37,6 +37,8 @@ import org.springframework.stereotype.Component;
 @Component( "org.hisp.dhis.sms.SmsPublisher" )
 public class SmsPublisher
 {
+    private static final long RELEASE_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
     private final MessageQueue messageQueue;
 
     private final SmsConsumerThread smsConsumer;
@@ -57,15 +59,21 @@ public class SmsPublisher
 
     private ScheduledFuture<?> future;
 
+    private ScheduledFuture<?> releaseFuture;
+
     public void start()
     {
         messageQueue.initialize();
 
         future = taskScheduler.scheduleWithFixedDelay( smsConsumer::spawnSmsConsumer, 5000 );
+
+        releaseFuture = taskScheduler.scheduleWithFixedDelay( messageQueue::releaseStaleClaims,
+            RELEASE_INTERVAL_MILLIS );
     }
 
     public void stop()
     {
         future.cancel( true );
+        releaseFuture.cancel( true );
     }
 }
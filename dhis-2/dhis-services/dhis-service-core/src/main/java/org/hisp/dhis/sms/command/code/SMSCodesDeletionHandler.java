@@ -27,7 +27,7 @@
  */
 package org.hisp.dhis.sms.command.code;
 
-import java.util.Map;
+import java.util.Collection;
 
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.system.deletion.DeletionVeto;
@@ -43,12 +43,12 @@ public class SMSCodesDeletionHandler extends JdbcDeletionHandler
     @Override
     protected void register()
     {
-        whenVetoing( DataElement.class, this::allowDeleteDataElement );
+        whenVetoingAll( DataElement.class, this::allowDeleteDataElements );
     }
 
-    private DeletionVeto allowDeleteDataElement( DataElement dataElement )
+    private DeletionVeto allowDeleteDataElements( Collection<DataElement> dataElements )
     {
-        String sql = "select 1 from smscodes where dataelementid=:id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", dataElement.getId() ) );
+        String sql = "select 1 from smscodes where dataelementid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, dataElements );
     }
 }
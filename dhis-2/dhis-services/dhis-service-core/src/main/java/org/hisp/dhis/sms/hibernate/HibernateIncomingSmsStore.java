@@ -27,7 +27,9 @@
  */
 package org.hisp.dhis.sms.hibernate;
 
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.criteria.CriteriaBuilder;
 
@@ -42,6 +44,8 @@ import org.hisp.dhis.sms.incoming.SmsMessageStatus;
 import org.hisp.dhis.user.CurrentUserService;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 @Repository( "org.hisp.dhis.sms.hibernate.IncomingSmsStore" )
@@ -139,4 +143,67 @@ public class HibernateIncomingSmsStore extends HibernateIdentifiableObjectStore<
 
         return getList( builder, parameters );
     }
+
+    @Override
+    public List<IncomingSms> claimIncomingMessages( int maxMessages, String owner )
+    {
+        List<String> originators = jdbcTemplate.queryForList( "select originator from incomingsms " +
+            "where status = ? and parsed = false group by originator order by min(id) limit ?",
+            String.class, SmsMessageStatus.INCOMING.ordinal(), maxMessages );
+
+        List<String> lockedOriginators = originators.stream()
+            .filter( originator -> Boolean.TRUE.equals( jdbcTemplate.queryForObject(
+                "select pg_try_advisory_xact_lock(hashtext('incomingsms'), hashtext(?))",
+                Boolean.class, originator ) ) )
+            .collect( Collectors.toList() );
+
+        if ( lockedOriginators.isEmpty() )
+        {
+            return List.of();
+        }
+
+        // Runs after the originators are locked so that claims committed by
+        // other nodes in the meantime are visible
+
+        String sql = "update incomingsms set status = :processing, claimed = now(), claimedby = :owner " +
+            "where id in (select i.id from incomingsms i " +
+            "where i.status = :incoming and i.parsed = false and i.originator in (:originators) " +
+            "and not exists (select 1 from incomingsms p where p.originator = i.originator " +
+            "and p.status = :processing and p.parsed = false) " +
+            "order by i.id limit :maxMessages) returning id";
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue( "processing", SmsMessageStatus.PROCESSING.ordinal() )
+            .addValue( "incoming", SmsMessageStatus.INCOMING.ordinal() )
+            .addValue( "owner", owner )
+            .addValue( "originators", lockedOriginators )
+            .addValue( "maxMessages", maxMessages );
+
+        List<Long> ids = new NamedParameterJdbcTemplate( jdbcTemplate ).queryForList( sql, parameters, Long.class );
+
+        if ( ids.isEmpty() )
+        {
+            return List.of();
+        }
+
+        return getQuery( "from IncomingSms where id in (:ids) order by id" )
+            .setParameter( "ids", ids )
+            .list();
+    }
+
+    @Override
+    public int releaseClaimedMessages( Date claimedBefore )
+    {
+        return jdbcTemplate.update( "update incomingsms set status = ?, claimed = null, claimedby = null " +
+            "where status = ? and parsed = false and claimed < ?",
+            SmsMessageStatus.INCOMING.ordinal(), SmsMessageStatus.PROCESSING.ordinal(), claimedBefore );
+    }
+
+    @Override
+    public int releaseClaimedMessages( String owner )
+    {
+        return jdbcTemplate.update( "update incomingsms set status = ?, claimed = null, claimedby = null " +
+            "where status = ? and parsed = false and claimedby = ?",
+            SmsMessageStatus.INCOMING.ordinal(), SmsMessageStatus.PROCESSING.ordinal(), owner );
+    }
 }
@@ -33,9 +33,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
-import org.hisp.dhis.sms.MessageQueue;
 import org.hisp.dhis.user.User;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,16 +49,11 @@ public class DefaultIncomingSmsService
 
     private final IncomingSmsStore incomingSmsStore;
 
-    private final MessageQueue incomingSmsQueue;
-
-    public DefaultIncomingSmsService( IncomingSmsStore incomingSmsStore, @Lazy MessageQueue incomingSmsQueue )
+    public DefaultIncomingSmsService( IncomingSmsStore incomingSmsStore )
     {
-
-        checkNotNull( incomingSmsQueue );
         checkNotNull( incomingSmsStore );
 
         this.incomingSmsStore = incomingSmsStore;
-        this.incomingSmsQueue = incomingSmsQueue;
     }
 
     // -------------------------------------------------------------------------
@@ -98,7 +91,6 @@ public class DefaultIncomingSmsService
         sms.setGatewayId( StringUtils.defaultIfBlank( sms.getGatewayId(), DEFAULT_GATEWAY ) );
 
         incomingSmsStore.save( sms );
-        incomingSmsQueue.put( sms );
         return sms.getId();
     }
 
@@ -192,4 +184,25 @@ public class DefaultIncomingSmsService
     {
         return incomingSmsStore.getAllUnparsedMessages();
     }
+
+    @Override
+    @Transactional
+    public List<IncomingSms> claimIncomingMessages( int maxMessages, String owner )
+    {
+        return incomingSmsStore.claimIncomingMessages( maxMessages, owner );
+    }
+
+    @Override
+    @Transactional
+    public int releaseClaimedMessages( Date claimedBefore )
+    {
+        return incomingSmsStore.releaseClaimedMessages( claimedBefore );
+    }
+
+    @Override
+    @Transactional
+    public int releaseClaimedMessages( String owner )
+    {
+        return incomingSmsStore.releaseClaimedMessages( owner );
+    }
 }
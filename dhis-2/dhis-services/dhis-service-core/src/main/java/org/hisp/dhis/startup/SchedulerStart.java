@@ -75,6 +75,8 @@ public class SchedulerStart extends AbstractStartupRoutine
 
     private static final String CRON_DAILY_7AM = "0 0 7 ? * *";
 
+    private static final String CRON_HOURLY = "0 0 * ? * *";
+
     private static final String LEADER_JOB_CRON_FORMAT = "0 0/%s * * * *";
 
     enum SystemJob
@@ -96,6 +98,8 @@ public class SchedulerStart extends AbstractStartupRoutine
             "Dataset notification" ),
         REMOVE_EXPIRED_OR_USED_RESERVED_VALUES( CRON_DAILY_2AM, "uwWCT2BMmlq", REMOVE_USED_OR_EXPIRED_RESERVED_VALUES,
             "Remove expired or used reserved values" ),
+        REPLENISH_RESERVED_VALUE_POOLS( CRON_HOURLY, "Rv8PqTz3LmK", JobType.REPLENISH_RESERVED_VALUE_POOLS,
+            "Replenish reserved value pools" ),
         LEADER_ELECTION( LEADER_JOB_CRON_FORMAT, "MoUd5BTQ3lY", JobType.LEADER_ELECTION,
             "Leader election in cluster" );
 
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.trackedentity;
 
+import java.util.Collection;
 import java.util.Map;
 
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -45,14 +46,14 @@ public class TrackedEntityInstanceDeletionHandler extends JdbcDeletionHandler
     @Override
     protected void register()
     {
-        whenVetoing( OrganisationUnit.class, this::allowDeleteOrganisationUnit );
+        whenVetoingAll( OrganisationUnit.class, this::allowDeleteOrganisationUnits );
         whenVetoing( TrackedEntityType.class, this::allowDeleteTrackedEntityType );
     }
 
-    private DeletionVeto allowDeleteOrganisationUnit( OrganisationUnit unit )
+    private DeletionVeto allowDeleteOrganisationUnits( Collection<OrganisationUnit> units )
     {
-        String sql = "select 1 from trackedentityinstance where organisationunitid = :id limit 1";
-        return vetoIfExists( VETO, sql, Map.of( "id", unit.getId() ) );
+        String sql = "select 1 from trackedentityinstance where organisationunitid in (:ids) limit 1";
+        return vetoIfAnyExists( VETO, sql, units );
     }
 
     private DeletionVeto allowDeleteTrackedEntityType( TrackedEntityType trackedEntityType )
@@ -56,6 +56,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.persistence.criteria.CriteriaBuilder;
@@ -84,9 +85,12 @@ import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitStore;
 import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceStore;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeTableManager;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
@@ -141,6 +145,8 @@ public class HibernateTrackedEntityInstanceStore
 
     private static final String UID_VALUE_PAIR_SEPARATOR = ";@//@;";
 
+    private static final Pattern REGEXP_CHARS = Pattern.compile( "[\\^$.|?*+()\\[\\]{}]" );
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -149,18 +155,28 @@ public class HibernateTrackedEntityInstanceStore
 
     private final StatementBuilder statementBuilder;
 
+    private final SystemSettingManager systemSettingManager;
+
+    private final TrackedEntityAttributeTableManager trackedEntityAttributeTableManager;
+
     public HibernateTrackedEntityInstanceStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
         ApplicationEventPublisher publisher, CurrentUserService currentUserService,
-        AclService aclService, OrganisationUnitStore organisationUnitStore, StatementBuilder statementBuilder )
+        AclService aclService, OrganisationUnitStore organisationUnitStore, StatementBuilder statementBuilder,
+        SystemSettingManager systemSettingManager,
+        TrackedEntityAttributeTableManager trackedEntityAttributeTableManager )
     {
         super( sessionFactory, jdbcTemplate, publisher, TrackedEntityInstance.class, currentUserService, aclService,
             false );
 
         checkNotNull( statementBuilder );
         checkNotNull( organisationUnitStore );
+        checkNotNull( systemSettingManager );
+        checkNotNull( trackedEntityAttributeTableManager );
 
         this.statementBuilder = statementBuilder;
         this.organisationUnitStore = organisationUnitStore;
+        this.systemSettingManager = systemSettingManager;
+        this.trackedEntityAttributeTableManager = trackedEntityAttributeTableManager;
     }
 
     // -------------------------------------------------------------------------
@@ -664,6 +680,10 @@ public class HibernateTrackedEntityInstanceStore
      * attribute value for each attribute we have access to. We use Regex to
      * search, allowing both exact match and with wildcards (EQ or LIKE).
      *
+     * When the trigram indexed search document is enabled the instances are
+     * first narrowed down to those whose document contains any of the query
+     * strings, see {@link #joinSearchDocumentWithQueryParameter}.
+     *
      * @param params
      * @param attributes
      */
@@ -706,6 +726,55 @@ public class HibernateTrackedEntityInstanceStore
         }
 
         attributes.append( ")" );
+
+        if ( systemSettingManager.getBoolSetting( SettingKey.TRACKER_SEARCH_DOCUMENT_ENABLED )
+            && trackedEntityAttributeTableManager.hasSearchDocumentIndex() )
+        {
+            joinSearchDocumentWithQueryParameter( params, attributes );
+        }
+    }
+
+    /**
+     * Narrows down the instances to those whose search document contains any
+     * of the query strings. This can use a single index and must be a superset
+     * of the matches of the regular expressions above, which still determine
+     * the exact matches. Query strings are therefore matched literally, and
+     * the narrowing is skipped when any of them contains regular expression
+     * characters, as those can match values which do not contain the string.
+     *
+     * @param params
+     * @param attributes
+     */
+    private void joinSearchDocumentWithQueryParameter( TrackedEntityInstanceQueryParams params,
+        StringBuilder attributes )
+    {
+        List<String> queryTokens = getTokens( params.getQuery().getFilter() );
+
+        if ( queryTokens.stream().anyMatch( token -> REGEXP_CHARS.matcher( token ).find() ) )
+        {
+            return;
+        }
+
+        SqlHelper orHlp = new SqlHelper( true );
+
+        attributes
+            .append( " AND TEI.trackedentityinstanceid IN (" )
+            .append( "SELECT D.trackedentityinstanceid FROM trackedentitysearchdocument D WHERE " );
+
+        for ( String queryToken : queryTokens )
+        {
+            final String query = statementBuilder.encode( queryToken, false )
+                .replace( "%", "\\%" )
+                .replace( "_", "\\_" );
+
+            attributes
+                .append( orHlp.or() )
+                .append( "D.document LIKE '%" )
+                .append( StringUtils.lowerCase( query ) )
+                .append( "%'" );
+        }
+
+        attributes.append( ")" );
     }
 
     /**
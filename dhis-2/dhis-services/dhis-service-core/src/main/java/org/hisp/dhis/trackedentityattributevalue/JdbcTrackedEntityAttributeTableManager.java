@@ -51,6 +51,26 @@ public class JdbcTrackedEntityAttributeTableManager implements TrackedEntityAttr
     private static final String LIST_TRIGRAM_INDEXED_ATTRIBUTE_ID_QUERY = "SELECT cast(substring(indexname from 'in_gin_teavalue_(.*)') as bigint) as teaid FROM  pg_indexes"
         + " WHERE   indexname like 'in_gin_teavalue_%' and tablename = 'trackedentityattributevalue'";
 
+    private static final String SEARCH_DOCUMENT_INDEX_CREATE_QUERY = "CREATE INDEX CONCURRENTLY IF NOT EXISTS in_gin_trackedentitysearchdocument ON "
+        + "trackedentitysearchdocument USING gin (document gin_trgm_ops)";
+
+    private static final String SEARCH_DOCUMENT_INDEX_DROP_QUERY = "DROP INDEX CONCURRENTLY IF EXISTS in_gin_trackedentitysearchdocument";
+
+    private static final String SEARCH_DOCUMENT_INDEX_VALID_QUERY = "SELECT EXISTS (SELECT 1 FROM pg_index i"
+        + " JOIN pg_class c ON c.oid = i.indexrelid"
+        + " WHERE c.relname = 'in_gin_trackedentitysearchdocument' AND i.indisvalid)";
+
+    private static final String SEARCH_DOCUMENT_TRIGGERS_QUERY = "ALTER TABLE trackedentityattributevalue %1$s TRIGGER trackedentitysearchdocument_insert, "
+        + "%1$s TRIGGER trackedentitysearchdocument_update, %1$s TRIGGER trackedentitysearchdocument_delete";
+
+    private static final String SEARCH_DOCUMENT_BATCH_END_QUERY = "SELECT max(id) FROM (SELECT trackedentityinstanceid AS id FROM trackedentityinstance"
+        + " WHERE trackedentityinstanceid > ? ORDER BY trackedentityinstanceid LIMIT ?) AS batch";
+
+    private static final String SEARCH_DOCUMENT_UPDATE_BATCH_QUERY = "SELECT updateTrackedEntitySearchDocuments(array(SELECT trackedentityinstanceid"
+        + " FROM trackedentityinstance WHERE trackedentityinstanceid > ? AND trackedentityinstanceid <= ?))";
+
+    private static final int SEARCH_DOCUMENT_BATCH_SIZE = 10000;
+
     private final JdbcTemplate jdbcTemplate;
 
     public JdbcTrackedEntityAttributeTableManager( JdbcTemplate jdbcTemplate )
@@ -82,4 +102,50 @@ public class JdbcTrackedEntityAttributeTableManager implements TrackedEntityAttr
     {
         return jdbcTemplate.queryForList( LIST_TRIGRAM_INDEXED_ATTRIBUTE_ID_QUERY, Long.class );
     }
+
+    @Override
+    public void updateSearchDocuments()
+    {
+        jdbcTemplate.execute( String.format( SEARCH_DOCUMENT_TRIGGERS_QUERY, "ENABLE" ) );
+
+        long from = 0;
+        Long to;
+
+        // Rebuilds the documents in batches of instances, each in its own
+        // transaction, so that the instance locks are held briefly
+
+        while ( (to = jdbcTemplate.queryForObject( SEARCH_DOCUMENT_BATCH_END_QUERY, Long.class, from,
+            SEARCH_DOCUMENT_BATCH_SIZE )) != null )
+        {
+            jdbcTemplate.queryForRowSet( SEARCH_DOCUMENT_UPDATE_BATCH_QUERY, from, to );
+            from = to;
+        }
+    }
+
+    @Override
+    public void createSearchDocumentIndex()
+    {
+        if ( !hasSearchDocumentIndex() )
+        {
+            // A failed concurrent build leaves an invalid index behind
+
+            jdbcTemplate.execute( SEARCH_DOCUMENT_INDEX_DROP_QUERY );
+        }
+
+        jdbcTemplate.execute( SEARCH_DOCUMENT_INDEX_CREATE_QUERY );
+    }
+
+    @Override
+    public boolean hasSearchDocumentIndex()
+    {
+        return Boolean.TRUE.equals( jdbcTemplate.queryForObject( SEARCH_DOCUMENT_INDEX_VALID_QUERY, Boolean.class ) );
+    }
+
+    @Override
+    public void dropSearchDocuments()
+    {
+        jdbcTemplate.execute( SEARCH_DOCUMENT_INDEX_DROP_QUERY );
+        jdbcTemplate.execute( String.format( SEARCH_DOCUMENT_TRIGGERS_QUERY, "DISABLE" ) );
+        jdbcTemplate.execute( "TRUNCATE trackedentitysearchdocument" );
+    }
 }
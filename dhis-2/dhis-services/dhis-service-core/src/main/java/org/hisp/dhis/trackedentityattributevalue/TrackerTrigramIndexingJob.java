@@ -45,6 +45,8 @@ import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.scheduling.parameters.TrackerTrigramIndexJobParameters;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.springframework.stereotype.Component;
@@ -61,6 +63,8 @@ public class TrackerTrigramIndexingJob implements Job
 
     private final TrackedEntityAttributeTableManager trackedEntityAttributeTableManager;
 
+    private final SystemSettingManager systemSettingManager;
+
     // -------------------------------------------------------------------------
     // Implementation
     // -------------------------------------------------------------------------
@@ -100,6 +104,9 @@ public class TrackerTrigramIndexingJob implements Job
             }
 
         }
+
+        updateSearchDocuments( progress );
+
         progress.completedProcess( "Job completed" );
         log.info( "Trigram Indexing job completed" );
     }
@@ -190,6 +197,29 @@ public class TrackerTrigramIndexingJob implements Job
         log.debug( "Created {} trigram indexes", indexableAttributes.size() );
     }
 
+    /**
+     * Builds the search documents and their trigram index when the search
+     * document setting is enabled. Free text queries only use the documents
+     * once the index exists. When the setting is disabled the index, the
+     * triggers maintaining the documents and the documents are removed.
+     */
+    private void updateSearchDocuments( JobProgress progress )
+    {
+        if ( !systemSettingManager.getBoolSetting( SettingKey.TRACKER_SEARCH_DOCUMENT_ENABLED ) )
+        {
+            progress.startingStage( "Removing search documents" );
+            progress.runStage( trackedEntityAttributeTableManager::dropSearchDocuments );
+            return;
+        }
+
+        progress.startingStage( "Building search documents" );
+        if ( progress.runStage( trackedEntityAttributeTableManager::updateSearchDocuments ) )
+        {
+            progress.startingStage( "Creating search document trigram index" );
+            progress.runStage( trackedEntityAttributeTableManager::createSearchDocumentIndex );
+        }
+    }
+
     private static String computeTrigramIndexingCreationSummary( int successful, int failed )
     {
         String summary = format( "Number of trigram index created: %d. Number of trigram index creation failed: %d",
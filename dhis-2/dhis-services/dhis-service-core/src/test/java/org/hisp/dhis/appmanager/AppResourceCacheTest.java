@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.appmanager;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Tests the {@link AppResourceCache}.
+ */
+class AppResourceCacheTest
+{
+    private final Map<String, Resource> storage = new HashMap<>();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private AppResourceCache cache;
+
+    private App app;
+
+    @BeforeEach
+    void setUp()
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.getProperty( ConfigurationKey.APP_RESOURCE_CACHE_CAPACITY ) ).thenReturn( "1" );
+        cache = new AppResourceCache( config );
+        app = new App();
+        app.setName( "test" );
+    }
+
+    @Test
+    void testGet_CachesContent()
+        throws IOException
+    {
+        storeFile( "index.html", "<html><body>Hello</body></html>" );
+
+        AppResourceContent content = getContent( "index.html" );
+        assertNotNull( content );
+        assertEquals( "index.html", content.getFilename() );
+        assertEquals( 64, content.getHash().length() );
+        assertEquals( "\"" + content.getHash() + "\"", content.getETag( null ) );
+        assertSame( content, getContent( "index.html" ) );
+        assertEquals( 2, lookups.get() );
+    }
+
+    @Test
+    void testGet_NotFound()
+        throws IOException
+    {
+        assertNull( getContent( "missing.js" ) );
+    }
+
+    @Test
+    void testGet_TooLarge()
+        throws IOException
+    {
+        storeFile( "large.js", "x".repeat( 1024 * 1024 / 16 + 1 ) );
+
+        assertNull( getContent( "large.js" ) );
+    }
+
+    @Test
+    void testGet_CompressedVariants()
+        throws IOException
+    {
+        String js = "console.log('hello');".repeat( 100 );
+        storeFile( "main.js", js );
+        storeFile( "main.js.br", "brotli" );
+
+        AppResourceContent content = getContent( "main.js" );
+        assertNotNull( content.getGzipContent() );
+        assertEquals( js, gunzip( content.getGzipContent() ) );
+        assertArrayEquals( "brotli".getBytes( UTF_8 ), content.getContent( AppResourceContent.ENCODING_BROTLI ) );
+        assertEquals( "\"" + content.getHash() + "-gzip\"", content.getETag( AppResourceContent.ENCODING_GZIP ) );
+    }
+
+    @Test
+    void testGet_NotCompressible()
+        throws IOException
+    {
+        storeFile( "logo.png", "png".repeat( 100 ) );
+
+        AppResourceContent content = getContent( "logo.png" );
+        assertNull( content.getGzipContent() );
+        assertNull( content.getBrotliContent() );
+    }
+
+    @Test
+    void testInvalidate()
+        throws IOException
+    {
+        storeFile( "index.html", "old" );
+        AppResourceContent before = getContent( "index.html" );
+
+        storeFile( "index.html", "new" );
+        assertSame( before, getContent( "index.html" ) );
+
+        cache.invalidate( app.getKey() );
+        AppResourceContent after = getContent( "index.html" );
+        assertArrayEquals( "new".getBytes( UTF_8 ), after.getContent() );
+        assertNotEquals( before.getHash(), after.getHash() );
+    }
+
+    private AppResourceContent getContent( String pageName )
+        throws IOException
+    {
+        return cache.get( app, pageName, page -> {
+            lookups.incrementAndGet();
+            return storage.get( page );
+        } );
+    }
+
+    private void storeFile( String filename, String content )
+    {
+        storage.put( filename, new ByteArrayResource( content.getBytes( UTF_8 ) )
+        {
+            @Override
+            public String getFilename()
+            {
+                return filename;
+            }
+
+            @Override
+            public long lastModified()
+            {
+                return 1000L;
+            }
+        } );
+    }
+
+    private static String gunzip( byte[] gzip )
+        throws IOException
+    {
+        try ( GZIPInputStream in = new GZIPInputStream( new ByteArrayInputStream( gzip ) ) )
+        {
+            return new String( in.readAllBytes(), UTF_8 );
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the invalidation of the {@link DataApprovalCaches}.
+ */
+@ExtendWith( MockitoExtension.class )
+class DataApprovalCachesTest
+{
+    @Mock
+    private CacheProvider cacheProvider;
+
+    private DataApprovalCaches caches;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private boolean approved = false;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( cacheProvider.createIsDataApprovedCache() ).thenReturn( new LocalCache<>( new SimpleCacheBuilder<>() ) );
+
+        caches = new DataApprovalCaches( cacheProvider );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testIsApprovedCachedUntilInvalidated()
+    {
+        assertEquals( false, isApproved() );
+        approved = true;
+        assertEquals( false, isApproved() );
+        assertEquals( 1, loads.get() );
+
+        caches.invalidate();
+
+        assertEquals( true, isApproved() );
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    void testWritingTransactionBypassesCache()
+    {
+        assertEquals( false, isApproved() );
+
+        TransactionSynchronizationManager.initSynchronization();
+        approved = true;
+        caches.invalidate();
+
+        assertEquals( true, isApproved() );
+        assertEquals( true, isApproved() );
+        assertEquals( 3, loads.get() );
+
+        // rolled back, the uncommitted state must not have been cached
+
+        approved = false;
+        complete( TransactionSynchronization.STATUS_ROLLED_BACK );
+
+        assertEquals( false, isApproved() );
+        assertEquals( 4, loads.get() );
+    }
+
+    @Test
+    void testStateReadByOthersBeforeCommitIsInvalidated()
+        throws Exception
+    {
+        TransactionSynchronizationManager.initSynchronization();
+        caches.invalidate();
+
+        // another thread reads the committed state while the approval is
+        // not committed yet
+
+        assertEquals( false, CompletableFuture.supplyAsync( this::isApproved ).get() );
+
+        approved = true;
+        complete( TransactionSynchronization.STATUS_COMMITTED );
+
+        assertEquals( true, isApproved() );
+    }
+
+    private boolean isApproved()
+    {
+        return caches.isApproved( "key", key -> {
+            loads.incrementAndGet();
+            return approved;
+        } );
+    }
+
+    private static void complete( int status )
+    {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach( synchronization -> synchronization.afterCompletion( status ) );
+    }
+}
@@ -846,6 +846,46 @@ class ExpressionService2Test extends DhisConvenienceTest
         assertEquals( 200d, value.getValue(), DELTA );
     }
 
+    @Test
+    void testGetIndicatorValueObjects()
+    {
+        Set<DimensionalItemId> itemIds = Sets.newHashSet( getId( opA ) );
+
+        Map<DimensionalItemId, DimensionalItemObject> expectedItemMap = ImmutableMap.of(
+            getId( opA ), opA );
+
+        when( dimensionService.getDataDimensionalItemObjectMap( itemIds ) ).thenReturn( expectedItemMap );
+
+        mockConstantService();
+
+        IndicatorType indicatorType = new IndicatorType( "A", 100, false );
+
+        Indicator indicatorA = createIndicator( 'A', indicatorType );
+        indicatorA.setNumerator( expressionE );
+        indicatorA.setDenominator( expressionF );
+
+        Map<DimensionalItemId, DimensionalItemObject> itemMap = target
+            .getIndicatorDimensionalItemMap( Arrays.asList( indicatorA ) );
+
+        Map<DimensionalItemObject, Object> valueMapA = new HashMap<>();
+        valueMapA.put( new DataElementOperand( deA, coc ), 12d );
+
+        Map<DimensionalItemObject, Object> valueMapB = new HashMap<>();
+        valueMapB.put( new DataElementOperand( deA, coc ), 5d );
+
+        List<IndicatorValue> values = target.getIndicatorValueObjects( indicatorA,
+            Arrays.asList( Collections.singletonList( period ), Collections.singletonList( period ),
+                Collections.singletonList( period ) ),
+            itemMap, Arrays.asList( valueMapA, new HashMap<>(), valueMapB ), Arrays.asList( null, null, null ) );
+
+        assertEquals( 3, values.size() );
+        assertEquals( 200d, values.get( 0 ).getValue(), DELTA );
+        assertNull( values.get( 1 ) );
+        assertEquals( 10d, values.get( 2 ).getNumeratorValue(), DELTA );
+        assertEquals( 5d, values.get( 2 ).getDenominatorValue(), DELTA );
+        assertEquals( 200d, values.get( 2 ).getValue(), DELTA );
+    }
+
     @Test
     void testGetIndicatorDimensionalItemMap3()
     {
@@ -28,24 +28,21 @@
 package org.hisp.dhis.fileresource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
-import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.fileresource.events.FileDeletedEvent;
 import org.hisp.dhis.fileresource.events.FileSavedEvent;
-import org.hisp.dhis.fileresource.events.ImageFileSavedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -56,8 +53,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.MimeTypeUtils;
 
-import com.google.common.collect.ImmutableMap;
-
 /**
  * @author Luciano Fiandesio
  */
@@ -85,9 +80,6 @@ class FileResourceServiceTest
     @Captor
     private ArgumentCaptor<FileSavedEvent> fileSavedEventCaptor;
 
-    @Captor
-    private ArgumentCaptor<ImageFileSavedEvent> imageFileSavedEventCaptor;
-
     @Captor
     private ArgumentCaptor<FileDeletedEvent> fileDeletedEventCaptor;
 
@@ -153,10 +145,6 @@ class FileResourceServiceTest
 
         File file = new File( "" );
 
-        Map<ImageFileDimension, File> imageFiles = ImmutableMap.of( ImageFileDimension.LARGE, file );
-
-        when( imageProcessingService.createImages( fileResource, file ) ).thenReturn( imageFiles );
-
         when( sessionFactory.getCurrentSession() ).thenReturn( session );
 
         fileResource.setUid( "imageUid1" );
@@ -165,15 +153,14 @@ class FileResourceServiceTest
 
         verify( fileResourceStore ).save( fileResource );
         verify( session ).flush();
+        verifyNoInteractions( imageProcessingService );
 
-        verify( fileEventPublisher, times( 1 ) ).publishEvent( imageFileSavedEventCaptor.capture() );
+        verify( fileEventPublisher, times( 1 ) ).publishEvent( fileSavedEventCaptor.capture() );
 
-        ImageFileSavedEvent event = imageFileSavedEventCaptor.getValue();
+        FileSavedEvent event = fileSavedEventCaptor.getValue();
 
         assertThat( event.getFileResource(), is( "imageUid1" ) );
-        assertFalse( event.getImageFiles().isEmpty() );
-        assertThat( event.getImageFiles().size(), is( 1 ) );
-        assertThat( event.getImageFiles(), hasKey( ImageFileDimension.LARGE ) );
+        assertThat( event.getFile(), is( file ) );
     }
 
     @Test
@@ -206,10 +193,6 @@ class FileResourceServiceTest
 
         File file = new File( "" );
 
-        Map<ImageFileDimension, File> imageFiles = ImmutableMap.of( ImageFileDimension.LARGE, file );
-
-        when( imageProcessingService.createImages( fileResource, file ) ).thenReturn( imageFiles );
-
         when( sessionFactory.getCurrentSession() ).thenReturn( session );
 
         fileResource.setUid( "imageUid1" );
@@ -218,14 +201,31 @@ class FileResourceServiceTest
 
         verify( fileResourceStore ).save( fileResource );
         verify( session ).flush();
+        verifyNoInteractions( imageProcessingService );
 
-        verify( fileEventPublisher, times( 1 ) ).publishEvent( imageFileSavedEventCaptor.capture() );
+        verify( fileEventPublisher, times( 1 ) ).publishEvent( fileSavedEventCaptor.capture() );
 
-        ImageFileSavedEvent event = imageFileSavedEventCaptor.getValue();
+        FileSavedEvent event = fileSavedEventCaptor.getValue();
 
         assertThat( event.getFileResource(), is( "imageUid1" ) );
-        assertFalse( event.getImageFiles().isEmpty() );
-        assertThat( event.getImageFiles().size(), is( 1 ) );
-        assertThat( event.getImageFiles(), hasKey( ImageFileDimension.LARGE ) );
+        assertThat( event.getFile(), is( file ) );
+    }
+
+    @Test
+    void verifyRequestImageFiles()
+    {
+        FileResource fileResource = new FileResource( "test.jpeg", MimeTypeUtils.IMAGE_JPEG.toString(), 1000, "md5",
+            FileResourceDomain.DATA_VALUE );
+        fileResource.setStorageStatus( FileResourceStorageStatus.STORED );
+
+        subject.requestImageFiles( fileResource, ImageFileDimension.ORIGINAL );
+        verifyNoInteractions( imageProcessingService );
+
+        subject.requestImageFiles( fileResource, ImageFileDimension.SMALL );
+        verify( imageProcessingService ).scheduleImages( fileResource );
+
+        fileResource.setHasMultipleStorageFiles( true );
+        subject.requestImageFiles( fileResource, ImageFileDimension.SMALL );
+        verify( imageProcessingService, times( 1 ) ).scheduleImages( fileResource );
     }
-}
\ No newline at end of file
+}
@@ -41,9 +41,12 @@ import javax.imageio.ImageIO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.ClassPathResource;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * @Author Zubair Asghar.
  */
@@ -56,12 +59,19 @@ class ImageProcessingServiceTest
 
     private static final int LARGE_IMAGE_WIDTH = 1024;
 
+    @Mock
+    private FileResourceContentStore fileResourceContentStore;
+
+    @Mock
+    private FileResourceService fileResourceService;
+
     private ImageProcessingService subject;
 
     @BeforeEach
     public void setUp()
     {
-        subject = new DefaultImageProcessingService();
+        subject = new DefaultImageProcessingService( fileResourceContentStore, fileResourceService,
+            new SimpleMeterRegistry() );
     }
 
     @Test
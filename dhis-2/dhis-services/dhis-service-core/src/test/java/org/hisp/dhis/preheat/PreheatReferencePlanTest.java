@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.preheat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyType;
+import org.hisp.dhis.schema.Schema;
+import org.junit.jupiter.api.Test;
+
+class PreheatReferencePlanTest
+{
+    @Test
+    void testOnlyPersistedOwnerReferencesArePlanned()
+        throws Exception
+    {
+        PreheatReferencePlan plan = PreheatReferencePlan.of( createSchema() );
+
+        assertEquals( 1, plan.getReferences().size() );
+        assertEquals( "dataElement", plan.getReferences().get( 0 ).getProperty().getName() );
+        assertSame( plan, PreheatReferencePlan.of( createSchema() ) );
+    }
+
+    @Test
+    void testAccessorGetAndSet()
+        throws Exception
+    {
+        PreheatReferencePlan.Accessor accessor = PreheatReferencePlan.of( createSchema() ).getReferences().get( 0 );
+        Referencing object = new Referencing();
+        DataElement dataElement = new DataElement( "A" );
+
+        assertNull( accessor.get( object ) );
+
+        accessor.set( object, dataElement );
+
+        assertSame( dataElement, object.getDataElement() );
+        assertSame( dataElement, accessor.get( object ) );
+
+        accessor.set( object, null );
+
+        assertNull( object.getDataElement() );
+        assertNull( accessor.get( null ) );
+    }
+
+    private static Schema createSchema()
+        throws Exception
+    {
+        Property reference = new Property( DataElement.class,
+            Referencing.class.getMethod( "getDataElement" ),
+            Referencing.class.getMethod( "setDataElement", DataElement.class ) );
+        reference.setName( "dataElement" );
+        reference.setPropertyType( PropertyType.REFERENCE );
+        reference.setPersisted( true );
+        reference.setOwner( true );
+
+        Property notOwner = new Property( List.class,
+            Referencing.class.getMethod( "getDataElements" ),
+            Referencing.class.getMethod( "setDataElements", List.class ) );
+        notOwner.setName( "dataElements" );
+        notOwner.setPropertyType( PropertyType.COLLECTION );
+        notOwner.setItemPropertyType( PropertyType.REFERENCE );
+        notOwner.setItemKlass( DataElement.class );
+        notOwner.setCollection( true );
+        notOwner.setPersisted( true );
+        notOwner.setOwner( false );
+
+        Property text = new Property( String.class,
+            Referencing.class.getMethod( "getNote" ),
+            Referencing.class.getMethod( "setNote", String.class ) );
+        text.setName( "note" );
+        text.setPropertyType( PropertyType.TEXT );
+        text.setPersisted( true );
+        text.setOwner( true );
+
+        Map<String, Property> properties = new HashMap<>();
+        properties.put( reference.getName(), reference );
+        properties.put( notOwner.getName(), notOwner );
+        properties.put( text.getName(), text );
+
+        Schema schema = new Schema( Referencing.class, "referencing", "referencings" );
+        schema.setPropertyMap( properties );
+        return schema;
+    }
+
+    public static class Referencing extends BaseIdentifiableObject
+    {
+        private DataElement dataElement;
+
+        private List<DataElement> dataElements = new ArrayList<>();
+
+        private String note;
+
+        public DataElement getDataElement()
+        {
+            return dataElement;
+        }
+
+        public void setDataElement( DataElement dataElement )
+        {
+            this.dataElement = dataElement;
+        }
+
+        public List<DataElement> getDataElements()
+        {
+            return dataElements;
+        }
+
+        public void setDataElements( List<DataElement> dataElements )
+        {
+            this.dataElements = dataElements;
+        }
+
+        public String getNote()
+        {
+            return note;
+        }
+
+        public void setNote( String note )
+        {
+            this.note = note;
+        }
+    }
+}
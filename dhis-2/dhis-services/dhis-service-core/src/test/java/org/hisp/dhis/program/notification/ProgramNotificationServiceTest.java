@@ -78,6 +78,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import com.google.common.collect.Sets;
 
@@ -131,6 +132,9 @@ class ProgramNotificationServiceTest extends DhisConvenienceTest
     @Mock
     private ProgramNotificationTemplateService notificationTemplateService;
 
+    @Mock
+    private ProgramNotificationCheckpointStore checkpointStore;
+
     private NotificationTemplateMapper notificationTemplateMapper = new NotificationTemplateMapper();
 
     private DefaultProgramNotificationService programNotificationService;
@@ -205,7 +209,7 @@ class ProgramNotificationServiceTest extends DhisConvenienceTest
         programNotificationService = new DefaultProgramNotificationService( this.programMessageService,
             this.messageService, this.programInstanceStore, this.programStageInstanceStore, this.manager,
             this.programNotificationRenderer, this.programStageNotificationRenderer, notificationTemplateService,
-            notificationTemplateMapper );
+            notificationTemplateMapper, checkpointStore, TransactionOperations.withoutTransaction() );
 
         setUpInstances();
 
@@ -616,6 +620,40 @@ class ProgramNotificationServiceTest extends DhisConvenienceTest
         assertEquals( 1, sentProgramMessages.size() );
     }
 
+    @Test
+    void testScheduledNotificationsForDayResumesFromCheckpoint()
+    {
+        Date today = new Date();
+        ProgramStageInstance programStageInstance = programStageInstances.iterator().next();
+        programStageInstance.setId( 43L );
+        programNotificationTemplate.setId( 7L );
+        programNotificationTemplate.setNotificationTrigger( NotificationTrigger.SCHEDULED_DAYS_DUE_DATE );
+
+        when( manager.getAll( ProgramNotificationTemplate.class ) )
+            .thenReturn( List.of( programNotificationTemplate ) );
+        when( notificationTemplateService.get( 7L ) ).thenReturn( programNotificationTemplate );
+        when( checkpointStore.getLastProcessedId( 7L, today, ProgramNotificationCheckpointStore.Target.EVENT ) )
+            .thenReturn( 42L );
+        when( programStageInstanceStore.getWithScheduledNotifications( programNotificationTemplate, today, 42L, 500 ) )
+            .thenReturn( List.of( programStageInstance ) );
+        when( programStageNotificationRenderer.render( any( ProgramStageInstance.class ),
+            any( NotificationTemplate.class ) ) ).thenReturn( notificationMessage );
+        when( programMessageService.sendMessages( anyList() ) ).thenAnswer( invocation -> {
+            sentProgramMessages.addAll( (List<ProgramMessage>) invocation.getArguments()[0] );
+            return new BatchResponseStatus( Collections.emptyList() );
+        } );
+
+        programNotificationService.sendScheduledNotificationsForDay( today, NoopJobProgress.INSTANCE );
+
+        assertEquals( 1, sentProgramMessages.size() );
+        verify( checkpointStore ).saveLastProcessedId( 7L, today, ProgramNotificationCheckpointStore.Target.EVENT,
+            43L );
+        verify( programInstanceStore ).getWithScheduledNotifications( programNotificationTemplate, today, 0L, 500 );
+        verify( checkpointStore, never() ).saveLastProcessedId( 7L, today,
+            ProgramNotificationCheckpointStore.Target.ENROLLMENT, 0L );
+        verify( checkpointStore ).deleteBefore( today );
+    }
+
     @Test
     void testScheduledNotificationsWithDateInPast()
     {
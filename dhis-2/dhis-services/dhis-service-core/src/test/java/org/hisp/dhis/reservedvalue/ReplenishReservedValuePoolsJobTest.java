@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.reservedvalue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.NoopJobProgress;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.textpattern.TextPattern;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link ReplenishReservedValuePoolsJob} using mocks to only test
+ * the logic of the job.
+ */
+class ReplenishReservedValuePoolsJobTest
+{
+    private final ReservedValueService reservedValueService = mock( ReservedValueService.class );
+
+    private final TrackedEntityAttributeService trackedEntityAttributeService = mock(
+        TrackedEntityAttributeService.class );
+
+    private final SystemSettingManager systemSettingManager = mock( SystemSettingManager.class );
+
+    private final ReplenishReservedValuePoolsJob job = new ReplenishReservedValuePoolsJob( reservedValueService,
+        trackedEntityAttributeService, systemSettingManager );
+
+    @Test
+    void testDoesNothingWhenPoolsAreDisabled()
+    {
+        when( systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE ) ).thenReturn( 0 );
+
+        job.execute( new JobConfiguration(), NoopJobProgress.INSTANCE );
+
+        verify( trackedEntityAttributeService, never() ).getAllTrackedEntityAttributes();
+        verify( reservedValueService, never() ).replenishPools( any(), anyInt() );
+    }
+
+    @Test
+    void testReplenishesOnlyGeneratedAttributesWithTextPattern()
+    {
+        TrackedEntityAttribute generated = attribute( 'A', true, new TextPattern() );
+        TrackedEntityAttribute notGenerated = attribute( 'B', false, new TextPattern() );
+        TrackedEntityAttribute withoutPattern = attribute( 'C', true, null );
+
+        when( systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE ) ).thenReturn( 50 );
+        when( trackedEntityAttributeService.getAllTrackedEntityAttributes() )
+            .thenReturn( List.of( generated, notGenerated, withoutPattern ) );
+
+        job.execute( new JobConfiguration(), NoopJobProgress.INSTANCE );
+
+        verify( reservedValueService ).replenishPools( generated, 50 );
+        verify( reservedValueService, never() ).replenishPools( notGenerated, 50 );
+        verify( reservedValueService, never() ).replenishPools( withoutPattern, 50 );
+    }
+
+    private static TrackedEntityAttribute attribute( char uniqueCharacter, boolean generated, TextPattern textPattern )
+    {
+        TrackedEntityAttribute attribute = new TrackedEntityAttribute();
+        attribute.setUid( "AttributeUid" + uniqueCharacter );
+        attribute.setName( "Attribute" + uniqueCharacter );
+        attribute.setGenerated( generated );
+        attribute.setTextPattern( textPattern );
+        return attribute;
+    }
+}
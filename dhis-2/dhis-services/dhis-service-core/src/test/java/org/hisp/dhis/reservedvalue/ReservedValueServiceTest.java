@@ -32,19 +32,25 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import org.hisp.dhis.common.Objects;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.textpattern.DefaultTextPatternService;
 import org.hisp.dhis.textpattern.TextPattern;
 import org.hisp.dhis.textpattern.TextPatternGenerationException;
@@ -76,6 +82,9 @@ class ReservedValueServiceTest
     @Mock
     private ValueGeneratorService valueGeneratorService;
 
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
     @Captor
     private ArgumentCaptor<ReservedValue> reservedValue;
 
@@ -93,7 +102,8 @@ class ReservedValueServiceTest
     void setUpClass()
     {
         reservedValueService = new DefaultReservedValueService( textPatternService, reservedValueStore,
-            valueGeneratorService );
+            valueGeneratorService, systemSettingManager );
+        when( systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE ) ).thenReturn( 10 );
         Calendar calendar = Calendar.getInstance();
         calendar.add( DATE, 1 );
         futureDate = calendar.getTime();
@@ -185,6 +195,114 @@ class ReservedValueServiceTest
         verify( reservedValueStore, times( 1 ) ).bulkInsertReservedValues( argThat( list -> list.size() == 2 ) );
     }
 
+    @Test
+    void shouldReserveValuesFromPoolRandomPattern()
+        throws TextPatternParser.TextPatternParsingException,
+        TextPatternGenerationException,
+        ReserveValueException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValueStore.claimPoolValues( any(), any(), anyInt() ) )
+            .thenReturn( new ArrayList<>( Arrays.asList( "TEST-AAA", "TEST-BBB" ) ) );
+        when( reservedValueStore.getAvailableValues( any(), any(), any() ) ).thenReturn( Arrays.asList(
+            ReservedValue.builder().value( "TEST-AAA" ).build(), ReservedValue.builder().value( "TEST-BBB" ).build() ) );
+        assertEquals( 2,
+            reservedValueService
+                .reserve( createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 2,
+                    new HashMap<>(), futureDate )
+                .size() );
+        verify( reservedValueStore, times( 1 ) ).claimPoolValues( ownerUid, "TEST-RANDOM(XXX)", 2 );
+        verify( reservedValueStore, times( 1 ) ).bulkInsertReservedValues( argThat( list -> list.size() == 2 ) );
+        verify( valueGeneratorService, times( 0 ) ).generateValues( any(), any(), any(), anyInt() );
+    }
+
+    @Test
+    void shouldNotClaimPoolValuesWhenPoolingDisabled()
+        throws TextPatternParser.TextPatternParsingException,
+        TextPatternGenerationException,
+        ReserveValueException
+    {
+        when( systemSettingManager.getIntSetting( SettingKey.RESERVED_VALUE_POOL_SIZE ) ).thenReturn( 0 );
+        when( reservedValueStore.getAvailableValues( any(), any(), any() ) ).thenReturn( Arrays.asList(
+            ReservedValue.builder().build(), ReservedValue.builder().build() ) );
+        reservedValueService.reserve( createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid,
+            randomText ), 2, new HashMap<>(), futureDate );
+        verify( reservedValueStore, never() ).claimPoolValues( any(), any(), anyInt() );
+        assertEquals( 0, reservedValueService.getPoolExhaustedCount() );
+    }
+
+    @Test
+    void shouldCountEmptyPoolAsExhausted()
+        throws TextPatternParser.TextPatternParsingException,
+        TextPatternGenerationException,
+        ReserveValueException
+    {
+        when( reservedValueStore.claimPoolValues( any(), any(), anyInt() ) ).thenReturn( new ArrayList<>() );
+        when( reservedValueStore.getAvailableValues( any(), any(), any() ) ).thenReturn( Arrays.asList(
+            ReservedValue.builder().build(), ReservedValue.builder().build() ) );
+        assertEquals( 2,
+            reservedValueService
+                .reserve( createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 2,
+                    new HashMap<>(), futureDate )
+                .size() );
+        assertEquals( 1, reservedValueService.getPoolExhaustedCount() );
+    }
+
+    @Test
+    void shouldReplenishPoolsRandomPattern()
+        throws TextPatternParser.TextPatternParsingException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValueStore.getReservedKeys( ownerUid ) ).thenReturn( List.of( "TEST-RANDOM(XXX)" ) );
+        when( reservedValueStore.getPoolSize( ownerUid, "TEST-RANDOM(XXX)" ) ).thenReturn( 1 );
+        when( valueGeneratorService.generateValues( any(), any(), any(), anyInt() ) )
+            .thenReturn( Arrays.asList( "AAA", "BBB" ) );
+        when( reservedValueStore.getAvailableValues( any(), any(), any() ) ).thenReturn( Arrays.asList(
+            ReservedValue.builder().value( "TEST-AAA" ).build(), ReservedValue.builder().value( "TEST-BBB" ).build() ) );
+        assertEquals( 2, reservedValueService.replenishPools(
+            createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 3 ) );
+        verify( valueGeneratorService, times( 1 ) ).generateValues( any(), any(), any(), eq( 2 ) );
+        verify( reservedValueStore, times( 1 ) ).addPoolValues( ownerUid, "TEST-RANDOM(XXX)",
+            List.of( "TEST-AAA", "TEST-BBB" ) );
+    }
+
+    @Test
+    void shouldNotReplenishFullPool()
+        throws TextPatternParser.TextPatternParsingException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValueStore.getPoolSize( ownerUid, "TEST-RANDOM(XXX)" ) ).thenReturn( 3 );
+        assertEquals( 0, reservedValueService.replenishPools(
+            createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 3 ) );
+        verify( valueGeneratorService, never() ).generateValues( any(), any(), any(), anyInt() );
+        verify( reservedValueStore, never() ).addPoolValues( any(), any(), any() );
+    }
+
+    @Test
+    void shouldCountExhaustedPatternWhenReplenishing()
+        throws TextPatternParser.TextPatternParsingException,
+        ExecutionException,
+        InterruptedException
+    {
+        when( reservedValueStore.getNumberOfUsedValues( any() ) ).thenReturn( Integer.MAX_VALUE );
+        assertEquals( 0, reservedValueService.replenishPools(
+            createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, randomText ), 3 ) );
+        assertEquals( 1, reservedValueService.getPoolExhaustedCount() );
+        verify( valueGeneratorService, never() ).generateValues( any(), any(), any(), anyInt() );
+    }
+
+    @Test
+    void shouldNotReplenishPoolsSequentialPattern()
+        throws TextPatternParser.TextPatternParsingException
+    {
+        assertEquals( 0, reservedValueService.replenishPools(
+            createTrackedEntityAttribute( Objects.TRACKEDENTITYATTRIBUTE, ownerUid, sequentialText ), 3 ) );
+        verify( reservedValueStore, never() ).getPoolSize( any(), any() );
+    }
+
     @Test
     void shouldDeleteUsedOrExpiredReservedValues()
     {
@@ -39,12 +39,15 @@ import java.util.stream.Stream;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.NoopJobProgress;
 import org.hisp.dhis.scheduling.parameters.TrackerTrigramIndexJobParameters;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeTableManager;
 import org.hisp.dhis.trackedentityattributevalue.TrackerTrigramIndexingJob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 /**
  * Tests the {@link TrackerTrigramIndexingJob} using mocks to only test the
@@ -61,8 +64,10 @@ public class TrackerTrigramIndexingJobTest
     private final TrackedEntityAttributeTableManager trackedEntityAttributeTableManager = mock(
         TrackedEntityAttributeTableManager.class );
 
+    private final SystemSettingManager systemSettingManager = mock( SystemSettingManager.class );
+
     private final TrackerTrigramIndexingJob job = new TrackerTrigramIndexingJob( trackedEntityAttributeService,
-        trackedEntityAttributeTableManager );
+        trackedEntityAttributeTableManager, systemSettingManager );
 
     @BeforeEach
     public void setUp()
@@ -146,4 +151,37 @@ public class TrackerTrigramIndexingJobTest
         verify( trackedEntityAttributeTableManager, times( 2 ) ).createTrigramIndex( any() );
     }
 
+    @Test
+    public void testRunJobBuildsSearchDocumentsWhenEnabled()
+    {
+        when( systemSettingManager.getBoolSetting( SettingKey.TRACKER_SEARCH_DOCUMENT_ENABLED ) ).thenReturn( true );
+        JobConfiguration jobConfiguration = new JobConfiguration();
+        TrackerTrigramIndexJobParameters jp = new TrackerTrigramIndexJobParameters();
+        jp.setSkipIndexDeletion( true );
+        jobConfiguration.setJobParameters( jp );
+
+        job.execute( jobConfiguration, NoopJobProgress.INSTANCE );
+
+        InOrder inOrder = inOrder( trackedEntityAttributeTableManager );
+        inOrder.verify( trackedEntityAttributeTableManager ).updateSearchDocuments();
+        inOrder.verify( trackedEntityAttributeTableManager ).createSearchDocumentIndex();
+        verify( trackedEntityAttributeTableManager, never() ).dropSearchDocuments();
+    }
+
+    @Test
+    public void testRunJobDropsSearchDocumentsWhenDisabled()
+    {
+        when( systemSettingManager.getBoolSetting( SettingKey.TRACKER_SEARCH_DOCUMENT_ENABLED ) ).thenReturn( false );
+        JobConfiguration jobConfiguration = new JobConfiguration();
+        TrackerTrigramIndexJobParameters jp = new TrackerTrigramIndexJobParameters();
+        jp.setSkipIndexDeletion( true );
+        jobConfiguration.setJobParameters( jp );
+
+        job.execute( jobConfiguration, NoopJobProgress.INSTANCE );
+
+        verify( trackedEntityAttributeTableManager ).dropSearchDocuments();
+        verify( trackedEntityAttributeTableManager, never() ).updateSearchDocuments();
+        verify( trackedEntityAttributeTableManager, never() ).createSearchDocumentIndex();
+    }
+
 }
@@ -56,15 +56,20 @@ public interface DataValueSetStore
     void exportDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes );
 
     /**
-     * Query for {@link DataValueSet DataValueSets} and write result as JSON.
+     * Query for data values changed since the given date and write the result
+     * as JSON. Data values are written in the order in which they changed,
+     * starting after the given cursor.
      *
-     * @param lastUpdated specifies the date to filter complete data sets last
-     *        updated after
+     * @param lastUpdated specifies the date to filter data values last updated
+     *        after
+     * @param after the cursor to continue after, or null to start with the
+     *        first changed data value
      * @param outputStream the stream to write to
      * @param idSchemes idSchemes
-     * @param pageSize pageSize
-     * @param page page
+     * @param pageSize the maximum number of data values to write
+     * @return the page with the cursor of the last written data value and the
+     *         number of data values written
      */
-    void exportDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes, int pageSize,
-        int page );
+    DataValueSyncPage exportDataValueSetJson( Date lastUpdated, DataValueSyncCursor after,
+        OutputStream outputStream, IdSchemes idSchemes, int pageSize );
 }
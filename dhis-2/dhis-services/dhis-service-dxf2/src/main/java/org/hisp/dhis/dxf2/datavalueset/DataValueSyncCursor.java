@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Position in the stream of changed data values, ordered by last updated
+ * timestamp and then by the data value primary key. Used to read changed data
+ * values page by page without offsets and to resume reading after the last
+ * data value which was transferred successfully.
+ * <p>
+ * The last updated timestamp is kept with full database precision, since a
+ * truncated timestamp would position the cursor before the data value it was
+ * read from.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public final class DataValueSyncCursor
+{
+    private static final String SEPARATOR = ";";
+
+    private final Timestamp lastUpdated;
+
+    private final long dataElementId;
+
+    private final long periodId;
+
+    private final long sourceId;
+
+    private final long categoryOptionComboId;
+
+    private final long attributeOptionComboId;
+
+    /**
+     * Creates a cursor positioned at the data value of the current row of the
+     * given result set. The result set must contain the last updated timestamp
+     * and the key columns of the data value.
+     */
+    public static DataValueSyncCursor of( ResultSet rs )
+        throws SQLException
+    {
+        return new DataValueSyncCursor(
+            rs.getTimestamp( "lastupdated" ),
+            rs.getLong( "dataelementid" ),
+            rs.getLong( "periodid" ),
+            rs.getLong( "sourceid" ),
+            rs.getLong( "categoryoptioncomboid" ),
+            rs.getLong( "attributeoptioncomboid" ) );
+    }
+
+    /**
+     * Parses a cursor from its {@link #toString()} form.
+     *
+     * @param value the cursor string, may be null or empty.
+     * @return the cursor, or null if the value is null, empty or malformed.
+     */
+    public static DataValueSyncCursor parse( String value )
+    {
+        if ( value == null || value.isEmpty() )
+        {
+            return null;
+        }
+
+        String[] parts = value.split( SEPARATOR );
+
+        if ( parts.length != 6 )
+        {
+            return null;
+        }
+
+        try
+        {
+            return new DataValueSyncCursor(
+                Timestamp.valueOf( parts[0] ),
+                Long.parseLong( parts[1] ),
+                Long.parseLong( parts[2] ),
+                Long.parseLong( parts[3] ),
+                Long.parseLong( parts[4] ),
+                Long.parseLong( parts[5] ) );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return the cursor values in the order of the key columns, to be used as
+     *         SQL arguments.
+     */
+    public Object[] toArgs()
+    {
+        return new Object[] { lastUpdated, dataElementId, periodId, sourceId, categoryOptionComboId,
+            attributeOptionComboId };
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.join( SEPARATOR, lastUpdated.toString(), String.valueOf( dataElementId ),
+            String.valueOf( periodId ), String.valueOf( sourceId ), String.valueOf( categoryOptionComboId ),
+            String.valueOf( attributeOptionComboId ) );
+    }
+}
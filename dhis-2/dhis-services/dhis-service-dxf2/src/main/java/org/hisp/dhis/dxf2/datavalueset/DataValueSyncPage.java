@@ -25,35 +25,32 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-package org.hisp.dhis.fileresource.events;
+package org.hisp.dhis.dxf2.datavalueset;
 
-import java.io.File;
-import java.util.Map;
-
-import org.hisp.dhis.fileresource.ImageFileDimension;
+import lombok.Value;
 
 /**
- * @Author Zubair Asghar.
+ * Result of writing one page of changed data values.
  */
-public class ImageFileSavedEvent
+@Value
+public class DataValueSyncPage
 {
-    private String fileResource;
-
-    private Map<ImageFileDimension, File> imageFiles;
+    /**
+     * The cursor of the last written data value, null if the page is empty.
+     */
+    DataValueSyncCursor cursor;
 
-    public ImageFileSavedEvent( String fileResource, Map<ImageFileDimension, File> imageFiles )
-    {
-        this.fileResource = fileResource;
-        this.imageFiles = imageFiles;
-    }
-
-    public String getFileResource()
-    {
-        return fileResource;
-    }
+    /**
+     * The number of data values written.
+     */
+    int size;
 
-    public Map<ImageFileDimension, File> getImageFiles()
+    /**
+     * @param pageSize the requested page size.
+     * @return true if no further data values follow this page.
+     */
+    public boolean isLast( int pageSize )
     {
-        return imageFiles;
+        return size < pageSize;
     }
 }
@@ -392,10 +392,10 @@ public class DefaultDataValueSetService
 
     @Override
     @Transactional
-    public void exportDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes, int pageSize,
-        int page )
+    public DataValueSyncPage exportDataValueSetJson( Date lastUpdated, DataValueSyncCursor after,
+        OutputStream outputStream, IdSchemes idSchemes, int pageSize )
     {
-        dataValueSetStore.exportDataValueSetJson( lastUpdated, outputStream, idSchemes, pageSize, page );
+        return dataValueSetStore.exportDataValueSetJson( lastUpdated, after, outputStream, idSchemes, pageSize );
     }
 
     @Override
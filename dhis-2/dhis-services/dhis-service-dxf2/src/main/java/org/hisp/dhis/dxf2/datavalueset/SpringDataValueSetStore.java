@@ -39,6 +39,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -71,6 +73,9 @@ import com.google.common.base.Preconditions;
 public class SpringDataValueSetStore
     implements DataValueSetStore
 {
+    private static final String SYNC_CURSOR_COLUMNS = "dv.lastupdated, dv.dataelementid, dv.periodid, dv.sourceid, "
+        + "dv.categoryoptioncomboid, dv.attributeoptioncomboid";
+
     private final CurrentUserService currentUserService;
 
     private final JdbcTemplate jdbcTemplate;
@@ -126,30 +131,58 @@ public class SpringDataValueSetStore
     }
 
     @Override
-    public void exportDataValueSetJson( Date lastUpdated, OutputStream out, IdSchemes idSchemes, int pageSize,
-        int page )
+    public DataValueSyncPage exportDataValueSetJson( Date lastUpdated, DataValueSyncCursor after,
+        OutputStream out, IdSchemes idSchemes, int pageSize )
     {
+        String sql = buildDataValueSql( lastUpdated, idSchemes, true );
+        Object[] args = new Object[0];
+
+        if ( after != null )
+        {
+            sql += "and (" + SYNC_CURSOR_COLUMNS + ") > (?, ?, ?, ?, ?, ?) ";
+            args = after.toArgs();
+        }
+
+        sql += "order by " + SYNC_CURSOR_COLUMNS + " limit " + pageSize;
+
+        final Calendar calendar = PeriodType.getCalendar();
+        final AtomicReference<DataValueSyncCursor> last = new AtomicReference<>();
+        final AtomicInteger size = new AtomicInteger();
+
         try ( DataValueSetWriter writer = new JsonDataValueSetWriter( out ) )
         {
-            final int offset = (page - 1) * pageSize;
-            final String sql = buildDataValueSql( lastUpdated, idSchemes )
-                + "order by pe.startdate asc, dv.created asc, deid asc limit " + pageSize + " offset " + offset;
+            writer.writeHeader();
 
-            exportDataValueSet( sql, new DataExportParams(), null, writer );
+            jdbcTemplate.query( sql, ( ResultSet rs ) -> {
+                writer.writeValue( new ResultSetDataValueEntry( rs, calendar ) );
+                last.set( DataValueSyncCursor.of( rs ) );
+                size.incrementAndGet();
+            }, args );
         }
+
+        return new DataValueSyncPage( last.get(), size.get() );
     }
 
     private String buildDataValueSql( Date lastUpdated, IdSchemes idSchemes )
+    {
+        return buildDataValueSql( lastUpdated, idSchemes, false );
+    }
+
+    private String buildDataValueSql( Date lastUpdated, IdSchemes idSchemes, boolean includeKey )
     {
         String deScheme = idSchemes.getDataElementIdScheme().getIdentifiableString().toLowerCase();
         String ouScheme = idSchemes.getOrgUnitIdScheme().getIdentifiableString().toLowerCase();
         String ocScheme = idSchemes.getCategoryOptionComboIdScheme().getIdentifiableString().toLowerCase();
         String aocScheme = idSchemes.getAttributeOptionComboIdScheme().getIdentifiableString().toLowerCase();
+        String keySql = includeKey
+            ? ", dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid "
+            : "";
 
         final String sql = "select de." + deScheme + " as deid, pe.startdate as pestart, pt.name as ptname, ou."
             + ouScheme + " as ouid, " +
             "coc." + ocScheme + " as cocid, aoc." + aocScheme + " as aocid, " +
             "dv.value, dv.storedby, dv.created, dv.lastupdated, dv.comment, dv.followup, dv.deleted " +
+            keySql +
             "from datavalue dv " +
             "join dataelement de on (dv.dataelementid=de.dataelementid) " +
             "join period pe on (dv.periodid=pe.periodid) " +
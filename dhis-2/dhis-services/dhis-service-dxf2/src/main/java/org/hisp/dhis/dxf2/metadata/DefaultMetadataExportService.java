@@ -29,26 +29,35 @@ package org.hisp.dhis.dxf2.metadata;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hisp.dhis.attribute.Attribute;
-import org.hisp.dhis.attribute.AttributeService;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.commons.timer.SystemTimer;
@@ -108,6 +117,7 @@ import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -118,6 +128,16 @@ import com.google.common.collect.Sets;
 @Service( "org.hisp.dhis.dxf2.metadata.MetadataExportService" )
 public class DefaultMetadataExportService implements MetadataExportService
 {
+    /**
+     * Number of objects read and written per batch in streaming exports.
+     */
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of objects bound to a single dependency fetch query.
+     */
+    private static final int FETCH_PARTITION_SIZE = 1000;
+
     private final SchemaService schemaService;
 
     private final QueryService queryService;
@@ -132,58 +152,26 @@ public class DefaultMetadataExportService implements MetadataExportService
 
     private final SystemService systemService;
 
-    private final AttributeService attributeService;
-
     private final ObjectMapper objectMapper;
 
+    private final IdentifiableObjectManager manager;
+
+    private final SessionFactory sessionFactory;
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata(
         MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
 
-        if ( params.getUser() == null )
-        {
-            params.setUser( currentUserService.getCurrentUser() );
-        }
-
-        if ( params.getClasses().isEmpty() )
-        {
-            schemaService.getMetadataSchemas().stream()
-                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
-                .filter( s -> !s.isSecondaryMetadata() )
-                .forEach( schema -> params.getClasses()
-                    .add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
-        }
+        initExportParams( params );
 
         log.info( "(" + params.getUsername() + ") Export:Start" );
 
         for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
         {
-            Query query;
-
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
-                    orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
-
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
-
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
-
-            List<? extends IdentifiableObject> objects = queryService.query( query );
+            List<? extends IdentifiableObject> objects = queryService.query( getQuery( params, klass ) );
 
             if ( !objects.isEmpty() )
             {
@@ -236,9 +224,12 @@ public class DefaultMetadataExportService implements MetadataExportService
     public void getMetadataAsObjectNodeStream( MetadataExportParams params, OutputStream outputStream )
         throws IOException
     {
+        Timer timer = new SystemTimer().start();
         SystemInfo systemInfo = systemService.getSystemInfo();
-        Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = getMetadata( params );
-        User currentUser = currentUserService.getCurrentUser();
+
+        initExportParams( params );
+
+        log.info( "(" + params.getUsername() + ") Export:Start" );
 
         try ( JsonGenerator generator = objectMapper.getFactory().createGenerator( outputStream ) )
         {
@@ -251,29 +242,105 @@ public class DefaultMetadataExportService implements MetadataExportService
             generator.writeStringField( "date", DateUtils.getIso8601( systemInfo.getServerDate() ) );
             generator.writeEndObject();
 
-            for ( Class<? extends IdentifiableObject> klass : metadata.keySet() )
+            for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
             {
-                List<Object> objects = new ArrayList<>( metadata.get( klass ) );
+                writeObjectsStream( params, klass, generator );
+            }
+
+            generator.writeEndObject();
+        }
+
+        log.info( "(" + params.getUsername() + ") Export:Done took " + timer.toString() );
+    }
+
+    /**
+     * Writes all objects of the given class to the generator, reading them in
+     * batches of {@link #STREAM_BATCH_SIZE} objects from a single scrollable
+     * query. The session is cleared after each batch so that memory usage is
+     * bounded by the batch size and not by the total number of objects of the
+     * class.
+     */
+    private void writeObjectsStream( MetadataExportParams params, Class<? extends IdentifiableObject> klass,
+        JsonGenerator generator )
+        throws IOException
+    {
+        String plural = schemaService.getDynamicSchema( klass ).getPlural();
+        Set<String> filters = new HashSet<>( params.getFields( klass ) );
+        AtomicBoolean arrayStarted = new AtomicBoolean( false );
+        AtomicInteger exported = new AtomicInteger( 0 );
 
-                if ( objects.isEmpty() )
+        try
+        {
+            queryService.scroll( getQuery( params, klass ), STREAM_BATCH_SIZE, batch -> {
+                if ( batch.isEmpty() )
                 {
-                    continue;
+                    return;
                 }
 
-                FieldFilterParams<?> fieldFilterParams = FieldFilterParams.builder()
-                    .objects( objects )
-                    .filters( new HashSet<>( params.getFields( klass ) ) )
-                    .skipSharing( params.getSkipSharing() )
-                    .user( currentUser )
-                    .build();
+                try
+                {
+                    if ( !arrayStarted.get() )
+                    {
+                        generator.writeArrayFieldStart( plural );
+                        arrayStarted.set( true );
+                    }
+
+                    FieldFilterParams<?> fieldFilterParams = FieldFilterParams.builder()
+                        .objects( new ArrayList<>( batch ) )
+                        .filters( filters )
+                        .skipSharing( params.getSkipSharing() )
+                        .user( params.getUser() )
+                        .build();
+
+                    fieldFilterService.toObjectNodesStream( fieldFilterParams, generator );
+                    generator.flush();
+                }
+                catch ( IOException ex )
+                {
+                    throw new UncheckedIOException( ex );
+                }
 
-                String plural = schemaService.getDynamicSchema( klass ).getPlural();
-                generator.writeArrayFieldStart( plural );
-                fieldFilterService.toObjectNodesStream( fieldFilterParams, generator );
-                generator.writeEndArray();
-            }
+                exported.addAndGet( batch.size() );
 
-            generator.writeEndObject();
+                clearSession( params, klass );
+            } );
+        }
+        catch ( UncheckedIOException ex )
+        {
+            throw ex.getCause();
+        }
+
+        if ( arrayStarted.get() )
+        {
+            generator.writeEndArray();
+
+            log.info( "(" + params.getUsername() + ") Exported " + exported + " objects of type "
+                + klass.getSimpleName() );
+        }
+    }
+
+    /**
+     * Clears the session of all objects loaded by the previous batch, and
+     * reloads the export user which is needed for sharing checks of the
+     * following batches.
+     */
+    private void clearSession( MetadataExportParams params, Class<? extends IdentifiableObject> klass )
+    {
+        manager.clear();
+
+        User user = params.getUser();
+
+        if ( user != null )
+        {
+            User reloaded = manager.get( User.class, user.getUid() );
+            params.setUser( reloaded );
+
+            Query query = params.getQuery( klass );
+
+            if ( query != null && query.getUser() == user )
+            {
+                query.setUser( reloaded );
+            }
         }
     }
 
@@ -459,43 +526,84 @@ public class DefaultMetadataExportService implements MetadataExportService
     {
         SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> metadata = new SetMap<>();
 
+        fetchDependencies( object );
+
         if ( OptionSet.class.isInstance( object ) )
         {
-            return handleOptionSet( metadata, (OptionSet) object );
+            handleOptionSet( metadata, (OptionSet) object );
         }
-
-        if ( DataSet.class.isInstance( object ) )
+        else if ( DataSet.class.isInstance( object ) )
         {
-            return handleDataSet( metadata, (DataSet) object );
+            handleDataSet( metadata, (DataSet) object );
         }
-
-        if ( Program.class.isInstance( object ) )
+        else if ( Program.class.isInstance( object ) )
         {
-            return handleProgram( metadata, (Program) object );
+            handleProgram( metadata, (Program) object );
         }
-
-        if ( CategoryCombo.class.isInstance( object ) )
+        else if ( CategoryCombo.class.isInstance( object ) )
         {
-            return handleCategoryCombo( metadata, (CategoryCombo) object );
+            handleCategoryCombo( metadata, (CategoryCombo) object );
         }
-
-        if ( Dashboard.class.isInstance( object ) )
+        else if ( Dashboard.class.isInstance( object ) )
         {
-            return handleDashboard( metadata, (Dashboard) object );
+            handleDashboard( metadata, (Dashboard) object );
         }
-
-        if ( DataElementGroup.class.isInstance( object ) )
+        else if ( DataElementGroup.class.isInstance( object ) )
         {
-            return handleDataElementGroup( metadata, (DataElementGroup) object );
+            handleDataElementGroup( metadata, (DataElementGroup) object );
         }
 
-        return metadata;
+        return resolveAttributes( metadata );
     }
 
     // -----------------------------------------------------------------------------------
     // Utility Methods
     // -----------------------------------------------------------------------------------
 
+    @SuppressWarnings( "unchecked" )
+    private void initExportParams( MetadataExportParams params )
+    {
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getClasses().isEmpty() )
+        {
+            schemaService.getMetadataSchemas().stream()
+                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
+                .filter( s -> !s.isSecondaryMetadata() )
+                .forEach( schema -> params.getClasses()
+                    .add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
+        }
+    }
+
+    private Query getQuery( MetadataExportParams params, Class<? extends IdentifiableObject> klass )
+    {
+        Query query;
+
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
+        {
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
+                orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
+
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
+
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
+
+        return query;
+    }
+
     private boolean isSelectedClass( @Nonnull List<String> values )
     {
         if ( values.stream().anyMatch( "false"::equalsIgnoreCase ) )
@@ -506,6 +614,137 @@ public class DefaultMetadataExportService implements MetadataExportService
         return values.stream().anyMatch( "true"::equalsIgnoreCase );
     }
 
+    /**
+     * Loads the dependency graph of data sets, programs, data element groups
+     * and category combos level by level, with one query per association and
+     * level instead of one query per object. The handle methods which walk
+     * the graph afterwards then find all objects in the session.
+     */
+    private void fetchDependencies( IdentifiableObject object )
+    {
+        if ( DataSet.class.isInstance( object ) )
+        {
+            DataSet dataSet = (DataSet) object;
+
+            fetchAssociations( DataSet.class, List.of( dataSet ), "dataSetElements", "sections", "indicators" );
+            fetchAssociations( DataSetElement.class, dataSet.getDataSetElements(), "dataElement", "categoryCombo" );
+            fetchAssociations( Section.class, dataSet.getSections(), "dataElements", "indicators" );
+
+            Set<DataElement> dataElements = collect( dataSet.getDataSetElements(), DataSetElement::getDataElement );
+            dataSet.getSections().forEach( section -> dataElements.addAll( section.getDataElements() ) );
+
+            Set<Indicator> indicators = new HashSet<>( dataSet.getIndicators() );
+            dataSet.getSections().forEach( section -> indicators.addAll( section.getIndicators() ) );
+            fetchAssociations( Indicator.class, indicators, "indicatorType" );
+
+            Set<CategoryCombo> categoryCombos = fetchDataElementDependencies( dataElements );
+            categoryCombos.addAll( collect( dataSet.getDataSetElements(), DataSetElement::getCategoryCombo ) );
+            fetchCategoryComboDependencies( categoryCombos );
+        }
+        else if ( Program.class.isInstance( object ) )
+        {
+            Program program = (Program) object;
+
+            fetchAssociations( Program.class, List.of( program ), "programStages", "programAttributes" );
+            fetchAssociations( ProgramStage.class, program.getProgramStages(), "programStageDataElements" );
+
+            Set<ProgramStageDataElement> programStageDataElements = new HashSet<>();
+            program.getProgramStages().forEach(
+                programStage -> programStageDataElements.addAll( programStage.getProgramStageDataElements() ) );
+            fetchAssociations( ProgramStageDataElement.class, programStageDataElements, "dataElement" );
+            fetchAssociations( ProgramTrackedEntityAttribute.class, program.getProgramAttributes(), "attribute" );
+
+            Set<TrackedEntityAttribute> attributes = collect( program.getProgramAttributes(),
+                ProgramTrackedEntityAttribute::getAttribute );
+            fetchAssociations( TrackedEntityAttribute.class, attributes, "optionSet" );
+
+            Set<DataElement> dataElements = collect( programStageDataElements,
+                ProgramStageDataElement::getDataElement );
+            fetchCategoryComboDependencies( fetchDataElementDependencies( dataElements ) );
+            fetchAssociations( OptionSet.class, collect( attributes, TrackedEntityAttribute::getOptionSet ),
+                "options" );
+        }
+        else if ( DataElementGroup.class.isInstance( object ) )
+        {
+            DataElementGroup dataElementGroup = (DataElementGroup) object;
+
+            fetchAssociations( DataElementGroup.class, List.of( dataElementGroup ), "members" );
+            fetchCategoryComboDependencies( fetchDataElementDependencies( dataElementGroup.getMembers() ) );
+        }
+        else if ( CategoryCombo.class.isInstance( object ) )
+        {
+            fetchCategoryComboDependencies( Set.of( (CategoryCombo) object ) );
+        }
+    }
+
+    /**
+     * Loads the category combos and option sets of the given data elements,
+     * and the options of the option sets.
+     *
+     * @return the category combos of the data elements, whose dependencies
+     *         are not loaded yet
+     */
+    private Set<CategoryCombo> fetchDataElementDependencies( Collection<DataElement> dataElements )
+    {
+        fetchAssociations( DataElement.class, dataElements, "categoryCombo", "optionSet", "commentOptionSet" );
+
+        Set<OptionSet> optionSets = collect( dataElements, DataElement::getOptionSet );
+        optionSets.addAll( collect( dataElements, DataElement::getCommentOptionSet ) );
+        fetchAssociations( OptionSet.class, optionSets, "options" );
+
+        return collect( dataElements, DataElement::getCategoryCombo );
+    }
+
+    private void fetchCategoryComboDependencies( Collection<CategoryCombo> categoryCombos )
+    {
+        fetchAssociations( CategoryCombo.class, categoryCombos, "categories", "optionCombos" );
+
+        Set<Category> categories = new HashSet<>();
+        Set<CategoryOptionCombo> optionCombos = new HashSet<>();
+
+        categoryCombos.forEach( categoryCombo -> {
+            categories.addAll( categoryCombo.getCategories() );
+            optionCombos.addAll( categoryCombo.getOptionCombos() );
+        } );
+
+        fetchAssociations( Category.class, categories, "categoryOptions" );
+        fetchAssociations( CategoryOptionCombo.class, optionCombos, "categoryOptions" );
+    }
+
+    /**
+     * Initializes the given association of all given objects with a single
+     * fetch join query per association and partition. Objects which are
+     * already in the session get their association initialized in place.
+     */
+    private void fetchAssociations( Class<?> klass, Collection<?> objects, String... associations )
+    {
+        if ( objects == null || objects.isEmpty() )
+        {
+            return;
+        }
+
+        Session session = sessionFactory.getCurrentSession();
+
+        for ( String association : associations )
+        {
+            String hql = "select distinct o from " + klass.getName() + " o left join fetch o." + association
+                + " where o in (:objects)";
+
+            for ( List<?> partition : Lists.partition( new ArrayList<>( objects ), FETCH_PARTITION_SIZE ) )
+            {
+                session.createQuery( hql ).setParameterList( "objects", partition ).list();
+            }
+        }
+    }
+
+    private <T, R> Set<R> collect( Collection<T> objects, Function<T, R> mapper )
+    {
+        return objects.stream()
+            .map( mapper )
+            .filter( Objects::nonNull )
+            .collect( Collectors.toSet() );
+    }
+
     private SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> handleDataSet(
         SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> metadata, DataSet dataSet )
     {
@@ -1083,7 +1322,31 @@ public class DefaultMetadataExportService implements MetadataExportService
         if ( identifiableObject == null )
             return metadata;
         identifiableObject.getAttributeValues().forEach(
-            av -> metadata.putValue( Attribute.class, attributeService.getAttribute( av.getAttribute().getUid() ) ) );
+            av -> metadata.putValue( Attribute.class, av.getAttribute() ) );
+
+        return metadata;
+    }
+
+    /**
+     * Replaces the attribute references collected while walking the object
+     * graph, which only carry the attribute identifier, with the persisted
+     * attributes, loaded in a single query.
+     */
+    private SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> resolveAttributes(
+        SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> metadata )
+    {
+        Set<IdentifiableObject> references = metadata.remove( Attribute.class );
+
+        if ( references == null || references.isEmpty() )
+        {
+            return metadata;
+        }
+
+        Set<String> uids = references.stream()
+            .map( IdentifiableObject::getUid )
+            .collect( Collectors.toSet() );
+
+        metadata.putValues( Attribute.class, new HashSet<>( manager.getByUid( Attribute.class, uids ) ) );
 
         return metadata;
     }
@@ -64,7 +64,8 @@ public interface MetadataExportService
 
     /**
      * Returns same result as getMetadata, but metadata is written to
-     * outputStream instead.
+     * outputStream instead. Objects are read and written in pages, so memory
+     * usage does not depend on the total number of exported objects.
      *
      * @param params Export parameters
      * @param outputStream Streaming target
@@ -55,6 +55,7 @@ import org.hisp.dhis.preheat.PreheatService;
 import org.hisp.dhis.schema.MergeParams;
 import org.hisp.dhis.schema.MergeService;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.system.deletion.DeletionManager;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
@@ -89,6 +90,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
     private final ObjectBundleHooks objectBundleHooks;
 
+    private final DeletionManager deletionManager;
+
     @Override
     @Transactional( readOnly = true )
     public ObjectBundle create( ObjectBundleParams params )
@@ -366,31 +369,34 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
         List<T> persistedObjects = bundle.getPreheat().getAll( bundle.getPreheatIdentifier(), objects );
 
-        for ( T object : persistedObjects )
-        {
-            ObjectReport objectReport = new ObjectReport( object, bundle );
-            objectReport.setDisplayName( IdentifiableObjectUtils.getDisplayName( object ) );
-            typeReport.addObjectReport( objectReport );
+        deletionManager.deleteAll( persistedObjects, object -> deleteObject( session, object, bundle, typeReport ) );
 
-            objectBundleHooks.getObjectHooks( object ).forEach( hook -> hook.preDelete( object, bundle ) );
-            manager.delete( object, bundle.getUser() );
+        return typeReport;
+    }
 
-            bundle.getPreheat().remove( bundle.getPreheatIdentifier(), object );
+    private <T extends IdentifiableObject> void deleteObject( Session session, T object, ObjectBundle bundle,
+        TypeReport typeReport )
+    {
+        ObjectReport objectReport = new ObjectReport( object, bundle );
+        objectReport.setDisplayName( IdentifiableObjectUtils.getDisplayName( object ) );
+        typeReport.addObjectReport( objectReport );
 
-            if ( log.isDebugEnabled() )
-            {
-                String msg = "(" + bundle.getUsername() + ") Deleted object '"
-                    + bundle.getPreheatIdentifier().getIdentifiersWithName( object ) + "'";
-                log.debug( msg );
-            }
+        objectBundleHooks.getObjectHooks( object ).forEach( hook -> hook.preDelete( object, bundle ) );
+        manager.delete( object, bundle.getUser() );
 
-            if ( FlushMode.OBJECT == bundle.getFlushMode() )
-            {
-                session.flush();
-            }
+        bundle.getPreheat().remove( bundle.getPreheatIdentifier(), object );
+
+        if ( log.isDebugEnabled() )
+        {
+            String msg = "(" + bundle.getUsername() + ") Deleted object '"
+                + bundle.getPreheatIdentifier().getIdentifiersWithName( object ) + "'";
+            log.debug( msg );
         }
 
-        return typeReport;
+        if ( FlushMode.OBJECT == bundle.getFlushMode() )
+        {
+            session.flush();
+        }
     }
 
     @SuppressWarnings( "unchecked" )
@@ -28,29 +28,45 @@
 package org.hisp.dhis.dxf2.sync;
 
 import static java.lang.String.format;
-import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_STAGE;
 
+import java.io.OutputStream;
 import java.util.Date;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.Setter;
 
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.datavalue.DataValueService;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSetService;
+import org.hisp.dhis.dxf2.datavalueset.DataValueSyncCursor;
+import org.hisp.dhis.dxf2.datavalueset.DataValueSyncPage;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncServiceException;
 import org.hisp.dhis.dxf2.synch.SystemInstance;
 import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.CodecUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
 /**
+ * Synchronizes data values changed since the last successful synchronization.
+ * <p>
+ * Changed data values are read in the order they changed, page by page, using
+ * a {@link DataValueSyncCursor} instead of page offsets. Each page is streamed
+ * GZIP compressed to the remote server, and paging stops with the first page
+ * that is not full. After each successfully transferred
+ * page the cursor is stored as checkpoint, so that a synchronization which
+ * failed or was interrupted resumes after the last transferred data value.
+ *
  * @author David Katuscak <katuscak.d@gmail.com>
  * @author Jan Bernitt (job progress tracking refactoring)
  */
@@ -58,6 +74,8 @@ import org.springframework.web.client.RestTemplate;
 @AllArgsConstructor
 public class DataValueSynchronization implements DataSynchronizationWithPaging
 {
+    private static final String CHECKPOINT_SEPARATOR = "|";
+
     private final DataValueService dataValueService;
 
     private final DataValueSetService dataValueSetService;
@@ -66,21 +84,41 @@ public class DataValueSynchronization implements DataSynchronizationWithPaging
 
     private final RestTemplate restTemplate;
 
+    @Qualifier( "streamingRestTemplate" )
+    private final RestTemplate streamingRestTemplate;
+
     @Getter
+    @Setter
     private static final class DataValueSynchronisationContext extends PagedDataSynchronisationContext
     {
         private final Date lastUpdatedAfter;
 
+        /**
+         * The cursor of the last data value transferred successfully, null
+         * before the first page.
+         */
+        private DataValueSyncCursor cursor;
+
+        /**
+         * The data values written to the current page.
+         */
+        private DataValueSyncPage page;
+
+        private boolean done;
+
+        private boolean failed;
+
         public DataValueSynchronisationContext( Date skipChangedBefore, int pageSize )
         {
-            this( skipChangedBefore, 0, null, pageSize, null );
+            this( skipChangedBefore, 0, null, pageSize, null, null );
         }
 
         public DataValueSynchronisationContext( Date skipChangedBefore, int objectsToSynchronize,
-            SystemInstance instance, int pageSize, Date lastUpdatedAfter )
+            SystemInstance instance, int pageSize, Date lastUpdatedAfter, DataValueSyncCursor cursor )
         {
             super( skipChangedBefore, objectsToSynchronize, instance, pageSize );
             this.lastUpdatedAfter = lastUpdatedAfter;
+            this.cursor = cursor;
         }
     }
 
@@ -113,6 +151,7 @@ public class DataValueSynchronization implements DataSynchronizationWithPaging
             progress.completedProcess( "SUCCESS! DataValueSynchronization job is done." );
             SyncUtils.setLastSyncSuccess( settings, SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC,
                 context.getStartTime() );
+            settings.deleteSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT );
             return SynchronizationResult.success( "DataValueSynchronization done." );
         }
 
@@ -135,49 +174,96 @@ public class DataValueSynchronization implements DataSynchronizationWithPaging
         {
             SystemInstance instance = SyncUtils.getRemoteInstance( settings, SyncEndpoint.DATA_VALUE_SETS );
             return new DataValueSynchronisationContext( skipChangedBefore, objectsToSynchronize, instance, pageSize,
-                lastUpdatedAfter );
+                lastUpdatedAfter, getCheckpoint( lastUpdatedAfter ) );
         }
-        return new DataValueSynchronisationContext( skipChangedBefore, 0, null, pageSize, lastUpdatedAfter );
+        return new DataValueSynchronisationContext( skipChangedBefore, 0, null, pageSize, lastUpdatedAfter, null );
     }
 
     private boolean runSyncWithPaging( DataValueSynchronisationContext context, JobProgress progress )
     {
         String msg = context.getObjectsToSynchronize() + " DataValues to synchronize were found.\n";
         msg += "Remote server URL for DataValues POST sync: " + context.getInstance().getUrl() + "\n";
-        msg += "DataValueSynchronization job has " + context.getPages() + " pages to sync. With page size: "
+        msg += "DataValueSynchronization job has at most " + context.getPages() + " pages to sync. With page size: "
             + context.getPageSize();
 
-        progress.startingStage( msg, context.getPages(), SKIP_ITEM );
-        progress.runStage( IntStream.range( 1, context.getPages() + 1 ).boxed(),
+        if ( context.getCursor() != null )
+        {
+            msg += "\nResuming after checkpoint: " + context.getCursor();
+        }
+
+        progress.startingStage( msg, context.getPages(), SKIP_STAGE );
+        progress.runStage( Stream.iterate( 1, page -> page + 1 )
+            .takeWhile( page -> !context.isDone() && !context.isFailed() ),
             page -> format( "Synchronizing page %d with page size %d", page, context.getPageSize() ),
             page -> synchronizePage( page, context ) );
-        return !progress.isSkipCurrentStage();
+        return !context.isFailed() && !progress.isSkipCurrentStage();
     }
 
     protected void synchronizePage( int page, DataValueSynchronisationContext context )
     {
-        if ( !sendSyncRequest( page, context ) )
+        context.setPage( null );
+
+        if ( !sendSyncRequest( context ) )
         {
+            context.setFailed( true );
             throw new MetadataSyncServiceException( format( "Page %d synchronisation failed.", page ) );
         }
+
+        DataValueSyncPage syncPage = context.getPage();
+
+        if ( syncPage.getCursor() != null )
+        {
+            context.setCursor( syncPage.getCursor() );
+            settings.saveSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT,
+                toCheckpoint( context.getLastUpdatedAfter(), syncPage.getCursor() ) );
+        }
+
+        context.setDone( syncPage.isLast( context.getPageSize() ) );
     }
 
-    private boolean sendSyncRequest( int page, DataValueSynchronisationContext context )
+    private boolean sendSyncRequest( DataValueSynchronisationContext context )
     {
         SystemInstance instance = context.getInstance();
         Date lastUpdatedAfter = context.getLastUpdatedAfter();
+        DataValueSyncCursor after = context.getCursor();
         int syncPageSize = context.getPageSize();
 
         RequestCallback requestCallback = request -> {
             request.getHeaders().setContentType( MediaType.APPLICATION_JSON );
+            request.getHeaders().add( HttpHeaders.CONTENT_ENCODING, "gzip" );
             request.getHeaders().add( SyncUtils.HEADER_AUTHORIZATION,
                 CodecUtils.getBasicAuthString( instance.getUsername(), instance.getPassword() ) );
 
-            dataValueSetService.exportDataValueSetJson( lastUpdatedAfter, request.getBody(), new IdSchemes(),
-                syncPageSize, page );
+            try ( OutputStream body = new GZIPOutputStream( request.getBody() ) )
+            {
+                context.setPage( dataValueSetService.exportDataValueSetJson( lastUpdatedAfter, after, body,
+                    new IdSchemes(), syncPageSize ) );
+            }
         };
 
-        return SyncUtils.sendSyncRequest( settings, restTemplate, requestCallback, instance,
+        return SyncUtils.sendSyncRequest( settings, streamingRestTemplate, requestCallback, instance,
             SyncEndpoint.DATA_VALUE_SETS );
     }
+
+    /**
+     * Returns the stored checkpoint cursor if it belongs to a synchronization
+     * of data values changed after the given date, null otherwise.
+     */
+    private DataValueSyncCursor getCheckpoint( Date lastUpdatedAfter )
+    {
+        String checkpoint = settings.getStringSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT );
+        String prefix = lastUpdatedAfter.getTime() + CHECKPOINT_SEPARATOR;
+
+        if ( checkpoint == null || !checkpoint.startsWith( prefix ) )
+        {
+            return null;
+        }
+
+        return DataValueSyncCursor.parse( checkpoint.substring( prefix.length() ) );
+    }
+
+    private static String toCheckpoint( Date lastUpdatedAfter, DataValueSyncCursor cursor )
+    {
+        return lastUpdatedAfter.getTime() + CHECKPOINT_SEPARATOR + cursor;
+    }
 }
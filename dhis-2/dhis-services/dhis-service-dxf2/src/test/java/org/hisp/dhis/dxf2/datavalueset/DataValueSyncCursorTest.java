@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link DataValueSyncCursor}.
+ */
+class DataValueSyncCursorTest
+{
+    @Test
+    void parseRoundTripKeepsTimestampPrecision()
+    {
+        Timestamp lastUpdated = Timestamp.valueOf( "2022-03-04 05:06:07.123456" );
+        DataValueSyncCursor cursor = new DataValueSyncCursor( lastUpdated, 1L, 2L, 3L, 4L, 5L );
+
+        DataValueSyncCursor parsed = DataValueSyncCursor.parse( cursor.toString() );
+
+        assertEquals( cursor, parsed );
+        assertEquals( 123456000, parsed.getLastUpdated().getNanos() );
+    }
+
+    @Test
+    void toArgsFollowsKeyColumnOrder()
+    {
+        Timestamp lastUpdated = Timestamp.valueOf( "2022-03-04 05:06:07" );
+        DataValueSyncCursor cursor = new DataValueSyncCursor( lastUpdated, 1L, 2L, 3L, 4L, 5L );
+
+        assertArrayEquals( new Object[] { lastUpdated, 1L, 2L, 3L, 4L, 5L }, cursor.toArgs() );
+    }
+
+    @Test
+    void parseInvalidValueReturnsNull()
+    {
+        assertNull( DataValueSyncCursor.parse( null ) );
+        assertNull( DataValueSyncCursor.parse( "" ) );
+        assertNull( DataValueSyncCursor.parse( "2022-03-04 05:06:07;1;2" ) );
+        assertNull( DataValueSyncCursor.parse( "not-a-date;1;2;3;4;5" ) );
+    }
+}
@@ -28,19 +28,44 @@
 package org.hisp.dhis.dxf2.metadata;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.attribute.Attribute;
+import org.hisp.dhis.attribute.AttributeValue;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.common.DataDimensionType;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.SetMap;
+import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dashboard.Dashboard;
 import org.hisp.dhis.dashboard.DashboardItem;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.fieldfiltering.FieldFilterService;
 import org.hisp.dhis.mapping.MapView;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.option.OptionGroup;
@@ -50,17 +75,28 @@ import org.hisp.dhis.programrule.ProgramRule;
 import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.QueryService;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.system.SystemInfo;
+import org.hisp.dhis.system.SystemService;
+import org.hisp.dhis.user.User;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * Unit tests for {@link DefaultMetadataExportService}.
  *
@@ -78,6 +114,24 @@ class DefaultMetadataExportServiceTest
     @Mock
     private ProgramRuleVariableService programRuleVariableService;
 
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private FieldFilterService fieldFilterService;
+
+    @Mock
+    private SystemService systemService;
+
+    @Mock
+    private IdentifiableObjectManager manager;
+
+    @Mock( answer = Answers.RETURNS_DEEP_STUBS )
+    private SessionFactory sessionFactory;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private DefaultMetadataExportService service;
 
@@ -190,4 +244,101 @@ class DefaultMetadataExportServiceTest
         assertNotNull( result.get( OptionGroup.class ) );
         assertNotNull( result.get( OptionSet.class ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMetadataWithDependenciesLoadsAttributesOnce()
+    {
+        Attribute attribute = new Attribute( "attributeA", ValueType.TEXT );
+        attribute.setUid( "AttributeA1" );
+
+        Attribute reference = new Attribute( attribute.getUid() );
+
+        Option optionA = new Option( "optionA", "A" );
+        optionA.getAttributeValues().add( new AttributeValue( "a", reference ) );
+        Option optionB = new Option( "optionB", "B" );
+        optionB.getAttributeValues().add( new AttributeValue( "b", reference ) );
+
+        OptionSet optionSet = new OptionSet();
+        optionSet.setName( "optionSetA" );
+        optionSet.getAttributeValues().add( new AttributeValue( "c", reference ) );
+        optionSet.addOption( optionA );
+        optionSet.addOption( optionB );
+
+        when( manager.getByUid( Attribute.class, Set.of( attribute.getUid() ) ) ).thenReturn( List.of( attribute ) );
+
+        SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> result = service
+            .getMetadataWithDependencies( optionSet );
+
+        assertEquals( Set.of( attribute ), result.get( Attribute.class ) );
+        assertEquals( 2, result.get( Option.class ).size() );
+        verify( manager, times( 1 ) ).getByUid( eq( Attribute.class ), any( Collection.class ) );
+    }
+
+    @Test
+    void testGetMetadataWithDependenciesFetchesAssociationsPerLevel()
+    {
+        Session session = mock( Session.class, Answers.RETURNS_DEEP_STUBS );
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+
+        CategoryCombo categoryCombo = new CategoryCombo( "categoryComboA", DataDimensionType.DISAGGREGATION );
+        DataSet dataSet = new DataSet( "dataSetA" );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            DataElement dataElement = new DataElement( "dataElement" + i );
+            dataElement.setCategoryCombo( categoryCombo );
+            dataSet.addDataSetElement( dataElement );
+        }
+
+        SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> result = service
+            .getMetadataWithDependencies( dataSet );
+
+        assertEquals( 3, result.get( DataElement.class ).size() );
+        assertEquals( Set.of( categoryCombo ), result.get( CategoryCombo.class ) );
+        verify( session, times( 10 ) ).createQuery( anyString() );
+    }
+
+    @Test
+    void testGetMetadataAsObjectNodeStreamWritesBatches()
+        throws IOException
+    {
+        Schema schema = new Schema( DataElement.class, "dataElement", "dataElements" );
+        SystemInfo systemInfo = new SystemInfo();
+        systemInfo.setServerDate( new Date() );
+
+        User user = new User();
+        user.setUid( "userUid0001" );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.setUser( user );
+        params.addQuery( Query.from( schema ) );
+
+        when( systemService.getSystemInfo() ).thenReturn( systemInfo );
+        when( schemaService.getDynamicSchema( DataElement.class ) ).thenReturn( schema );
+        when( manager.get( User.class, user.getUid() ) ).thenReturn( user );
+        doAnswer( invocation -> {
+            Consumer<List<? extends IdentifiableObject>> consumer = invocation.getArgument( 2 );
+            consumer.accept( createDataElements( 1000 ) );
+            consumer.accept( createDataElements( 5 ) );
+            return null;
+        } ).when( queryService ).scroll( any( Query.class ), eq( 1000 ), any() );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.getMetadataAsObjectNodeStream( params, outputStream );
+
+        verify( queryService, times( 1 ) ).scroll( any( Query.class ), eq( 1000 ), any() );
+        verify( fieldFilterService, times( 2 ) ).toObjectNodesStream( any(), any( JsonGenerator.class ) );
+        verify( manager, times( 2 ) ).clear();
+
+        JsonNode root = objectMapper.readTree( outputStream.toByteArray() );
+        assertTrue( root.has( "system" ) );
+        assertTrue( root.get( "dataElements" ).isArray() );
+    }
+
+    private List<DataElement> createDataElements( int count )
+    {
+        return IntStream.range( 0, count )
+            .mapToObj( i -> new DataElement( "dataElement" + i ) )
+            .collect( Collectors.toList() );
+    }
+}
@@ -189,4 +189,18 @@ public class HibernateDataStatisticsEventStore
         stats.setViews( views );
         return stats;
     }
+
+    @Override
+    public List<String> getFavoriteViewers( String uid, int limit )
+    {
+        String sql = "select dse.username " +
+            "from datastatisticsevent dse " +
+            "where dse.favoriteuid = ? " +
+            "and dse.username is not null " +
+            "group by dse.username " +
+            "order by count(*) desc " +
+            "limit ?";
+
+        return jdbcTemplate.queryForList( sql, String.class, uid, limit );
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.visualization;
+
+import java.util.List;
+
+/**
+ * Service for warming up the analytics cache with the analytics requests of the
+ * most viewed visualizations.
+ */
+public interface AnalyticsCacheWarmUpService
+{
+    /**
+     * Returns the most viewed visualizations according to data statistics,
+     * counting views of visualizations and of the dashboards containing them.
+     * Each visualization is returned once for each of its most frequent
+     * viewers.
+     *
+     * @param maxItems the maximum number of visualizations.
+     * @param usersPerItem the maximum number of viewers per visualization.
+     * @return a list of {@link AnalyticsCacheWarmUpItem} ordered by descending
+     *         number of views.
+     */
+    List<AnalyticsCacheWarmUpItem> getWarmUpItems( int maxItems, int usersPerItem );
+
+    /**
+     * Replays the analytics request of the given item, which populates the
+     * analytics cache. The request is built the way the analytics API builds
+     * the requests of the analytics apps and is run as the user of the item,
+     * so that it has the cache key of the requests of that user.
+     *
+     * @param item the {@link AnalyticsCacheWarmUpItem}.
+     * @return true if the request was replayed, false if the visualization or
+     *         an enabled user to run it as no longer exists.
+     */
+    boolean warmUp( AnalyticsCacheWarmUpItem item );
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.visualization;
+
+import static org.hisp.dhis.common.DimensionalObject.DIMENSION_NAME_SEP;
+import static org.hisp.dhis.common.DimensionalObject.OPTION_SEP;
+import static org.hisp.dhis.common.DimensionalObjectUtils.getDimensionalItemIds;
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.DASHBOARD_VIEW;
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.VISUALIZATION_VIEW;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.SortOrder;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.dashboard.Dashboard;
+import org.hisp.dhis.dashboard.DashboardItem;
+import org.hisp.dhis.dashboard.DashboardService;
+import org.hisp.dhis.datastatistics.DataStatisticsEventStore;
+import org.hisp.dhis.datastatistics.FavoriteStatistics;
+import org.hisp.dhis.user.CurrentUserDetails;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingKey;
+import org.hisp.dhis.user.UserSettingService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class DefaultAnalyticsCacheWarmUpService
+    implements AnalyticsCacheWarmUpService
+{
+    private final DataStatisticsEventStore dataStatisticsEventStore;
+
+    private final DashboardService dashboardService;
+
+    private final VisualizationService visualizationService;
+
+    private final DataQueryService dataQueryService;
+
+    private final AnalyticsService analyticsService;
+
+    private final UserService userService;
+
+    private final UserSettingService userSettingService;
+
+    @Override
+    @Transactional( readOnly = true )
+    public List<AnalyticsCacheWarmUpItem> getWarmUpItems( int maxItems, int usersPerItem )
+    {
+        Map<String, Candidate> candidates = new HashMap<>();
+
+        for ( FavoriteStatistics stats : dataStatisticsEventStore.getFavoritesData( VISUALIZATION_VIEW, maxItems,
+            SortOrder.DESC, null ) )
+        {
+            candidates.computeIfAbsent( stats.getId(), uid -> new Candidate( uid, stats.getName(), uid ) )
+                .addViews( stats.getViews() );
+        }
+
+        // Dashboard items count the dashboard views, the most viewed dashboard
+        // is the source of viewers unless the visualization has its own views
+
+        for ( FavoriteStatistics stats : dataStatisticsEventStore.getFavoritesData( DASHBOARD_VIEW, maxItems,
+            SortOrder.DESC, null ) )
+        {
+            Dashboard dashboard = dashboardService.getDashboard( stats.getId() );
+
+            if ( dashboard == null )
+            {
+                continue;
+            }
+
+            for ( DashboardItem item : dashboard.getItems() )
+            {
+                Visualization visualization = item.getVisualization();
+
+                if ( visualization != null )
+                {
+                    candidates.computeIfAbsent( visualization.getUid(),
+                        uid -> new Candidate( uid, visualization.getName(), dashboard.getUid() ) )
+                        .addViews( stats.getViews() );
+                }
+            }
+        }
+
+        List<AnalyticsCacheWarmUpItem> items = new ArrayList<>();
+
+        candidates.values().stream()
+            .sorted( Comparator.comparingInt( Candidate::getViews ).reversed() )
+            .limit( maxItems )
+            .forEach( candidate -> {
+                List<String> usernames = dataStatisticsEventStore.getFavoriteViewers( candidate.getViewerSource(),
+                    usersPerItem );
+
+                if ( usernames.isEmpty() )
+                {
+                    items.add( candidate.toItem( null ) );
+                }
+
+                usernames.forEach( username -> items.add( candidate.toItem( username ) ) );
+            } );
+
+        return items;
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public boolean warmUp( AnalyticsCacheWarmUpItem item )
+    {
+        Visualization visualization = visualizationService.getVisualization( item.getVisualizationUid() );
+
+        if ( visualization == null )
+        {
+            return false;
+        }
+
+        User user = item.getUsername() != null ? userService.getUserByUsername( item.getUsername() ) : null;
+
+        if ( user == null )
+        {
+            user = visualization.getCreatedBy();
+        }
+
+        if ( user == null || user.isDisabled() )
+        {
+            return false;
+        }
+
+        SecurityContext jobContext = SecurityContextHolder.getContext();
+
+        try
+        {
+            SecurityContextHolder.setContext( getSecurityContext( user ) );
+
+            DataQueryParams params = dataQueryService.getFromRequest( getDataQueryRequest( visualization, user ) );
+
+            analyticsService.getAggregatedDataValues( params );
+        }
+        finally
+        {
+            SecurityContextHolder.setContext( jobContext );
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the request which the analytics apps send to the analytics API
+     * for the given visualization and user. The columns and rows of the
+     * visualization are the dimensions and its filters are the filters of the
+     * request, with the dimension items in the order stored. The query options
+     * of the visualization are passed on as request parameters, together with
+     * the analysis display property of the user. Numerators and denominators
+     * are requested for pivot tables only.
+     *
+     * @param visualization the {@link Visualization}.
+     * @param user the {@link User} viewing the visualization.
+     * @return a {@link DataQueryRequest}.
+     */
+    DataQueryRequest getDataQueryRequest( Visualization visualization, User user )
+    {
+        visualization.clearTransientState();
+        visualization.populateAnalyticalProperties();
+
+        Set<String> dimensions = new LinkedHashSet<>();
+        visualization.getColumns().forEach( dimension -> dimensions.add( getDimensionParam( dimension ) ) );
+        visualization.getRows().forEach( dimension -> dimensions.add( getDimensionParam( dimension ) ) );
+
+        Set<String> filters = new LinkedHashSet<>();
+        visualization.getFilters().forEach( filter -> filters.add( getDimensionParam( filter ) ) );
+
+        return DataQueryRequest.newBuilder()
+            .dimension( dimensions )
+            .filter( filters )
+            .aggregationType( visualization.getAggregationType() )
+            .measureCriteria( visualization.getMeasureCriteria() )
+            .completedOnly( visualization.isCompletedOnly() )
+            .skipRounding( visualization.isSkipRounding() )
+            .hideEmptyRows( visualization.isHideEmptyRows() )
+            .hideEmptyColumns( visualization.isHideEmptyColumns() )
+            .showHierarchy( visualization.isShowHierarchy() )
+            .includeNumDen( visualization.getType() == VisualizationType.PIVOT_TABLE )
+            .displayProperty( getDisplayProperty( user ) )
+            .apiVersion( DhisApiVersion.DEFAULT )
+            .build();
+    }
+
+    /**
+     * Returns the request parameter of the given dimension, of the form
+     * {@code dimension:item;item}, or the dimension identifier only if the
+     * dimension has no items.
+     */
+    private String getDimensionParam( DimensionalObject dimension )
+    {
+        List<String> items = getDimensionalItemIds( dimension.getItems() );
+
+        return items.isEmpty() ? dimension.getDimension()
+            : dimension.getDimension() + DIMENSION_NAME_SEP + StringUtils.join( items, OPTION_SEP );
+    }
+
+    private DisplayProperty getDisplayProperty( User user )
+    {
+        Serializable displayProperty = userSettingService.getUserSetting( UserSettingKey.ANALYSIS_DISPLAY_PROPERTY,
+            user );
+
+        return displayProperty instanceof DisplayProperty ? (DisplayProperty) displayProperty : DisplayProperty.NAME;
+    }
+
+    /**
+     * Returns a security context authenticated as the given user, so that user
+     * organisation units and data view constraints of the replayed query are
+     * those of the user and not those of the job.
+     */
+    private SecurityContext getSecurityContext( User user )
+    {
+        CurrentUserDetails userDetails = userService.createUserDetails( user, user.getPassword(), true, true );
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication( new UsernamePasswordAuthenticationToken( userDetails, "",
+            userDetails.getAuthorities() ) );
+
+        return context;
+    }
+
+    /**
+     * A visualization with its accumulated views and the favorite identifier
+     * to look up its viewers by.
+     */
+    @RequiredArgsConstructor
+    private static class Candidate
+    {
+        private final String uid;
+
+        private final String name;
+
+        private final String viewerSource;
+
+        private int views;
+
+        void addViews( Integer views )
+        {
+            this.views += views != null ? views : 0;
+        }
+
+        int getViews()
+        {
+            return views;
+        }
+
+        String getViewerSource()
+        {
+            return viewerSource;
+        }
+
+        AnalyticsCacheWarmUpItem toItem( String username )
+        {
+            return new AnalyticsCacheWarmUpItem( uid, name, username, views );
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.visualization.scheduling;
+
+import static java.lang.String.format;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.scheduling.Job;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmUpJobParameters;
+import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.visualization.AnalyticsCacheWarmUpItem;
+import org.hisp.dhis.visualization.AnalyticsCacheWarmUpService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job which populates the analytics cache by replaying the analytics requests
+ * of the most viewed visualizations and dashboard items, so that the first
+ * users after an analytics table update do not pay the full query cost. The job
+ * is started right after the analytics tables have been generated when a
+ * configuration of this job type exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsCacheWarmUpJob implements Job
+{
+    private final AnalyticsCacheWarmUpService warmUpService;
+
+    private final AnalyticsCache analyticsCache;
+
+    @Override
+    public JobType getJobType()
+    {
+        return JobType.ANALYTICS_CACHE_WARM_UP;
+    }
+
+    @Override
+    public void execute( JobConfiguration jobConfiguration, JobProgress progress )
+    {
+        AnalyticsCacheWarmUpJobParameters params = jobConfiguration.getJobParameters() != null
+            ? (AnalyticsCacheWarmUpJobParameters) jobConfiguration.getJobParameters()
+            : new AnalyticsCacheWarmUpJobParameters();
+
+        progress.startingProcess( "Analytics cache warm-up" );
+
+        if ( !analyticsCache.isEnabled() )
+        {
+            progress.completedProcess( "Analytics cache is disabled, nothing to warm up" );
+            return;
+        }
+
+        Clock clock = new Clock( log ).startClock();
+
+        progress.startingStage( "Finding most viewed visualizations" );
+        List<AnalyticsCacheWarmUpItem> items = progress.runStage( List.of(),
+            () -> warmUpService.getWarmUpItems( params.getItems(), params.getUsersPerItem() ) );
+
+        AtomicInteger replayed = new AtomicInteger();
+        Set<String> warmed = ConcurrentHashMap.newKeySet();
+
+        progress.startingStage( "Replaying analytics requests", items.size(), SKIP_ITEM );
+        progress.runStageInParallel( params.getConcurrency(), items,
+            item -> format( "%s (%s)", item.getName(), item.getUsername() ),
+            item -> {
+                if ( warmUpService.warmUp( item ) )
+                {
+                    replayed.incrementAndGet();
+                    warmed.add( item.getVisualizationUid() );
+                }
+            } );
+
+        Map<String, Integer> views = new HashMap<>();
+        items.forEach( item -> views.put( item.getVisualizationUid(), item.getViews() ) );
+
+        int totalViews = views.values().stream().mapToInt( Integer::intValue ).sum();
+        int warmedViews = warmed.stream().mapToInt( views::get ).sum();
+
+        String summary = format(
+            "Replayed %d of %d analytics requests, warmed up %d of %d visualizations covering %d of %d views: %s",
+            replayed.get(), items.size(), warmed.size(), views.size(), warmedViews, totalViews, clock.time() );
+
+        log.info( summary );
+
+        progress.completedProcess( summary );
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.visualization;
+
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.DASHBOARD_VIEW;
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.VISUALIZATION_VIEW;
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.SortOrder;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.dashboard.Dashboard;
+import org.hisp.dhis.dashboard.DashboardItem;
+import org.hisp.dhis.dashboard.DashboardService;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datastatistics.DataStatisticsEventStore;
+import org.hisp.dhis.datastatistics.FavoriteStatistics;
+import org.hisp.dhis.period.RelativePeriods;
+import org.hisp.dhis.user.CurrentUserDetailsImpl;
+import org.hisp.dhis.user.CurrentUserUtil;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingKey;
+import org.hisp.dhis.user.UserSettingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsCacheWarmUpServiceTest
+{
+    @Mock
+    private DataStatisticsEventStore dataStatisticsEventStore;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private VisualizationService visualizationService;
+
+    @Mock
+    private DataQueryService dataQueryService;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserSettingService userSettingService;
+
+    private DefaultAnalyticsCacheWarmUpService warmUpService;
+
+    @BeforeEach
+    public void setUp()
+    {
+        warmUpService = new DefaultAnalyticsCacheWarmUpService( dataStatisticsEventStore, dashboardService,
+            visualizationService, dataQueryService, analyticsService, userService, userSettingService );
+    }
+
+    @Test
+    void getWarmUpItemsCountsDashboardViews()
+    {
+        Visualization visualizationA = visualizationStub( "visualizA1", "A" );
+        Visualization visualizationB = visualizationStub( "visualizB1", "B" );
+
+        Dashboard dashboard = new Dashboard( "Dashboard" );
+        dashboard.setUid( "dashboard1" );
+        dashboard.setItems( List.of( dashboardItemStub( visualizationA ), dashboardItemStub( visualizationB ) ) );
+
+        when( dataStatisticsEventStore.getFavoritesData( eq( VISUALIZATION_VIEW ), eq( 10 ), eq( SortOrder.DESC ),
+            isNull() ) ).thenReturn( List.of( statisticsStub( "visualizA1", "A", 10 ) ) );
+        when( dataStatisticsEventStore.getFavoritesData( eq( DASHBOARD_VIEW ), eq( 10 ), eq( SortOrder.DESC ),
+            isNull() ) ).thenReturn( List.of( statisticsStub( "dashboard1", "Dashboard", 30 ) ) );
+        when( dashboardService.getDashboard( "dashboard1" ) ).thenReturn( dashboard );
+        when( dataStatisticsEventStore.getFavoriteViewers( "visualizA1", 2 ) ).thenReturn( List.of( "admin", "john" ) );
+        when( dataStatisticsEventStore.getFavoriteViewers( "dashboard1", 2 ) ).thenReturn( List.of() );
+
+        List<AnalyticsCacheWarmUpItem> items = warmUpService.getWarmUpItems( 10, 2 );
+
+        assertEquals( List.of(
+            new AnalyticsCacheWarmUpItem( "visualizA1", "A", "admin", 40 ),
+            new AnalyticsCacheWarmUpItem( "visualizA1", "A", "john", 40 ),
+            new AnalyticsCacheWarmUpItem( "visualizB1", "B", null, 30 ) ), items );
+    }
+
+    @Test
+    void warmUpRunsAsOwnerWhenViewerIsUnknown()
+    {
+        User owner = new User();
+        owner.setUsername( "owner" );
+
+        Visualization visualization = visualizationStub( "visualizA1", "A" );
+        visualization.setCreatedBy( owner );
+
+        DataQueryParams params = DataQueryParams.newBuilder().build();
+        List<String> usernames = new ArrayList<>();
+
+        when( visualizationService.getVisualization( "visualizA1" ) ).thenReturn( visualization );
+        when( userService.createUserDetails( owner, null, true, true ) ).thenReturn(
+            CurrentUserDetailsImpl.builder().username( "owner" ).authorities( List.of() ).build() );
+        when( dataQueryService.getFromRequest( any( DataQueryRequest.class ) ) ).thenAnswer( invocation -> {
+            usernames.add( CurrentUserUtil.getCurrentUsername() );
+            return params;
+        } );
+
+        assertTrue( warmUpService.warmUp( new AnalyticsCacheWarmUpItem( "visualizA1", "A", null, 10 ) ) );
+
+        assertEquals( List.of( "owner" ), usernames );
+        assertNull( CurrentUserUtil.getCurrentUsername() );
+        verify( analyticsService ).getAggregatedDataValues( params );
+    }
+
+    @Test
+    void warmUpSkipsDeletedVisualization()
+    {
+        assertFalse( warmUpService.warmUp( new AnalyticsCacheWarmUpItem( "visualizA1", "A", "admin", 10 ) ) );
+
+        verifyNoInteractions( dataQueryService, analyticsService );
+    }
+
+    @Test
+    void getDataQueryRequestMatchesAnalyticsAppRequest()
+    {
+        DataElement dataElement = createDataElement( 'A' );
+
+        User user = new User();
+
+        Visualization visualization = visualizationStub( "visualizA1", "A" );
+        visualization.setType( VisualizationType.PIVOT_TABLE );
+        visualization.setColumnDimensions( List.of( "dx" ) );
+        visualization.setRowDimensions( List.of( "pe" ) );
+        visualization.setFilterDimensions( List.of( "ou" ) );
+        visualization.addDataDimensionItem( dataElement );
+        visualization.getPeriods().add( createPeriod( "202201" ) );
+        visualization.setRelatives( new RelativePeriods().setLast12Months( true ) );
+        visualization.setUserOrganisationUnit( true );
+        visualization.setSkipRounding( true );
+
+        when( userSettingService.getUserSetting( UserSettingKey.ANALYSIS_DISPLAY_PROPERTY, user ) )
+            .thenReturn( DisplayProperty.SHORTNAME );
+
+        DataQueryRequest request = warmUpService.getDataQueryRequest( visualization, user );
+
+        assertEquals( List.of( "dx:" + dataElement.getUid(), "pe:202201;LAST_12_MONTHS" ),
+            new ArrayList<>( request.getDimension() ) );
+        assertEquals( Set.of( "ou:USER_ORGUNIT" ), request.getFilter() );
+        assertTrue( request.isIncludeNumDen() );
+        assertTrue( request.isSkipRounding() );
+        assertEquals( DisplayProperty.SHORTNAME, request.getDisplayProperty() );
+    }
+
+    private Visualization visualizationStub( String uid, String name )
+    {
+        Visualization visualization = new Visualization( name );
+        visualization.setUid( uid );
+        return visualization;
+    }
+
+    private DashboardItem dashboardItemStub( Visualization visualization )
+    {
+        DashboardItem item = new DashboardItem();
+        item.setVisualization( visualization );
+        return item;
+    }
+
+    private FavoriteStatistics statisticsStub( String uid, String name, int views )
+    {
+        FavoriteStatistics statistics = new FavoriteStatistics();
+        statistics.setId( uid );
+        statistics.setName( name );
+        statistics.setViews( views );
+        return statistics;
+    }
+}
@@ -66,6 +66,8 @@ public enum SettingKey
         DigitGroupSeparator.class ),
     CURRENT_DOMAIN_TYPE( "keyCurrentDomainType" ),
     TRACKER_DASHBOARD_LAYOUT( "keyTrackerDashboardLayout" ),
+    TRACKER_SEARCH_DOCUMENT_ENABLED( "keyTrackerSearchDocumentEnabled", Boolean.FALSE, Boolean.class ),
+    RESERVED_VALUE_POOL_SIZE( "keyReservedValuePoolSize", 0, Integer.class ),
     APPLICATION_TITLE( "applicationTitle", "DHIS 2", String.class, false, true ),
     APPLICATION_INTRO( "keyApplicationIntro", true ),
     APPLICATION_NOTIFICATION( "keyApplicationNotification", true ),
@@ -126,6 +128,7 @@ public enum SettingKey
     LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_RUNTIME( "keyLastSuccessfulLatestAnalyticsPartitionRuntime" ),
     LAST_MONITORING_RUN( "keyLastMonitoringRun", Date.class ),
     LAST_SUCCESSFUL_DATA_VALUE_SYNC( "keyLastSuccessfulDataSynch", new Date( 0 ), Date.class ),
+    DATA_VALUE_SYNC_CHECKPOINT( "keyDataValueSyncCheckpoint", "", String.class ),
     LAST_SUCCESSFUL_EVENT_DATA_SYNC( "keyLastSuccessfulEventsDataSynch", new Date( 0 ), Date.class ),
     LAST_SUCCESSFUL_COMPLETE_DATA_SET_REGISTRATION_SYNC( "keyLastCompleteDataSetRegistrationSyncSuccess", new Date( 0 ),
         Date.class ),
@@ -0,0 +1,15 @@
+
+-- Stores the most recent result of each data integrity check
+
+create table if not exists dataintegrityresult (
+    dataintegrityresultid int8 not null,
+    name varchar(255) not null,
+    type varchar(10) not null,
+    finishedtime timestamp not null,
+    error text null,
+    issuecount int4 null,
+    percentage float8 null,
+    issues text null,
+    constraint dataintegrityresult_pkey primary key (dataintegrityresultid),
+    constraint dataintegrityresult_name_type_key unique (name, type)
+);
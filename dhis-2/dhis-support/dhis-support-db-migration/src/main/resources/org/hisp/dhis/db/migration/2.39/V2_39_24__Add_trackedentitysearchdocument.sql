@@ -0,0 +1,114 @@
+
+-- Per tracked entity instance search document holding the lower cased values
+-- of the searchable attributes of the instance, used to narrow down free text
+-- searches. Documents are built and the triggers below are enabled by the
+-- tracker search optimization job when the search document setting is on.
+
+create table if not exists trackedentitysearchdocument (
+    trackedentityinstanceid int8 not null,
+    document text not null,
+    constraint trackedentitysearchdocument_pkey primary key (trackedentityinstanceid)
+);
+
+-- Rebuilds the search documents of the given instances from the values of
+-- attributes which are unique or searchable for a program or tracked entity
+-- type. The instance rows are locked first so that concurrent refreshes of
+-- the same instance are serialized and the last one sees all values.
+
+CREATE OR REPLACE FUNCTION updateTrackedEntitySearchDocuments(tei_ids int8[]) RETURNS void AS $$
+	BEGIN
+		IF (tei_ids IS NULL OR cardinality(tei_ids) = 0) THEN
+			RETURN;
+		END IF;
+
+		PERFORM 1 FROM trackedentityinstance
+		WHERE trackedentityinstanceid = ANY(tei_ids)
+		ORDER BY trackedentityinstanceid
+		FOR NO KEY UPDATE;
+
+		DELETE FROM trackedentitysearchdocument WHERE trackedentityinstanceid = ANY(tei_ids);
+
+		INSERT INTO trackedentitysearchdocument (trackedentityinstanceid, document)
+		SELECT teav.trackedentityinstanceid, string_agg(lower(teav.value), ' ')
+		FROM trackedentityattributevalue teav
+		WHERE teav.trackedentityinstanceid = ANY(tei_ids)
+		AND teav.value IS NOT NULL
+		AND teav.trackedentityattributeid IN (
+			SELECT trackedentityattributeid FROM trackedentityattribute WHERE uniquefield = true
+			UNION SELECT trackedentityattributeid FROM program_attributes WHERE searchable = true
+			UNION SELECT trackedentityattributeid FROM trackedentitytypeattribute WHERE searchable = true)
+		GROUP BY teav.trackedentityinstanceid;
+	END;
+$$ LANGUAGE plpgsql;
+
+-- Statement level trigger function refreshing only the instances whose values
+-- changed in the statement. Inserted values are appended to the document so
+-- bulk imports do not aggregate all values of an instance for every row.
+
+CREATE OR REPLACE FUNCTION refreshTrackedEntitySearchDocuments() RETURNS trigger AS $$
+	DECLARE
+		tei_ids int8[];
+	BEGIN
+		IF (TG_OP = 'INSERT') THEN
+			SELECT array_agg(DISTINCT trackedentityinstanceid) INTO tei_ids FROM new_rows;
+
+			IF (tei_ids IS NULL) THEN
+				RETURN NULL;
+			END IF;
+
+			PERFORM 1 FROM trackedentityinstance
+			WHERE trackedentityinstanceid = ANY(tei_ids)
+			ORDER BY trackedentityinstanceid
+			FOR NO KEY UPDATE;
+
+			INSERT INTO trackedentitysearchdocument (trackedentityinstanceid, document)
+			SELECT n.trackedentityinstanceid, string_agg(lower(n.value), ' ')
+			FROM new_rows n
+			WHERE n.value IS NOT NULL
+			AND n.trackedentityattributeid IN (
+				SELECT trackedentityattributeid FROM trackedentityattribute WHERE uniquefield = true
+				UNION SELECT trackedentityattributeid FROM program_attributes WHERE searchable = true
+				UNION SELECT trackedentityattributeid FROM trackedentitytypeattribute WHERE searchable = true)
+			GROUP BY n.trackedentityinstanceid
+			ON CONFLICT (trackedentityinstanceid)
+				DO UPDATE SET document = trackedentitysearchdocument.document || ' ' || EXCLUDED.document;
+		ELSIF (TG_OP = 'UPDATE') THEN
+			SELECT array_agg(DISTINCT n.trackedentityinstanceid) INTO tei_ids
+			FROM new_rows n
+			JOIN old_rows o ON o.trackedentityinstanceid = n.trackedentityinstanceid
+				AND o.trackedentityattributeid = n.trackedentityattributeid
+			WHERE n.value IS DISTINCT FROM o.value;
+
+			PERFORM updateTrackedEntitySearchDocuments(tei_ids);
+		ELSE
+			SELECT array_agg(DISTINCT trackedentityinstanceid) INTO tei_ids FROM old_rows;
+
+			PERFORM updateTrackedEntitySearchDocuments(tei_ids);
+		END IF;
+
+		RETURN NULL;
+	END;
+$$ LANGUAGE plpgsql;
+
+drop trigger if exists trackedentitysearchdocument_insert on trackedentityattributevalue;
+drop trigger if exists trackedentitysearchdocument_update on trackedentityattributevalue;
+drop trigger if exists trackedentitysearchdocument_delete on trackedentityattributevalue;
+
+create trigger trackedentitysearchdocument_insert
+    after insert on trackedentityattributevalue
+    referencing new table as new_rows
+    for each statement execute procedure refreshTrackedEntitySearchDocuments();
+
+create trigger trackedentitysearchdocument_update
+    after update on trackedentityattributevalue
+    referencing old table as old_rows new table as new_rows
+    for each statement execute procedure refreshTrackedEntitySearchDocuments();
+
+create trigger trackedentitysearchdocument_delete
+    after delete on trackedentityattributevalue
+    referencing old table as old_rows
+    for each statement execute procedure refreshTrackedEntitySearchDocuments();
+
+alter table trackedentityattributevalue disable trigger trackedentitysearchdocument_insert;
+alter table trackedentityattributevalue disable trigger trackedentitysearchdocument_update;
+alter table trackedentityattributevalue disable trigger trackedentitysearchdocument_delete;
@@ -0,0 +1,13 @@
+
+-- Pool of pre-generated, unused values for generated tracked entity
+-- attributes, claimed by reservations and topped up by a background job
+
+create table if not exists reservedvaluepool (
+    reservedvaluepoolid bigserial not null,
+    owneruid varchar(11) not null,
+    key varchar(255) not null,
+    value varchar(255) not null,
+    created timestamp without time zone not null,
+    constraint reservedvaluepool_pkey primary key (reservedvaluepoolid),
+    constraint reservedvaluepool_unique_value unique (owneruid, key, value)
+);
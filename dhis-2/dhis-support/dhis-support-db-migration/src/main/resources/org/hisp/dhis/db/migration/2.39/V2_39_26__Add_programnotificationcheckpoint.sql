@@ -0,0 +1,13 @@
+
+-- Last processed enrollment or event ID per scheduled program notification
+-- template and day, used to resume sending after a restart without resending
+
+create table if not exists programnotificationcheckpoint (
+    programnotificationtemplateid int8 not null,
+    notificationdate date not null,
+    target varchar(20) not null,
+    lastprocessedid int8 not null,
+    constraint programnotificationcheckpoint_pkey primary key (programnotificationtemplateid, notificationdate, target),
+    constraint fk_programnotificationcheckpoint_templateid foreign key (programnotificationtemplateid)
+        references programnotificationtemplate (programnotificationtemplateid) on delete cascade
+);
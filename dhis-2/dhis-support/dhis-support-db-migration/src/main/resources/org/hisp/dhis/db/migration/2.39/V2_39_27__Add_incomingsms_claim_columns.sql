@@ -0,0 +1,10 @@
+
+-- Time and owner of claims of incoming SMS in processing, used to release
+-- the claims of nodes which stopped while processing them
+
+alter table incomingsms add column if not exists claimed timestamp without time zone;
+alter table incomingsms add column if not exists claimedby varchar(255);
+
+-- messages already in processing (status 1) count as claimed when received
+
+update incomingsms set claimed = receiveddate where status = 1 and claimed is null;
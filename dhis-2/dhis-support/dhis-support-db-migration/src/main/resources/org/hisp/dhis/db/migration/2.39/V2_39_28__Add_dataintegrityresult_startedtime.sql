@@ -0,0 +1,5 @@
+
+-- Time the check of a stored data integrity result started, changes since
+-- then are looked for when running checks for changes only
+
+alter table dataintegrityresult add column if not exists startedtime timestamp without time zone;
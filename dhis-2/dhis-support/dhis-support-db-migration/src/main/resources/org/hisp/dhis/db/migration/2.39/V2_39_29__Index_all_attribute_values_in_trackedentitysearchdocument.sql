@@ -0,0 +1,75 @@
+
+-- Search documents hold the lower cased values of all attributes of the
+-- instance. Free text queries search all program attributes, or the attributes
+-- displayed in list when no program is given, so documents of only the
+-- searchable and unique attributes dropped matches and went stale when those
+-- flags changed.
+
+CREATE OR REPLACE FUNCTION updateTrackedEntitySearchDocuments(tei_ids int8[]) RETURNS void AS $$
+	BEGIN
+		IF (tei_ids IS NULL OR cardinality(tei_ids) = 0) THEN
+			RETURN;
+		END IF;
+
+		PERFORM 1 FROM trackedentityinstance
+		WHERE trackedentityinstanceid = ANY(tei_ids)
+		ORDER BY trackedentityinstanceid
+		FOR NO KEY UPDATE;
+
+		DELETE FROM trackedentitysearchdocument WHERE trackedentityinstanceid = ANY(tei_ids);
+
+		INSERT INTO trackedentitysearchdocument (trackedentityinstanceid, document)
+		SELECT teav.trackedentityinstanceid, string_agg(lower(teav.value), ' ')
+		FROM trackedentityattributevalue teav
+		WHERE teav.trackedentityinstanceid = ANY(tei_ids)
+		AND teav.value IS NOT NULL
+		GROUP BY teav.trackedentityinstanceid;
+	END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refreshTrackedEntitySearchDocuments() RETURNS trigger AS $$
+	DECLARE
+		tei_ids int8[];
+	BEGIN
+		IF (TG_OP = 'INSERT') THEN
+			SELECT array_agg(DISTINCT trackedentityinstanceid) INTO tei_ids FROM new_rows;
+
+			IF (tei_ids IS NULL) THEN
+				RETURN NULL;
+			END IF;
+
+			PERFORM 1 FROM trackedentityinstance
+			WHERE trackedentityinstanceid = ANY(tei_ids)
+			ORDER BY trackedentityinstanceid
+			FOR NO KEY UPDATE;
+
+			INSERT INTO trackedentitysearchdocument (trackedentityinstanceid, document)
+			SELECT n.trackedentityinstanceid, string_agg(lower(n.value), ' ')
+			FROM new_rows n
+			WHERE n.value IS NOT NULL
+			GROUP BY n.trackedentityinstanceid
+			ON CONFLICT (trackedentityinstanceid)
+				DO UPDATE SET document = trackedentitysearchdocument.document || ' ' || EXCLUDED.document;
+		ELSIF (TG_OP = 'UPDATE') THEN
+			SELECT array_agg(DISTINCT n.trackedentityinstanceid) INTO tei_ids
+			FROM new_rows n
+			JOIN old_rows o ON o.trackedentityinstanceid = n.trackedentityinstanceid
+				AND o.trackedentityattributeid = n.trackedentityattributeid
+			WHERE n.value IS DISTINCT FROM o.value;
+
+			PERFORM updateTrackedEntitySearchDocuments(tei_ids);
+		ELSE
+			SELECT array_agg(DISTINCT trackedentityinstanceid) INTO tei_ids FROM old_rows;
+
+			PERFORM updateTrackedEntitySearchDocuments(tei_ids);
+		END IF;
+
+		RETURN NULL;
+	END;
+$$ LANGUAGE plpgsql;
+
+-- Existing documents lack the values of the other attributes. Dropping the
+-- index stops queries from using them until the tracker search optimization
+-- job has rebuilt the documents and created the index again.
+
+drop index if exists in_gin_trackedentitysearchdocument;
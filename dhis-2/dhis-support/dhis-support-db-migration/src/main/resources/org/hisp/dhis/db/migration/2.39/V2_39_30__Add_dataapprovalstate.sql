@@ -0,0 +1,33 @@
+
+-- Highest approval per workflow, period, org unit and attribute option combo,
+-- maintained when data is approved, unapproved, accepted and unaccepted, so
+-- approval status lookups read a single indexed row instead of all levels
+
+create table if not exists dataapprovalstate (
+    workflowid int8 not null,
+    periodid int8 not null,
+    organisationunitid int8 not null,
+    attributeoptioncomboid int8 not null,
+    dataapprovallevelid int8 not null,
+    accepted boolean not null,
+    constraint dataapprovalstate_pkey primary key (workflowid, periodid, organisationunitid, attributeoptioncomboid),
+    constraint fk_dataapprovalstate_workflowid foreign key (workflowid)
+        references dataapprovalworkflow (workflowid) on delete cascade,
+    constraint fk_dataapprovalstate_periodid foreign key (periodid)
+        references period (periodid) on delete cascade,
+    constraint fk_dataapprovalstate_organisationunitid foreign key (organisationunitid)
+        references organisationunit (organisationunitid) on delete cascade,
+    constraint fk_dataapprovalstate_attributeoptioncomboid foreign key (attributeoptioncomboid)
+        references categoryoptioncombo (categoryoptioncomboid) on delete cascade,
+    constraint fk_dataapprovalstate_dataapprovallevelid foreign key (dataapprovallevelid)
+        references dataapprovallevel (dataapprovallevelid) on delete cascade
+);
+
+insert into dataapprovalstate (workflowid, periodid, organisationunitid, attributeoptioncomboid, dataapprovallevelid, accepted)
+select distinct on (da.workflowid, da.periodid, da.organisationunitid, da.attributeoptioncomboid)
+    da.workflowid, da.periodid, da.organisationunitid, da.attributeoptioncomboid, da.dataapprovallevelid, da.accepted
+from dataapproval da
+join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid
+where da.workflowid is not null and da.attributeoptioncomboid is not null
+order by da.workflowid, da.periodid, da.organisationunitid, da.attributeoptioncomboid, dal.level
+on conflict do nothing;
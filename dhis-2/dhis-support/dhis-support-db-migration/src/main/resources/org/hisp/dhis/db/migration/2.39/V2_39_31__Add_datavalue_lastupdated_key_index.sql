@@ -0,0 +1,4 @@
+-- Keyset index for data value synchronization, which reads changed data values
+-- ordered by lastupdated and then the data value key, continuing after a cursor.
+create index if not exists in_datavalue_lastupdated_key on datavalue
+    using btree (lastupdated, dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid);
@@ -349,6 +349,53 @@ public enum ConfigurationKey
      */
     ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0" ),
 
+    /**
+     * Maximum number of analytics database queries running concurrently. Set
+     * to 0 to use twice the number of database server CPUs. (default: 0)
+     */
+    ANALYTICS_QUERY_MAX_CONCURRENT( "analytics.query.max_concurrent", "0", false ),
+
+    /**
+     * Maximum number of analytics database queries running concurrently for a
+     * single user. Set to 0 to use half of the global maximum. (default: 0)
+     */
+    ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER( "analytics.query.max_concurrent_per_user", "0", false ),
+
+    /**
+     * Maximum time in seconds an analytics database query waits to be
+     * admitted before it is rejected. (default: 300)
+     */
+    ANALYTICS_QUERY_QUEUE_TIMEOUT( "analytics.query.queue_timeout", "300", false ),
+
+    /**
+     * Time in seconds after which the database queries of an analytics request
+     * are cancelled. Set to 0 for no timeout. (default: 0)
+     */
+    ANALYTICS_QUERY_TIMEOUT( "analytics.query.timeout", "0", false ),
+
+    /**
+     * Comma separated list of pre-aggregated rollup tables to build for the
+     * aggregate analytics table, each defined as
+     * {@code level:periodType[:dataElementGroupUid]}, e.g.
+     * {@code 2:Yearly,3:Monthly:qfxEYY9xAl6}. (default: none)
+     */
+    ANALYTICS_ROLLUPS( "analytics.rollups", "", false ),
+
+    /**
+     * Comma separated list of program indicator UIDs to precompute as columns
+     * of the event and enrollment analytics tables. Program indicators whose
+     * value depends on the reporting period are not precomputed. (default:
+     * none)
+     */
+    ANALYTICS_PROGRAM_INDICATOR_COLUMNS( "analytics.program_indicator_columns", "", false ),
+
+    /**
+     * Highest map zoom level of the event cluster pyramids built during event
+     * analytics table updates, between 0 and 16. Cluster pyramids are not
+     * built if not set. (default: none)
+     */
+    ANALYTICS_CLUSTER_PYRAMID_MAX_ZOOM( "analytics.cluster_pyramid_max_zoom", "", false ),
+
     /**
      * Artemis support mode, 2 modes supported: EMBEDDED (starts up an embedded
      * Artemis which lives in the same process as your DHIS2 instance), NATIVE
@@ -465,6 +512,28 @@ public enum ConfigurationKey
      */
     MONITORING_CPU_ENABLED( "monitoring.cpu.enabled", Constants.OFF, false ),
 
+    /**
+     * Reserved value pool monitoring. (default: off)
+     */
+    MONITORING_RESERVED_VALUES_ENABLED( "monitoring.reservedvalues.enabled", Constants.OFF, false ),
+
+    /**
+     * Program indicator analytics SQL cache monitoring. (default: off)
+     */
+    MONITORING_ANALYTICS_SQL_CACHE_ENABLED( "monitoring.analyticssqlcache.enabled", Constants.OFF, false ),
+
+    /**
+     * Number of threads processing incoming SMS. Messages of the same
+     * originator are always processed by one thread in order. (default: 4).
+     */
+    SMS_INBOUND_WORKERS( "sms.inbound.workers", "4", false ),
+
+    /**
+     * Maximum number of incoming SMS claimed for processing at a time.
+     * (default: 500).
+     */
+    SMS_INBOUND_BATCH_SIZE( "sms.inbound.batch_size", "500", false ),
+
     /**
      * AppHub base URL. (default: https://apps.dhis2.org).
      */
@@ -475,6 +544,13 @@ public enum ConfigurationKey
      */
     APPHUB_API_URL( "apphub.api.url", "https://apps.dhis2.org/api", false ),
 
+    /**
+     * Capacity in MB of the in-memory cache of installed app resources. Single
+     * files larger than 1/16 of the capacity are not cached. Set to 0 to
+     * disable (default: 64).
+     */
+    APP_RESOURCE_CACHE_CAPACITY( "apps.resource_cache.capacity", "64", false ),
+
     /**
      * Enable/disable changelog/history log of aggregate data values. <br/>
      * (default: on)
@@ -625,6 +701,12 @@ public enum ConfigurationKey
 
     ACTIVE_READ_REPLICAS( "active.read.replicas", "0", false ),
 
+    /**
+     * Data integrity feature. Maximum time in seconds a single SQL based check
+     * may run before it is cancelled. (default: 300)
+     */
+    DATA_INTEGRITY_CHECK_TIMEOUT( "data_integrity.check.timeout", "300", false ),
+
     /**
      * Allows enabling/disabling audits system-wide (without configuring the
      * audit matrix). (default: true)
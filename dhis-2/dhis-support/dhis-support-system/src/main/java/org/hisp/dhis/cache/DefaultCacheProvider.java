@@ -132,7 +132,8 @@ public class DefaultCacheProvider
         jobCancelRequested,
         dataIntegritySummaryCache,
         dataIntegrityDetailsCache,
-        subExpressionCache
+        subExpressionCache,
+        geoFeatureGeometryCache
     }
 
     private final Map<String, Cache<?>> allCaches = new ConcurrentHashMap<>();
@@ -646,4 +647,19 @@ public class DefaultCacheProvider
             .forRegion( Region.subExpressionCache.name() )
             .expireAfterWrite( 5, TimeUnit.MINUTES ) );
     }
+
+    /**
+     * Cache for simplified organisation unit geometry coordinates per zoom
+     * level.
+     */
+    @Override
+    public <V> Cache<V> createGeoFeatureGeometryCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.geoFeatureGeometryCache.name() )
+            .expireAfterWrite( 12, TimeUnit.HOURS )
+            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
+            .forceInMemory()
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
+    }
 }
@@ -32,13 +32,18 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
 import static org.springframework.util.Assert.hasText;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * A redis backed implementation of {@link Cache}. This implementation uses a
@@ -50,6 +55,8 @@ public class RedisCache<V> implements Cache<V>
 {
     private static final String VALUE_CANNOT_BE_NULL = "Value cannot be null";
 
+    private static final long SCAN_BATCH_SIZE = 1000;
+
     private RedisTemplate<String, V> redisTemplate;
 
     private boolean refreshExpriryOnAccess;
@@ -141,8 +148,8 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Stream<V> getAll()
     {
-        Set<String> keySet = redisTemplate.keys( getAllKeysInRegionPattern() );
-        if ( keySet == null )
+        Set<String> keySet = scanKeys();
+        if ( keySet.isEmpty() )
         {
             return Stream.empty();
         }
@@ -153,10 +160,7 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Set<String> keys()
     {
-        var keys = redisTemplate.keys( getAllKeysInRegionPattern() );
-        return keys == null
-            ? emptySet()
-            : keys.stream().map( key -> key.substring( key.indexOf( ':' ) + 1 ) ).collect( toSet() );
+        return scanKeys().stream().map( key -> key.substring( key.indexOf( ':' ) + 1 ) ).collect( toSet() );
     }
 
     @Override
@@ -224,11 +228,40 @@ public class RedisCache<V> implements Cache<V>
         return generateKey( "*" );
     }
 
+    /**
+     * Collects the keys of this region using SCAN, which unlike KEYS iterates
+     * the key space in batches without blocking the server.
+     *
+     * @return the redis keys of this region including the region prefix
+     */
+    private Set<String> scanKeys()
+    {
+        ScanOptions options = ScanOptions.scanOptions()
+            .match( getAllKeysInRegionPattern() )
+            .count( SCAN_BATCH_SIZE )
+            .build();
+        RedisSerializer<?> keySerializer = redisTemplate.getKeySerializer();
+
+        Set<String> keys = redisTemplate.execute( (RedisCallback<Set<String>>) connection -> {
+            Set<String> result = new HashSet<>();
+            try ( Cursor<byte[]> cursor = connection.keyCommands().scan( options ) )
+            {
+                cursor.forEachRemaining( key -> result.add( (String) keySerializer.deserialize( key ) ) );
+            }
+            return result;
+        } );
+
+        return keys == null ? emptySet() : keys;
+    }
+
     @Override
     public void invalidateAll()
     {
-        Set<String> keysToDelete = redisTemplate.keys( getAllKeysInRegionPattern() );
-        redisTemplate.delete( keysToDelete );
+        Set<String> keysToDelete = scanKeys();
+        if ( !keysToDelete.isEmpty() )
+        {
+            redisTemplate.delete( keysToDelete );
+        }
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.monitoring.metrics;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.MONITORING_ANALYTICS_SQL_CACHE_ENABLED;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.program.ProgramIndicatorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exposes how often program indicator analytics SQL is served from cache.
+ */
+@Configuration
+@Conditional( AnalyticsSqlCacheMetricsConfig.AnalyticsSqlCacheMetricsEnabledCondition.class )
+public class AnalyticsSqlCacheMetricsConfig
+{
+    @Autowired
+    public void bindToRegistry( MeterRegistry registry, ProgramIndicatorService programIndicatorService )
+    {
+        FunctionCounter
+            .builder( "analytics.sql_cache.lookups", programIndicatorService,
+                ProgramIndicatorService::getAnalyticsSqlCacheLookupCount )
+            .description( "Number of program indicator analytics SQL cache lookups" )
+            .register( registry );
+
+        FunctionCounter
+            .builder( "analytics.sql_cache.misses", programIndicatorService,
+                ProgramIndicatorService::getAnalyticsSqlCacheMissCount )
+            .description( "Number of program indicator analytics SQL cache lookups which had to render the SQL" )
+            .register( registry );
+
+        Gauge.builder( "analytics.sql_cache.hit_ratio", programIndicatorService,
+            AnalyticsSqlCacheMetricsConfig::getHitRatio )
+            .description( "Fraction of program indicator analytics SQL cache lookups served from cache" )
+            .register( registry );
+    }
+
+    private static double getHitRatio( ProgramIndicatorService programIndicatorService )
+    {
+        long lookups = programIndicatorService.getAnalyticsSqlCacheLookupCount();
+
+        return lookups == 0 ? 0d
+            : (double) (lookups - programIndicatorService.getAnalyticsSqlCacheMissCount()) / lookups;
+    }
+
+    static class AnalyticsSqlCacheMetricsEnabledCondition
+        extends
+        MetricsEnabler
+    {
+        @Override
+        protected ConfigurationKey getConfigKey()
+        {
+            return MONITORING_ANALYTICS_SQL_CACHE_ENABLED;
+        }
+    }
+}
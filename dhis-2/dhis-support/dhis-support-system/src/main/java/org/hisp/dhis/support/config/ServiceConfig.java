@@ -29,6 +29,8 @@ package org.hisp.dhis.support.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -39,11 +41,26 @@ import org.springframework.web.util.UriComponentsBuilder;
 public class ServiceConfig
 {
     @Bean
+    @Primary
     public RestTemplate restTemplate()
     {
         return new RestTemplate();
     }
 
+    /**
+     * Does not buffer request bodies, so that payloads written through a
+     * request callback, such as data value synchronization pages, are
+     * streamed to the remote server instead of being held in memory.
+     */
+    @Bean( "streamingRestTemplate" )
+    public RestTemplate streamingRestTemplate()
+    {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody( false );
+
+        return new RestTemplate( requestFactory );
+    }
+
     @Bean
     public UriComponentsBuilder uriComponentsBuilder()
     {
@@ -29,8 +29,16 @@ package org.hisp.dhis.system.deletion;
 
 import static java.lang.String.format;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
@@ -67,14 +75,32 @@ public class DefaultDeletionManager
 
     private final ConcurrentMap<Class<?>, Queue<Function<?, DeletionVeto>>> vetoHandlersByType = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<Class<?>, Queue<Function<?, DeletionVeto>>> bulkVetoHandlersByType = new ConcurrentHashMap<>();
+
     private final ConcurrentMap<Class<?>, Queue<Consumer<?>>> deletionHandlersByType = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<Class<?>, Queue<Consumer<?>>> bulkDeletionHandlersByType = new ConcurrentHashMap<>();
+
+    /**
+     * Objects currently deleted by {@link #deleteAll(Collection, Consumer)}
+     * for which deletion events should not run the set based handlers again.
+     */
+    private final ThreadLocal<Set<Object>> bulkHandledObjects = ThreadLocal
+        .withInitial( () -> Collections.newSetFromMap( new IdentityHashMap<>() ) );
+
     @Override
     public <T extends IdentifiableObject> void whenVetoing( Class<T> type, Function<T, DeletionVeto> vetoFunction )
     {
         vetoHandlersByType.computeIfAbsent( type, key -> new ConcurrentLinkedQueue<>() ).add( vetoFunction );
     }
 
+    @Override
+    public <T extends IdentifiableObject> void whenVetoingAll( Class<T> type,
+        Function<Collection<T>, DeletionVeto> vetoFunction )
+    {
+        bulkVetoHandlersByType.computeIfAbsent( type, key -> new ConcurrentLinkedQueue<>() ).add( vetoFunction );
+    }
+
     @Override
     public <T extends IdentifiableObject> void whenDeleting( Class<T> type, Consumer<T> action )
     {
@@ -87,6 +113,51 @@ public class DefaultDeletionManager
         deletionHandlersByType.computeIfAbsent( type, key -> new ConcurrentLinkedQueue<>() ).add( action );
     }
 
+    @Override
+    public <T extends IdentifiableObject> void whenDeletingAll( Class<T> type, Consumer<Collection<T>> action )
+    {
+        bulkDeletionHandlersByType.computeIfAbsent( type, key -> new ConcurrentLinkedQueue<>() ).add( action );
+    }
+
+    @Override
+    @Transactional
+    public <T extends IdentifiableObject> void deleteAll( Collection<T> objects, Consumer<T> deletion )
+    {
+        Map<Class<T>, List<T>> objectsByType = new LinkedHashMap<>();
+
+        for ( T object : objects )
+        {
+            objectsByType.computeIfAbsent( getClazz( object ), key -> new ArrayList<>() ).add( object );
+        }
+
+        // set based handlers first for all objects of a type
+
+        objectsByType.forEach( ( clazz, objectsOfType ) -> {
+            checkVetoes( clazz, objectsOfType, getHandlers( bulkVetoHandlersByType, clazz ), emptyQueue() );
+            deleteAssociated( clazz, objectsOfType, getHandlers( bulkDeletionHandlersByType, clazz ),
+                emptyQueue() );
+        } );
+
+        // each object is then deleted as it would be on its own, its deletion
+        // event runs the per object handlers, as their checks might depend on
+        // objects deleted earlier
+
+        Set<Object> handled = bulkHandledObjects.get();
+
+        try
+        {
+            for ( T object : objects )
+            {
+                handled.add( object );
+                deletion.accept( object );
+            }
+        }
+        finally
+        {
+            objects.forEach( handled::remove );
+        }
+    }
+
     @Override
     @Transactional
     @EventListener( condition = "#event.shouldRollBack" )
@@ -106,42 +177,56 @@ public class DefaultDeletionManager
     private <T> void deleteObjects( T object )
     {
         Class<T> clazz = getClazz( object );
-        @SuppressWarnings( { "rawtypes", "unchecked" } )
-        Queue<Function<T, DeletionVeto>> vetoHandlers = (Queue) vetoHandlersByType.getOrDefault( clazz, EMPTY );
-        @SuppressWarnings( { "rawtypes", "unchecked" } )
-        Queue<Consumer<T>> deletionHandlers = (Queue) deletionHandlersByType.getOrDefault( clazz, EMPTY );
-        if ( vetoHandlers.isEmpty() && deletionHandlers.isEmpty() )
+        List<T> objects = List.of( object );
+        boolean bulkHandled = bulkHandledObjects.get().contains( object );
+        Queue<Function<T, DeletionVeto>> vetoHandlers = getHandlers( vetoHandlersByType, clazz );
+        Queue<Function<Collection<T>, DeletionVeto>> bulkVetoHandlers = bulkHandled
+            ? emptyQueue()
+            : getHandlers( bulkVetoHandlersByType, clazz );
+        Queue<Consumer<T>> deletionHandlers = getHandlers( deletionHandlersByType, clazz );
+        Queue<Consumer<Collection<T>>> bulkDeletionHandlers = bulkHandled
+            ? emptyQueue()
+            : getHandlers( bulkDeletionHandlersByType, clazz );
+        if ( vetoHandlers.isEmpty() && bulkVetoHandlers.isEmpty() && deletionHandlers.isEmpty()
+            && bulkDeletionHandlers.isEmpty() )
         {
             log.debug( "No deletion handlers registered, aborting deletion handling" );
             return;
         }
 
-        log.debug( "Veto handlers detected: " + vetoHandlers.size() );
-        log.debug( "Deletion handlers detected: " + deletionHandlers.size() );
+        log.debug( "Veto handlers detected: " + (vetoHandlers.size() + bulkVetoHandlers.size()) );
+        log.debug( "Deletion handlers detected: " + (deletionHandlers.size() + bulkDeletionHandlers.size()) );
 
-        String className = clazz.getSimpleName();
-
-        // ---------------------------------------------------------------------
-        // Verify that object is allowed to be deleted
-        // ---------------------------------------------------------------------
+        checkVetoes( clazz, objects, bulkVetoHandlers, vetoHandlers );
+        deleteAssociated( clazz, objects, bulkDeletionHandlers, deletionHandlers );
+    }
 
+    /**
+     * Verify that objects are allowed to be deleted
+     */
+    private <T> void checkVetoes( Class<T> clazz, List<T> objects,
+        Queue<Function<Collection<T>, DeletionVeto>> bulkVetoHandlers, Queue<Function<T, DeletionVeto>> vetoHandlers )
+    {
+        String className = clazz.getSimpleName();
         String handlerName = "";
         try
         {
-            for ( Function<T, DeletionVeto> handler : vetoHandlers )
+            for ( Function<Collection<T>, DeletionVeto> handler : bulkVetoHandlers )
             {
                 handlerName = handler.toString();
                 log.debug( "Check if allowed using " + handlerName + " for class " + className );
 
-                DeletionVeto veto = handler.apply( object );
-
-                if ( veto.isVetoed() )
-                {
-                    ErrorMessage errorMessage = new ErrorMessage( ErrorCode.E4030, veto.getMessage() );
+                checkVeto( handlerName, handler.apply( objects ) );
+            }
 
-                    log.debug( "Delete was not allowed by " + handlerName + ": " + errorMessage );
+            for ( Function<T, DeletionVeto> handler : vetoHandlers )
+            {
+                handlerName = handler.toString();
+                log.debug( "Check if allowed using " + handlerName + " for class " + className );
 
-                    throw new DeleteNotAllowedException( errorMessage );
+                for ( T object : objects )
+                {
+                    checkVeto( handlerName, handler.apply( object ) );
                 }
             }
         }
@@ -156,21 +241,34 @@ public class DefaultDeletionManager
                 format( "handler '%s' threw an exception while trying to find related objects: %s", handlerName,
                     ex.getMessage() ) ) );
         }
+    }
 
-        // ---------------------------------------------------------------------
-        // Delete associated objects
-        // ---------------------------------------------------------------------
-
-        handlerName = "";
+    /**
+     * Delete associated objects
+     */
+    private <T> void deleteAssociated( Class<T> clazz, List<T> objects,
+        Queue<Consumer<Collection<T>>> bulkDeletionHandlers, Queue<Consumer<T>> deletionHandlers )
+    {
+        String className = clazz.getSimpleName();
+        String handlerName = "";
         try
         {
+            for ( Consumer<Collection<T>> handler : bulkDeletionHandlers )
+            {
+                handlerName = handler.toString();
+
+                log.debug( "Deleting objects using " + handlerName + " for class " + className );
+
+                handler.accept( objects );
+            }
+
             for ( Consumer<T> handler : deletionHandlers )
             {
                 handlerName = handler.toString();
 
                 log.debug( "Deleting object using " + handlerName + " for class " + className );
 
-                handler.accept( object );
+                objects.forEach( handler );
             }
         }
         catch ( Exception ex )
@@ -181,7 +279,31 @@ public class DefaultDeletionManager
                     ex.getMessage() ) ) );
         }
 
-        log.debug( "Deleted objects associated with object of type " + className );
+        log.debug( "Deleted objects associated with " + objects.size() + " object(s) of type " + className );
+    }
+
+    @SuppressWarnings( { "rawtypes", "unchecked" } )
+    private static <H> Queue<H> getHandlers( Map<Class<?>, ? extends Queue<?>> handlersByType, Class<?> clazz )
+    {
+        return (Queue) handlersByType.getOrDefault( clazz, EMPTY );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <H> Queue<H> emptyQueue()
+    {
+        return EMPTY;
+    }
+
+    private static void checkVeto( String handlerName, DeletionVeto veto )
+    {
+        if ( veto.isVetoed() )
+        {
+            ErrorMessage errorMessage = new ErrorMessage( ErrorCode.E4030, veto.getMessage() );
+
+            log.debug( "Delete was not allowed by " + handlerName + ": " + errorMessage );
+
+            throw new DeleteNotAllowedException( errorMessage );
+        }
     }
 
     @SuppressWarnings( "unchecked" )
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.system.deletion;
 
+import java.util.Collection;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -64,11 +65,23 @@ public abstract class DeletionHandler
         manager.whenVetoing( type, vetoFunction );
     }
 
+    protected final <T extends IdentifiableObject> void whenVetoingAll( Class<T> type,
+        Function<Collection<T>, DeletionVeto> vetoFunction )
+    {
+        manager.whenVetoingAll( type, vetoFunction );
+    }
+
     protected final <T extends IdentifiableObject> void whenDeleting( Class<T> type, Consumer<T> action )
     {
         manager.whenDeleting( type, action );
     }
 
+    protected final <T extends IdentifiableObject> void whenDeletingAll( Class<T> type,
+        Consumer<Collection<T>> action )
+    {
+        manager.whenDeletingAll( type, action );
+    }
+
     protected final <T extends EmbeddedObject> void whenDeletingEmbedded( Class<T> type, Consumer<T> action )
     {
         manager.whenDeletingEmbedded( type, action );
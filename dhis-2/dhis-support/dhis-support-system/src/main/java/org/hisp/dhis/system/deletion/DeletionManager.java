@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.system.deletion;
 
+import java.util.Collection;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -52,6 +53,19 @@ public interface DeletionManager
      */
     <T extends IdentifiableObject> void whenVetoing( Class<T> type, Function<T, DeletionVeto> vetoFunction );
 
+    /**
+     * Register a handler for vetoing that checks all objects about to be
+     * deleted at once, usually using a single set based query.
+     *
+     * @param type type of objects about to be deleted
+     * @param vetoFunction a {@link Function} that when given the objects about
+     *        to be deleted either produces a {@link DeletionVeto} if any of
+     *        them must not be deleted or returns {@link DeletionVeto#ACCEPT}
+     * @param <T> type of the objects about to be deleted
+     */
+    <T extends IdentifiableObject> void whenVetoingAll( Class<T> type,
+        Function<Collection<T>, DeletionVeto> vetoFunction );
+
     /**
      * Register a handler to listen deletion of a given object type.
      *
@@ -72,6 +86,36 @@ public interface DeletionManager
      */
     <T extends EmbeddedObject> void whenDeletingEmbedded( Class<T> type, Consumer<T> action );
 
+    /**
+     * Register a handler to listen deletion of a given object type that
+     * handles all objects being deleted at once.
+     *
+     * @param type type of objects being deleted
+     * @param action action to perform when the objects are being deleted,
+     *        accepting the deleted objects
+     * @param <T> type of the objects being deleted
+     */
+    <T extends IdentifiableObject> void whenDeletingAll( Class<T> type, Consumer<Collection<T>> action );
+
+    /**
+     * Deletes the given objects in bulk. Handlers registered for all objects
+     * are called once with all objects of a type before any object is deleted.
+     * The objects are then deleted one by one using the given deletion, whose
+     * deletion events run the handlers registered for a single object just as
+     * for a single deletion. A veto of such a handler therefore only stops the
+     * deletion once earlier objects have been deleted, which is undone when
+     * the surrounding transaction rolls back.
+     *
+     * Deletion events published by the given deletion for any of the objects
+     * do not run the handlers registered for all objects again.
+     *
+     * @param objects the objects to delete
+     * @param deletion the deletion of a single object, usually the store
+     *        delete
+     * @param <T> type of the objects to delete
+     */
+    <T extends IdentifiableObject> void deleteAll( Collection<T> objects, Consumer<T> deletion );
+
     /**
      * Must be in the interface to allow spring to call the method.
      *
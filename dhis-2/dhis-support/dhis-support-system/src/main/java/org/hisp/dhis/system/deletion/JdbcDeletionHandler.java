@@ -27,15 +27,28 @@
  */
 package org.hisp.dhis.system.deletion;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import com.google.common.collect.Lists;
+
 public abstract class JdbcDeletionHandler extends DeletionHandler
 {
+    /**
+     * Number of identifiers bound per query for the :ids parameter. Each
+     * identifier is a bind parameter, this keeps queries using the parameter
+     * up to three times below the limit of 32767 bind parameters.
+     */
+    private static final int IDS_PARTITION_SIZE = 10000;
+
     private NamedParameterJdbcTemplate npTemplate;
 
     @Autowired
@@ -61,6 +74,34 @@ public abstract class JdbcDeletionHandler extends DeletionHandler
         return exists( sql, parameters ) ? veto : DeletionVeto.ACCEPT;
     }
 
+    /**
+     * Checks whether the query returns any row for any of the given objects,
+     * binding their identifiers to the :ids parameter in partitions.
+     */
+    protected final DeletionVeto vetoIfAnyExists( DeletionVeto veto, String sql,
+        Collection<? extends IdentifiableObject> objects )
+    {
+        return vetoIfAnyExists( veto, sql, "ids", IdentifiableObjectUtils.getIdentifiers( objects ) );
+    }
+
+    /**
+     * Checks whether the query returns any row for any of the given values,
+     * binding them to the named parameter in partitions.
+     */
+    protected final DeletionVeto vetoIfAnyExists( DeletionVeto veto, String sql, String name,
+        Collection<?> values )
+    {
+        for ( List<?> partition : Lists.partition( new ArrayList<>( values ), IDS_PARTITION_SIZE ) )
+        {
+            if ( exists( sql, Map.of( name, partition ) ) )
+            {
+                return veto;
+            }
+        }
+
+        return DeletionVeto.ACCEPT;
+    }
+
     protected final int delete( String sql, Map<String, Object> parameters )
     {
         return npTemplate.update( sql, parameters );
@@ -75,4 +116,26 @@ public abstract class JdbcDeletionHandler extends DeletionHandler
         List<String> names = npTemplate.queryForList( sql, new MapSqlParameterSource( parameters ), String.class );
         return names.isEmpty() ? null : names.get( 0 );
     }
+
+    /**
+     * Returns the first name the query returns for any of the given objects,
+     * binding their identifiers to the :ids parameter in partitions, or null
+     * if there is none.
+     */
+    protected final String firstMatchOfAny( String sql, Collection<? extends IdentifiableObject> objects )
+    {
+        List<Long> ids = new ArrayList<>( IdentifiableObjectUtils.getIdentifiers( objects ) );
+
+        for ( List<Long> partition : Lists.partition( ids, IDS_PARTITION_SIZE ) )
+        {
+            String name = firstMatch( sql, Map.of( "ids", partition ) );
+
+            if ( name != null )
+            {
+                return name;
+            }
+        }
+
+        return null;
+    }
 }
@@ -68,6 +68,7 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.velocity.VelocityContext;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
@@ -116,6 +117,14 @@ public class GridUtils
 
     private static final int JXL_MAX_COLS = 256;
 
+    private static final int XLSX_MAX_COLS = 16_384;
+
+    /**
+     * Number of rows kept in memory while writing a XLSX workbook, older rows
+     * are flushed to a temporary file.
+     */
+    private static final int XLSX_ROW_WINDOW = 100;
+
     private static final String FONT_ARIAL = "Arial";
 
     private static final NodeFilter HTML_ROW_FILTER = new OrFilter( new TagNameFilter( "td" ),
@@ -276,7 +285,7 @@ public class GridUtils
             String sheetName = CodecUtils
                 .filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + (i + 1) ) );
 
-            toXlsInternal( grid, workbook.createSheet( sheetName ), headerCellStyle, cellStyle );
+            toXlsInternal( grid, workbook.createSheet( sheetName ), headerCellStyle, cellStyle, JXL_MAX_COLS );
         }
 
         workbook.write( out );
@@ -296,13 +305,42 @@ public class GridUtils
             .filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + 1 ) );
 
         toXlsInternal( grid, workbook.createSheet( sheetName ), createHeaderCellStyle( workbook ),
-            createCellStyle( workbook ) );
+            createCellStyle( workbook ), JXL_MAX_COLS );
 
         workbook.write( out );
         workbook.close();
     }
 
-    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle )
+    /**
+     * Writes a XLSX (Excel Open XML workbook) representation of the given Grid
+     * to the given OutputStream. Rows are streamed through a bounded window so
+     * that large grids are not held in memory as a whole and are not subject
+     * to the row limit of the XLS format.
+     */
+    public static void toXlsx( Grid grid, OutputStream out )
+        throws Exception
+    {
+        SXSSFWorkbook workbook = new SXSSFWorkbook( XLSX_ROW_WINDOW );
+
+        try
+        {
+            String sheetName = CodecUtils
+                .filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + 1 ) );
+
+            toXlsInternal( grid, workbook.createSheet( sheetName ), createHeaderCellStyle( workbook ),
+                createCellStyle( workbook ), XLSX_MAX_COLS );
+
+            workbook.write( out );
+        }
+        finally
+        {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle,
+        int maxCols )
     {
         if ( grid == null )
         {
@@ -311,10 +349,9 @@ public class GridUtils
 
         int cols = grid.getVisibleHeaders().size();
 
-        if ( cols > JXL_MAX_COLS )
+        if ( cols > maxCols )
         {
-            log.warn(
-                "Grid will be truncated, no of columns is greater than JXL max limit: " + cols + "/" + JXL_MAX_COLS );
+            log.warn( "Grid will be truncated, no of columns is greater than max limit: " + cols + "/" + maxCols );
         }
 
         int rowNumber = 0;
@@ -338,7 +375,7 @@ public class GridUtils
             rowNumber++;
         }
 
-        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, JXL_MAX_COLS );
+        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, maxCols );
         Row headerRow = sheet.createRow( ++rowNumber );
         for ( GridHeader header : headers )
         {
@@ -349,16 +386,30 @@ public class GridUtils
 
         rowNumber++;
 
-        for ( List<Object> row : grid.getVisibleRows() )
+        List<Integer> visibleColumns = getVisibleColumnIndexes( grid, maxCols );
+
+        if ( visibleColumns.isEmpty() )
+        {
+            return;
+        }
+
+        // Reads the rows directly to avoid a copy of the visible rows
+
+        for ( List<Object> row : grid.getRows() )
         {
             Row xlsRow = sheet.createRow( rowNumber );
             xlsRow.setRowStyle( cellStyle );
             columnIndex = 0;
 
-            List<Object> columns = ListUtils.subList( row, 0, JXL_MAX_COLS );
-
-            for ( Object column : columns )
+            for ( int index : visibleColumns )
             {
+                if ( index >= row.size() )
+                {
+                    break;
+                }
+
+                Object column = row.get( index );
+
                 if ( column != null && Number.class.isAssignableFrom( column.getClass() ) )
                 {
                     xlsRow.createCell( columnIndex++, CellType.STRING )
@@ -375,6 +426,26 @@ public class GridUtils
         }
     }
 
+    /**
+     * Returns the indexes of the visible columns of the given grid, limited to
+     * the given max number of columns.
+     */
+    private static List<Integer> getVisibleColumnIndexes( Grid grid, int maxCols )
+    {
+        List<Integer> indexes = new ArrayList<>();
+        List<GridHeader> headers = grid.getHeaders();
+
+        for ( int i = 0; i < headers.size() && indexes.size() < maxCols; i++ )
+        {
+            if ( !headers.get( i ).isHidden() )
+            {
+                indexes.add( i );
+            }
+        }
+
+        return indexes;
+    }
+
     /**
      * Writes a CSV representation of the given Grid to the given OutputStream.
      */
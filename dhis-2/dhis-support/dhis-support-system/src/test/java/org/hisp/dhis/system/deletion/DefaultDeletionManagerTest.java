@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.deletion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.common.DeleteNotAllowedException;
+import org.hisp.dhis.common.ObjectDeletionRequestedEvent;
+import org.hisp.dhis.dataelement.DataElement;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link DefaultDeletionManager} bulk deletion.
+ */
+class DefaultDeletionManagerTest
+{
+    private final DefaultDeletionManager manager = new DefaultDeletionManager();
+
+    private final DataElement deA = new DataElement( "A" );
+
+    private final DataElement deB = new DataElement( "B" );
+
+    @Test
+    void testDeleteAll_BulkHandlersCalledOnce()
+    {
+        List<Integer> bulkVetoSizes = new ArrayList<>();
+        List<Integer> bulkDeleteSizes = new ArrayList<>();
+        List<DataElement> vetoed = new ArrayList<>();
+        List<DataElement> deleted = new ArrayList<>();
+        manager.whenVetoingAll( DataElement.class, all -> {
+            bulkVetoSizes.add( all.size() );
+            return DeletionVeto.ACCEPT;
+        } );
+        manager.whenDeletingAll( DataElement.class, all -> bulkDeleteSizes.add( all.size() ) );
+        manager.whenVetoing( DataElement.class, de -> {
+            vetoed.add( de );
+            return DeletionVeto.ACCEPT;
+        } );
+        manager.whenDeleting( DataElement.class, deleted::add );
+
+        manager.deleteAll( List.of( deA, deB ),
+            de -> manager.onDeletion( new ObjectDeletionRequestedEvent( de ) ) );
+
+        assertEquals( List.of( 2 ), bulkVetoSizes );
+        assertEquals( List.of( 2 ), bulkDeleteSizes );
+        assertEquals( List.of( deA, deB ), vetoed );
+        assertEquals( List.of( deA, deB ), deleted );
+    }
+
+    @Test
+    void testDeleteAll_PerObjectHandlersRunWithEachDeletion()
+    {
+        List<String> calls = new ArrayList<>();
+        manager.whenVetoingAll( DataElement.class, all -> {
+            calls.add( "vetoAll" );
+            return DeletionVeto.ACCEPT;
+        } );
+        manager.whenVetoing( DataElement.class, de -> {
+            calls.add( "veto" + de.getName() );
+            return DeletionVeto.ACCEPT;
+        } );
+
+        manager.deleteAll( List.of( deA, deB ), de -> {
+            calls.add( "pre" + de.getName() );
+            manager.onDeletion( new ObjectDeletionRequestedEvent( de ) );
+        } );
+
+        assertEquals( List.of( "vetoAll", "preA", "vetoA", "preB", "vetoB" ), calls );
+    }
+
+    @Test
+    void testDeleteAll_BulkVeto()
+    {
+        List<DataElement> deleted = new ArrayList<>();
+        manager.whenVetoingAll( DataElement.class,
+            all -> all.contains( deB ) ? new DeletionVeto( DataElement.class ) : DeletionVeto.ACCEPT );
+
+        assertThrows( DeleteNotAllowedException.class, () -> manager.deleteAll( List.of( deA, deB ), deleted::add ) );
+        assertTrue( deleted.isEmpty() );
+    }
+
+    @Test
+    void testOnDeletion_BulkHandlersCalledForSingleObject()
+    {
+        List<Integer> bulkDeleteSizes = new ArrayList<>();
+        manager.whenDeletingAll( DataElement.class, all -> bulkDeleteSizes.add( all.size() ) );
+
+        manager.onDeletion( new ObjectDeletionRequestedEvent( deA ) );
+
+        assertEquals( List.of( 1 ), bulkDeleteSizes );
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.deletion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Tests the {@link JdbcDeletionHandler} set based veto queries.
+ */
+@ExtendWith( MockitoExtension.class )
+class JdbcDeletionHandlerTest
+{
+    private static final String SQL = "select 1 from datavalue where dataelementid in (:ids) limit 1";
+
+    private static final DeletionVeto VETO = new DeletionVeto( DataElement.class );
+
+    @Mock
+    private NamedParameterJdbcTemplate npTemplate;
+
+    private final JdbcDeletionHandler handler = new JdbcDeletionHandler()
+    {
+        @Override
+        protected void register()
+        {
+        }
+    };
+
+    @BeforeEach
+    void setUp()
+    {
+        handler.setNamedParameterJdbcTemplate( npTemplate );
+    }
+
+    @Test
+    void testVetoIfAnyExists_PartitionsIdentifiers()
+    {
+        when( npTemplate.queryForList( eq( SQL ), any( MapSqlParameterSource.class ), eq( Integer.class ) ) )
+            .thenReturn( List.of() );
+
+        assertSame( DeletionVeto.ACCEPT, handler.vetoIfAnyExists( VETO, SQL, getDataElements( 25000 ) ) );
+
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass( MapSqlParameterSource.class );
+        verify( npTemplate, times( 3 ) ).queryForList( eq( SQL ), params.capture(), eq( Integer.class ) );
+        List<Integer> sizes = params.getAllValues().stream()
+            .map( p -> ((Collection<?>) p.getValue( "ids" )).size() )
+            .collect( Collectors.toList() );
+        assertEquals( List.of( 10000, 10000, 5000 ), sizes );
+    }
+
+    @Test
+    void testVetoIfAnyExists_StopsAtFirstMatch()
+    {
+        when( npTemplate.queryForList( eq( SQL ), any( MapSqlParameterSource.class ), eq( Integer.class ) ) )
+            .thenReturn( List.of( 1 ) );
+
+        DeletionVeto veto = handler.vetoIfAnyExists( VETO, SQL, getDataElements( 25000 ) );
+
+        assertSame( VETO, veto );
+        assertTrue( veto.isVetoed() );
+        verify( npTemplate, times( 1 ) ).queryForList( eq( SQL ), any( MapSqlParameterSource.class ),
+            eq( Integer.class ) );
+    }
+
+    private static List<DataElement> getDataElements( int count )
+    {
+        List<DataElement> dataElements = new ArrayList<>();
+        IntStream.range( 0, count ).forEach( i -> {
+            DataElement dataElement = new DataElement();
+            dataElement.setId( i + 1 );
+            dataElements.add( dataElement );
+        } );
+        return dataElements;
+    }
+}
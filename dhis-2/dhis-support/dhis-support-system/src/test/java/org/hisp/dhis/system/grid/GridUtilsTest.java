@@ -29,14 +29,20 @@ package org.hisp.dhis.system.grid;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.junit.jupiter.api.Test;
@@ -89,4 +95,33 @@ class GridUtilsTest
         row2.add( 10.22D );
         assertEquals( 2, GridUtils.getGridIndexByDimensionItem( row2, periods, 2 ) );
     }
+
+    @Test
+    void testToXlsx()
+        throws Exception
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "colA", "Column A" ) );
+        grid.addHeader( new GridHeader( "colB", true, false ) );
+        grid.addHeader( new GridHeader( "colC", "Column C" ) );
+        grid.addRow().addValue( "a1" ).addValue( "b1" ).addValue( 1 );
+        grid.addRow().addValue( "a2" ).addValue( "b2" ).addValue( 2 );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GridUtils.toXlsx( grid, out );
+
+        try ( XSSFWorkbook workbook = new XSSFWorkbook( new ByteArrayInputStream( out.toByteArray() ) ) )
+        {
+            Sheet sheet = workbook.getSheetAt( 0 );
+            assertEquals( "Sheet 1", sheet.getSheetName() );
+            Row header = sheet.getRow( 1 );
+            assertEquals( "Column A", header.getCell( 0 ).getStringCellValue() );
+            assertEquals( "Column C", header.getCell( 1 ).getStringCellValue() );
+            assertNull( header.getCell( 2 ) );
+            assertEquals( "a1", sheet.getRow( 2 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "1", sheet.getRow( 2 ).getCell( 1 ).getStringCellValue() );
+            assertEquals( "a2", sheet.getRow( 3 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( 3, sheet.getLastRowNum() );
+        }
+    }
 }
@@ -27,10 +27,8 @@
  */
 package org.hisp.dhis.analytics.data;
 
-import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
-import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
 import static org.hisp.dhis.util.DateUtils.parseDate;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,12 +41,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
-import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -60,9 +55,7 @@ import org.hisp.dhis.analytics.Partitions;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.category.CategoryCombo;
-import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
-import org.hisp.dhis.common.DimensionItemObjectValue;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -166,8 +159,6 @@ class QueryPlannerTest extends TransactionalIntegrationTest
 
     private CategoryCombo cc;
 
-    private CategoryOptionCombo coc;
-
     private OrganisationUnit ouA;
 
     private OrganisationUnit ouB;
@@ -237,7 +228,6 @@ class QueryPlannerTest extends TransactionalIntegrationTest
         rrC = new ReportingRate( dsC );
         rrD = new ReportingRate( dsD );
         cc = categoryService.getDefaultCategoryCombo();
-        coc = categoryService.getDefaultCategoryOptionCombo();
         ouA = createOrganisationUnit( 'A' );
         ouB = createOrganisationUnit( 'B' );
         ouC = createOrganisationUnit( 'C' );
@@ -291,160 +281,6 @@ class QueryPlannerTest extends TransactionalIntegrationTest
         assertEquals( pesB, paramsB.getPeriods() );
     }
 
-    private String makeKey( DataElement de, CategoryOptionCombo coc, OrganisationUnit ou, String period )
-    {
-        return de.getUid() + COMPOSITE_DIM_OBJECT_PLAIN_SEP + coc.getUid() + DIMENSION_SEP + ou.getUid() + DIMENSION_SEP
-            + period;
-    }
-
-    @Test
-    void testGetPermutationDimensionalItemValueMapCocEnabled()
-    {
-        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
-        aggregatedDataMap.put( makeKey( deA, coc, ouA, "2000Q1" ), new DimensionItemObjectValue( deA, 1d ) );
-        aggregatedDataMap.put( makeKey( deA, coc, ouA, "2000Q2" ), new DimensionItemObjectValue( deA, 2d ) );
-        aggregatedDataMap.put( makeKey( deA, coc, ouB, "2000Q1" ), new DimensionItemObjectValue( deA, 3d ) );
-        aggregatedDataMap.put( makeKey( deA, coc, ouB, "2000Q2" ), new DimensionItemObjectValue( deA, 4d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouA, "2000Q1" ), new DimensionItemObjectValue( deB, 5d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouA, "2000Q2" ), new DimensionItemObjectValue( deB, 6d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouB, "2000Q1" ), new DimensionItemObjectValue( deB, 7d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouB, "2000Q2" ), new DimensionItemObjectValue( deB, 8d ) );
-        // Method under test //
-        Map<String, List<DimensionItemObjectValue>> permutationMap = DataQueryParams
-            .getPermutationDimensionalItemValueMap( aggregatedDataMap );
-        assertNotNull( permutationMap );
-        String ouAQ1Key = ouA.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouAQ2Key = ouA.getUid() + DIMENSION_SEP + "2000Q2";
-        String ouBQ1Key = ouB.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouBQ2Key = ouB.getUid() + DIMENSION_SEP + "2000Q2";
-        List<DimensionItemObjectValue> ouAQ1 = permutationMap.get( ouAQ1Key );
-        List<DimensionItemObjectValue> ouAQ2 = permutationMap.get( ouAQ2Key );
-        List<DimensionItemObjectValue> ouBQ1 = permutationMap.get( ouBQ1Key );
-        List<DimensionItemObjectValue> ouBQ2 = permutationMap.get( ouBQ2Key );
-        assertEquals( 2, ouAQ1.size() );
-        assertEquals( 2, ouAQ2.size() );
-        assertEquals( 2, ouBQ1.size() );
-        assertEquals( 2, ouBQ2.size() );
-        List<DimensionItemObjectValue> ouAQ1Expected = new ArrayList<>();
-        ouAQ1Expected.add( new DimensionItemObjectValue( deA, 1d ) );
-        ouAQ1Expected.add( new DimensionItemObjectValue( deB, 5d ) );
-        List<DimensionItemObjectValue> ouAQ2Expected = new ArrayList<>();
-        ouAQ2Expected.add( new DimensionItemObjectValue( deA, 2d ) );
-        ouAQ2Expected.add( new DimensionItemObjectValue( deB, 6d ) );
-        List<DimensionItemObjectValue> ouBQ1Expected = new ArrayList<>();
-        ouBQ1Expected.add( new DimensionItemObjectValue( deA, 3d ) );
-        ouBQ1Expected.add( new DimensionItemObjectValue( deB, 7d ) );
-        List<DimensionItemObjectValue> ouBQ2Expected = new ArrayList<>();
-        ouBQ2Expected.add( new DimensionItemObjectValue( deA, 4d ) );
-        ouBQ2Expected.add( new DimensionItemObjectValue( deB, 8d ) );
-        assertCollectionsMatch( ouAQ1Expected, ouAQ1 );
-        assertCollectionsMatch( ouAQ2Expected, ouAQ2 );
-        assertCollectionsMatch( ouBQ1Expected, ouBQ1 );
-        assertCollectionsMatch( ouBQ2Expected, ouBQ2 );
-    }
-
-    @Test
-    void testGetPermutationDimensionalItemValueMapCocDisabled()
-    {
-        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200101",
-            new DimensionItemObjectValue( deA, 1d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200102",
-            new DimensionItemObjectValue( deA, 2d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200101",
-            new DimensionItemObjectValue( deA, 3d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200102",
-            new DimensionItemObjectValue( deA, 4d ) );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200101",
-            new DimensionItemObjectValue( deB, 5d ) );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "200102",
-            new DimensionItemObjectValue( deB, 6d ) );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200101",
-            new DimensionItemObjectValue( deB, 7d ) );
-        aggregatedDataMap.put( deB.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "200102",
-            new DimensionItemObjectValue( deB, 8d ) );
-        Map<String, List<DimensionItemObjectValue>> permutationMap = DataQueryParams
-            .getPermutationDimensionalItemValueMap( aggregatedDataMap );
-        assertNotNull( permutationMap );
-        String ouAM1Key = ouA.getUid() + DIMENSION_SEP + "200101";
-        String ouAM2Key = ouA.getUid() + DIMENSION_SEP + "200102";
-        String ouBM1Key = ouB.getUid() + DIMENSION_SEP + "200101";
-        String ouBM2Key = ouB.getUid() + DIMENSION_SEP + "200102";
-        List<DimensionItemObjectValue> ouAM1 = permutationMap.get( ouAM1Key );
-        List<DimensionItemObjectValue> ouAM2 = permutationMap.get( ouAM2Key );
-        List<DimensionItemObjectValue> ouBM1 = permutationMap.get( ouBM1Key );
-        List<DimensionItemObjectValue> ouBM2 = permutationMap.get( ouBM2Key );
-        assertEquals( 2, ouAM1.size() );
-        assertEquals( 2, ouAM2.size() );
-        assertEquals( 2, ouBM1.size() );
-        assertEquals( 2, ouBM2.size() );
-        List<DimensionItemObjectValue> ouAM1Expected = new ArrayList<>();
-        ouAM1Expected.add( new DimensionItemObjectValue( deA, 1d ) );
-        ouAM1Expected.add( new DimensionItemObjectValue( deB, 5d ) );
-        List<DimensionItemObjectValue> ouAM2Expected = new ArrayList<>();
-        ouAM2Expected.add( new DimensionItemObjectValue( deA, 2d ) );
-        ouAM2Expected.add( new DimensionItemObjectValue( deB, 6d ) );
-        List<DimensionItemObjectValue> ouBM1Expected = new ArrayList<>();
-        ouBM1Expected.add( new DimensionItemObjectValue( deA, 3d ) );
-        ouBM1Expected.add( new DimensionItemObjectValue( deB, 7d ) );
-        List<DimensionItemObjectValue> ouBM2Expected = new ArrayList<>();
-        ouBM2Expected.add( new DimensionItemObjectValue( deA, 4d ) );
-        ouBM2Expected.add( new DimensionItemObjectValue( deB, 8d ) );
-        assertCollectionsMatch( ouAM1Expected, ouAM1 );
-        assertCollectionsMatch( ouAM2Expected, ouAM2 );
-        assertCollectionsMatch( ouBM1Expected, ouBM1 );
-        assertCollectionsMatch( ouBM2Expected, ouBM2 );
-    }
-
-    @Test
-    void testGetPermutationDimensionalItemValueMap()
-    {
-        MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap = new ArrayListValuedHashMap<>();
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q1",
-            new DimensionItemObjectValue( deA, 1d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouA.getUid() + DIMENSION_SEP + "2000Q2",
-            new DimensionItemObjectValue( deA, 2d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q1",
-            new DimensionItemObjectValue( deA, 3d ) );
-        aggregatedDataMap.put( deA.getUid() + DIMENSION_SEP + ouB.getUid() + DIMENSION_SEP + "2000Q2",
-            new DimensionItemObjectValue( deA, 4d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouA, "2000Q1" ), new DimensionItemObjectValue( deB, 5d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouA, "2000Q2" ), new DimensionItemObjectValue( deB, 6d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouB, "2000Q1" ), new DimensionItemObjectValue( deB, 7d ) );
-        aggregatedDataMap.put( makeKey( deB, coc, ouB, "2000Q2" ), new DimensionItemObjectValue( deB, 8d ) );
-        Map<String, List<DimensionItemObjectValue>> permutationMap = DataQueryParams
-            .getPermutationDimensionalItemValueMap( aggregatedDataMap );
-        assertNotNull( permutationMap );
-        String ouAQ1Key = ouA.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouAQ2Key = ouA.getUid() + DIMENSION_SEP + "2000Q2";
-        String ouBQ1Key = ouB.getUid() + DIMENSION_SEP + "2000Q1";
-        String ouBQ2Key = ouB.getUid() + DIMENSION_SEP + "2000Q2";
-        List<DimensionItemObjectValue> ouAQ1 = permutationMap.get( ouAQ1Key );
-        List<DimensionItemObjectValue> ouAQ2 = permutationMap.get( ouAQ2Key );
-        List<DimensionItemObjectValue> ouBQ1 = permutationMap.get( ouBQ1Key );
-        List<DimensionItemObjectValue> ouBQ2 = permutationMap.get( ouBQ2Key );
-        assertEquals( 2, ouAQ1.size() );
-        assertEquals( 2, ouAQ2.size() );
-        assertEquals( 2, ouBQ1.size() );
-        assertEquals( 2, ouBQ2.size() );
-        List<DimensionItemObjectValue> ouAQ1Expected = new ArrayList<>();
-        ouAQ1Expected.add( new DimensionItemObjectValue( deA, 1d ) );
-        ouAQ1Expected.add( new DimensionItemObjectValue( deB, 5d ) );
-        List<DimensionItemObjectValue> ouAQ2Expected = new ArrayList<>();
-        ouAQ2Expected.add( new DimensionItemObjectValue( deA, 2d ) );
-        ouAQ2Expected.add( new DimensionItemObjectValue( deB, 6d ) );
-        List<DimensionItemObjectValue> ouBQ1Expected = new ArrayList<>();
-        ouBQ1Expected.add( new DimensionItemObjectValue( deA, 3d ) );
-        ouBQ1Expected.add( new DimensionItemObjectValue( deB, 7d ) );
-        List<DimensionItemObjectValue> ouBQ2Expected = new ArrayList<>();
-        ouBQ2Expected.add( new DimensionItemObjectValue( deA, 4d ) );
-        ouBQ2Expected.add( new DimensionItemObjectValue( deB, 8d ) );
-        assertCollectionsMatch( ouAQ1Expected, ouAQ1 );
-        assertCollectionsMatch( ouAQ2Expected, ouAQ2 );
-        assertCollectionsMatch( ouBQ1Expected, ouBQ1 );
-        assertCollectionsMatch( ouBQ2Expected, ouBQ2 );
-    }
-
     /**
      * Ignores data element dimension and generates 2 x 3 = 6 combinations based
      * on organisation unit and period dimensions.
@@ -1079,18 +915,6 @@ class QueryPlannerTest extends TransactionalIntegrationTest
         }
     }
 
-    private void assertCollectionsMatch( List<DimensionItemObjectValue> collection,
-        final List<DimensionItemObjectValue> in )
-    {
-        Function<String, Number> findValueByUid = ( String uid ) -> in.stream()
-            .filter( v -> v.getDimensionalItemObject().getUid().equals( uid ) ).findFirst().get().getValue();
-        for ( DimensionItemObjectValue dimensionItemObjectValue : collection )
-        {
-            final Number val = findValueByUid.apply( dimensionItemObjectValue.getDimensionalItemObject().getUid() );
-            assertEquals( val, dimensionItemObjectValue.getValue() );
-        }
-    }
-
     private void assertQueryMods( List<DataQueryParams> group, QueryModifiers mods, DataElement... elements )
     {
         List<DataElement> modElements = Arrays.asList( elements );
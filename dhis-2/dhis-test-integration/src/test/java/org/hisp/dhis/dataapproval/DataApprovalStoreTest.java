@@ -33,6 +33,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.Date;
+import java.util.List;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
@@ -46,6 +47,7 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * @author Jim Grace
@@ -74,6 +76,9 @@ class DataApprovalStoreTest extends SingleSetupIntegrationTestBase
     @Autowired
     private OrganisationUnitService organisationUnitService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     // -------------------------------------------------------------------------
     // Supporting data
     // -------------------------------------------------------------------------
@@ -228,4 +233,40 @@ class DataApprovalStoreTest extends SingleSetupIntegrationTestBase
         dataApprovalB = dataApprovalStore.getDataApproval( level2, workflowB12, periodB, sourceB, categoryOptionCombo );
         assertNull( dataApprovalB );
     }
+
+    @Test
+    void testDataApprovalState()
+    {
+        Date date = new Date();
+        DataApproval dataApprovalA = new DataApproval( level2, workflowA12, periodA, sourceA, categoryOptionCombo,
+            false, date, userA );
+        DataApproval dataApprovalB = new DataApproval( level1, workflowA12, periodA, sourceA, categoryOptionCombo,
+            false, date, userA );
+        dataApprovalStore.addDataApproval( dataApprovalA );
+        assertEquals( List.of( level2.getId() ), getStateLevelIds() );
+        dataApprovalStore.addDataApproval( dataApprovalB );
+        assertEquals( List.of( level1.getId() ), getStateLevelIds() );
+        dataApprovalB.setAccepted( true );
+        dataApprovalStore.updateDataApproval( dataApprovalB );
+        assertEquals( List.of( true ), getStateAccepted() );
+        dataApprovalStore.deleteDataApproval( dataApprovalB );
+        assertEquals( List.of( level2.getId() ), getStateLevelIds() );
+        assertEquals( List.of( false ), getStateAccepted() );
+        dataApprovalStore.deleteDataApproval( dataApprovalA );
+        assertEquals( List.of(), getStateLevelIds() );
+    }
+
+    private List<Long> getStateLevelIds()
+    {
+        return jdbcTemplate.queryForList( "select dataapprovallevelid from dataapprovalstate "
+            + "where workflowid = ? and periodid = ? and organisationunitid = ?", Long.class, workflowA12.getId(),
+            periodA.getId(), sourceA.getId() );
+    }
+
+    private List<Boolean> getStateAccepted()
+    {
+        return jdbcTemplate.queryForList( "select accepted from dataapprovalstate "
+            + "where workflowid = ? and periodid = ? and organisationunitid = ?", Boolean.class, workflowA12.getId(),
+            periodA.getId(), sourceA.getId() );
+    }
 }
@@ -28,9 +28,12 @@
 package org.hisp.dhis.indicator;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.DeleteNotAllowedException;
@@ -42,6 +45,7 @@ import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.test.integration.TransactionalIntegrationTest;
 import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.system.deletion.DeletionManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -56,6 +60,9 @@ class IndicatorDeletionHandlerTest extends TransactionalIntegrationTest
     @Autowired
     private UserService _userService;
 
+    @Autowired
+    private DeletionManager deletionManager;
+
     private Indicator indicator;
 
     @Override
@@ -153,6 +160,23 @@ class IndicatorDeletionHandlerTest extends TransactionalIntegrationTest
         assertThrows( DeleteNotAllowedException.class, () -> manager.delete( elementC ) );
     }
 
+    @Test
+    void testAllowDeleteDataElements()
+    {
+        DataElement elementA = createDataElement( 'A' );
+        DataElement elementB = createDataElement( 'B' );
+
+        manager.save( elementA );
+        manager.save( elementB );
+
+        indicator.setNumerator( "#{" + elementB.getUid() + "}" );
+        manager.update( indicator );
+
+        assertThrows( DeleteNotAllowedException.class,
+            () -> deletionManager.deleteAll( List.of( elementA, elementB ), manager::delete ) );
+        assertNotNull( manager.get( DataElement.class, elementA.getUid() ) );
+    }
+
     @Test
     void testAllowDeleteCategoryCombo()
     {
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.program;
+
+import static org.hisp.dhis.analytics.DataType.NUMERIC;
+import static org.hisp.dhis.program.DefaultProgramIndicatorService.DATE_DEPENDENT_SQL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.common.DimensionService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.IdentifiableObjectStore;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementDomain;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.expression.ExpressionService;
+import org.hisp.dhis.i18n.I18nManager;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.test.integration.TransactionalIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Tests the caching of program indicator analytics SQL as templates with
+ * placeholders for the reporting dates.
+ */
+class ProgramIndicatorServiceAnalyticsSqlTest extends TransactionalIntegrationTest
+{
+    private static final String EXPRESSION = "#{ProgrmStagA.DataElmentA}";
+
+    @Autowired
+    private ProgramIndicatorStore programIndicatorStore;
+
+    @Autowired
+    @Qualifier( "org.hisp.dhis.program.ProgramIndicatorGroupStore" )
+    private IdentifiableObjectStore<ProgramIndicatorGroup> programIndicatorGroupStore;
+
+    @Autowired
+    private ProgramStageService programStageService;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private StatementBuilder statementBuilder;
+
+    @Autowired
+    private ExpressionService expressionService;
+
+    @Autowired
+    private DimensionService dimensionService;
+
+    @Autowired
+    private I18nManager i18nManager;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private DataElementService dataElementService;
+
+    @Autowired
+    private ProgramStageDataElementService programStageDataElementService;
+
+    private DefaultProgramIndicatorService programIndicatorService;
+
+    private ProgramIndicator indicatorA;
+
+    private ProgramIndicator indicatorB;
+
+    @Override
+    public void setUpTest()
+    {
+        CacheProvider cacheProvider = Mockito.mock( CacheProvider.class );
+        Mockito.<Cache<String>> when( cacheProvider.createAnalyticsSqlCache() )
+            .thenReturn( new SimpleCacheBuilder<String>().forRegion( "analyticsSql" )
+                .expireAfterWrite( 1L, TimeUnit.HOURS ).withMaximumSize( 100 ).build() );
+
+        programIndicatorService = new DefaultProgramIndicatorService( programIndicatorStore,
+            programIndicatorGroupStore, programStageService, idObjectManager, statementBuilder, expressionService,
+            dimensionService, i18nManager, cacheProvider );
+
+        OrganisationUnit organisationUnit = createOrganisationUnit( 'A' );
+        organisationUnitService.addOrganisationUnit( organisationUnit );
+
+        Program programA = createProgram( 'A', new HashSet<>(), organisationUnit );
+        programA.setUid( "Program000A" );
+        programService.addProgram( programA );
+
+        ProgramStage psA = new ProgramStage( "StageA", programA );
+        psA.setSortOrder( 1 );
+        psA.setUid( "ProgrmStagA" );
+        programStageService.saveProgramStage( psA );
+
+        DataElement deA = createDataElement( 'A' );
+        deA.setDomainType( DataElementDomain.TRACKER );
+        deA.setUid( "DataElmentA" );
+        dataElementService.addDataElement( deA );
+
+        programStageDataElementService.addProgramStageDataElement( new ProgramStageDataElement( psA, deA, false, 1 ) );
+
+        indicatorA = createProgramIndicator( 'A', AnalyticsType.ENROLLMENT, programA, EXPRESSION, null );
+        indicatorA.getAnalyticsPeriodBoundaries().add( new AnalyticsPeriodBoundary( AnalyticsPeriodBoundary.EVENT_DATE,
+            AnalyticsPeriodBoundaryType.AFTER_START_OF_REPORTING_PERIOD ) );
+        indicatorA.getAnalyticsPeriodBoundaries().add( new AnalyticsPeriodBoundary( AnalyticsPeriodBoundary.EVENT_DATE,
+            AnalyticsPeriodBoundaryType.BEFORE_END_OF_REPORTING_PERIOD ) );
+
+        indicatorB = createProgramIndicator( 'B', AnalyticsType.ENROLLMENT, programA, EXPRESSION, null );
+        indicatorB.getAnalyticsPeriodBoundaries().add( new AnalyticsPeriodBoundary( AnalyticsPeriodBoundary.EVENT_DATE,
+            AnalyticsPeriodBoundaryType.BEFORE_END_OF_REPORTING_PERIOD, PeriodType.getByNameIgnoreCase( "daily" ),
+            10 ) );
+    }
+
+    @Test
+    void testBoundTemplateMatchesRenderedSql()
+    {
+        String template = programIndicatorService.getAnalyticsSqlTemplate( EXPRESSION, NUMERIC, indicatorA, null );
+
+        assertNotEquals( DATE_DEPENDENT_SQL, template );
+        assertFalse( template.contains( "2999" ) );
+
+        for ( List<Date> dates : List.of(
+            List.of( getDate( 2019, 1, 1 ), getDate( 2019, 12, 31 ) ),
+            List.of( getDate( 2020, 2, 1 ), getDate( 2020, 2, 29 ) ),
+            List.of( getDate( 2021, 7, 1 ), getDate( 2021, 9, 30 ) ) ) )
+        {
+            String sql = programIndicatorService._getAnalyticsSql( EXPRESSION, NUMERIC, indicatorA, dates.get( 0 ),
+                dates.get( 1 ), null );
+
+            assertEquals( sql, programIndicatorService.bindReportingDates( template, dates.get( 0 ), dates.get( 1 ) ) );
+        }
+    }
+
+    @Test
+    void testBoundTemplateMatchesRenderedSqlWithTableAlias()
+    {
+        Date startDate = getDate( 2019, 1, 1 );
+        Date endDate = getDate( 2019, 12, 31 );
+
+        String template = programIndicatorService.getAnalyticsSqlTemplate( EXPRESSION, NUMERIC, indicatorA, "axx1" );
+        String sql = programIndicatorService._getAnalyticsSql( EXPRESSION, NUMERIC, indicatorA, startDate, endDate,
+            "axx1" );
+
+        assertTrue( sql.contains( "axx1.pi" ) );
+        assertTrue( sql.contains( "2019-01-01" ) );
+        assertTrue( sql.contains( "2020-01-01" ) );
+        assertEquals( sql, programIndicatorService.bindReportingDates( template, startDate, endDate ) );
+    }
+
+    @Test
+    void testTemplateFallsBackForBoundaryWithOffsetPeriods()
+    {
+        Date startDate = getDate( 2019, 1, 1 );
+        Date endDate = getDate( 2019, 12, 31 );
+
+        assertEquals( DATE_DEPENDENT_SQL,
+            programIndicatorService.getAnalyticsSqlTemplate( EXPRESSION, NUMERIC, indicatorB, null ) );
+
+        String sql = programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorB, startDate, endDate );
+
+        assertTrue( sql.contains( "2020-01-11" ) );
+        assertEquals( programIndicatorService._getAnalyticsSql( EXPRESSION, NUMERIC, indicatorB, startDate, endDate,
+            null ), sql );
+    }
+
+    @Test
+    void testAnalyticsSqlCacheCounts()
+    {
+        Date startDateA = getDate( 2019, 1, 1 );
+        Date endDateA = getDate( 2019, 12, 31 );
+        Date startDateB = getDate( 2020, 1, 1 );
+        Date endDateB = getDate( 2020, 12, 31 );
+
+        // Template lookup per call, first call misses
+        programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorA, startDateA, endDateA );
+        programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorA, startDateB, endDateB );
+
+        assertEquals( 2, programIndicatorService.getAnalyticsSqlCacheLookupCount() );
+        assertEquals( 1, programIndicatorService.getAnalyticsSqlCacheMissCount() );
+
+        // Template and date range lookup per call, new date ranges miss
+        programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorB, startDateA, endDateA );
+        programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorB, startDateB, endDateB );
+        programIndicatorService.getAnalyticsSql( EXPRESSION, NUMERIC, indicatorB, startDateA, endDateA );
+
+        assertEquals( 8, programIndicatorService.getAnalyticsSqlCacheLookupCount() );
+        assertEquals( 4, programIndicatorService.getAnalyticsSqlCacheMissCount() );
+    }
+}
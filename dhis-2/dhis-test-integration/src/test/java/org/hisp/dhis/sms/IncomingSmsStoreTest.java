@@ -28,9 +28,15 @@
 package org.hisp.dhis.sms;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.Connection;
+import java.sql.Statement;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
 
 import org.hisp.dhis.sms.incoming.IncomingSms;
 import org.hisp.dhis.sms.incoming.IncomingSmsStore;
@@ -61,6 +67,9 @@ class IncomingSmsStoreTest extends SingleSetupIntegrationTestBase
     @Autowired
     private UserService _userService;
 
+    @Autowired
+    private DataSource dataSource;
+
     private User user;
 
     @Override
@@ -103,4 +112,101 @@ class IncomingSmsStoreTest extends SingleSetupIntegrationTestBase
         assertEquals( 1, outboundSmsStore.get( OutboundSmsStatus.OUTBOUND ).size() );
         assertEquals( 1, outboundSmsStore.get( OutboundSmsStatus.OUTBOUND, 0, 10, false ).size() );
     }
+
+    @Test
+    void testClaimIncomingMessages()
+    {
+        IncomingSms smsA = addIncomingSms( "474000001" );
+        IncomingSms smsB = addIncomingSms( "474000002" );
+        IncomingSms smsC = addIncomingSms( "474000001" );
+        dbmsManager.clearSession();
+
+        List<IncomingSms> claimed = incomingSmsStore.claimIncomingMessages( 10, "nodeA" );
+
+        assertEquals( List.of( smsA.getId(), smsB.getId(), smsC.getId() ), getIds( claimed ) );
+        assertTrue( claimed.stream().allMatch( sms -> sms.getStatus() == SmsMessageStatus.PROCESSING ) );
+        assertTrue( incomingSmsStore.claimIncomingMessages( 10, "nodeA" ).isEmpty() );
+    }
+
+    @Test
+    void testClaimIncomingMessagesSkipsOriginatorsInProcessing()
+    {
+        IncomingSms smsA = addIncomingSms( "474000001" );
+        dbmsManager.clearSession();
+
+        assertEquals( List.of( smsA.getId() ), getIds( incomingSmsStore.claimIncomingMessages( 10, "nodeA" ) ) );
+
+        addIncomingSms( "474000001" );
+        IncomingSms smsC = addIncomingSms( "474000002" );
+        dbmsManager.clearSession();
+
+        assertEquals( List.of( smsC.getId() ), getIds( incomingSmsStore.claimIncomingMessages( 10, "nodeB" ) ) );
+    }
+
+    @Test
+    void testClaimIncomingMessagesSkipsOriginatorsLockedByConcurrentClaim()
+        throws Exception
+    {
+        addIncomingSms( "474000001" );
+        IncomingSms smsB = addIncomingSms( "474000002" );
+        dbmsManager.clearSession();
+
+        try ( Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement() )
+        {
+            connection.setAutoCommit( false );
+            statement.execute( "select pg_advisory_xact_lock(hashtext('incomingsms'), hashtext('474000001'))" );
+
+            assertEquals( List.of( smsB.getId() ),
+                getIds( incomingSmsStore.claimIncomingMessages( 10, "nodeA" ) ) );
+
+            connection.rollback();
+        }
+    }
+
+    @Test
+    void testReleaseClaimedMessagesByClaimTime()
+    {
+        IncomingSms smsA = addIncomingSms( "474000001" );
+        dbmsManager.clearSession();
+        incomingSmsStore.claimIncomingMessages( 10, "nodeA" );
+
+        assertEquals( 0, incomingSmsStore.releaseClaimedMessages( new Date( System.currentTimeMillis() - 60_000 ) ) );
+        assertEquals( 1, incomingSmsStore.releaseClaimedMessages( new Date( System.currentTimeMillis() + 60_000 ) ) );
+        dbmsManager.clearSession();
+
+        assertEquals( List.of( smsA.getId() ), getIds( incomingSmsStore.claimIncomingMessages( 10, "nodeB" ) ) );
+    }
+
+    @Test
+    void testReleaseClaimedMessagesByOwner()
+    {
+        IncomingSms smsA = addIncomingSms( "474000001" );
+        dbmsManager.clearSession();
+        incomingSmsStore.claimIncomingMessages( 10, "nodeA" );
+
+        assertEquals( 0, incomingSmsStore.releaseClaimedMessages( "nodeB" ) );
+        assertEquals( 1, incomingSmsStore.releaseClaimedMessages( "nodeA" ) );
+        dbmsManager.clearSession();
+
+        assertEquals( List.of( smsA.getId() ), getIds( incomingSmsStore.claimIncomingMessages( 10, "nodeB" ) ) );
+    }
+
+    private IncomingSms addIncomingSms( String originator )
+    {
+        IncomingSms sms = new IncomingSms();
+        sms.setText( "testMessage" );
+        sms.setOriginator( originator );
+        sms.setGatewayId( "testGateway" );
+        sms.setCreatedBy( user );
+        sms.setSentDate( new Date() );
+        sms.setReceivedDate( new Date() );
+        incomingSmsStore.save( sms );
+        return sms;
+    }
+
+    private static List<Long> getIds( List<IncomingSms> messages )
+    {
+        return messages.stream().map( IncomingSms::getId ).collect( Collectors.toList() );
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.visualization;
+
+import static org.hisp.dhis.organisationunit.OrganisationUnit.KEY_USER_ORGUNIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.analytics.AnalyticsSecurityManager;
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.QueryValidator;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.AnalyticsCacheSettings;
+import org.hisp.dhis.analytics.data.DefaultAnalyticsService;
+import org.hisp.dhis.analytics.data.handler.DataAggregator;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.dashboard.DashboardService;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.datastatistics.DataStatisticsEventStore;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.RelativePeriods;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.test.integration.TransactionalIntegrationTest;
+import org.hisp.dhis.user.CurrentUserUtil;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Verifies that a warmed up visualization is served from the analytics cache
+ * when its viewer requests it through the analytics API.
+ */
+class AnalyticsCacheWarmUpServiceIntegrationTest extends TransactionalIntegrationTest
+{
+    @Autowired
+    private AnalyticsSecurityManager securityManager;
+
+    @Autowired
+    private QueryValidator queryValidator;
+
+    @Autowired
+    private DataQueryService dataQueryService;
+
+    @Autowired
+    private DataStatisticsEventStore dataStatisticsEventStore;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private VisualizationService visualizationService;
+
+    @Autowired
+    private DataElementService dataElementService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private UserSettingService userSettingService;
+
+    @Autowired
+    private UserService _userService;
+
+    private DataAggregator dataAggregator;
+
+    private AnalyticsService analyticsService;
+
+    private AnalyticsCacheWarmUpService warmUpService;
+
+    private User admin;
+
+    private User viewer;
+
+    private DataElement deA;
+
+    private Visualization visualization;
+
+    @Override
+    public void setUpTest()
+    {
+        userService = _userService;
+        admin = createAndInjectAdminUser();
+
+        CacheProvider cacheProvider = Mockito.mock( CacheProvider.class );
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsCache() )
+            .thenReturn( new SimpleCacheBuilder<Grid>().forRegion( "analyticsCacheWarmUp" )
+                .expireAfterWrite( 1L, TimeUnit.HOURS ).withMaximumSize( 100 ).build() );
+
+        AnalyticsCacheSettings analyticsCacheSettings = Mockito.mock( AnalyticsCacheSettings.class );
+        when( analyticsCacheSettings.isCachingEnabled() ).thenReturn( true );
+        when( analyticsCacheSettings.fixedExpirationTimeOrDefault() ).thenReturn( 3600L );
+
+        dataAggregator = Mockito.mock( DataAggregator.class );
+        when( dataAggregator.getAggregatedDataValueGrid( any( DataQueryParams.class ) ) )
+            .thenAnswer( invocation -> new ListGrid() );
+
+        analyticsService = new DefaultAnalyticsService( securityManager, queryValidator, dataQueryService,
+            new AnalyticsCache( cacheProvider, analyticsCacheSettings ), dataAggregator );
+        warmUpService = new DefaultAnalyticsCacheWarmUpService( dataStatisticsEventStore, dashboardService,
+            visualizationService, dataQueryService, analyticsService, userService, userSettingService );
+
+        deA = createDataElement( 'A' );
+        dataElementService.addDataElement( deA );
+
+        OrganisationUnit ouA = createOrganisationUnit( 'A' );
+        OrganisationUnit ouB = createOrganisationUnit( 'B', ouA );
+        organisationUnitService.addOrganisationUnit( ouA );
+        organisationUnitService.addOrganisationUnit( ouB );
+
+        viewer = createUserWithAuth( "viewer", "ALL" );
+        viewer.setOrganisationUnits( Set.of( ouB ) );
+        viewer.setDataViewOrganisationUnits( Set.of( ouB ) );
+        userService.updateUser( viewer );
+
+        visualization = new Visualization( "A" );
+        visualization.setType( VisualizationType.PIVOT_TABLE );
+        visualization.setColumnDimensions( List.of( "dx" ) );
+        visualization.setRowDimensions( List.of( "pe" ) );
+        visualization.setFilterDimensions( List.of( "ou" ) );
+        visualization.addDataDimensionItem( deA );
+        visualization.setRelatives( new RelativePeriods().setLast12Months( true ) );
+        visualization.setUserOrganisationUnit( true );
+        visualizationService.save( visualization );
+    }
+
+    @Test
+    void testWarmedUpVisualizationIsServedFromCache()
+    {
+        assertTrue( warmUpService.warmUp( new AnalyticsCacheWarmUpItem( visualization.getUid(), "A",
+            viewer.getUsername(), 10 ) ) );
+
+        assertEquals( admin.getUsername(), CurrentUserUtil.getCurrentUsername() );
+
+        injectSecurityContext( viewer );
+
+        DataQueryRequest request = DataQueryRequest.newBuilder()
+            .dimension( new LinkedHashSet<>( List.of( "dx:" + deA.getUid(), "pe:LAST_12_MONTHS" ) ) )
+            .filter( Set.of( "ou:" + KEY_USER_ORGUNIT ) )
+            .includeNumDen( true )
+            .displayProperty( DisplayProperty.NAME )
+            .apiVersion( DhisApiVersion.DEFAULT )
+            .build();
+
+        analyticsService.getAggregatedDataValues( dataQueryService.getFromRequest( request ) );
+
+        verify( dataAggregator, times( 1 ) ).getAggregatedDataValueGrid( any( DataQueryParams.class ) );
+    }
+}
@@ -59,4 +59,24 @@ class AppControllerTest extends DhisControllerConvenienceTest
         assertEquals( HttpStatus.NOT_FOUND, response.status() );
         assertFalse( response.hasBody() );
     }
+
+    @Test
+    void testIsFingerprinted()
+    {
+        assertTrue( AppController.isFingerprinted( "main.3f2a9c1b.chunk.js" ) );
+        assertTrue( AppController.isFingerprinted( "vendor-3f2a9c1b.css" ) );
+        assertFalse( AppController.isFingerprinted( "report-20220101.json" ) );
+        assertFalse( AppController.isFingerprinted( "index.html" ) );
+    }
+
+    @Test
+    void testIsEncodingAccepted()
+    {
+        assertTrue( AppController.isEncodingAccepted( "gzip, deflate, br", "br" ) );
+        assertTrue( AppController.isEncodingAccepted( "gzip;q=0.5", "gzip" ) );
+        assertTrue( AppController.isEncodingAccepted( "*", "gzip" ) );
+        assertFalse( AppController.isEncodingAccepted( "gzip, br;q=0", "br" ) );
+        assertFalse( AppController.isEncodingAccepted( "*, gzip;q=0", "gzip" ) );
+        assertFalse( AppController.isEncodingAccepted( "identity", "gzip" ) );
+    }
 }
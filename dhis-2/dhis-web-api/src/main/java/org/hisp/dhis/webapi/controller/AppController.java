@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
@@ -45,6 +46,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.appmanager.App;
 import org.hisp.dhis.appmanager.AppManager;
+import org.hisp.dhis.appmanager.AppResourceContent;
 import org.hisp.dhis.appmanager.AppStatus;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.commons.util.StreamUtils;
@@ -58,6 +60,8 @@ import org.hisp.dhis.webapi.service.ContextService;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -89,6 +93,16 @@ public class AppController
 
     public final Pattern REGEX_REMOVE_PROTOCOL = Pattern.compile( ".+:/+" );
 
+    /**
+     * Matches file names carrying a content hash as created by bundlers, like
+     * {@code main.3f2a9c1b.chunk.js} or {@code vendor-3f2a9c1b.css}. The hash
+     * must contain both letters and digits so that names with dates or
+     * version numbers like {@code report-20220101.json} are not matched.
+     */
+    private static final Pattern FINGERPRINTED_FILENAME = Pattern.compile(
+        "^.+[.-](?=[0-9a-f]*[a-f])(?=[0-9a-f]*[0-9])[0-9a-f]{8,}(\\.chunk)?\\.[a-z0-9]+$",
+        Pattern.CASE_INSENSITIVE );
+
     @Autowired
     private AppManager appManager;
 
@@ -225,7 +239,14 @@ public class AppController
         // Any other page
         else
         {
-            // Retrieve file
+            AppResourceContent content = appManager.getCachedAppResourceContent( application, pageName );
+
+            if ( content != null )
+            {
+                renderAppResourceContent( content, request, response );
+                return;
+            }
+
             Resource resource = appManager.getAppResource( application, pageName );
 
             if ( resource == null )
@@ -234,6 +255,16 @@ public class AppController
                 return;
             }
 
+            content = appManager.cacheAppResourceContent( application, pageName, resource );
+
+            if ( content != null )
+            {
+                renderAppResourceContent( content, request, response );
+                return;
+            }
+
+            // Stream file (not cached as too large)
+
             String filename = resource.getFilename();
             log.debug( String.format( "App filename: '%s'", filename ) );
 
@@ -257,6 +288,131 @@ public class AppController
         }
     }
 
+    private void renderAppResourceContent( AppResourceContent content, HttpServletRequest request,
+        HttpServletResponse response )
+        throws IOException
+    {
+        String encoding = getContentEncoding( content, request );
+
+        if ( content.hasCompressedVariant() )
+        {
+            response.setHeader( HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING );
+        }
+
+        // fingerprinted files never change, others must be revalidated
+        response.setHeader( ContextUtils.HEADER_CACHE_CONTROL,
+            isFingerprinted( content.getFilename() )
+                ? CacheControl.maxAge( 365, TimeUnit.DAYS ).cachePublic().getHeaderValue() + ", immutable"
+                : CacheControl.noCache().getHeaderValue() );
+
+        if ( new ServletWebRequest( request, response ).checkNotModified( content.getETag( encoding ),
+            content.getLastModified() ) )
+        {
+            return;
+        }
+
+        String mimeType = request.getSession().getServletContext().getMimeType( content.getFilename() );
+
+        if ( mimeType != null )
+        {
+            response.setContentType( mimeType );
+        }
+
+        if ( encoding != null )
+        {
+            response.setHeader( HttpHeaders.CONTENT_ENCODING, encoding );
+        }
+
+        byte[] bytes = content.getContent( encoding );
+        response.setContentLength( bytes.length );
+        response.getOutputStream().write( bytes );
+    }
+
+    /**
+     * @return the encoding of the best variant of the content accepted by the
+     *         client, null for the uncompressed content
+     */
+    private static String getContentEncoding( AppResourceContent content, HttpServletRequest request )
+    {
+        String accepted = request.getHeader( HttpHeaders.ACCEPT_ENCODING );
+
+        if ( accepted == null )
+        {
+            return null;
+        }
+        if ( content.getBrotliContent() != null && isEncodingAccepted( accepted, AppResourceContent.ENCODING_BROTLI ) )
+        {
+            return AppResourceContent.ENCODING_BROTLI;
+        }
+        if ( content.getGzipContent() != null && isEncodingAccepted( accepted, AppResourceContent.ENCODING_GZIP ) )
+        {
+            return AppResourceContent.ENCODING_GZIP;
+        }
+        return null;
+    }
+
+    static boolean isFingerprinted( String filename )
+    {
+        return FINGERPRINTED_FILENAME.matcher( filename ).matches();
+    }
+
+    /**
+     * @param accepted the value of the Accept-Encoding header
+     * @param encoding the content encoding to check
+     * @return true if the encoding is listed, or covered by {@code *}, with a
+     *         quality value above zero
+     */
+    static boolean isEncodingAccepted( String accepted, String encoding )
+    {
+        Double quality = null;
+        Double wildcardQuality = null;
+
+        for ( String coding : accepted.split( "," ) )
+        {
+            String[] parameters = coding.split( ";" );
+            String name = parameters[0].trim();
+            double q = getQuality( parameters );
+
+            if ( name.equalsIgnoreCase( encoding ) )
+            {
+                quality = q;
+            }
+            else if ( "*".equals( name ) )
+            {
+                wildcardQuality = q;
+            }
+        }
+
+        if ( quality == null )
+        {
+            quality = wildcardQuality;
+        }
+
+        return quality != null && quality > 0;
+    }
+
+    private static double getQuality( String[] parameters )
+    {
+        for ( int i = 1; i < parameters.length; i++ )
+        {
+            String parameter = parameters[i].trim();
+
+            if ( parameter.startsWith( "q=" ) || parameter.startsWith( "Q=" ) )
+            {
+                try
+                {
+                    return Double.parseDouble( parameter.substring( 2 ).trim() );
+                }
+                catch ( NumberFormatException ex )
+                {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
     @DeleteMapping( "/{app}" )
     @PreAuthorize( "hasRole('ALL') or hasRole('M_dhis-web-app-management')" )
     @ResponseStatus( HttpStatus.NO_CONTENT )
@@ -82,11 +82,13 @@ public class DataIntegrityController
         @RequestParam( required = false ) List<String> checks,
         @CurrentUser User currentUser )
     {
-        return runDataIntegrityAsync( checks, currentUser, "runDataIntegrity", DataIntegrityReportType.REPORT )
+        return runDataIntegrityAsync( checks, false, currentUser, "runDataIntegrity",
+            DataIntegrityReportType.REPORT )
             .setLocation( "/dataIntegrity/details?checks=" + toChecksList( checks ) );
     }
 
     private WebMessage runDataIntegrityAsync( Collection<String> checks,
+        boolean changesOnly,
         User currentUser,
         String description,
         DataIntegrityReportType type )
@@ -94,6 +96,7 @@ public class DataIntegrityController
         DataIntegrityJobParameters params = new DataIntegrityJobParameters();
         params.setChecks( toUniformCheckNames( checks ) );
         params.setType( type );
+        params.setChangesOnly( changesOnly );
         JobConfiguration config = new JobConfiguration( description, JobType.DATA_INTEGRITY, null,
             params, true, true );
         config.setUserUid( currentUser.getUid() );
@@ -134,9 +137,11 @@ public class DataIntegrityController
     @ResponseBody
     public WebMessage runSummariesCheck(
         @RequestParam( required = false ) Set<String> checks,
+        @RequestParam( required = false ) boolean changesOnly,
         @CurrentUser User currentUser )
     {
-        return runDataIntegrityAsync( checks, currentUser, "runSummariesCheck", DataIntegrityReportType.SUMMARY )
+        return runDataIntegrityAsync( checks, changesOnly, currentUser, "runSummariesCheck",
+            DataIntegrityReportType.SUMMARY )
             .setLocation( "/dataIntegrity/summary?checks=" + toChecksList( checks ) );
     }
 
@@ -155,9 +160,11 @@ public class DataIntegrityController
     @ResponseBody
     public WebMessage runDetailsCheck(
         @RequestParam( required = false ) Set<String> checks,
+        @RequestParam( required = false ) boolean changesOnly,
         @CurrentUser User currentUser )
     {
-        return runDataIntegrityAsync( checks, currentUser, "runDetailsCheck", DataIntegrityReportType.DETAILS )
+        return runDataIntegrityAsync( checks, changesOnly, currentUser, "runDetailsCheck",
+            DataIntegrityReportType.DETAILS )
             .setLocation( "/dataIntegrity/details?checks=" + toChecksList( checks ) );
     }
 
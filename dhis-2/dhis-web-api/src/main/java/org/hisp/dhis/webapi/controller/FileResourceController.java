@@ -108,9 +108,6 @@ public class FileResourceController
             throw new WebMessageException( notFound( FileResource.class, uid ) );
         }
 
-        FileResourceUtils.setImageFileDimensions( fileResource,
-            MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL ) );
-
         if ( !checkSharing( fileResource, currentUser ) )
         {
             throw new WebMessageException(
@@ -118,6 +115,11 @@ public class FileResourceController
                     + "' or this fileResource is not available from this endpoint" ) );
         }
 
+        ImageFileDimension imageDimension = MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL );
+
+        fileResourceService.requestImageFiles( fileResource, imageDimension );
+        FileResourceUtils.setImageFileDimensions( fileResource, imageDimension );
+
         response.setContentType( fileResource.getContentType() );
         response.setHeader( HttpHeaders.CONTENT_LENGTH,
             String.valueOf( fileResourceService.getFileResourceContentLength( fileResource ) ) );
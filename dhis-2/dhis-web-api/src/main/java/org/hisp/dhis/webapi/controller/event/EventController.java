@@ -790,8 +790,10 @@ public class EventController
                     .setResponse( new FileResourceWebMessageResponse( fileResource ) ) );
         }
 
-        FileResourceUtils.setImageFileDimensions( fileResource,
-            MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL ) );
+        ImageFileDimension imageDimension = MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL );
+
+        fileResourceService.requestImageFiles( fileResource, imageDimension );
+        FileResourceUtils.setImageFileDimensions( fileResource, imageDimension );
 
         response.setContentType( fileResource.getContentType() );
         response.setContentLengthLong( fileResource.getContentLength() );
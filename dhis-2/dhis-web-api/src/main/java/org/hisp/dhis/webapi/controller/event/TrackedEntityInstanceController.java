@@ -262,8 +262,10 @@ public class TrackedEntityInstanceController
         // Build response and return
         // ---------------------------------------------------------------------
 
-        FileResourceUtils.setImageFileDimensions( fileResource,
-            MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL ) );
+        ImageFileDimension imageDimension = MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL );
+
+        fileResourceService.requestImageFiles( fileResource, imageDimension );
+        FileResourceUtils.setImageFileDimensions( fileResource, imageDimension );
 
         response.setContentType( fileResource.getContentType() );
         response.setContentLengthLong( fileResource.getContentLength() );
@@ -50,6 +50,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -89,6 +90,7 @@ public class GeoFeatureController
         @RequestParam( required = false ) Date relativePeriodDate,
         @RequestParam( required = false ) String userOrgUnit,
         @RequestParam( required = false ) String coordinateField,
+        @RequestParam( required = false ) Integer zoom,
         @RequestParam( defaultValue = "false", value = "includeGroupSets" ) boolean rpIncludeGroupSets,
         @RequestParam Map<String, String> parameters,
         DhisApiVersion apiVersion,
@@ -108,6 +110,49 @@ public class GeoFeatureController
             .organisationUnitGroupId( oug )
             .relativePeriodDate( relativePeriodDate )
             .coordinateField( coordinateField )
+            .zoom( zoom )
+            .build() );
+
+        return ResponseEntity.ok()
+            .header( HttpHeaders.CACHE_CONTROL, GEOFEATURE_CACHE.getHeaderValue() )
+            .contentType( MediaType.APPLICATION_JSON )
+            .body( features );
+    }
+
+    /**
+     * Returns the features within the map tile given by zoom level and x and y
+     * tile coordinates, with geometries simplified for the zoom level.
+     */
+    @GetMapping( "/tiles/{z}/{x}/{y}" )
+    @ResponseBody
+    public ResponseEntity<List<GeoFeature>> getGeoFeatureTileJson(
+        @PathVariable int z, @PathVariable int x, @PathVariable int y,
+        @RequestParam( required = false ) String ou,
+        @RequestParam( required = false ) String oug,
+        @RequestParam( required = false ) DisplayProperty displayProperty,
+        @RequestParam( required = false ) Date relativePeriodDate,
+        @RequestParam( required = false ) String userOrgUnit,
+        @RequestParam( defaultValue = "false", value = "includeGroupSets" ) boolean rpIncludeGroupSets,
+        @RequestParam Map<String, String> parameters,
+        DhisApiVersion apiVersion,
+        HttpServletRequest request, HttpServletResponse response )
+    {
+        WebOptions options = new WebOptions( parameters );
+        boolean includeGroupSets = "detailed".equals( options.getViewClass() ) || rpIncludeGroupSets;
+
+        List<GeoFeature> features = geoFeatureService.getGeoFeatures( GeoFeatureService.Parameters.builder()
+            .apiVersion( apiVersion )
+            .displayProperty( displayProperty )
+            .includeGroupSets( includeGroupSets )
+            .request( request )
+            .response( response )
+            .organisationUnit( ou )
+            .userOrgUnit( userOrgUnit )
+            .organisationUnitGroupId( oug )
+            .relativePeriodDate( relativePeriodDate )
+            .zoom( z )
+            .tileX( x )
+            .tileY( y )
             .build() );
 
         return ResponseEntity.ok()
@@ -65,6 +65,8 @@ import org.hisp.dhis.analytics.DataQueryService;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
 import org.hisp.dhis.attribute.AttributeValue;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.BaseIdentifiableObject;
 import org.hisp.dhis.common.DataQueryRequest;
 import org.hisp.dhis.common.DhisApiVersion;
@@ -85,6 +87,9 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.util.ObjectUtils;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.hisp.dhis.webapi.webdomain.GeoFeature;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -111,6 +116,20 @@ public class GeoFeatureService
 
     private final AttributeService attributeService;
 
+    /**
+     * Coordinates of simplified geometries by org unit, zoom level and last
+     * updated time, the latter makes sure changed geometries are simplified
+     * again.
+     */
+    private final Cache<String> geometryCache;
+
+    /**
+     * Width in pixels of a map tile at zoom level 0.
+     */
+    private static final int TILE_SIZE = 256;
+
+    private static final int MAX_ZOOM = 22;
+
     /**
      * The {@link GeoFeature#getTy} in the response is integer, so we need to
      * map {@link FeatureType} to integer and return to client.
@@ -121,12 +140,13 @@ public class GeoFeatureService
 
     public GeoFeatureService( DataQueryService dataQueryService,
         OrganisationUnitGroupService organisationUnitGroupService,
-        CurrentUserService currentUserService, AttributeService attributeService )
+        CurrentUserService currentUserService, AttributeService attributeService, CacheProvider cacheProvider )
     {
         this.dataQueryService = dataQueryService;
         this.organisationUnitGroupService = organisationUnitGroupService;
         this.currentUserService = currentUserService;
         this.attributeService = attributeService;
+        this.geometryCache = cacheProvider.createGeoFeatureGeometryCache();
     }
 
     /**
@@ -139,6 +159,8 @@ public class GeoFeatureService
     public List<GeoFeature> getGeoFeatures( Parameters parameters )
     {
         Attribute geoJsonAttribute = validateCoordinateField( parameters.getCoordinateField() );
+        validateZoom( parameters.getZoom() );
+        Envelope tile = getTileEnvelope( parameters );
 
         Set<String> dimensionParams = new HashSet<>();
         dimensionParams.add( parameters.getOrganisationUnit() );
@@ -168,6 +190,7 @@ public class GeoFeatureService
 
         dimensionalItemObjects = dimensionalItemObjects.stream()
             .filter( object -> validateDimensionalItemObject( object, geoJsonAttribute ) )
+            .filter( object -> tile == null || intersects( object, tile ) )
             .collect( Collectors.toList() );
 
         boolean modified = !ContextUtils.clearIfNotModified( parameters.getRequest(), parameters.getResponse(),
@@ -179,7 +202,7 @@ public class GeoFeatureService
         }
 
         return getGeoFeatures( params, dimensionalItemObjects, parameters.isIncludeGroupSets(), useOrgUnitGroup,
-            geoJsonAttribute );
+            geoJsonAttribute, parameters.getZoom() );
     }
 
     /**
@@ -192,11 +215,13 @@ public class GeoFeatureService
      *        features.
      * @param geoJsonAttribute OrganisationUnit attribute used for retrieving
      *        {@link GeoJsonObject}
+     * @param zoom the map zoom level to simplify geometries for, or null to
+     *        return geometries at full resolution.
      * @return a list of {@link GeoFeature}.
      */
     private List<GeoFeature> getGeoFeatures( DataQueryParams params,
         List<DimensionalItemObject> dimensionalItemObjects, boolean includeGroupSets, boolean useOrgUnitGroup,
-        Attribute geoJsonAttribute )
+        Attribute geoJsonAttribute, Integer zoom )
     {
         List<GeoFeature> features = new ArrayList<>();
 
@@ -239,7 +264,7 @@ public class GeoFeatureService
                 }
             }
 
-            getCoordinates( feature, unit, geoJsonAttribute );
+            getCoordinates( feature, unit, geoJsonAttribute, zoom );
 
             feature.setNa( unit.getDisplayProperty( params.getDisplayProperty() ) );
             features.add( feature );
@@ -256,10 +281,11 @@ public class GeoFeatureService
      * @param feature the {@link GeoFeature}
      * @param unit the {@link DimensionalItemObject} contains the coordinate
      *        values.
+     * @param zoom the map zoom level to simplify polygons for, or null.
      * @return the given {@link GeoFeature} with updated coordinate value and
      *         coordinate type.
      */
-    private void getCoordinates( GeoFeature feature, DimensionalItemObject unit )
+    private void getCoordinates( GeoFeature feature, DimensionalItemObject unit, Integer zoom )
     {
         if ( !CoordinateObject.class.isAssignableFrom( unit.getClass() ) )
         {
@@ -271,10 +297,100 @@ public class GeoFeatureService
         Integer ty = coordinateObject.getFeatureType() != null
             ? FEATURE_TYPE_MAP.get( coordinateObject.getFeatureType() )
             : null;
-        feature.setCo( coordinateObject.getCoordinates() );
+        boolean simplify = zoom != null && unit instanceof OrganisationUnit
+            && coordinateObject.getFeatureType() != null && coordinateObject.getFeatureType().isPolygon();
+        feature.setCo( simplify
+            ? getSimplifiedCoordinates( (OrganisationUnit) unit, zoom )
+            : coordinateObject.getCoordinates() );
         feature.setTy( ObjectUtils.firstNonNull( ty, 0 ) );
     }
 
+    /**
+     * Returns the coordinates of the geometry of the given org unit simplified
+     * for the given zoom level. Simplified coordinates are cached until the org
+     * unit is updated.
+     */
+    private String getSimplifiedCoordinates( OrganisationUnit unit, int zoom )
+    {
+        String key = unit.getUid() + ":" + zoom + ":"
+            + (unit.getLastUpdated() != null ? unit.getLastUpdated().getTime() : 0);
+
+        return geometryCache.get( key,
+            k -> unit.extractCoordinates( simplify( unit.getGeometry(), zoom ) ) );
+    }
+
+    /**
+     * Simplifies the given geometry for display at the given zoom level using
+     * a topology preserving Douglas-Peucker simplification with a tolerance of
+     * the width of a single pixel at that zoom level.
+     *
+     * @param geometry the {@link Geometry} to simplify.
+     * @param zoom the map zoom level.
+     * @return the simplified geometry.
+     */
+    static Geometry simplify( Geometry geometry, int zoom )
+    {
+        return TopologyPreservingSimplifier.simplify( geometry, getTolerance( zoom ) );
+    }
+
+    /**
+     * Returns the width of a single pixel in degrees at the given zoom level.
+     */
+    static double getTolerance( int zoom )
+    {
+        return 360d / (TILE_SIZE * Math.pow( 2, zoom ));
+    }
+
+    /**
+     * Returns the envelope in longitude and latitude of the map tile given by
+     * the zoom level and x and y parameters, or null if no tile is requested.
+     */
+    static Envelope getTileEnvelope( Parameters parameters )
+    {
+        if ( parameters.getZoom() == null || parameters.getTileX() == null || parameters.getTileY() == null )
+        {
+            return null;
+        }
+
+        int zoom = parameters.getZoom();
+        int x = parameters.getTileX();
+        int y = parameters.getTileY();
+        int tiles = 1 << zoom;
+
+        if ( x < 0 || x >= tiles || y < 0 || y >= tiles )
+        {
+            throw new IllegalArgumentException( String.format( "Invalid tile: %d/%d/%d", zoom, x, y ) );
+        }
+
+        return new Envelope( getTileLongitude( x, tiles ), getTileLongitude( x + 1, tiles ),
+            getTileLatitude( y + 1, tiles ), getTileLatitude( y, tiles ) );
+    }
+
+    private static void validateZoom( Integer zoom )
+    {
+        if ( zoom != null && (zoom < 0 || zoom > MAX_ZOOM) )
+        {
+            throw new IllegalArgumentException( "Zoom must be between 0 and " + MAX_ZOOM + " but was: " + zoom );
+        }
+    }
+
+    private static double getTileLongitude( int x, int tiles )
+    {
+        return x * 360d / tiles - 180d;
+    }
+
+    private static double getTileLatitude( int y, int tiles )
+    {
+        return Math.toDegrees( Math.atan( Math.sinh( Math.PI * (1 - 2d * y / tiles) ) ) );
+    }
+
+    private static boolean intersects( Object object, Envelope tile )
+    {
+        return object instanceof OrganisationUnit
+            && ((OrganisationUnit) object).getGeometry() != null
+            && tile.intersects( ((OrganisationUnit) object).getGeometry().getEnvelopeInternal() );
+    }
+
     /**
      * Get the {@link GeoFeature} coordinate from {@link DimensionalItemObject}
      * <p>
@@ -287,14 +403,17 @@ public class GeoFeatureService
      * @param geoJsonAttribute The {@link Attribute} which has
      *        {@link ValueType#GEOJSON} and is assigned to
      *        {@link OrganisationUnit}.
+     * @param zoom the map zoom level to simplify the geometry field for, or
+     *        null.
      * @return the given {@link GeoFeature} with updated coordinate value and
      *         coordinate type.
      */
-    private void getCoordinates( GeoFeature feature, DimensionalItemObject unit, Attribute geoJsonAttribute )
+    private void getCoordinates( GeoFeature feature, DimensionalItemObject unit, Attribute geoJsonAttribute,
+        Integer zoom )
     {
         if ( geoJsonAttribute == null )
         {
-            getCoordinates( feature, unit );
+            getCoordinates( feature, unit, zoom );
             return;
         }
 
@@ -311,7 +430,7 @@ public class GeoFeatureService
 
         if ( !geoJsonAttributeValue.isPresent() || StringUtils.isBlank( geoJsonAttributeValue.get().getValue() ) )
         {
-            getCoordinates( feature, unit );
+            getCoordinates( feature, unit, zoom );
             return;
         }
 
@@ -332,7 +451,7 @@ public class GeoFeatureService
         catch ( JsonProcessingException e )
         {
             log.error( String.format( "Couldn't read GeoJson value from organisationUnit %s: ", organisationUnit ), e );
-            getCoordinates( feature, unit );
+            getCoordinates( feature, unit, zoom );
         }
     }
 
@@ -556,6 +675,24 @@ public class GeoFeatureService
          * DHIS2 Api Version.
          */
         private DhisApiVersion apiVersion;
+
+        /**
+         * The map zoom level to simplify geometries for, full resolution
+         * geometries are returned if not specified.
+         */
+        private Integer zoom;
+
+        /**
+         * The x coordinate of the map tile to return features for, requires
+         * zoom and tileY.
+         */
+        private Integer tileX;
+
+        /**
+         * The y coordinate of the map tile to return features for, requires
+         * zoom and tileX.
+         */
+        private Integer tileY;
     }
 
     /**
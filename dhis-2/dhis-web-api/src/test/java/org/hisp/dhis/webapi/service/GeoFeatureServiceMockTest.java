@@ -29,6 +29,8 @@ package org.hisp.dhis.webapi.service;
 
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -44,6 +46,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.data.DefaultDataQueryService;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
+import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.organisationunit.DefaultOrganisationUnitGroupService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -52,6 +55,8 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.webapi.webdomain.GeoFeature;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -81,6 +86,9 @@ public class GeoFeatureServiceMockTest
     @Mock
     private AttributeService attributeService;
 
+    @Mock
+    private CacheProvider cacheProvider;
+
     private final static String POINT = "{" +
         "\"type\": \"Point\"," +
         "\"coordinates\": [" +
@@ -89,6 +97,13 @@ public class GeoFeatureServiceMockTest
         "]" +
         "}";
 
+    private final static String POLYGON = "{" +
+        "\"type\": \"Polygon\"," +
+        "\"coordinates\": [[" +
+        "[0.0, 0.0], [10.0, 0.0], [10.0, 10.0], [5.0, 5.001], [0.0, 0.0]" +
+        "]]" +
+        "}";
+
     private final BeanRandomizer rnd = BeanRandomizer.create( OrganisationUnit.class, "parent", "geometry" );
 
     @Test
@@ -158,6 +173,57 @@ public class GeoFeatureServiceMockTest
         assertEquals( 0, features.size() );
     }
 
+    @Test
+    void testGeoFeaturesWithinTile()
+        throws Exception
+    {
+        OrganisationUnit ouA = createOrgUnitWithCoordinates();
+        User user = rnd.nextObject( User.class );
+        DataQueryParams params = DataQueryParams.newBuilder().withOrganisationUnits( getList( ouA ) )
+            .build();
+
+        when( dataQueryService.getFromRequest( any() ) ).thenReturn( params );
+        when( currentUserService.getCurrentUser() ).thenReturn( user );
+        HttpServletRequest request = mock( HttpServletRequest.class );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+
+        GeoFeatureService.Parameters.ParametersBuilder parameters = GeoFeatureService.Parameters.builder()
+            .request( request )
+            .response( response )
+            .organisationUnit( "ou:LEVEL-2;LEVEL-3" )
+            .zoom( 1 )
+            .tileY( 0 );
+
+        assertEquals( 1, geoFeatureService.getGeoFeatures( parameters.tileX( 1 ).build() ).size() );
+        assertEquals( 0, geoFeatureService.getGeoFeatures( parameters.tileX( 0 ).build() ).size() );
+    }
+
+    @Test
+    void testGetTileEnvelope()
+    {
+        Envelope tile = GeoFeatureService.getTileEnvelope( GeoFeatureService.Parameters.builder()
+            .zoom( 1 ).tileX( 0 ).tileY( 0 ).build() );
+
+        assertEquals( -180d, tile.getMinX(), 0.0001 );
+        assertEquals( 0d, tile.getMaxX(), 0.0001 );
+        assertEquals( 0d, tile.getMinY(), 0.0001 );
+        assertEquals( 85.0511, tile.getMaxY(), 0.0001 );
+
+        assertNull( GeoFeatureService.getTileEnvelope( GeoFeatureService.Parameters.builder().zoom( 1 ).build() ) );
+        assertThrows( IllegalArgumentException.class, () -> GeoFeatureService.getTileEnvelope(
+            GeoFeatureService.Parameters.builder().zoom( 1 ).tileX( 2 ).tileY( 0 ).build() ) );
+    }
+
+    @Test
+    void testSimplify()
+        throws IOException
+    {
+        Geometry polygon = new GeometryJSON().read( POLYGON );
+
+        assertEquals( 5, GeoFeatureService.simplify( polygon, 18 ).getNumPoints() );
+        assertEquals( 4, GeoFeatureService.simplify( polygon, 4 ).getNumPoints() );
+    }
+
     private OrganisationUnit createOrgUnitWithoutCoordinates()
     {
         return rnd.nextObject( OrganisationUnit.class );